@@ -0,0 +1,32 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler enabled so that allocated bytes per
+ * operation are reported in addition to throughput and latency percentiles.
+ * <p>
+ * Accepts the same command line options as {@link org.openjdk.jmh.Main}.
+ */
+public final class BenchmarkRunner {
+
+  private BenchmarkRunner() {
+    throw new AssertionError("not instantiable");
+  }
+
+  public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+    CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+    Options options = new OptionsBuilder()
+        .parent(commandLineOptions)
+        .addProfiler(GCProfiler.class)
+        .build();
+    new Runner(options).run();
+  }
+
+}
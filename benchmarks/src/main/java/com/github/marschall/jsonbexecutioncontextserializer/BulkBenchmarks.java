@@ -0,0 +1,87 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares processing a batch of contexts one after the other with the
+ * bulk methods.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkBenchmarks {
+
+  @Param({"COUNTERS", "LARGE_LIST"})
+  public ContextShape shape;
+
+  @Param({"64"})
+  public int batchSize;
+
+  private JsonbExecutionContextSerializer serializer;
+
+  private List<Map<String, Object>> contexts;
+
+  private List<byte[]> serialized;
+
+  @Setup
+  public void setUp() throws IOException {
+    this.serializer = new JsonbExecutionContextSerializer();
+    this.contexts = new ArrayList<>(this.batchSize);
+    for (int i = 0; i < this.batchSize; i++) {
+      this.contexts.add(this.shape.createContext());
+    }
+    this.serialized = this.serializer.serializeAll(this.contexts);
+  }
+
+  @Benchmark
+  public List<byte[]> serializeSequential() throws IOException {
+    List<byte[]> result = new ArrayList<>(this.contexts.size());
+    for (Map<String, Object> context : this.contexts) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      this.serializer.serialize(context, out);
+      result.add(out.toByteArray());
+    }
+    return result;
+  }
+
+  @Benchmark
+  public List<byte[]> serializeAll() throws IOException {
+    return this.serializer.serializeAll(this.contexts);
+  }
+
+  @Benchmark
+  public List<Map<String, Object>> deserializeSequential() throws IOException {
+    List<Map<String, Object>> result = new ArrayList<>(this.serialized.size());
+    for (byte[] each : this.serialized) {
+      result.add(this.serializer.deserialize(new ByteArrayInputStream(each)));
+    }
+    return result;
+  }
+
+  @Benchmark
+  public List<Map<String, Object>> deserializeAll() throws IOException {
+    return this.serializer.deserializeAll(this.serialized);
+  }
+
+}
@@ -0,0 +1,58 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the overhead of sorting the keys of serialized contexts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CanonicalOutputBenchmarks {
+
+  @Param({"COUNTERS", "LARGE_LIST"})
+  public ContextShape shape;
+
+  @Param({"true", "false"})
+  public boolean canonicalOutput;
+
+  private JsonbExecutionContextSerializer serializer;
+
+  private Map<String, Object> context;
+
+  @Setup
+  public void setUp() {
+    JsonbExecutionContextSerializer.Builder builder = JsonbExecutionContextSerializer.builder();
+    if (this.canonicalOutput) {
+      builder.canonicalOutput();
+    }
+    this.serializer = builder.build();
+    this.context = this.shape.createContext();
+  }
+
+  @Benchmark
+  public byte[] serialize() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    this.serializer.serialize(this.context, out);
+    return out.toByteArray();
+  }
+
+}
@@ -0,0 +1,49 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the cost of class lookups through {@link ClassResolver} against
+ * {@link ClassLoader#loadClass(String)} under contention.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class ClassResolverBenchmarks {
+
+  private static final String CLASS_NAME = Person.class.getName();
+
+  private ClassResolver classResolver;
+
+  @Setup
+  public void setUp() {
+    this.classResolver = new ClassResolver();
+  }
+
+  @Benchmark
+  public Class<?> classResolver() throws ClassNotFoundException {
+    return this.classResolver.resolveClass(CLASS_NAME);
+  }
+
+  @Benchmark
+  public Class<?> loadClass() throws ClassNotFoundException {
+    return Thread.currentThread().getContextClassLoader().loadClass(CLASS_NAME);
+  }
+
+}
@@ -0,0 +1,105 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Shows the CPU versus size tradeoff of the compression codecs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompressionBenchmarks {
+
+  public enum Codec {
+
+    NONE {
+      @Override
+      CompressionCodec createCodec() {
+        return null;
+      }
+    },
+
+    DEFLATE_FAST {
+      @Override
+      CompressionCodec createCodec() {
+        return CompressionCodec.deflate(Deflater.BEST_SPEED);
+      }
+    },
+
+    DEFLATE {
+      @Override
+      CompressionCodec createCodec() {
+        return CompressionCodec.deflate();
+      }
+    },
+
+    GZIP {
+      @Override
+      CompressionCodec createCodec() {
+        return CompressionCodec.gzip();
+      }
+    };
+
+    abstract CompressionCodec createCodec();
+
+  }
+
+  @Param({"NONE", "DEFLATE_FAST", "DEFLATE", "GZIP"})
+  public Codec codec;
+
+  @Param({"COUNTERS", "LARGE_LIST"})
+  public ContextShape shape;
+
+  private JsonbExecutionContextSerializer serializer;
+
+  private Map<String, Object> context;
+
+  private byte[] serialized;
+
+  @Setup
+  public void setUp() throws IOException {
+    JsonbExecutionContextSerializer.Builder builder = JsonbExecutionContextSerializer.builder();
+    CompressionCodec compressionCodec = this.codec.createCodec();
+    if (compressionCodec != null) {
+      builder.compression(compressionCodec, 0);
+    }
+    this.serializer = builder.build();
+    this.context = this.shape.createContext();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    this.serializer.serialize(this.context, out);
+    this.serialized = out.toByteArray();
+  }
+
+  @Benchmark
+  public ByteArrayOutputStream serialize() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(this.serialized.length);
+    this.serializer.serialize(this.context, out);
+    return out;
+  }
+
+  @Benchmark
+  public Map<String, Object> deserialize() throws IOException {
+    return this.serializer.deserialize(new ByteArrayInputStream(this.serialized));
+  }
+
+}
@@ -0,0 +1,157 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+
+/**
+ * Realistic shapes of execution contexts.
+ */
+public enum ContextShape {
+
+  /**
+   * The state of a file based reader and writer, mostly counters and offsets.
+   */
+  COUNTERS {
+
+    @Override
+    Map<String, Object> createContext() {
+      Map<String, Object> context = new HashMap<>();
+      context.put("FlatFileItemReader.read.count", 12_345L);
+      context.put("FlatFileItemReader.read.count.max", 100_000L);
+      context.put("FlatFileItemWriter.current.count", 1_234_567L);
+      context.put("FlatFileItemWriter.written", 12_345L);
+      context.put("JdbcPagingItemReader.start.after", 987_654_321L);
+      context.put("batch.taskletType", "org.springframework.batch.core.step.item.ChunkOrientedTasklet");
+      context.put("batch.stepType", "org.springframework.batch.core.step.tasklet.TaskletStep");
+      context.put("restart", Boolean.FALSE);
+      return context;
+    }
+
+  },
+
+  /**
+   * Job parameters copied into the step context by a listener.
+   */
+  JOB_PARAMETERS {
+
+    @Override
+    Map<String, Object> createContext() {
+      JobParameters jobParameters = new JobParametersBuilder()
+          .addString("input.file", "file:/data/in/customers-2023-10-17.csv")
+          .addLong("run.id", 42L)
+          .addLong("chunk.size", 10L, false)
+          .addDouble("threshold", 0.75d, false)
+          .addString("tenant", "acme")
+          .toJobParameters();
+      Map<String, Object> context = new HashMap<>();
+      context.put("jobParameters", jobParameters);
+      return context;
+    }
+
+  },
+
+  /**
+   * {@code java.time} values like timestamps and durations.
+   */
+  JAVA_TIME {
+
+    @Override
+    Map<String, Object> createContext() {
+      LocalDateTime localDateTime = LocalDateTime.of(2023, 10, 17, 20, 38, 21, 123456789);
+      Map<String, Object> context = new HashMap<>();
+      context.put("business.date", localDateTime.toLocalDate());
+      context.put("cutoff", localDateTime);
+      context.put("last.modified", OffsetDateTime.of(localDateTime, ZoneOffset.ofHours(2)));
+      context.put("started", Instant.ofEpochSecond(1697567901L, 123456789L));
+      context.put("timeout", Duration.ofMinutes(30L));
+      context.put("valid.from", LocalDate.of(2023, 1, 1));
+      return context;
+    }
+
+    @Override
+    boolean requiresJavaTime() {
+      return true;
+    }
+
+  },
+
+  /**
+   * A nested POJO.
+   */
+  POJO {
+
+    @Override
+    Map<String, Object> createContext() {
+      Map<String, Object> context = new HashMap<>();
+      context.put("FlatFileItemReader.read.count", 12_345L);
+      context.put("last.person", Person.bob());
+      return context;
+    }
+
+  },
+
+  /**
+   * Large lists of processed ids and file names.
+   */
+  LARGE_LIST {
+
+    @Override
+    Map<String, Object> createContext() {
+      int size = 1_000;
+      List<Long> ids = new ArrayList<>(size);
+      List<String> fileNames = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        ids.add(1_000_000L + i);
+        fileNames.add("customers-" + i + ".csv");
+      }
+      Map<String, Object> context = new HashMap<>();
+      context.put("processed.ids", ids);
+      context.put("processed.files", fileNames);
+      return context;
+    }
+
+  },
+
+  /**
+   * Several POJOs and a large list, many values bound by JSON-B.
+   */
+  POJOS_AND_LIST {
+
+    @Override
+    Map<String, Object> createContext() {
+      Map<String, Object> context = new HashMap<>();
+      for (int i = 0; i < 20; i++) {
+        context.put("person." + i, Person.bob());
+      }
+      int size = 2_000;
+      List<Long> ids = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        ids.add(1_000_000L + i);
+      }
+      context.put("processed.ids", ids);
+      return context;
+    }
+
+  };
+
+  abstract Map<String, Object> createContext();
+
+  /**
+   * Whether Jackson needs the JSR-310 module for this shape.
+   */
+  boolean requiresJavaTime() {
+    return false;
+  }
+
+}
@@ -0,0 +1,63 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares serializing with and without writing bytes directly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DirectWriterBenchmarks {
+
+  @Param({"COUNTERS", "POJO"})
+  public ContextShape shape;
+
+  @Param({"UTF-8", "ISO-8859-1"})
+  public String encoding;
+
+  @Param({"true", "false"})
+  public boolean directWriter;
+
+  private JsonbExecutionContextSerializer serializer;
+
+  private Map<String, Object> context;
+
+  @Setup
+  public void setUp() {
+    JsonbExecutionContextSerializer.Builder builder = JsonbExecutionContextSerializer.builder()
+                                                                                     .encoding(Charset.forName(this.encoding));
+    if (!this.directWriter) {
+      builder.noDirectWriter();
+    }
+    this.serializer = builder.build();
+    this.context = this.shape.createContext();
+  }
+
+  @Benchmark
+  public ByteArrayOutputStream serialize() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+    this.serializer.serialize(this.context, out);
+    return out;
+  }
+
+}
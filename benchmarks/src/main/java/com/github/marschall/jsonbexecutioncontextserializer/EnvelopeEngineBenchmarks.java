@@ -0,0 +1,70 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares reading and writing the envelope with JSON-P factories against
+ * going through JSON-B for every context.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EnvelopeEngineBenchmarks {
+
+  @Param({"COUNTERS", "JOB_PARAMETERS", "JAVA_TIME", "POJO", "POJOS_AND_LIST"})
+  public ContextShape shape;
+
+  @Param({"true", "false"})
+  public boolean envelopeEngine;
+
+  private JsonbExecutionContextSerializer serializer;
+
+  private Map<String, Object> context;
+
+  private byte[] serialized;
+
+  @Setup
+  public void setUp() throws IOException {
+    JsonbExecutionContextSerializer.Builder builder = JsonbExecutionContextSerializer.builder();
+    if (!this.envelopeEngine) {
+      builder.noEnvelopeEngine();
+    }
+    this.serializer = builder.build();
+    this.context = this.shape.createContext();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    this.serializer.serialize(this.context, out);
+    this.serialized = out.toByteArray();
+  }
+
+  @Benchmark
+  public ByteArrayOutputStream serialize() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+    this.serializer.serialize(this.context, out);
+    return out;
+  }
+
+  @Benchmark
+  public Map<String, Object> deserialize() throws IOException {
+    return this.serializer.deserialize(new ByteArrayInputStream(this.serialized));
+  }
+
+}
@@ -0,0 +1,70 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+
+/**
+ * Compares {@link JsonbExecutionContextSerializer} against
+ * {@link org.springframework.batch.core.repository.dao.Jackson2ExecutionContextStringSerializer}
+ * for different shapes of execution contexts.
+ * <p>
+ * Run through {@link BenchmarkRunner} to get allocated bytes per operation.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Benchmark)
+public class ExecutionContextSerializerBenchmarks {
+
+  @Param
+  public SerializerType serializerType;
+
+  @Param
+  public ContextShape shape;
+
+  private ExecutionContextSerializer serializer;
+
+  private Map<String, Object> context;
+
+  private byte[] serialized;
+
+  @Setup
+  public void setUp() throws IOException {
+    this.serializer = this.serializerType.createSerializer(this.shape);
+    this.context = this.shape.createContext();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    this.serializer.serialize(this.context, out);
+    this.serialized = out.toByteArray();
+  }
+
+  @Benchmark
+  public ByteArrayOutputStream serialize() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(this.serialized.length);
+    this.serializer.serialize(this.context, out);
+    return out;
+  }
+
+  @Benchmark
+  public Map<String, Object> deserialize() throws IOException {
+    return this.serializer.deserialize(new ByteArrayInputStream(this.serialized));
+  }
+
+}
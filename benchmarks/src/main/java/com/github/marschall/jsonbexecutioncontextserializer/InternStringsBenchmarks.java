@@ -0,0 +1,63 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the overhead of deduplicating the keys and string values of
+ * deserialized contexts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InternStringsBenchmarks {
+
+  @Param({"COUNTERS", "LARGE_LIST"})
+  public ContextShape shape;
+
+  @Param({"true", "false"})
+  public boolean internStrings;
+
+  private JsonbExecutionContextSerializer serializer;
+
+  private Map<String, Object> context;
+
+  private byte[] serialized;
+
+  @Setup
+  public void setUp() throws IOException {
+    JsonbExecutionContextSerializer.Builder builder = JsonbExecutionContextSerializer.builder();
+    if (this.internStrings) {
+      builder.internStrings(4096, 64);
+    }
+    this.serializer = builder.build();
+    this.context = this.shape.createContext();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    this.serializer.serialize(this.context, out);
+    this.serialized = out.toByteArray();
+  }
+
+  @Benchmark
+  public Map<String, Object> deserialize() throws IOException {
+    return this.serializer.deserialize(new ByteArrayInputStream(this.serialized));
+  }
+
+}
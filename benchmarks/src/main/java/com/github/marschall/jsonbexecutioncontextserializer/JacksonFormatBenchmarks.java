@@ -0,0 +1,75 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+
+/**
+ * Compares reading contexts stored by Jackson with Jackson and with the
+ * Jackson format reader, and measures transcoding them as done by
+ * {@link ExecutionContextMigration}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JacksonFormatBenchmarks {
+
+  @Param({"COUNTERS", "LARGE_LIST"})
+  public ContextShape shape;
+
+  private ExecutionContextSerializer jackson;
+
+  private JsonbExecutionContextSerializer serializer;
+
+  private byte[] serialized;
+
+  @Setup
+  public void setUp() throws IOException {
+    this.jackson = SerializerType.JACKSON.createSerializer(this.shape);
+    this.serializer = JsonbExecutionContextSerializer.builder()
+                                                     .compactFormat()
+                                                     .build();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    // the map type JdbcExecutionContextDao passes
+    this.jackson.serialize(new HashMap<>(this.shape.createContext()), out);
+    this.serialized = out.toByteArray();
+  }
+
+  @Benchmark
+  public Map<String, Object> deserializeJackson() throws IOException {
+    return this.jackson.deserialize(new ByteArrayInputStream(this.serialized));
+  }
+
+  @Benchmark
+  public Map<String, Object> deserializeJsonb() throws IOException {
+    return this.serializer.deserialize(new ByteArrayInputStream(this.serialized));
+  }
+
+  @Benchmark
+  public byte[] transcode() throws IOException {
+    Map<String, Object> context = this.serializer.deserialize(new ByteArrayInputStream(this.serialized));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    this.serializer.serialize(context, out);
+    return out.toByteArray();
+  }
+
+}
@@ -0,0 +1,66 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reads a single key of a context, eagerly and lazily deserialized.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LazyDeserializationBenchmarks {
+
+  @Param({"POJO", "LARGE_LIST"})
+  public ContextShape shape;
+
+  @Param({"false", "true"})
+  public boolean binary;
+
+  private JsonbExecutionContextSerializer serializer;
+
+  private byte[] serialized;
+
+  private String key;
+
+  @Setup
+  public void setUp() throws IOException {
+    JsonbExecutionContextSerializer.Builder builder = JsonbExecutionContextSerializer.builder();
+    if (this.binary) {
+      builder.binaryFormat();
+    }
+    this.serializer = builder.build();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    this.serializer.serialize(this.shape.createContext(), out);
+    this.serialized = out.toByteArray();
+    this.key = this.shape == ContextShape.LARGE_LIST ? "processed.files" : "FlatFileItemReader.read.count";
+  }
+
+  @Benchmark
+  public Object eager() throws IOException {
+    return this.serializer.deserialize(new ByteArrayInputStream(this.serialized)).get(this.key);
+  }
+
+  @Benchmark
+  public Object lazy() throws IOException {
+    return this.serializer.deserializeLazily(new ByteArrayInputStream(this.serialized)).get(this.key);
+  }
+
+}
@@ -0,0 +1,71 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.util.Objects;
+
+/**
+ * A nested POJO as it is typically stored in an execution context.
+ */
+public class Person {
+
+  public String name;
+  public int age;
+  public Address address;
+
+  static Person bob() {
+    Person person = new Person();
+    person.name = "Bob";
+    person.age = 28;
+    person.address = new Address();
+    person.address.street = "Bahnhofstrasse 1";
+    person.address.zip = "8001";
+    person.address.city = "Zürich";
+    return person;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof Person)) {
+      return false;
+    }
+    Person other = (Person) obj;
+    return (this.age == other.age)
+        && Objects.equals(this.name, other.name)
+        && Objects.equals(this.address, other.address);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.name, this.age, this.address);
+  }
+
+  public static class Address {
+
+    public String street;
+    public String zip;
+    public String city;
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Address)) {
+        return false;
+      }
+      Address other = (Address) obj;
+      return Objects.equals(this.street, other.street)
+          && Objects.equals(this.zip, other.zip)
+          && Objects.equals(this.city, other.city);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(this.street, this.zip, this.city);
+    }
+
+  }
+
+}
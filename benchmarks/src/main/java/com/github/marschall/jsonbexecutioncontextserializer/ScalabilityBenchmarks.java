@@ -0,0 +1,166 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.core.JobParameter;
+
+/**
+ * Measures how the throughput of a shared serializer scales with the number
+ * of threads.
+ * <p>
+ * Every invocation performs the same number of operations split between
+ * the threads, with linear scaling the throughput grows with the number of
+ * threads up to the number of cores. Every thread works on its own context
+ * with the same keys and different values, like the partitions of a
+ * partitioned step.
+ * <p>
+ * {@link ThreadType#VIRTUAL} requires Java 21 or later.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScalabilityBenchmarks {
+
+  private static final int OPERATIONS = 1024;
+
+  @Param({"1", "2", "4", "8", "16", "32", "64"})
+  public int threads;
+
+  @Param({"PLATFORM", "VIRTUAL"})
+  public ThreadType threadType;
+
+  private ExecutorService executor;
+
+  private JsonbExecutionContextSerializer serializer;
+
+  private ClassResolver classResolver;
+
+  private List<Map<String, Object>> contexts;
+
+  private List<Map<String, Object>> jobParameterContexts;
+
+  private List<byte[]> serializedJobParameterContexts;
+
+  @Setup
+  public void setUp() throws IOException {
+    this.executor = this.threadType.newExecutor(this.threads);
+    this.serializer = JsonbExecutionContextSerializer.builder()
+                                                     .fragmentCache(256, 1024)
+                                                     .build();
+    this.classResolver = new ClassResolver();
+    this.contexts = new ArrayList<>(this.threads);
+    this.jobParameterContexts = new ArrayList<>(this.threads);
+    this.serializedJobParameterContexts = new ArrayList<>(this.threads);
+    for (int i = 0; i < this.threads; i++) {
+      Map<String, Object> context = ContextShape.POJO.createContext();
+      context.putAll(ContextShape.COUNTERS.createContext());
+      context.put("partition.name", "partition" + i);
+      this.contexts.add(context);
+
+      Map<String, Object> jobParameterContext = jobParameterContext(i);
+      this.jobParameterContexts.add(jobParameterContext);
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      this.serializer.serialize(jobParameterContext, out);
+      this.serializedJobParameterContexts.add(out.toByteArray());
+    }
+  }
+
+  private static Map<String, Object> jobParameterContext(int partition) {
+    // no dedicated codecs, use the conversion service
+    Map<String, Object> context = new HashMap<>();
+    context.put("input.uri", new JobParameter<>(URI.create("file:/data/in/partition-" + partition + ".csv"), URI.class));
+    context.put("run.id", new JobParameter<>(new UUID(partition, 42L), UUID.class));
+    return context;
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.executor.shutdown();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(OPERATIONS)
+  public void roundTrip() throws Exception {
+    this.runPartitions(partition -> {
+      Map<String, Object> context = this.contexts.get(partition);
+      ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+      this.serializer.serialize(context, out);
+      return this.serializer.deserialize(new ByteArrayInputStream(out.toByteArray()));
+    });
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(OPERATIONS)
+  public void resolveClass() throws Exception {
+    String className = Person.class.getName();
+    this.runPartitions(partition -> this.classResolver.resolveClass(className));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(OPERATIONS)
+  public void jobParameterConversion() throws Exception {
+    this.runPartitions(partition -> {
+      ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+      this.serializer.serialize(this.jobParameterContexts.get(partition), out);
+      return this.serializer.deserialize(new ByteArrayInputStream(this.serializedJobParameterContexts.get(partition)));
+    });
+  }
+
+  private void runPartitions(PartitionOperation operation) throws Exception {
+    int operationsPerThread = OPERATIONS / this.threads;
+    List<Future<Object>> futures = new ArrayList<>(this.threads);
+    for (int i = 0; i < this.threads; i++) {
+      int partition = i;
+      futures.add(this.executor.submit(() -> {
+        Object last = null;
+        for (int j = 0; j < operationsPerThread; j++) {
+          last = operation.run(partition);
+        }
+        return last;
+      }));
+    }
+    for (Future<Object> future : futures) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        throw (Exception) e.getCause();
+      }
+    }
+  }
+
+  @FunctionalInterface
+  interface PartitionOperation {
+
+    Object run(int partition) throws Exception;
+
+  }
+
+}
@@ -0,0 +1,71 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+import org.springframework.batch.core.repository.dao.Jackson2ExecutionContextStringSerializer;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectMapper.DefaultTyping;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * The {@link ExecutionContextSerializer} implementations that are compared.
+ */
+public enum SerializerType {
+
+  /**
+   * {@link JsonbExecutionContextSerializer} with the default configuration.
+   */
+  JSONB {
+
+    @Override
+    ExecutionContextSerializer createSerializer(ContextShape shape) {
+      return new JsonbExecutionContextSerializer();
+    }
+
+  },
+
+  /**
+   * {@link JsonbExecutionContextSerializer} writing the compact binary format.
+   */
+  JSONB_BINARY {
+
+    @Override
+    ExecutionContextSerializer createSerializer(ContextShape shape) {
+      return JsonbExecutionContextSerializer.builder()
+                                            .compactFormat()
+                                            .binaryFormat()
+                                            .build();
+    }
+
+  },
+
+  /**
+   * Spring Batch's {@link Jackson2ExecutionContextStringSerializer} with the default
+   * configuration, the JSR-310 module is added only if the shape requires it.
+   */
+  JACKSON {
+
+    @Override
+    ExecutionContextSerializer createSerializer(ContextShape shape) {
+      Jackson2ExecutionContextStringSerializer serializer = new Jackson2ExecutionContextStringSerializer(
+          Person.class.getName(), Person.Address.class.getName());
+      if (shape.requiresJavaTime()) {
+        // java.time classes are final and therefore get no type information with the default typing
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.activateDefaultTyping(BasicPolymorphicTypeValidator.builder()
+                                                                         .allowIfBaseType(Object.class)
+                                                                         .build(),
+            DefaultTyping.EVERYTHING, JsonTypeInfo.As.PROPERTY);
+        serializer.setObjectMapper(objectMapper);
+      }
+      return serializer;
+    }
+
+  };
+
+  abstract ExecutionContextSerializer createSerializer(ContextShape shape);
+
+}
@@ -0,0 +1,46 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The kinds of threads a serializer is shared between.
+ */
+public enum ThreadType {
+
+  /**
+   * A fixed pool of platform threads, like a {@code TaskExecutor} of a
+   * partitioned or multi-threaded step.
+   */
+  PLATFORM {
+
+    @Override
+    ExecutorService newExecutor(int threads) {
+      return Executors.newFixedThreadPool(threads);
+    }
+
+  },
+
+  /**
+   * A virtual thread per task, requires Java 21 or later.
+   */
+  VIRTUAL {
+
+    @Override
+    ExecutorService newExecutor(int threads) {
+      // the benchmarks are compiled for Java 17
+      try {
+        return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      } catch (NoSuchMethodException e) {
+        throw new UnsupportedOperationException("virtual threads require Java 21 or later", e);
+      } catch (IllegalAccessException | InvocationTargetException e) {
+        throw new IllegalStateException("could not create virtual thread executor", e);
+      }
+    }
+
+  };
+
+  abstract ExecutorService newExecutor(int threads);
+
+}
@@ -0,0 +1,86 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Stores and detects contexts in the binary format.
+ *
+ * <h2>Format</h2>
+ * An uncompressed binary context starts with the four ASCII characters
+ * {@code #bc:} followed by the Base64 encoded binary data.
+ * <pre><code>
+ * #bc:2dn3v2NA...
+ * </code></pre>
+ * Compressed binary contexts use the header of {@link Compression}, the
+ * binary data is recognized after decompression by the magic number of
+ * {@link BinaryJsonGenerator}.
+ * <p>
+ * Base64 is required because {@code JdbcExecutionContextDao} converts the
+ * serialized bytes to a {@link String} using a character set.
+ */
+final class BinaryFormat {
+
+  private static final byte[] HEADER = {'#', 'b', 'c', ':'};
+
+  private BinaryFormat() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Writes binary data with the header.
+   *
+   * @param binary the binary data
+   * @param out the stream to write to, not closed
+   * @throws IOException in case of I/O errors
+   */
+  static void write(ByteArrayOutputStream binary, OutputStream out) throws IOException {
+    out.write(HEADER);
+    out.write(Base64.getEncoder().encode(binary.toByteArray()));
+  }
+
+  /**
+   * Removes the header and Base64 encoding of a binary context.
+   *
+   * @param in the possibly compressed context
+   * @return a stream of the binary data or the unchanged data, supports mark
+   * @throws IOException in case of I/O errors
+   */
+  static InputStream decode(InputStream in) throws IOException {
+    InputStream markable = markable(in);
+    markable.mark(HEADER.length);
+    byte[] header = markable.readNBytes(HEADER.length);
+    if (Arrays.equals(header, HEADER)) {
+      // decoding in bulk is considerably faster than a wrapping stream
+      return new ByteArrayInputStream(Base64.getDecoder().decode(markable.readAllBytes()));
+    }
+    markable.reset();
+    return markable;
+  }
+
+  /**
+   * Checks whether a stream starts with binary data without consuming it.
+   *
+   * @param in the stream to check, must support mark
+   * @return whether the stream starts with the magic number of binary data
+   * @throws IOException in case of I/O errors
+   */
+  static boolean isBinary(InputStream in) throws IOException {
+    byte[] magic = BinaryJsonGenerator.MAGIC;
+    in.mark(magic.length);
+    byte[] start = in.readNBytes(magic.length);
+    in.reset();
+    return BinaryJsonParser.isBinary(start, start.length);
+  }
+
+  private static InputStream markable(InputStream in) {
+    return in.markSupported() ? in : new BufferedInputStream(in);
+  }
+
+}
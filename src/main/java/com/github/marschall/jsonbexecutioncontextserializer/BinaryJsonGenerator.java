@@ -0,0 +1,353 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Map.Entry;
+
+import jakarta.json.JsonArray;
+import jakarta.json.JsonNumber;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonString;
+import jakarta.json.JsonValue;
+import jakarta.json.stream.JsonGenerationException;
+import jakarta.json.stream.JsonGenerator;
+
+/**
+ * Writes the JSON data model in a subset of CBOR (RFC 8949).
+ * <p>
+ * Numbers are written in binary, integers as CBOR integers or bignums,
+ * {@code double} values as IEEE 754 double precision and
+ * {@link BigDecimal} values as decimal fractions. Objects and arrays are
+ * written with indefinite length so that no sizes have to be known up
+ * front. The output starts with the CBOR self-described tag which serves as
+ * magic number.
+ *
+ * @see BinaryJsonParser
+ */
+final class BinaryJsonGenerator implements JsonGenerator {
+
+  static final byte[] MAGIC = {(byte) 0xD9, (byte) 0xD9, (byte) 0xF7};
+
+  static final int MAJOR_UNSIGNED = 0;
+  static final int MAJOR_NEGATIVE = 1;
+  static final int MAJOR_BYTES = 2;
+  static final int MAJOR_TEXT = 3;
+  static final int MAJOR_ARRAY = 4;
+  static final int MAJOR_MAP = 5;
+  static final int MAJOR_TAG = 6;
+
+  static final int TAG_POSITIVE_BIGNUM = 2;
+  static final int TAG_NEGATIVE_BIGNUM = 3;
+  static final int TAG_DECIMAL_FRACTION = 4;
+
+  static final int FALSE = 0xF4;
+  static final int TRUE = 0xF5;
+  static final int NULL = 0xF6;
+  static final int FLOAT64 = 0xFB;
+  static final int INDEFINITE_ARRAY = 0x9F;
+  static final int INDEFINITE_MAP = 0xBF;
+  static final int BREAK = 0xFF;
+
+  private final OutputStream out;
+
+  private byte[] buffer;
+
+  private int count;
+
+  private int depth;
+
+  BinaryJsonGenerator(OutputStream out) {
+    this.out = out;
+    this.buffer = new byte[256];
+    this.count = 0;
+    this.depth = 0;
+    this.writeBytes(MAGIC, 0, MAGIC.length);
+  }
+
+  @Override
+  public JsonGenerator writeStartObject() {
+    this.depth += 1;
+    this.writeByte(INDEFINITE_MAP);
+    return this;
+  }
+
+  @Override
+  public JsonGenerator writeStartObject(String name) {
+    this.writeKey(name);
+    return this.writeStartObject();
+  }
+
+  @Override
+  public JsonGenerator writeKey(String name) {
+    this.writeText(name);
+    return this;
+  }
+
+  @Override
+  public JsonGenerator writeStartArray() {
+    this.depth += 1;
+    this.writeByte(INDEFINITE_ARRAY);
+    return this;
+  }
+
+  @Override
+  public JsonGenerator writeStartArray(String name) {
+    this.writeKey(name);
+    return this.writeStartArray();
+  }
+
+  @Override
+  public JsonGenerator write(String name, JsonValue value) {
+    this.writeKey(name);
+    return this.write(value);
+  }
+
+  @Override
+  public JsonGenerator write(String name, String value) {
+    this.writeKey(name);
+    return this.write(value);
+  }
+
+  @Override
+  public JsonGenerator write(String name, BigInteger value) {
+    this.writeKey(name);
+    return this.write(value);
+  }
+
+  @Override
+  public JsonGenerator write(String name, BigDecimal value) {
+    this.writeKey(name);
+    return this.write(value);
+  }
+
+  @Override
+  public JsonGenerator write(String name, int value) {
+    this.writeKey(name);
+    return this.write(value);
+  }
+
+  @Override
+  public JsonGenerator write(String name, long value) {
+    this.writeKey(name);
+    return this.write(value);
+  }
+
+  @Override
+  public JsonGenerator write(String name, double value) {
+    this.writeKey(name);
+    return this.write(value);
+  }
+
+  @Override
+  public JsonGenerator write(String name, boolean value) {
+    this.writeKey(name);
+    return this.write(value);
+  }
+
+  @Override
+  public JsonGenerator writeNull(String name) {
+    this.writeKey(name);
+    return this.writeNull();
+  }
+
+  @Override
+  public JsonGenerator writeEnd() {
+    if (this.depth == 0) {
+      throw new JsonGenerationException("writeEnd() without start");
+    }
+    this.depth -= 1;
+    this.writeByte(BREAK);
+    return this;
+  }
+
+  @Override
+  public JsonGenerator write(JsonValue value) {
+    switch (value.getValueType()) {
+      case OBJECT:
+        this.writeStartObject();
+        for (Entry<String, JsonValue> entry : ((JsonObject) value).entrySet()) {
+          this.write(entry.getKey(), entry.getValue());
+        }
+        return this.writeEnd();
+      case ARRAY:
+        this.writeStartArray();
+        for (JsonValue element : (JsonArray) value) {
+          this.write(element);
+        }
+        return this.writeEnd();
+      case STRING:
+        return this.write(((JsonString) value).getString());
+      case NUMBER:
+        return this.write(((JsonNumber) value).bigDecimalValue());
+      case TRUE:
+        return this.write(true);
+      case FALSE:
+        return this.write(false);
+      case NULL:
+        return this.writeNull();
+      default:
+        throw new JsonGenerationException("unknown value type: " + value.getValueType());
+    }
+  }
+
+  @Override
+  public JsonGenerator write(String value) {
+    this.writeText(value);
+    return this;
+  }
+
+  @Override
+  public JsonGenerator write(BigDecimal value) {
+    if ((value.scale() == 0) && (value.unscaledValue().bitLength() < Long.SIZE)) {
+      return this.write(value.longValue());
+    }
+    // [exponent, mantissa]
+    this.writeHead(MAJOR_TAG, TAG_DECIMAL_FRACTION);
+    this.writeHead(MAJOR_ARRAY, 2);
+    this.write(-((long) value.scale()));
+    return this.write(value.unscaledValue());
+  }
+
+  @Override
+  public JsonGenerator write(BigInteger value) {
+    if (value.bitLength() < Long.SIZE) {
+      return this.write(value.longValue());
+    }
+    byte[] magnitude;
+    if (value.signum() >= 0) {
+      this.writeHead(MAJOR_TAG, TAG_POSITIVE_BIGNUM);
+      magnitude = value.toByteArray();
+    } else {
+      // -1 - n
+      this.writeHead(MAJOR_TAG, TAG_NEGATIVE_BIGNUM);
+      magnitude = value.negate().subtract(BigInteger.ONE).toByteArray();
+    }
+    int offset = magnitude[0] == 0 ? 1 : 0;
+    this.writeHead(MAJOR_BYTES, magnitude.length - offset);
+    this.writeBytes(magnitude, offset, magnitude.length - offset);
+    return this;
+  }
+
+  @Override
+  public JsonGenerator write(int value) {
+    return this.write((long) value);
+  }
+
+  @Override
+  public JsonGenerator write(long value) {
+    if (value >= 0L) {
+      this.writeHead(MAJOR_UNSIGNED, value);
+    } else {
+      // -1 - n
+      this.writeHead(MAJOR_NEGATIVE, -1L - value);
+    }
+    return this;
+  }
+
+  @Override
+  public JsonGenerator write(double value) {
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      // same as JSON
+      throw new NumberFormatException("NaN and infinity are not supported: " + value);
+    }
+    this.writeByte(FLOAT64);
+    long bits = Double.doubleToLongBits(value);
+    this.ensureCapacity(8);
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      this.buffer[this.count++] = (byte) (bits >>> shift);
+    }
+    return this;
+  }
+
+  @Override
+  public JsonGenerator write(boolean value) {
+    this.writeByte(value ? TRUE : FALSE);
+    return this;
+  }
+
+  @Override
+  public JsonGenerator writeNull() {
+    this.writeByte(NULL);
+    return this;
+  }
+
+  @Override
+  public void close() {
+    if (this.depth != 0) {
+      throw new JsonGenerationException("Generating incomplete document");
+    }
+    try (this.out) {
+      this.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException("could not close output", e);
+    }
+  }
+
+  @Override
+  public void flush() {
+    try {
+      this.out.write(this.buffer, 0, this.count);
+      this.count = 0;
+      this.out.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException("could not write output", e);
+    }
+  }
+
+  private void writeText(String s) {
+    byte[] utf8 = s.getBytes(UTF_8);
+    this.writeHead(MAJOR_TEXT, utf8.length);
+    this.writeBytes(utf8, 0, utf8.length);
+  }
+
+  private void writeHead(int majorType, long argument) {
+    int major = majorType << 5;
+    this.ensureCapacity(9);
+    // the argument is never negative
+    if (argument < 24L) {
+      this.buffer[this.count++] = (byte) (major | (int) argument);
+    } else if (argument <= 0xFFL) {
+      this.buffer[this.count++] = (byte) (major | 24);
+      this.buffer[this.count++] = (byte) argument;
+    } else if (argument <= 0xFFFFL) {
+      this.buffer[this.count++] = (byte) (major | 25);
+      this.buffer[this.count++] = (byte) (argument >>> 8);
+      this.buffer[this.count++] = (byte) argument;
+    } else if (argument <= 0xFFFFFFFFL) {
+      this.buffer[this.count++] = (byte) (major | 26);
+      for (int shift = 24; shift >= 0; shift -= 8) {
+        this.buffer[this.count++] = (byte) (argument >>> shift);
+      }
+    } else {
+      this.buffer[this.count++] = (byte) (major | 27);
+      for (int shift = 56; shift >= 0; shift -= 8) {
+        this.buffer[this.count++] = (byte) (argument >>> shift);
+      }
+    }
+  }
+
+  private void writeByte(int b) {
+    this.ensureCapacity(1);
+    this.buffer[this.count++] = (byte) b;
+  }
+
+  private void writeBytes(byte[] b, int offset, int length) {
+    this.ensureCapacity(length);
+    System.arraycopy(b, offset, this.buffer, this.count, length);
+    this.count += length;
+  }
+
+  private void ensureCapacity(int additional) {
+    int required = this.count + additional;
+    if (required > this.buffer.length) {
+      this.buffer = Arrays.copyOf(this.buffer, Math.max(required, this.buffer.length * 2));
+    }
+  }
+
+}
@@ -0,0 +1,592 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import static com.github.marschall.jsonbexecutioncontextserializer.BinaryJsonGenerator.BREAK;
+import static com.github.marschall.jsonbexecutioncontextserializer.BinaryJsonGenerator.FALSE;
+import static com.github.marschall.jsonbexecutioncontextserializer.BinaryJsonGenerator.FLOAT64;
+import static com.github.marschall.jsonbexecutioncontextserializer.BinaryJsonGenerator.MAGIC;
+import static com.github.marschall.jsonbexecutioncontextserializer.BinaryJsonGenerator.MAJOR_ARRAY;
+import static com.github.marschall.jsonbexecutioncontextserializer.BinaryJsonGenerator.MAJOR_BYTES;
+import static com.github.marschall.jsonbexecutioncontextserializer.BinaryJsonGenerator.MAJOR_MAP;
+import static com.github.marschall.jsonbexecutioncontextserializer.BinaryJsonGenerator.MAJOR_NEGATIVE;
+import static com.github.marschall.jsonbexecutioncontextserializer.BinaryJsonGenerator.MAJOR_TAG;
+import static com.github.marschall.jsonbexecutioncontextserializer.BinaryJsonGenerator.MAJOR_TEXT;
+import static com.github.marschall.jsonbexecutioncontextserializer.BinaryJsonGenerator.MAJOR_UNSIGNED;
+import static com.github.marschall.jsonbexecutioncontextserializer.BinaryJsonGenerator.NULL;
+import static com.github.marschall.jsonbexecutioncontextserializer.BinaryJsonGenerator.TAG_DECIMAL_FRACTION;
+import static com.github.marschall.jsonbexecutioncontextserializer.BinaryJsonGenerator.TAG_NEGATIVE_BIGNUM;
+import static com.github.marschall.jsonbexecutioncontextserializer.BinaryJsonGenerator.TAG_POSITIVE_BIGNUM;
+import static com.github.marschall.jsonbexecutioncontextserializer.BinaryJsonGenerator.TRUE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import jakarta.json.JsonArray;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonException;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.json.JsonValue;
+import jakarta.json.spi.JsonProvider;
+import jakarta.json.stream.JsonLocation;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParsingException;
+
+/**
+ * Reads the CBOR subset written by {@link BinaryJsonGenerator} and reports it
+ * as JSON events.
+ * <p>
+ * In addition to what the generator writes definite length arrays and maps
+ * are supported. Numbers are kept in their binary form and are only
+ * converted if requested, {@link #getLong()} on an integer does not create
+ * any intermediate objects.
+ */
+final class BinaryJsonParser implements JsonParser {
+
+  private static final int NUMBER_LONG = 0;
+  private static final int NUMBER_DOUBLE = 1;
+  private static final int NUMBER_BIG_INTEGER = 2;
+  private static final int NUMBER_BIG_DECIMAL = 3;
+
+  private static final long INDEFINITE = -1L;
+
+  /**
+   * {@code null} until the input is read.
+   */
+  private byte[] data;
+
+  /**
+   * {@code null} once the input is read.
+   */
+  private InputStream input;
+
+  private final JsonProvider provider;
+
+  private int position;
+
+  private Event currentEvent;
+
+  // per container, whether it is a map, the number of remaining items and whether a key is expected
+
+  private boolean[] isMap;
+
+  private long[] remaining;
+
+  private boolean[] expectKey;
+
+  private int depth;
+
+  private boolean rootRead;
+
+  // value of the current event
+
+  private String stringValue;
+
+  private int numberType;
+
+  private long longValue;
+
+  private double doubleValue;
+
+  private Object bigValue;
+
+  BinaryJsonParser(byte[] data, JsonProvider provider) {
+    this(provider);
+    this.setData(data);
+  }
+
+  /**
+   * Creates a parser that reads the input on the first call to
+   * {@link #next()}.
+   * <p>
+   * Yasson creates two parsers for the same input stream in
+   * {@code fromJson(InputStream, Class)} and only uses the second one,
+   * reading eagerly would leave no input for the second parser.
+   */
+  BinaryJsonParser(InputStream input, JsonProvider provider) {
+    this(provider);
+    this.input = input;
+  }
+
+  private BinaryJsonParser(JsonProvider provider) {
+    this.provider = provider;
+    this.isMap = new boolean[8];
+    this.remaining = new long[8];
+    this.expectKey = new boolean[8];
+    this.depth = 0;
+    this.rootRead = false;
+  }
+
+  /**
+   * Checks whether data is in the binary format.
+   *
+   * @param data the data to check
+   * @param length the number of valid bytes
+   * @return whether the data starts with the magic number
+   */
+  static boolean isBinary(byte[] data, int length) {
+    return (length >= MAGIC.length) && Arrays.equals(data, 0, MAGIC.length, MAGIC, 0, MAGIC.length);
+  }
+
+  @Override
+  public boolean hasNext() {
+    return (this.depth > 0) || !this.rootRead;
+  }
+
+  @Override
+  public Event next() {
+    if (!this.hasNext()) {
+      throw new NoSuchElementException();
+    }
+    if (this.data == null) {
+      this.readInput();
+    }
+    this.currentEvent = this.readEvent();
+    return this.currentEvent;
+  }
+
+  private void readInput() {
+    byte[] input;
+    try {
+      // contexts are small, reading everything up front keeps the parser simple and fast
+      input = this.input.readAllBytes();
+    } catch (IOException e) {
+      throw new JsonException("could not read input", e);
+    }
+    this.input = null;
+    this.setData(input);
+  }
+
+  private void setData(byte[] data) {
+    if (!isBinary(data, data.length)) {
+      throw new JsonParsingException("binary format expected", new BinaryLocation(0));
+    }
+    this.data = data;
+    this.position = MAGIC.length;
+  }
+
+  @Override
+  public Event currentEvent() {
+    return this.currentEvent;
+  }
+
+  private Event readEvent() {
+    if (this.depth > 0) {
+      int top = this.depth - 1;
+      long containerRemaining = this.remaining[top];
+      if (containerRemaining == 0L) {
+        return this.endContainer();
+      }
+      if ((containerRemaining == INDEFINITE) && (this.peekByte() == BREAK)) {
+        this.position += 1;
+        return this.endContainer();
+      }
+      if (this.isMap[top] && this.expectKey[top]) {
+        this.expectKey[top] = false;
+        int initialByte = this.readByte();
+        if ((initialByte >>> 5) != MAJOR_TEXT) {
+          throw this.parsingException("key expected");
+        }
+        this.stringValue = this.readText(initialByte);
+        return Event.KEY_NAME;
+      }
+      // the value completes an item of the container
+      if (this.isMap[top]) {
+        this.expectKey[top] = true;
+      }
+      if (containerRemaining != INDEFINITE) {
+        this.remaining[top] = containerRemaining - 1L;
+      }
+    } else {
+      this.rootRead = true;
+    }
+    return this.readValue();
+  }
+
+  private Event endContainer() {
+    this.depth -= 1;
+    return this.isMap[this.depth] ? Event.END_OBJECT : Event.END_ARRAY;
+  }
+
+  private Event readValue() {
+    int initialByte = this.readByte();
+    int majorType = initialByte >>> 5;
+    switch (majorType) {
+      case MAJOR_UNSIGNED:
+        return this.longNumber(this.readArgument(initialByte));
+      case MAJOR_NEGATIVE:
+        return this.longNumber(-1L - this.readArgument(initialByte));
+      case MAJOR_TEXT:
+        this.stringValue = this.readText(initialByte);
+        return Event.VALUE_STRING;
+      case MAJOR_ARRAY:
+        this.startContainer(false, initialByte);
+        return Event.START_ARRAY;
+      case MAJOR_MAP:
+        this.startContainer(true, initialByte);
+        return Event.START_OBJECT;
+      case MAJOR_TAG:
+        return this.readTagged(this.readArgument(initialByte));
+      default:
+        break;
+    }
+    switch (initialByte) {
+      case FALSE:
+        return Event.VALUE_FALSE;
+      case TRUE:
+        return Event.VALUE_TRUE;
+      case NULL:
+        return Event.VALUE_NULL;
+      case FLOAT64:
+        this.numberType = NUMBER_DOUBLE;
+        this.doubleValue = Double.longBitsToDouble(this.readLong(8));
+        return Event.VALUE_NUMBER;
+      default:
+        throw this.parsingException("unsupported initial byte: 0x" + Integer.toHexString(initialByte));
+    }
+  }
+
+  private Event longNumber(long value) {
+    this.numberType = NUMBER_LONG;
+    this.longValue = value;
+    return Event.VALUE_NUMBER;
+  }
+
+  private Event readTagged(long tag) {
+    if ((tag == TAG_POSITIVE_BIGNUM) || (tag == TAG_NEGATIVE_BIGNUM)) {
+      this.numberType = NUMBER_BIG_INTEGER;
+      this.bigValue = this.readBignum(tag);
+      return Event.VALUE_NUMBER;
+    }
+    if (tag == TAG_DECIMAL_FRACTION) {
+      // [exponent, mantissa]
+      if (this.readByte() != ((MAJOR_ARRAY << 5) | 2)) {
+        throw this.parsingException("decimal fraction expected");
+      }
+      long exponent = this.readInteger().longValueExact();
+      BigInteger mantissa = this.readInteger();
+      this.numberType = NUMBER_BIG_DECIMAL;
+      this.bigValue = new BigDecimal(mantissa, Math.toIntExact(-exponent));
+      return Event.VALUE_NUMBER;
+    }
+    throw this.parsingException("unsupported tag: " + tag);
+  }
+
+  private BigInteger readInteger() {
+    int initialByte = this.readByte();
+    switch (initialByte >>> 5) {
+      case MAJOR_UNSIGNED:
+        return BigInteger.valueOf(this.readArgument(initialByte));
+      case MAJOR_NEGATIVE:
+        return BigInteger.valueOf(-1L - this.readArgument(initialByte));
+      case MAJOR_TAG:
+        return this.readBignum(this.readArgument(initialByte));
+      default:
+        throw this.parsingException("integer expected");
+    }
+  }
+
+  private BigInteger readBignum(long tag) {
+    int initialByte = this.readByte();
+    if ((initialByte >>> 5) != MAJOR_BYTES) {
+      throw this.parsingException("byte string expected");
+    }
+    int length = this.readLength(initialByte);
+    this.checkAvailable(length);
+    BigInteger magnitude = new BigInteger(1, this.data, this.position, length);
+    this.position += length;
+    if (tag == TAG_POSITIVE_BIGNUM) {
+      return magnitude;
+    } else if (tag == TAG_NEGATIVE_BIGNUM) {
+      // -1 - n
+      return magnitude.add(BigInteger.ONE).negate();
+    }
+    throw this.parsingException("unsupported tag: " + tag);
+  }
+
+  private void startContainer(boolean map, int initialByte) {
+    long length = (initialByte & 0x1F) == 31 ? INDEFINITE : this.readArgument(initialByte);
+    if (this.depth == this.isMap.length) {
+      int newLength = this.depth * 2;
+      this.isMap = Arrays.copyOf(this.isMap, newLength);
+      this.remaining = Arrays.copyOf(this.remaining, newLength);
+      this.expectKey = Arrays.copyOf(this.expectKey, newLength);
+    }
+    this.isMap[this.depth] = map;
+    this.remaining[this.depth] = length;
+    this.expectKey[this.depth] = map;
+    this.depth += 1;
+  }
+
+  private String readText(int initialByte) {
+    int length = this.readLength(initialByte);
+    this.checkAvailable(length);
+    String text = new String(this.data, this.position, length, UTF_8);
+    this.position += length;
+    return text;
+  }
+
+  private int readLength(int initialByte) {
+    long length = this.readArgument(initialByte);
+    if ((length < 0L) || (length > Integer.MAX_VALUE)) {
+      throw this.parsingException("unsupported length: " + length);
+    }
+    return (int) length;
+  }
+
+  private long readArgument(int initialByte) {
+    int additionalInformation = initialByte & 0x1F;
+    if (additionalInformation < 24) {
+      return additionalInformation;
+    }
+    switch (additionalInformation) {
+      case 24:
+        return this.readLong(1);
+      case 25:
+        return this.readLong(2);
+      case 26:
+        return this.readLong(4);
+      case 27:
+        long argument = this.readLong(8);
+        if (argument < 0L) {
+          throw this.parsingException("integer too large");
+        }
+        return argument;
+      default:
+        throw this.parsingException("unsupported additional information: " + additionalInformation);
+    }
+  }
+
+  private long readLong(int length) {
+    this.checkAvailable(length);
+    long value = 0L;
+    for (int i = 0; i < length; i++) {
+      value = (value << 8) | (this.data[this.position++] & 0xFFL);
+    }
+    return value;
+  }
+
+  private int peekByte() {
+    this.checkAvailable(1);
+    return this.data[this.position] & 0xFF;
+  }
+
+  private int readByte() {
+    this.checkAvailable(1);
+    return this.data[this.position++] & 0xFF;
+  }
+
+  private void checkAvailable(int length) {
+    if ((this.data.length - this.position) < length) {
+      throw this.parsingException("unexpected end of input");
+    }
+  }
+
+  private JsonParsingException parsingException(String message) {
+    return new JsonParsingException(message, this.getLocation());
+  }
+
+  private void checkEvent(Event expected) {
+    if (this.currentEvent != expected) {
+      throw new IllegalStateException("current event is: " + this.currentEvent + " not: " + expected);
+    }
+  }
+
+  @Override
+  public String getString() {
+    if ((this.currentEvent == Event.KEY_NAME) || (this.currentEvent == Event.VALUE_STRING)) {
+      return this.stringValue;
+    }
+    this.checkEvent(Event.VALUE_NUMBER);
+    switch (this.numberType) {
+      case NUMBER_LONG:
+        return Long.toString(this.longValue);
+      case NUMBER_DOUBLE:
+        return Double.toString(this.doubleValue);
+      default:
+        return this.bigValue.toString();
+    }
+  }
+
+  @Override
+  public boolean isIntegralNumber() {
+    this.checkEvent(Event.VALUE_NUMBER);
+    switch (this.numberType) {
+      case NUMBER_LONG:
+      case NUMBER_BIG_INTEGER:
+        return true;
+      case NUMBER_BIG_DECIMAL:
+        return ((BigDecimal) this.bigValue).scale() == 0;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Checks whether the current number is an integer in the range of
+   * {@code long}, {@link #getLong()} returns it exactly.
+   *
+   * @return whether the current number is stored as a {@code long}
+   */
+  boolean isLong() {
+    this.checkEvent(Event.VALUE_NUMBER);
+    return this.numberType == NUMBER_LONG;
+  }
+
+  @Override
+  public int getInt() {
+    this.checkEvent(Event.VALUE_NUMBER);
+    if (this.numberType == NUMBER_LONG) {
+      return (int) this.longValue;
+    }
+    return this.getBigDecimal().intValue();
+  }
+
+  @Override
+  public long getLong() {
+    this.checkEvent(Event.VALUE_NUMBER);
+    if (this.numberType == NUMBER_LONG) {
+      return this.longValue;
+    }
+    return this.getBigDecimal().longValue();
+  }
+
+  @Override
+  public BigDecimal getBigDecimal() {
+    this.checkEvent(Event.VALUE_NUMBER);
+    switch (this.numberType) {
+      case NUMBER_LONG:
+        return BigDecimal.valueOf(this.longValue);
+      case NUMBER_DOUBLE:
+        // same value as parsing the JSON text of the double
+        return BigDecimal.valueOf(this.doubleValue);
+      case NUMBER_BIG_INTEGER:
+        return new BigDecimal((BigInteger) this.bigValue);
+      default:
+        return (BigDecimal) this.bigValue;
+    }
+  }
+
+  @Override
+  public JsonLocation getLocation() {
+    return new BinaryLocation(this.position);
+  }
+
+  @Override
+  public JsonObject getObject() {
+    this.checkEvent(Event.START_OBJECT);
+    JsonObjectBuilder builder = this.provider.createObjectBuilder();
+    Event event;
+    while ((event = this.next()) != Event.END_OBJECT) {
+      if (event != Event.KEY_NAME) {
+        throw this.parsingException("key expected");
+      }
+      String key = this.stringValue;
+      this.next();
+      builder.add(key, this.getValue());
+    }
+    return builder.build();
+  }
+
+  @Override
+  public JsonArray getArray() {
+    this.checkEvent(Event.START_ARRAY);
+    JsonArrayBuilder builder = this.provider.createArrayBuilder();
+    while (this.next() != Event.END_ARRAY) {
+      builder.add(this.getValue());
+    }
+    return builder.build();
+  }
+
+  @Override
+  public JsonValue getValue() {
+    if (this.currentEvent == null) {
+      throw new IllegalStateException("next() not called");
+    }
+    switch (this.currentEvent) {
+      case START_OBJECT:
+        return this.getObject();
+      case START_ARRAY:
+        return this.getArray();
+      case KEY_NAME:
+      case VALUE_STRING:
+        return this.provider.createValue(this.stringValue);
+      case VALUE_NUMBER:
+        if (this.numberType == NUMBER_LONG) {
+          return this.provider.createValue(this.longValue);
+        }
+        return this.provider.createValue(this.getBigDecimal());
+      case VALUE_TRUE:
+        return JsonValue.TRUE;
+      case VALUE_FALSE:
+        return JsonValue.FALSE;
+      case VALUE_NULL:
+        return JsonValue.NULL;
+      default:
+        throw new IllegalStateException("no value at: " + this.currentEvent);
+    }
+  }
+
+  @Override
+  public void skipObject() {
+    this.skipContainer(Event.START_OBJECT, Event.END_OBJECT);
+  }
+
+  @Override
+  public void skipArray() {
+    this.skipContainer(Event.START_ARRAY, Event.END_ARRAY);
+  }
+
+  private void skipContainer(Event start, Event end) {
+    if (this.currentEvent != start) {
+      return;
+    }
+    int targetDepth = this.depth - 1;
+    while ((this.depth > targetDepth) || (this.currentEvent != end)) {
+      this.next();
+    }
+  }
+
+  @Override
+  public void close() {
+    // nothing to release, the input stream is owned by the caller
+  }
+
+  /**
+   * Location in the binary data, lines and columns do not apply.
+   */
+  static final class BinaryLocation implements JsonLocation {
+
+    private final long offset;
+
+    BinaryLocation(long offset) {
+      this.offset = offset;
+    }
+
+    @Override
+    public long getLineNumber() {
+      return -1L;
+    }
+
+    @Override
+    public long getColumnNumber() {
+      return -1L;
+    }
+
+    @Override
+    public long getStreamOffset() {
+      return this.offset;
+    }
+
+    @Override
+    public String toString() {
+      return "(offset:" + this.offset + ")";
+    }
+
+  }
+
+}
@@ -0,0 +1,294 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.Map;
+
+import jakarta.json.JsonArray;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonBuilderFactory;
+import jakarta.json.JsonMergePatch;
+import jakarta.json.JsonNumber;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.json.JsonPatch;
+import jakarta.json.JsonPatchBuilder;
+import jakarta.json.JsonPointer;
+import jakarta.json.JsonReader;
+import jakarta.json.JsonReaderFactory;
+import jakarta.json.JsonString;
+import jakarta.json.JsonStructure;
+import jakarta.json.JsonValue;
+import jakarta.json.JsonWriter;
+import jakarta.json.JsonWriterFactory;
+import jakarta.json.spi.JsonProvider;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonGeneratorFactory;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParserFactory;
+
+/**
+ * Wraps a {@link JsonProvider} and creates {@link BinaryJsonParser}s and
+ * {@link BinaryJsonGenerator}s for byte streams.
+ * <p>
+ * Passing this provider to JSON-B makes JSON-B read and write the binary
+ * format with the same type model and the same custom (de)serializers.
+ * Character streams as well as readers, writers and values are handled by
+ * the wrapped provider.
+ */
+final class BinaryJsonProvider extends JsonProvider {
+
+  private final JsonProvider delegate;
+
+  BinaryJsonProvider(JsonProvider delegate) {
+    this.delegate = delegate;
+  }
+
+  JsonParser createBinaryParser(InputStream in) {
+    return new BinaryJsonParser(in, this.delegate);
+  }
+
+  @Override
+  public JsonParser createParser(Reader reader) {
+    return this.delegate.createParser(reader);
+  }
+
+  @Override
+  public JsonParser createParser(InputStream in) {
+    return this.createBinaryParser(in);
+  }
+
+  @Override
+  public JsonParserFactory createParserFactory(Map<String, ?> config) {
+    return new BinaryParserFactory(this.delegate.createParserFactory(config));
+  }
+
+  @Override
+  public JsonGenerator createGenerator(Writer writer) {
+    return this.delegate.createGenerator(writer);
+  }
+
+  @Override
+  public JsonGenerator createGenerator(OutputStream out) {
+    return new BinaryJsonGenerator(out);
+  }
+
+  @Override
+  public JsonGeneratorFactory createGeneratorFactory(Map<String, ?> config) {
+    return new BinaryGeneratorFactory(this.delegate.createGeneratorFactory(config));
+  }
+
+  @Override
+  public JsonReader createReader(Reader reader) {
+    return this.delegate.createReader(reader);
+  }
+
+  @Override
+  public JsonReader createReader(InputStream in) {
+    return this.delegate.createReader(in);
+  }
+
+  @Override
+  public JsonWriter createWriter(Writer writer) {
+    return this.delegate.createWriter(writer);
+  }
+
+  @Override
+  public JsonWriter createWriter(OutputStream out) {
+    return this.delegate.createWriter(out);
+  }
+
+  @Override
+  public JsonWriterFactory createWriterFactory(Map<String, ?> config) {
+    return this.delegate.createWriterFactory(config);
+  }
+
+  @Override
+  public JsonReaderFactory createReaderFactory(Map<String, ?> config) {
+    return this.delegate.createReaderFactory(config);
+  }
+
+  @Override
+  public JsonObjectBuilder createObjectBuilder() {
+    return this.delegate.createObjectBuilder();
+  }
+
+  @Override
+  public JsonObjectBuilder createObjectBuilder(JsonObject object) {
+    return this.delegate.createObjectBuilder(object);
+  }
+
+  @Override
+  public JsonObjectBuilder createObjectBuilder(Map<String, ?> map) {
+    return this.delegate.createObjectBuilder(map);
+  }
+
+  @Override
+  public JsonArrayBuilder createArrayBuilder() {
+    return this.delegate.createArrayBuilder();
+  }
+
+  @Override
+  public JsonArrayBuilder createArrayBuilder(JsonArray array) {
+    return this.delegate.createArrayBuilder(array);
+  }
+
+  @Override
+  public JsonArrayBuilder createArrayBuilder(Collection<?> collection) {
+    return this.delegate.createArrayBuilder(collection);
+  }
+
+  @Override
+  public JsonPointer createPointer(String jsonPointer) {
+    return this.delegate.createPointer(jsonPointer);
+  }
+
+  @Override
+  public JsonPatchBuilder createPatchBuilder() {
+    return this.delegate.createPatchBuilder();
+  }
+
+  @Override
+  public JsonPatchBuilder createPatchBuilder(JsonArray array) {
+    return this.delegate.createPatchBuilder(array);
+  }
+
+  @Override
+  public JsonPatch createPatch(JsonArray array) {
+    return this.delegate.createPatch(array);
+  }
+
+  @Override
+  public JsonPatch createDiff(JsonStructure source, JsonStructure target) {
+    return this.delegate.createDiff(source, target);
+  }
+
+  @Override
+  public JsonMergePatch createMergePatch(JsonValue patch) {
+    return this.delegate.createMergePatch(patch);
+  }
+
+  @Override
+  public JsonMergePatch createMergeDiff(JsonValue source, JsonValue target) {
+    return this.delegate.createMergeDiff(source, target);
+  }
+
+  @Override
+  public JsonBuilderFactory createBuilderFactory(Map<String, ?> config) {
+    return this.delegate.createBuilderFactory(config);
+  }
+
+  @Override
+  public JsonString createValue(String value) {
+    return this.delegate.createValue(value);
+  }
+
+  @Override
+  public JsonNumber createValue(int value) {
+    return this.delegate.createValue(value);
+  }
+
+  @Override
+  public JsonNumber createValue(long value) {
+    return this.delegate.createValue(value);
+  }
+
+  @Override
+  public JsonNumber createValue(double value) {
+    return this.delegate.createValue(value);
+  }
+
+  @Override
+  public JsonNumber createValue(BigDecimal value) {
+    return this.delegate.createValue(value);
+  }
+
+  @Override
+  public JsonNumber createValue(BigInteger value) {
+    return this.delegate.createValue(value);
+  }
+
+  @Override
+  public JsonNumber createValue(Number number) {
+    return this.delegate.createValue(number);
+  }
+
+  final class BinaryParserFactory implements JsonParserFactory {
+
+    private final JsonParserFactory delegate;
+
+    BinaryParserFactory(JsonParserFactory delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public JsonParser createParser(Reader reader) {
+      return this.delegate.createParser(reader);
+    }
+
+    @Override
+    public JsonParser createParser(InputStream in) {
+      return BinaryJsonProvider.this.createBinaryParser(in);
+    }
+
+    @Override
+    public JsonParser createParser(InputStream in, Charset charset) {
+      // the binary format does not depend on a charset
+      return BinaryJsonProvider.this.createBinaryParser(in);
+    }
+
+    @Override
+    public JsonParser createParser(JsonObject obj) {
+      return this.delegate.createParser(obj);
+    }
+
+    @Override
+    public JsonParser createParser(JsonArray array) {
+      return this.delegate.createParser(array);
+    }
+
+    @Override
+    public Map<String, ?> getConfigInUse() {
+      return this.delegate.getConfigInUse();
+    }
+
+  }
+
+  static final class BinaryGeneratorFactory implements JsonGeneratorFactory {
+
+    private final JsonGeneratorFactory delegate;
+
+    BinaryGeneratorFactory(JsonGeneratorFactory delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public JsonGenerator createGenerator(Writer writer) {
+      return this.delegate.createGenerator(writer);
+    }
+
+    @Override
+    public JsonGenerator createGenerator(OutputStream out) {
+      return new BinaryJsonGenerator(out);
+    }
+
+    @Override
+    public JsonGenerator createGenerator(OutputStream out, Charset charset) {
+      // the binary format does not depend on a charset
+      return new BinaryJsonGenerator(out);
+    }
+
+    @Override
+    public Map<String, ?> getConfigInUse() {
+      return this.delegate.getConfigInUse();
+    }
+
+  }
+
+}
@@ -0,0 +1,150 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link SerializedExecutionContextDao} that serializes the contexts of
+ * {@link #saveExecutionContexts(Collection)} in parallel before handing
+ * them to the actual DAO.
+ * <p>
+ * The contexts are serialized with
+ * {@link JsonbExecutionContextSerializer#serializeAll(List, Executor)}, the
+ * actual DAO then writes the serialized contexts with
+ * {@link SerializedExecutionContextDao#saveExecutionContexts(List, List)}
+ * instead of serializing them one after the other. The actual DAO has to
+ * use the same serializer. All other methods are delegated unchanged.
+ */
+public final class BulkExecutionContextDao implements SerializedExecutionContextDao {
+
+  private final SerializedExecutionContextDao delegate;
+
+  private final JsonbExecutionContextSerializer serializer;
+
+  private final Executor executor;
+
+  /**
+   * Creates a new {@link BulkExecutionContextDao} using the common fork-join pool.
+   *
+   * @param delegate the actual DAO, not {@code null}
+   * @param serializer the serializer used by the actual DAO, not {@code null}
+   */
+  public BulkExecutionContextDao(SerializedExecutionContextDao delegate, JsonbExecutionContextSerializer serializer) {
+    this(delegate, serializer, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Creates a new {@link BulkExecutionContextDao}.
+   *
+   * @param delegate the actual DAO, not {@code null}
+   * @param serializer the serializer used by the actual DAO, not {@code null}
+   * @param executor serializes the contexts, for example a virtual thread
+   *                 executor, not {@code null}
+   */
+  public BulkExecutionContextDao(SerializedExecutionContextDao delegate, JsonbExecutionContextSerializer serializer, Executor executor) {
+    Assert.notNull(delegate, "A delegate is required");
+    Assert.notNull(serializer, "A serializer is required");
+    Assert.notNull(executor, "An executor is required");
+    this.delegate = delegate;
+    this.serializer = serializer;
+    this.executor = executor;
+  }
+
+  @Override
+  public ExecutionContext getExecutionContext(JobExecution jobExecution) {
+    return this.delegate.getExecutionContext(jobExecution);
+  }
+
+  @Override
+  public ExecutionContext getExecutionContext(StepExecution stepExecution) {
+    return this.delegate.getExecutionContext(stepExecution);
+  }
+
+  @Override
+  public void saveExecutionContext(JobExecution jobExecution) {
+    this.delegate.saveExecutionContext(jobExecution);
+  }
+
+  @Override
+  public void saveExecutionContext(StepExecution stepExecution) {
+    this.delegate.saveExecutionContext(stepExecution);
+  }
+
+  @Override
+  public void saveExecutionContexts(Collection<StepExecution> stepExecutions) {
+    Assert.notNull(stepExecutions, "Attempt to save an null collection of step executions");
+    if (stepExecutions.size() <= 1) {
+      this.delegate.saveExecutionContexts(stepExecutions);
+      return;
+    }
+    List<StepExecution> executions = new ArrayList<>(stepExecutions);
+    List<Map<String, Object>> contexts = new ArrayList<>(executions.size());
+    for (StepExecution stepExecution : executions) {
+      contexts.add(ExecutionContexts.toMap(stepExecution.getExecutionContext()));
+    }
+    List<byte[]> serialized;
+    try {
+      serialized = this.serializer.serializeAll(contexts, this.executor);
+    } catch (IOException e) {
+      throw new UncheckedIOException("could not serialize contexts", e);
+    }
+    this.delegate.saveExecutionContexts(executions, serialized);
+  }
+
+  @Override
+  public void saveExecutionContext(JobExecution jobExecution, byte[] serializedContext) {
+    this.delegate.saveExecutionContext(jobExecution, serializedContext);
+  }
+
+  @Override
+  public void saveExecutionContext(StepExecution stepExecution, byte[] serializedContext) {
+    this.delegate.saveExecutionContext(stepExecution, serializedContext);
+  }
+
+  @Override
+  public void saveExecutionContexts(List<StepExecution> stepExecutions, List<byte[]> serializedContexts) {
+    this.delegate.saveExecutionContexts(stepExecutions, serializedContexts);
+  }
+
+  @Override
+  public void updateExecutionContext(JobExecution jobExecution, byte[] serializedContext) {
+    this.delegate.updateExecutionContext(jobExecution, serializedContext);
+  }
+
+  @Override
+  public void updateExecutionContext(StepExecution stepExecution, byte[] serializedContext) {
+    this.delegate.updateExecutionContext(stepExecution, serializedContext);
+  }
+
+  @Override
+  public void updateExecutionContext(JobExecution jobExecution) {
+    this.delegate.updateExecutionContext(jobExecution);
+  }
+
+  @Override
+  public void updateExecutionContext(StepExecution stepExecution) {
+    this.delegate.updateExecutionContext(stepExecution);
+  }
+
+  @Override
+  public void deleteExecutionContext(JobExecution jobExecution) {
+    this.delegate.deleteExecutionContext(jobExecution);
+  }
+
+  @Override
+  public void deleteExecutionContext(StepExecution stepExecution) {
+    this.delegate.deleteExecutionContext(stepExecution);
+  }
+
+}
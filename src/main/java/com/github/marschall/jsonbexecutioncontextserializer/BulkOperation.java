@@ -0,0 +1,96 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Processes the elements of a batch in contiguous slices on an
+ * {@link Executor}.
+ * <p>
+ * There is one slice per available processor so that every worker can
+ * reuse its buffers for all elements of its slice. The calling thread
+ * processes the first slice itself instead of waiting idle.
+ */
+final class BulkOperation {
+
+  private BulkOperation() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Processes the elements {@code 0} to {@code size - 1}.
+   *
+   * @param size the number of elements
+   * @param executor runs the slices other than the first one
+   * @param task processes a slice
+   * @throws IOException if processing a slice failed
+   */
+  static void run(int size, Executor executor, SliceTask task) throws IOException {
+    int slices = Math.min(size, Runtime.getRuntime().availableProcessors());
+    if (slices <= 1) {
+      task.process(0, size);
+      return;
+    }
+    CompletableFuture<?>[] futures = new CompletableFuture<?>[slices - 1];
+    for (int slice = 1; slice < slices; slice++) {
+      int from = sliceStart(slice, slices, size);
+      int to = sliceStart(slice + 1, slices, size);
+      futures[slice - 1] = CompletableFuture.runAsync(() -> {
+        try {
+          task.process(from, to);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }, executor);
+    }
+    try {
+      task.process(0, sliceStart(1, slices, size));
+    } finally {
+      // wait for all slices even if the first one failed
+      join(futures);
+    }
+  }
+
+  private static int sliceStart(int slice, int slices, int size) {
+    return (int) (((long) slice * size) / slices);
+  }
+
+  private static void join(CompletableFuture<?>[] futures) throws IOException {
+    try {
+      CompletableFuture.allOf(futures).join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof UncheckedIOException unchecked) {
+        throw unchecked.getCause();
+      }
+      if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (cause instanceof Error error) {
+        throw error;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Processes a slice of a batch.
+   */
+  @FunctionalInterface
+  interface SliceTask {
+
+    /**
+     * Processes the elements of a slice.
+     *
+     * @param from the index of the first element, inclusive
+     * @param to the index of the last element, exclusive
+     * @throws IOException if processing failed
+     */
+    void process(int from, int to) throws IOException;
+
+  }
+
+}
@@ -0,0 +1,209 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link SerializedExecutionContextDao} that skips updating a context
+ * that has not changed since it was last persisted.
+ * <p>
+ * Spring Batch updates the context of a step after every chunk, even if
+ * no item reader or writer keeps state. The context is serialized before
+ * calling the actual DAO. If the SHA-256 digest of the result equals the
+ * digest of the context last persisted for the same execution the update
+ * is skipped. Otherwise the serialized context is handed to the actual DAO
+ * which writes it without serializing it again. The actual DAO has to use
+ * the same serializer. Contexts that were already serialized, for example
+ * by a {@link BulkExecutionContextDao} wrapping this DAO, are not
+ * serialized again. The serializer should be built with
+ * {@link JsonbExecutionContextSerializer.Builder#canonicalOutput()} so that
+ * equal contexts are serialized as identical bytes.
+ * <p>
+ * Inside a transaction the digest is only remembered once the transaction
+ * commits, a rolled back update is never skipped. Digests are weakly
+ * referenced by their execution and dropped when the execution is no
+ * longer used.
+ */
+public final class ChangeDetectingExecutionContextDao implements SerializedExecutionContextDao {
+
+  private final SerializedExecutionContextDao delegate;
+
+  private final JsonbExecutionContextSerializer serializer;
+
+  private final Map<JobExecution, byte[]> jobDigests;
+
+  private final Map<StepExecution, byte[]> stepDigests;
+
+  /**
+   * Creates a new {@link ChangeDetectingExecutionContextDao}.
+   *
+   * @param delegate the actual DAO, not {@code null}
+   * @param serializer the serializer used by the actual DAO, not {@code null}
+   */
+  public ChangeDetectingExecutionContextDao(SerializedExecutionContextDao delegate, JsonbExecutionContextSerializer serializer) {
+    Assert.notNull(delegate, "A delegate is required");
+    Assert.notNull(serializer, "A serializer is required");
+    this.delegate = delegate;
+    this.serializer = serializer;
+    this.jobDigests = Collections.synchronizedMap(new WeakHashMap<>());
+    this.stepDigests = Collections.synchronizedMap(new WeakHashMap<>());
+  }
+
+  @Override
+  public ExecutionContext getExecutionContext(JobExecution jobExecution) {
+    return this.delegate.getExecutionContext(jobExecution);
+  }
+
+  @Override
+  public ExecutionContext getExecutionContext(StepExecution stepExecution) {
+    return this.delegate.getExecutionContext(stepExecution);
+  }
+
+  @Override
+  public void saveExecutionContext(JobExecution jobExecution) {
+    this.saveExecutionContext(jobExecution, this.serialize(jobExecution.getExecutionContext()));
+  }
+
+  @Override
+  public void saveExecutionContext(JobExecution jobExecution, byte[] serializedContext) {
+    byte[] digest = digest(serializedContext);
+    this.write(this.jobDigests, jobExecution, digest, () -> this.delegate.saveExecutionContext(jobExecution, serializedContext));
+  }
+
+  @Override
+  public void saveExecutionContext(StepExecution stepExecution) {
+    this.saveExecutionContext(stepExecution, this.serialize(stepExecution.getExecutionContext()));
+  }
+
+  @Override
+  public void saveExecutionContext(StepExecution stepExecution, byte[] serializedContext) {
+    byte[] digest = digest(serializedContext);
+    this.write(this.stepDigests, stepExecution, digest, () -> this.delegate.saveExecutionContext(stepExecution, serializedContext));
+  }
+
+  @Override
+  public void saveExecutionContexts(Collection<StepExecution> stepExecutions) {
+    Assert.notNull(stepExecutions, "Attempt to save an null collection of step executions");
+    List<StepExecution> executions = new ArrayList<>(stepExecutions);
+    List<byte[]> serializedContexts = new ArrayList<>(executions.size());
+    for (StepExecution stepExecution : executions) {
+      serializedContexts.add(this.serialize(stepExecution.getExecutionContext()));
+    }
+    this.saveExecutionContexts(executions, serializedContexts);
+  }
+
+  @Override
+  public void saveExecutionContexts(List<StepExecution> stepExecutions, List<byte[]> serializedContexts) {
+    Assert.notNull(stepExecutions, "Attempt to save an null collection of step executions");
+    List<byte[]> digests = new ArrayList<>(serializedContexts.size());
+    for (byte[] serializedContext : serializedContexts) {
+      digests.add(digest(serializedContext));
+    }
+    for (StepExecution stepExecution : stepExecutions) {
+      // not known until written
+      this.stepDigests.remove(stepExecution);
+    }
+    this.delegate.saveExecutionContexts(stepExecutions, serializedContexts);
+    for (int i = 0; i < stepExecutions.size(); i++) {
+      this.remember(this.stepDigests, stepExecutions.get(i), digests.get(i));
+    }
+  }
+
+  @Override
+  public void updateExecutionContext(JobExecution jobExecution) {
+    this.updateExecutionContext(jobExecution, this.serialize(jobExecution.getExecutionContext()));
+  }
+
+  @Override
+  public void updateExecutionContext(JobExecution jobExecution, byte[] serializedContext) {
+    byte[] digest = digest(serializedContext);
+    if (this.isUnchanged(this.jobDigests, jobExecution, digest)) {
+      return;
+    }
+    this.write(this.jobDigests, jobExecution, digest, () -> this.delegate.updateExecutionContext(jobExecution, serializedContext));
+  }
+
+  @Override
+  public void updateExecutionContext(StepExecution stepExecution) {
+    this.updateExecutionContext(stepExecution, this.serialize(stepExecution.getExecutionContext()));
+  }
+
+  @Override
+  public void updateExecutionContext(StepExecution stepExecution, byte[] serializedContext) {
+    byte[] digest = digest(serializedContext);
+    if (this.isUnchanged(this.stepDigests, stepExecution, digest)) {
+      return;
+    }
+    this.write(this.stepDigests, stepExecution, digest, () -> this.delegate.updateExecutionContext(stepExecution, serializedContext));
+  }
+
+  @Override
+  public void deleteExecutionContext(JobExecution jobExecution) {
+    this.jobDigests.remove(jobExecution);
+    this.delegate.deleteExecutionContext(jobExecution);
+  }
+
+  @Override
+  public void deleteExecutionContext(StepExecution stepExecution) {
+    this.stepDigests.remove(stepExecution);
+    this.delegate.deleteExecutionContext(stepExecution);
+  }
+
+  private <E> boolean isUnchanged(Map<E, byte[]> digests, E execution, byte[] digest) {
+    byte[] last = digests.get(execution);
+    return (last != null) && MessageDigest.isEqual(last, digest);
+  }
+
+  private byte[] serialize(ExecutionContext executionContext) {
+    return ExecutionContexts.serialize(this.serializer, executionContext);
+  }
+
+  private static byte[] digest(byte[] serialized) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(serialized);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not supported", e);
+    }
+  }
+
+  /**
+   * Lets the actual DAO write a context and remembers its digest.
+   */
+  private <E> void write(Map<E, byte[]> digests, E execution, byte[] digest, Runnable write) {
+    // not known until written
+    digests.remove(execution);
+    write.run();
+    this.remember(digests, execution, digest);
+  }
+
+  private <E> void remember(Map<E, byte[]> digests, E execution, byte[] digest) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      digests.put(execution, digest);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+      @Override
+      public void afterCompletion(int status) {
+        if (status == STATUS_COMMITTED) {
+          digests.put(execution, digest);
+        }
+      }
+
+    });
+  }
+
+}
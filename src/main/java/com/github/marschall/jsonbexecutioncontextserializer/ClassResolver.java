@@ -0,0 +1,173 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Resolves class names using the thread context class loader and caches
+ * both hits and misses per class loader.
+ * <p>
+ * Neither class loaders nor classes are strongly referenced so that the class
+ * loaders of redeployed applications can be collected.
+ * <p>
+ * Lookups are lock free and do not write to shared memory. The caches are
+ * kept in a copy on write array that is only replaced when a new class
+ * loader is seen, in a container there is usually a single one for all batch
+ * threads of an application. Caches of collected class loaders are dropped
+ * when the array is replaced.
+ */
+final class ClassResolver {
+
+  /**
+   * Upper bound for the number of cached misses per class loader. Class names
+   * come from the database, we do not want to retain arbitrary amounts of them.
+   */
+  private static final int MAX_MISSES = 128;
+
+  private final AtomicReference<ClassLoaderCache[]> caches;
+
+  ClassResolver() {
+    this.caches = new AtomicReference<>(new ClassLoaderCache[0]);
+  }
+
+  /**
+   * Resolves a class using the thread context class loader.
+   *
+   * @param className the binary name of the class, not {@code null}
+   * @return the resolved class, never {@code null}
+   * @throws ClassNotFoundException if the class can not be found
+   */
+  Class<?> resolveClass(String className) throws ClassNotFoundException {
+    return this.getCache(getContextClassLoader()).resolveClass(className);
+  }
+
+  private static ClassLoader getContextClassLoader() {
+    ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+    if (contextClassLoader != null) {
+      return contextClassLoader;
+    }
+    return ClassResolver.class.getClassLoader();
+  }
+
+  private ClassLoaderCache getCache(ClassLoader classLoader) {
+    ClassLoaderCache cache = findCache(this.caches.get(), classLoader);
+    if (cache != null) {
+      return cache;
+    }
+    return this.addCache(classLoader);
+  }
+
+  private static ClassLoaderCache findCache(ClassLoaderCache[] caches, ClassLoader classLoader) {
+    for (ClassLoaderCache cache : caches) {
+      if (cache.getClassLoader() == classLoader) {
+        return cache;
+      }
+    }
+    return null;
+  }
+
+  private ClassLoaderCache addCache(ClassLoader classLoader) {
+    ClassLoaderCache added = new ClassLoaderCache(classLoader);
+    while (true) {
+      ClassLoaderCache[] current = this.caches.get();
+      // may have been added by an other thread
+      ClassLoaderCache existing = findCache(current, classLoader);
+      if (existing != null) {
+        return existing;
+      }
+      ClassLoaderCache[] updated = new ClassLoaderCache[current.length + 1];
+      int length = 0;
+      for (ClassLoaderCache cache : current) {
+        if (cache.getClassLoader() != null) {
+          updated[length++] = cache;
+        }
+      }
+      updated[length++] = added;
+      if (length < updated.length) {
+        updated = Arrays.copyOf(updated, length);
+      }
+      if (this.caches.compareAndSet(current, updated)) {
+        return added;
+      }
+    }
+  }
+
+  /**
+   * Caches the lookups for a single class loader.
+   */
+  static final class ClassLoaderCache {
+
+    private static final Object MISS = new Object();
+
+    private final WeakReference<ClassLoader> classLoader;
+
+    /**
+     * Values are either a {@code WeakReference<Class<?>>} or {@link #MISS}.
+     */
+    private final ConcurrentMap<String, Object> entries;
+
+    private final AtomicInteger missCount;
+
+    ClassLoaderCache(ClassLoader classLoader) {
+      this.classLoader = new WeakReference<>(classLoader);
+      this.entries = new ConcurrentHashMap<>();
+      this.missCount = new AtomicInteger();
+    }
+
+    ClassLoader getClassLoader() {
+      return this.classLoader.get();
+    }
+
+    Class<?> resolveClass(String className) throws ClassNotFoundException {
+      Object entry = this.entries.get(className);
+      if (entry == MISS) {
+        throw new ClassNotFoundException(className);
+      }
+      if (entry != null) {
+        Class<?> cached = ((ClassReference) entry).get();
+        if (cached != null) {
+          return cached;
+        }
+      }
+      return this.loadClass(className);
+    }
+
+    private Class<?> loadClass(String className) throws ClassNotFoundException {
+      ClassLoader loader = this.getClassLoader();
+      if (loader == null) {
+        // only possible if the cache outlived its class loader
+        throw new ClassNotFoundException(className);
+      }
+      Class<?> loaded;
+      try {
+        // unlike ClassLoader#loadClass also supports array classes
+        loaded = Class.forName(className, false, loader);
+      } catch (ClassNotFoundException e) {
+        if (this.missCount.incrementAndGet() <= MAX_MISSES) {
+          this.entries.put(className, MISS);
+        }
+        throw e;
+      }
+      this.entries.put(className, new ClassReference(loaded));
+      return loaded;
+    }
+
+  }
+
+  /**
+   * Weakly references a class, allows the cache to hold both hits and misses
+   * in the same map.
+   */
+  static final class ClassReference extends WeakReference<Class<?>> {
+
+    ClassReference(Class<?> referent) {
+      super(referent);
+    }
+
+  }
+
+}
@@ -0,0 +1,183 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compresses serialized contexts above a size threshold and detects
+ * compressed contexts when reading.
+ *
+ * <h2>Format</h2>
+ * A compressed context starts with the four ASCII characters {@code #z}, the
+ * id of the {@link CompressionCodec} and {@code :}, followed by the Base64
+ * encoded compressed context.
+ * <pre><code>
+ * #zd:eJyrVkrOzy...
+ * </code></pre>
+ * A JSON document can never start with {@code #} so plain contexts, including
+ * all existing ones, are read unchanged.
+ * <p>
+ * Base64 costs a third of the compressed size but is required because
+ * {@code JdbcExecutionContextDao} converts the serialized bytes to a
+ * {@link String} using a character set.
+ */
+final class Compression {
+
+  private static final int HEADER_LENGTH = 4;
+
+  private static final Compression READ_ONLY = new Compression(null, Integer.MAX_VALUE);
+
+  /**
+   * {@code null} if compression is disabled.
+   */
+  private final CompressionCodec codec;
+
+  private final int threshold;
+
+  private final Map<Character, CompressionCodec> codecs;
+
+  private Compression(CompressionCodec codec, int threshold) {
+    this.codec = codec;
+    this.threshold = threshold;
+    this.codecs = new HashMap<>(4);
+    this.codecs.put(DeflateCompressionCodec.ID, DeflateCompressionCodec.DEFAULT);
+    this.codecs.put(GzipCompressionCodec.ID, GzipCompressionCodec.INSTANCE);
+    if (codec != null) {
+      char id = codec.getId();
+      if (!isValidId(id)) {
+        throw new IllegalArgumentException("codec id must be an ASCII letter or digit: " + id);
+      }
+      CompressionCodec builtIn = this.codecs.get(id);
+      if ((builtIn != null) && (builtIn.getClass() != codec.getClass())) {
+        throw new IllegalArgumentException("codec id: " + id + " already used for: " + builtIn.getClass().getName());
+      }
+      this.codecs.put(id, codec);
+    }
+  }
+
+  /**
+   * Returns an instance that reads compressed contexts but does not compress.
+   *
+   * @return an instance that never compresses
+   */
+  static Compression readOnly() {
+    return READ_ONLY;
+  }
+
+  /**
+   * Creates an instance that compresses contexts.
+   *
+   * @param codec the codec used to compress
+   * @param threshold the minimum size of serialized contexts in bytes that should be compressed
+   * @return the new instance
+   */
+  static Compression compressing(CompressionCodec codec, int threshold) {
+    return new Compression(codec, threshold);
+  }
+
+  private static boolean isValidId(char id) {
+    return ((id >= 'a') && (id <= 'z'))
+        || ((id >= 'A') && (id <= 'Z'))
+        || ((id >= '0') && (id <= '9'));
+  }
+
+  boolean isEnabled() {
+    return this.codec != null;
+  }
+
+  /**
+   * Writes a serialized context, compressed if it is large enough.
+   *
+   * @param json the serialized context
+   * @param out the stream to write to, not closed
+   * @throws IOException in case of I/O errors
+   */
+  void write(ByteArrayOutputStream json, OutputStream out) throws IOException {
+    if (this.shouldCompress(json.size())) {
+      this.compress(json, out);
+    } else {
+      json.writeTo(out);
+    }
+  }
+
+  /**
+   * Checks whether a serialized context is large enough to be compressed.
+   *
+   * @param size the size of the serialized context in bytes
+   * @return whether the context should be compressed
+   */
+  boolean shouldCompress(int size) {
+    return (this.codec != null) && (size >= this.threshold);
+  }
+
+  /**
+   * Writes a serialized context compressed and with the header.
+   *
+   * @param serialized the serialized context
+   * @param out the stream to write to, not closed
+   * @throws IOException in case of I/O errors
+   */
+  void compress(ByteArrayOutputStream serialized, OutputStream out) throws IOException {
+    out.write('#');
+    out.write('z');
+    out.write(this.codec.getId());
+    out.write(':');
+    try (OutputStream compressed = this.codec.compress(Base64.getEncoder().wrap(new NonClosingOutputStream(out)))) {
+      serialized.writeTo(compressed);
+    }
+  }
+
+  /**
+   * Returns a stream of a possibly compressed context.
+   *
+   * @param in the serialized context
+   * @return the uncompressed context
+   * @throws IOException in case of I/O errors or if the codec is not known
+   */
+  InputStream decode(InputStream in) throws IOException {
+    InputStream markable = in.markSupported() ? in : new BufferedInputStream(in);
+    markable.mark(HEADER_LENGTH);
+    byte[] header = markable.readNBytes(HEADER_LENGTH);
+    if ((header.length == HEADER_LENGTH) && (header[0] == '#') && (header[1] == 'z') && (header[3] == ':')) {
+      CompressionCodec headerCodec = this.codecs.get((char) header[2]);
+      if (headerCodec == null) {
+        throw new IOException("unknown compression codec: " + (char) header[2]);
+      }
+      // decoding in bulk is considerably faster than a wrapping stream
+      byte[] compressed = Base64.getDecoder().decode(markable.readAllBytes());
+      return headerCodec.decompress(new ByteArrayInputStream(compressed));
+    }
+    markable.reset();
+    return markable;
+  }
+
+  /**
+   * Keeps the target stream open when the compressing streams are closed.
+   */
+  static final class NonClosingOutputStream extends FilterOutputStream {
+
+    NonClosingOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      this.out.write(b, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+      this.flush();
+    }
+
+  }
+
+}
@@ -0,0 +1,77 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses serialized execution contexts.
+ * <p>
+ * Every codec is identified by a single ASCII letter or digit that is
+ * written in the header of compressed contexts and used to select the codec
+ * when reading.
+ *
+ * @see JsonbExecutionContextSerializer.Builder#compression(CompressionCodec, int)
+ */
+public interface CompressionCodec {
+
+  /**
+   * Returns the identifier of this codec, written in the header of
+   * compressed contexts.
+   *
+   * @return an ASCII letter or digit identifying the codec
+   */
+  char getId();
+
+  /**
+   * Wraps an output stream with a compressing one. Closing the returned
+   * stream has to close the given stream.
+   *
+   * @param out the stream to write the compressed data to
+   * @return the stream to write uncompressed data to
+   * @throws IOException in case of I/O errors
+   */
+  OutputStream compress(OutputStream out) throws IOException;
+
+  /**
+   * Wraps an input stream with a decompressing one.
+   *
+   * @param in the stream to read compressed data from
+   * @return the stream to read uncompressed data from
+   * @throws IOException in case of I/O errors
+   */
+  InputStream decompress(InputStream in) throws IOException;
+
+  /**
+   * Returns a codec using {@link Deflater} with the default compression level.
+   *
+   * @return the deflate codec
+   */
+  static CompressionCodec deflate() {
+    return DeflateCompressionCodec.DEFAULT;
+  }
+
+  /**
+   * Returns a codec using {@link Deflater} with the given compression level.
+   * The level only affects writing, contexts compressed with any level can
+   * be read.
+   *
+   * @param level the compression level, from {@link Deflater#BEST_SPEED} to
+   *              {@link Deflater#BEST_COMPRESSION}
+   * @return the deflate codec
+   */
+  static CompressionCodec deflate(int level) {
+    return new DeflateCompressionCodec(level);
+  }
+
+  /**
+   * Returns a codec using the GZIP format.
+   *
+   * @return the GZIP codec
+   */
+  static CompressionCodec gzip() {
+    return GzipCompressionCodec.INSTANCE;
+  }
+
+}
@@ -0,0 +1,70 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compresses using the zlib format with {@link Deflater}.
+ */
+final class DeflateCompressionCodec implements CompressionCodec {
+
+  static final char ID = 'd';
+
+  static final DeflateCompressionCodec DEFAULT = new DeflateCompressionCodec(Deflater.DEFAULT_COMPRESSION);
+
+  private final int level;
+
+  DeflateCompressionCodec(int level) {
+    if (((level < Deflater.BEST_SPEED) || (level > Deflater.BEST_COMPRESSION)) && (level != Deflater.DEFAULT_COMPRESSION)) {
+      throw new IllegalArgumentException("invalid compression level: " + level);
+    }
+    this.level = level;
+  }
+
+  @Override
+  public char getId() {
+    return ID;
+  }
+
+  @Override
+  public OutputStream compress(OutputStream out) {
+    Deflater deflater = new Deflater(this.level);
+    // the native memory of a Deflater passed to the constructor is not released on close
+    return new DeflaterOutputStream(out, deflater) {
+
+      @Override
+      public void close() throws IOException {
+        try {
+          super.close();
+        } finally {
+          deflater.end();
+        }
+      }
+
+    };
+  }
+
+  @Override
+  public InputStream decompress(InputStream in) {
+    Inflater inflater = new Inflater();
+    // the native memory of an Inflater passed to the constructor is not released on close
+    return new InflaterInputStream(in, inflater) {
+
+      @Override
+      public void close() throws IOException {
+        try {
+          super.close();
+        } finally {
+          inflater.end();
+        }
+      }
+
+    };
+  }
+
+}
@@ -0,0 +1,15 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded when an execution context is deserialized.
+ */
+@Name(DeserializeEvent.NAME)
+@Label("Execution Context Deserialization")
+final class DeserializeEvent extends ExecutionContextEvent {
+
+  static final String NAME = "com.github.marschall.jsonbexecutioncontextserializer.Deserialize";
+
+}
@@ -0,0 +1,660 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Map.Entry;
+
+import jakarta.json.JsonArray;
+import jakarta.json.JsonNumber;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonString;
+import jakarta.json.JsonValue;
+import jakarta.json.stream.JsonGenerationException;
+import jakarta.json.stream.JsonGenerator;
+
+/**
+ * Writes JSON directly as UTF-8 or ISO-8859-1 bytes.
+ * <p>
+ * Unlike a generator writing to a {@link java.io.Writer} there is no
+ * intermediate char buffer and no {@link java.nio.charset.CharsetEncoder},
+ * ASCII characters, which make up almost all of an execution context, are
+ * copied with a single cast. The output is collected in a byte array and
+ * written to the stream on {@link #flush()} and {@link #close()}.
+ * <p>
+ * The output is the same as the one of Parsson except for characters above
+ * {@code U+00FF} in ISO-8859-1. Parsson replaces them with {@code '?'},
+ * they are escaped instead so no information is lost.
+ * <p>
+ * {@link #writePreEncoded(byte[], boolean)} writes constant tokens that were
+ * encoded once up front. JSON-B passes a wrapper to custom serializers, they
+ * get the generator with {@link #currentAtRoot()} while the call to JSON-B
+ * is surrounded by {@link #beginCapture()} and {@link #endCapture(Object)}.
+ */
+final class DirectJsonGenerator implements JsonGenerator {
+
+  private static final byte[] HEX_DIGITS = {
+      '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+
+  private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+
+  private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+
+  private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+
+  /**
+   * The two character escape sequence for ASCII characters, {@code 0} for
+   * characters that are not escaped and {@code 'u'} for a unicode escape.
+   */
+  private static final byte[] ESCAPES = new byte[128];
+
+  static {
+    for (int i = 0; i < 0x20; i++) {
+      ESCAPES[i] = 'u';
+    }
+    ESCAPES['"'] = '"';
+    ESCAPES['\\'] = '\\';
+    ESCAPES['\b'] = 'b';
+    ESCAPES['\f'] = 'f';
+    ESCAPES['\n'] = 'n';
+    ESCAPES['\r'] = 'r';
+    ESCAPES['\t'] = 't';
+  }
+
+  /**
+   * While a context is written by JSON-B on the current thread
+   * {@link #CAPTURING} until the generator of the call is created, then that
+   * generator. JSON-B does not pass the generator itself to custom
+   * serializers.
+   */
+  private static final ThreadLocal<Object> CURRENT = new ThreadLocal<>();
+
+  private static final Object CAPTURING = new Object();
+
+  private final OutputStream out;
+
+  /**
+   * Whether only characters up to {@code U+00FF} are written unescaped.
+   */
+  private final boolean latin1;
+
+  private byte[] buffer;
+
+  private int count;
+
+  /**
+   * The number of bytes written to the stream.
+   */
+  private long flushed;
+
+  // per container, whether it is an object and whether it has no values yet
+
+  private boolean[] inObject;
+
+  private boolean[] empty;
+
+  private int depth;
+
+  /**
+   * Whether a key has been written and a value is expected.
+   */
+  private boolean afterKey;
+
+  private boolean rootWritten;
+
+  DirectJsonGenerator(OutputStream out, boolean latin1) {
+    this.out = out;
+    this.latin1 = latin1;
+    this.buffer = new byte[512];
+    this.count = 0;
+    this.flushed = 0L;
+    this.inObject = new boolean[8];
+    this.empty = new boolean[8];
+    this.depth = 0;
+    this.afterKey = false;
+    this.rootWritten = false;
+    if (CURRENT.get() == CAPTURING) {
+      CURRENT.set(this);
+    }
+  }
+
+  /**
+   * Makes the next generator created on the current thread available
+   * through {@link #currentAtRoot()}. Has to be followed by
+   * {@link #endCapture(Object)} in a {@code finally} block.
+   *
+   * @return the previous state, to be passed to {@link #endCapture(Object)}
+   */
+  static Object beginCapture() {
+    Object previous = CURRENT.get();
+    CURRENT.set(CAPTURING);
+    return previous;
+  }
+
+  /**
+   * Forgets the generator captured since {@link #beginCapture()}.
+   *
+   * @param previous the value returned by {@link #beginCapture()}
+   */
+  static void endCapture(Object previous) {
+    if (previous == null) {
+      CURRENT.remove();
+    } else {
+      CURRENT.set(previous);
+    }
+  }
+
+  /**
+   * Returns the generator captured on the current thread if nothing has
+   * been written to it yet.
+   *
+   * @return the current generator, {@code null} if there is none or if
+   *         something has been written to it
+   */
+  static DirectJsonGenerator currentAtRoot() {
+    if ((CURRENT.get() instanceof DirectJsonGenerator current) && !current.rootWritten) {
+      return current;
+    }
+    return null;
+  }
+
+  /**
+   * Returns the number of bytes generated so far.
+   *
+   * @return the number of bytes generated
+   */
+  long position() {
+    return this.flushed + this.count;
+  }
+
+  /**
+   * Writes a constant token that starts a value.
+   * <p>
+   * The token has to start an object or array and must end with either a
+   * key in an object or a value in an array. The generator then continues
+   * inside the started container.
+   *
+   * @param token the encoded token, must only contain ASCII characters
+   * @param object whether the token starts an object
+   */
+  void writePreEncoded(byte[] token, boolean object) {
+    this.beforeValue();
+    this.writeBytes(token);
+    this.push(object);
+    this.empty[this.depth - 1] = false;
+    // an object token ends with a key
+    this.afterKey = object;
+  }
+
+  /**
+   * Writes a complete value that has already been encoded, for example by
+   * JSON-B.
+   *
+   * @param value the encoded value, must be in the encoding of this
+   *        generator
+   * @param length the number of bytes of the value
+   */
+  void writeEncodedValue(byte[] value, int length) {
+    this.beforeValue();
+    this.ensureCapacity(length);
+    System.arraycopy(value, 0, this.buffer, this.count, length);
+    this.count += length;
+  }
+
+  /**
+   * Writes a complete entry of the current object that has already been
+   * encoded, for example by {@link #copyEntry(long)}.
+   *
+   * @param entry the encoded key and value without a separator, must be in
+   *        the encoding of this generator
+   */
+  void writeEncodedEntry(byte[] entry) {
+    if ((this.depth == 0) || !this.inObject[this.depth - 1] || this.afterKey) {
+      throw this.illegalMethod();
+    }
+    int top = this.depth - 1;
+    if (!this.empty[top]) {
+      this.writeByte(',');
+    }
+    this.empty[top] = false;
+    this.writeBytes(entry);
+  }
+
+  /**
+   * Returns a copy of the entry written since a position without the
+   * separator. Nothing must have been flushed since.
+   *
+   * @param start the {@link #position()} before the entry was written
+   * @return the encoded key and value
+   */
+  byte[] copyEntry(long start) {
+    int from = (int) (start - this.flushed);
+    if (from < 0) {
+      throw new IllegalStateException("entry already flushed");
+    }
+    if (this.buffer[from] == ',') {
+      from += 1;
+    }
+    return Arrays.copyOfRange(this.buffer, from, this.count);
+  }
+
+  @Override
+  public JsonGenerator writeStartObject() {
+    this.beforeValue();
+    this.writeByte('{');
+    this.push(true);
+    return this;
+  }
+
+  @Override
+  public JsonGenerator writeStartObject(String name) {
+    this.writeKey(name);
+    return this.writeStartObject();
+  }
+
+  @Override
+  public JsonGenerator writeKey(String name) {
+    if ((this.depth == 0) || !this.inObject[this.depth - 1] || this.afterKey) {
+      throw this.illegalMethod();
+    }
+    int top = this.depth - 1;
+    if (!this.empty[top]) {
+      this.writeByte(',');
+    }
+    this.empty[top] = false;
+    this.writeString(name);
+    this.writeByte(':');
+    this.afterKey = true;
+    return this;
+  }
+
+  @Override
+  public JsonGenerator writeStartArray() {
+    this.beforeValue();
+    this.writeByte('[');
+    this.push(false);
+    return this;
+  }
+
+  @Override
+  public JsonGenerator writeStartArray(String name) {
+    this.writeKey(name);
+    return this.writeStartArray();
+  }
+
+  @Override
+  public JsonGenerator write(String name, JsonValue value) {
+    this.writeKey(name);
+    return this.write(value);
+  }
+
+  @Override
+  public JsonGenerator write(String name, String value) {
+    this.writeKey(name);
+    return this.write(value);
+  }
+
+  @Override
+  public JsonGenerator write(String name, BigInteger value) {
+    this.writeKey(name);
+    return this.write(value);
+  }
+
+  @Override
+  public JsonGenerator write(String name, BigDecimal value) {
+    this.writeKey(name);
+    return this.write(value);
+  }
+
+  @Override
+  public JsonGenerator write(String name, int value) {
+    this.writeKey(name);
+    return this.write(value);
+  }
+
+  @Override
+  public JsonGenerator write(String name, long value) {
+    this.writeKey(name);
+    return this.write(value);
+  }
+
+  @Override
+  public JsonGenerator write(String name, double value) {
+    this.writeKey(name);
+    return this.write(value);
+  }
+
+  @Override
+  public JsonGenerator write(String name, boolean value) {
+    this.writeKey(name);
+    return this.write(value);
+  }
+
+  @Override
+  public JsonGenerator writeNull(String name) {
+    this.writeKey(name);
+    return this.writeNull();
+  }
+
+  @Override
+  public JsonGenerator writeEnd() {
+    if (this.depth == 0) {
+      throw new JsonGenerationException("writeEnd() cannot be called in no context");
+    }
+    if (this.afterKey) {
+      throw this.illegalMethod();
+    }
+    this.depth -= 1;
+    this.writeByte(this.inObject[this.depth] ? '}' : ']');
+    return this;
+  }
+
+  @Override
+  public JsonGenerator write(JsonValue value) {
+    switch (value.getValueType()) {
+      case OBJECT:
+        this.writeStartObject();
+        for (Entry<String, JsonValue> entry : ((JsonObject) value).entrySet()) {
+          this.write(entry.getKey(), entry.getValue());
+        }
+        return this.writeEnd();
+      case ARRAY:
+        this.writeStartArray();
+        for (JsonValue element : (JsonArray) value) {
+          this.write(element);
+        }
+        return this.writeEnd();
+      case STRING:
+        return this.write(((JsonString) value).getString());
+      case NUMBER:
+        this.beforeValue();
+        this.writeAscii(((JsonNumber) value).toString());
+        return this;
+      case TRUE:
+        return this.write(true);
+      case FALSE:
+        return this.write(false);
+      case NULL:
+        return this.writeNull();
+      default:
+        throw new JsonGenerationException("unknown value type: " + value.getValueType());
+    }
+  }
+
+  @Override
+  public JsonGenerator write(String value) {
+    this.beforeValue();
+    this.writeString(value);
+    return this;
+  }
+
+  @Override
+  public JsonGenerator write(BigDecimal value) {
+    this.beforeValue();
+    this.writeAscii(value.toString());
+    return this;
+  }
+
+  @Override
+  public JsonGenerator write(BigInteger value) {
+    this.beforeValue();
+    this.writeAscii(value.toString());
+    return this;
+  }
+
+  @Override
+  public JsonGenerator write(int value) {
+    return this.write((long) value);
+  }
+
+  @Override
+  public JsonGenerator write(long value) {
+    this.beforeValue();
+    this.writeLong(value);
+    return this;
+  }
+
+  @Override
+  public JsonGenerator write(double value) {
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      // same as Parsson
+      throw new NumberFormatException("double value cannot be Infinite or NaN");
+    }
+    this.beforeValue();
+    this.writeAscii(Double.toString(value));
+    return this;
+  }
+
+  @Override
+  public JsonGenerator write(boolean value) {
+    this.beforeValue();
+    this.writeBytes(value ? TRUE : FALSE);
+    return this;
+  }
+
+  @Override
+  public JsonGenerator writeNull() {
+    this.beforeValue();
+    this.writeBytes(NULL);
+    return this;
+  }
+
+  @Override
+  public void close() {
+    if ((this.depth != 0) || !this.rootWritten) {
+      throw new JsonGenerationException("Generating incomplete JSON");
+    }
+    try (this.out) {
+      this.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException("could not close output", e);
+    }
+  }
+
+  @Override
+  public void flush() {
+    try {
+      this.out.write(this.buffer, 0, this.count);
+      this.flushed += this.count;
+      this.count = 0;
+      this.out.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException("could not write output", e);
+    }
+  }
+
+  private void beforeValue() {
+    if (this.depth == 0) {
+      if (this.rootWritten) {
+        throw this.illegalMethod();
+      }
+      this.rootWritten = true;
+      return;
+    }
+    int top = this.depth - 1;
+    if (this.inObject[top]) {
+      if (!this.afterKey) {
+        throw this.illegalMethod();
+      }
+      this.afterKey = false;
+    } else {
+      if (!this.empty[top]) {
+        this.writeByte(',');
+      }
+      this.empty[top] = false;
+    }
+  }
+
+  private void push(boolean object) {
+    if (this.depth == this.inObject.length) {
+      this.inObject = Arrays.copyOf(this.inObject, this.depth * 2);
+      this.empty = Arrays.copyOf(this.empty, this.depth * 2);
+    }
+    this.inObject[this.depth] = object;
+    this.empty[this.depth] = true;
+    this.depth += 1;
+  }
+
+  private JsonGenerationException illegalMethod() {
+    String context;
+    if (this.depth == 0) {
+      context = "IN_NONE";
+    } else if (this.afterKey) {
+      context = "IN_FIELD";
+    } else {
+      context = this.inObject[this.depth - 1] ? "IN_OBJECT" : "IN_ARRAY";
+    }
+    return new JsonGenerationException("Illegal method during JSON generation, not valid in current context " + context);
+  }
+
+  private void writeString(String s) {
+    int length = s.length();
+    // most strings are ASCII without escapes
+    this.ensureCapacity(length + 2);
+    byte[] b = this.buffer;
+    int position = this.count;
+    b[position++] = '"';
+    int i = 0;
+    while (i < length) {
+      char c = s.charAt(i);
+      if ((c >= 0x80) || (ESCAPES[c] != 0)) {
+        break;
+      }
+      b[position++] = (byte) c;
+      i += 1;
+    }
+    this.count = position;
+    if (i < length) {
+      this.writeStringSlow(s, i);
+    }
+    this.writeByte('"');
+  }
+
+  private void writeStringSlow(String s, int start) {
+    int length = s.length();
+    for (int i = start; i < length; i++) {
+      char c = s.charAt(i);
+      if (c < 0x80) {
+        byte escape = ESCAPES[c];
+        if (escape == 0) {
+          this.writeByte(c);
+        } else if (escape == 'u') {
+          this.writeUnicodeEscape(c);
+        } else {
+          this.ensureCapacity(2);
+          this.buffer[this.count++] = '\\';
+          this.buffer[this.count++] = escape;
+        }
+      } else if (this.latin1) {
+        if (c <= 0xFF) {
+          this.writeByte(c);
+        } else {
+          this.writeUnicodeEscape(c);
+        }
+      } else {
+        i = this.writeUtf8(s, i, c);
+      }
+    }
+  }
+
+  /**
+   * Writes a non-ASCII character in UTF-8.
+   *
+   * @return the index of the last char consumed
+   */
+  private int writeUtf8(String s, int i, char c) {
+    this.ensureCapacity(4);
+    byte[] b = this.buffer;
+    if (c < 0x800) {
+      b[this.count++] = (byte) (0xC0 | (c >> 6));
+      b[this.count++] = (byte) (0x80 | (c & 0x3F));
+      return i;
+    }
+    if (!Character.isSurrogate(c)) {
+      b[this.count++] = (byte) (0xE0 | (c >> 12));
+      b[this.count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+      b[this.count++] = (byte) (0x80 | (c & 0x3F));
+      return i;
+    }
+    if (Character.isHighSurrogate(c) && ((i + 1) < s.length()) && Character.isLowSurrogate(s.charAt(i + 1))) {
+      int codePoint = Character.toCodePoint(c, s.charAt(i + 1));
+      b[this.count++] = (byte) (0xF0 | (codePoint >> 18));
+      b[this.count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+      b[this.count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+      b[this.count++] = (byte) (0x80 | (codePoint & 0x3F));
+      return i + 1;
+    }
+    // unpaired surrogate, same replacement as the JDK encoder
+    b[this.count++] = '?';
+    return i;
+  }
+
+  private void writeUnicodeEscape(char c) {
+    this.ensureCapacity(6);
+    byte[] b = this.buffer;
+    b[this.count++] = '\\';
+    b[this.count++] = 'u';
+    b[this.count++] = HEX_DIGITS[(c >> 12) & 0xF];
+    b[this.count++] = HEX_DIGITS[(c >> 8) & 0xF];
+    b[this.count++] = HEX_DIGITS[(c >> 4) & 0xF];
+    b[this.count++] = HEX_DIGITS[c & 0xF];
+  }
+
+  private void writeLong(long value) {
+    if (value == Long.MIN_VALUE) {
+      // can not be negated
+      this.writeAscii(Long.toString(value));
+      return;
+    }
+    // 19 digits and the sign
+    this.ensureCapacity(20);
+    long remaining = value;
+    if (remaining < 0L) {
+      this.buffer[this.count++] = '-';
+      remaining = -remaining;
+    }
+    int digits = 1;
+    for (long limit = 10L; (digits < 19) && (remaining >= limit); limit *= 10L) {
+      digits += 1;
+    }
+    int position = this.count + digits;
+    this.count = position;
+    do {
+      this.buffer[--position] = (byte) ('0' + (remaining % 10L));
+      remaining /= 10L;
+    } while (remaining != 0L);
+  }
+
+  /**
+   * Writes a string that is known to only contain ASCII characters.
+   */
+  private void writeAscii(String s) {
+    int length = s.length();
+    this.ensureCapacity(length);
+    for (int i = 0; i < length; i++) {
+      this.buffer[this.count++] = (byte) s.charAt(i);
+    }
+  }
+
+  private void writeByte(int b) {
+    this.ensureCapacity(1);
+    this.buffer[this.count++] = (byte) b;
+  }
+
+  private void writeBytes(byte[] b) {
+    this.ensureCapacity(b.length);
+    System.arraycopy(b, 0, this.buffer, this.count, b.length);
+    this.count += b.length;
+  }
+
+  private void ensureCapacity(int additional) {
+    int required = this.count + additional;
+    if (required > this.buffer.length) {
+      this.buffer = Arrays.copyOf(this.buffer, Math.max(required, this.buffer.length * 2));
+    }
+  }
+
+}
@@ -7,6 +7,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -15,10 +16,13 @@ import java.util.concurrent.ConcurrentHashMap;
  * alternating between a key and a value.
  * <p>
  * This is intended just to be passed to other map copy constructors like
- * {@link ConcurrentHashMap#ConcurrentHashMap(Map)} and therefore implements
- * only a minimal set of methods.
+ * {@link ConcurrentHashMap#ConcurrentHashMap(Map)} or to {@link Map#putAll(Map)}
+ * and therefore implements only a minimal set of methods. Since the size is
+ * known upfront the target map can be sized correctly and never has to rehash.
  * <p>
- * Note that insertion does not check for existing keys.
+ * Note that insertion does not check for existing keys, if a key is added
+ * multiple times the last value wins, both when copied into a target map
+ * and in {@link #get(Object)}.
  *
  * @param <K> the key type
  * @param <V> the value type
@@ -41,6 +45,32 @@ final class EntrySetMap<K, V> extends AbstractMap<K, V> {
     return this.entries.size() / 2;
   }
 
+  @Override
+  public V get(Object key) {
+    int index = this.lastIndexOf(key);
+    if (index == -1) {
+      return null;
+    }
+    @SuppressWarnings("unchecked")
+    V value = (V) this.entries.get(index + 1);
+    return value;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return this.lastIndexOf(key) != -1;
+  }
+
+  private int lastIndexOf(Object key) {
+    // from the end so that the last value wins like in a copy
+    for (int i = this.entries.size() - 2; i >= 0; i -= 2) {
+      if (Objects.equals(this.entries.get(i), key)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
   @Override
   public V put(K key, V value) {
     this.entries.add(key);
@@ -0,0 +1,327 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.util.Map;
+
+import org.springframework.batch.core.JobParameter;
+import org.springframework.batch.core.JobParameters;
+
+import com.github.marschall.jsonbexecutioncontextserializer.ExecutionContextWrapperSerializer.ValueBinder;
+
+import jakarta.json.JsonValue;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbException;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonGeneratorFactory;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
+import jakarta.json.stream.JsonParserFactory;
+import jakarta.json.stream.JsonParsingException;
+
+/**
+ * Reads and writes the envelope of a JSON context with JSON-P factories
+ * created once instead of going through {@link Jsonb}.
+ * <p>
+ * Going through {@link Jsonb#toJson(Object, OutputStream)} and
+ * {@link Jsonb#fromJson(InputStream, Class)} resolves the root type and
+ * sets up a serialization or deserialization context on every call which
+ * dominates the cost of small contexts. The envelope is fixed, together
+ * with the values read and written directly by
+ * {@link ExecutionContextWrapperSerializer} most contexts never reach
+ * JSON-B. Only values that need object binding are passed to JSON-B
+ * individually, the output is identical. Job parameters are bound by
+ * {@link JobParameterSerializer} and {@link JobParametersSerializer}
+ * directly as they do not need a JSON-B context.
+ * <p>
+ * Binding values individually sets up JSON-B for every value, contexts
+ * with more than {@value #MAX_BOUND_VALUES} such values are read and
+ * written by JSON-B at once. When reading this is only known once the
+ * values are encountered, the context is then read again from the start.
+ * <p>
+ * Contexts are read from their decoded text. JSON-B can only bind complete
+ * documents, a value is bound from its slice of the text like
+ * {@link LazyContextReader} does instead of being parsed into a tree and
+ * written out again. Reading the context again needs no buffering of the
+ * stream.
+ */
+final class EnvelopeEngine {
+
+  private static final int MAX_BOUND_VALUES = 1;
+
+  private final ExecutionContextWrapperSerializer wrapperSerializer;
+
+  /**
+   * Creates {@link DirectJsonGenerator}s, {@code null} if contexts are
+   * written by JSON-B.
+   */
+  private final JsonGeneratorFactory generatorFactory;
+
+  private final JsonParserFactory parserFactory;
+
+  private final Charset encoding;
+
+  private final JsonbValueBinder binder;
+
+  private final Jsonb jsonb;
+
+  /**
+   * {@code null} if disabled.
+   */
+  private final FragmentCache fragmentCache;
+
+  /**
+   * Creates a new engine.
+   *
+   * @param wrapperSerializer reads and writes the entries
+   * @param jobParameterSerializer binds job parameters
+   * @param jsonb the instance used to bind values, has to use
+   *        {@code wrapperSerializer} and {@code encoding}
+   * @param generatorFactory creates {@link DirectJsonGenerator}s,
+   *        {@code null} if contexts are written by JSON-B
+   * @param parserFactory creates the parsers for reading
+   * @param encoding the charset of contexts
+   * @param fragmentCache holds encoded entries for writing, {@code null}
+   *        if disabled
+   */
+  EnvelopeEngine(ExecutionContextWrapperSerializer wrapperSerializer, JobParameterSerializer jobParameterSerializer,
+      Jsonb jsonb, JsonGeneratorFactory generatorFactory, JsonParserFactory parserFactory, Charset encoding,
+      FragmentCache fragmentCache) {
+    this.wrapperSerializer = wrapperSerializer;
+    this.generatorFactory = generatorFactory;
+    this.parserFactory = parserFactory;
+    this.encoding = encoding;
+    this.binder = new JsonbValueBinder(jsonb, jobParameterSerializer);
+    this.jsonb = jsonb;
+    this.fragmentCache = fragmentCache;
+  }
+
+  /**
+   * Whether a context should be written by this engine, requires a
+   * {@link DirectJsonGenerator} to insert the values bound by JSON-B.
+   *
+   * @param context the context to write
+   * @return whether {@link #write(Map, OutputStream)} should be used
+   */
+  boolean shouldWrite(Map<String, Object> context) {
+    if (this.generatorFactory == null) {
+      return false;
+    }
+    int boundValues = 0;
+    for (Object value : context.values()) {
+      if (this.wrapperSerializer.needsBinding(value) && (++boundValues > MAX_BOUND_VALUES)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Writes a complete context, closes the stream like JSON-B.
+   *
+   * @param context the context to write
+   * @param out the stream to write to
+   */
+  void write(Map<String, Object> context, OutputStream out) {
+    try (JsonGenerator generator = this.generatorFactory.createGenerator(out, this.encoding)) {
+      DirectJsonGenerator directGenerator = (DirectJsonGenerator) generator;
+      if (this.fragmentCache != null) {
+        this.wrapperSerializer.writeContext(context, directGenerator, this.fragmentCache, this.binder);
+      } else {
+        this.wrapperSerializer.writeContext(context, directGenerator, directGenerator, this.binder);
+      }
+    }
+  }
+
+  /**
+   * Reads a complete context.
+   *
+   * @param in the stream to read from
+   * @return the entries
+   * @throws JsonbException if the context is not valid
+   * @throws IOException if reading from the stream failed
+   */
+  Map<String, Object> read(InputStream in) throws IOException {
+    String json = new String(in.readAllBytes(), this.encoding);
+    try (JsonParser parser = this.parserFactory.createParser(new StringReader(json))) {
+      if (parser.next() != Event.START_OBJECT) {
+        throw new JsonbException("START_OBJECT expected");
+      }
+      return this.wrapperSerializer.readEntries(parser, new LimitedValueBinder(this.binder, json));
+    } catch (JsonParsingException e) {
+      throw new JsonbException("could not parse context", e);
+    } catch (TooManyBoundValuesException e) {
+      return this.jsonb.fromJson(json, ExecutionContextWrapper.class).getMap();
+    }
+  }
+
+  /**
+   * Thrown when a context being read has more than
+   * {@value #MAX_BOUND_VALUES} values that need binding. Without a stack
+   * trace as it is only used for control flow.
+   */
+  static final class TooManyBoundValuesException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    static final TooManyBoundValuesException INSTANCE = new TooManyBoundValuesException();
+
+    private TooManyBoundValuesException() {
+      super(null, null, false, false);
+    }
+
+  }
+
+  /**
+   * Binds up to {@value #MAX_BOUND_VALUES} values for reading a single
+   * context, the same limit {@link #shouldWrite(Map)} applies.
+   */
+  static final class LimitedValueBinder implements ValueBinder {
+
+    private final JsonbValueBinder binder;
+
+    /**
+     * The context being read.
+     */
+    private final String json;
+
+    private int boundValues;
+
+    LimitedValueBinder(JsonbValueBinder binder, String json) {
+      this.binder = binder;
+      this.json = json;
+    }
+
+    @Override
+    public void write(Object value, JsonGenerator generator) {
+      this.binder.write(value, generator);
+    }
+
+    @Override
+    public void write(String key, Object value, JsonGenerator generator) {
+      this.binder.write(key, value, generator);
+    }
+
+    @Override
+    public Object read(Type type, JsonParser parser) {
+      // job parameters are bound without JSON-B
+      if ((type != JobParameter.class) && (type != JobParameters.class) && (++this.boundValues > MAX_BOUND_VALUES)) {
+        throw TooManyBoundValuesException.INSTANCE;
+      }
+      return this.binder.read(type, parser, this.json);
+    }
+
+  }
+
+  /**
+   * Binds values with a {@link Jsonb} instance.
+   */
+  static final class JsonbValueBinder implements ValueBinder {
+
+    private final Jsonb jsonb;
+
+    private final JobParameterSerializer jobParameterSerializer;
+
+    private final JobParametersSerializer jobParametersSerializer;
+
+    JsonbValueBinder(Jsonb jsonb, JobParameterSerializer jobParameterSerializer) {
+      this.jsonb = jsonb;
+      this.jobParameterSerializer = jobParameterSerializer;
+      this.jobParametersSerializer = new JobParametersSerializer(jobParameterSerializer);
+    }
+
+    @Override
+    public void write(Object value, JsonGenerator generator) {
+      if (value instanceof JobParameter<?> jobParameter) {
+        this.jobParameterSerializer.serialize(jobParameter, generator, null);
+        return;
+      }
+      if (value instanceof JobParameters jobParameters) {
+        this.jobParametersSerializer.serialize(jobParameters, generator, null);
+        return;
+      }
+      EncodedValue encoded = new EncodedValue();
+      this.jsonb.toJson(value, encoded);
+      encoded.writeTo((DirectJsonGenerator) generator);
+    }
+
+    @Override
+    public void write(String key, Object value, JsonGenerator generator) {
+      generator.writeKey(key);
+      this.write(value, generator);
+    }
+
+    @Override
+    public Object read(Type type, JsonParser parser) {
+      return this.read(type, parser, null);
+    }
+
+    /**
+     * Reads a value, objects and arrays are bound from their slice of the
+     * text of the context.
+     *
+     * @param type the type of the value, a class or a parameterized type
+     * @param parser the parser positioned at the first event of the value
+     * @param json the text {@code parser} reads, {@code null} if not known
+     * @return the value read
+     */
+    Object read(Type type, JsonParser parser, String json) {
+      if (type == JobParameter.class) {
+        // positioned at the start of the object like in JSON-B
+        return this.jobParameterSerializer.deserialize(parser, null, JobParameter.class);
+      }
+      if (type == JobParameters.class) {
+        return this.jobParametersSerializer.deserialize(parser, null, JobParameters.class);
+      }
+      // JSON-B can only bind complete documents
+      String slice = json != null ? slice(parser, json) : null;
+      if (slice != null) {
+        return this.jsonb.fromJson(slice, type);
+      }
+      JsonValue value = parser.getValue();
+      return this.jsonb.fromJson(value.toString(), type);
+    }
+
+    /**
+     * Skips an object or array and returns its text.
+     *
+     * @return the text of the value, {@code null} if the value is a scalar
+     *         or the parser does not report character offsets
+     */
+    private static String slice(JsonParser parser, String json) {
+      // the offset is after the first character of an object or array, -1 if not supported
+      long start = parser.getLocation().getStreamOffset() - 1L;
+      if ((start < 0L) || (start >= json.length())) {
+        return null;
+      }
+      char first = json.charAt((int) start);
+      if (first == '{') {
+        parser.skipObject();
+      } else if (first == '[') {
+        parser.skipArray();
+      } else {
+        // scalars are short, going through a JsonValue is fine
+        return null;
+      }
+      return json.substring((int) start, (int) parser.getLocation().getStreamOffset());
+    }
+
+  }
+
+  /**
+   * Gives access to the encoded bytes without copying them.
+   */
+  static final class EncodedValue extends ByteArrayOutputStream {
+
+    void writeTo(DirectJsonGenerator generator) {
+      generator.writeEncodedValue(this.buf, this.count);
+    }
+
+  }
+
+}
@@ -0,0 +1,44 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * Base class of the JFR events of {@link JsonbExecutionContextSerializer}.
+ * <p>
+ * The events are enabled by default with a threshold of 20 ms, like the
+ * file I/O events of the JDK. The slowest key is only recorded while the
+ * event is enabled.
+ */
+@Category({"Spring Batch", "Execution Context"})
+@StackTrace(false)
+@Threshold("20 ms")
+abstract class ExecutionContextEvent extends Event {
+
+  @Label("Size")
+  @Description("Size of the serialized context")
+  @DataAmount
+  long size;
+
+  @Label("Key Count")
+  int keyCount;
+
+  @Label("Slowest Key")
+  @Description("Key of the value that took the longest")
+  String slowestKey;
+
+  @Label("Slowest Type")
+  @Description("Class of the value that took the longest")
+  Class<?> slowestType;
+
+  @Label("Slowest Value Duration")
+  @Timespan
+  long slowestDuration;
+
+}
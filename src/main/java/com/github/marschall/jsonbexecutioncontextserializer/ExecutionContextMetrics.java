@@ -0,0 +1,87 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+/**
+ * Receives the cost of serializing and deserializing execution contexts.
+ * <p>
+ * The interface has no dependencies so that it can be bridged to any
+ * metrics library, for example by recording {@code durationNanos} in a
+ * Micrometer {@code Timer} and {@code size} in a
+ * {@code DistributionSummary} tagged with the operation and the value type.
+ * <p>
+ * Methods are called on the thread that (de)serializes the context, during
+ * a step this is usually the step thread. They have to be thread safe and
+ * should return quickly.
+ *
+ * @see JsonbExecutionContextSerializer.Builder#metrics(ExecutionContextMetrics, int)
+ */
+public interface ExecutionContextMetrics {
+
+  /**
+   * Called after a sampled context has been serialized or deserialized.
+   *
+   * @param operation the operation
+   * @param durationNanos the duration of the operation in nanoseconds
+   * @param size the size of the serialized context in bytes
+   * @param keyCount the number of keys of the context
+   */
+  void operationRecorded(Operation operation, long durationNanos, long size, int keyCount);
+
+  /**
+   * Called for every value of a sampled context after it has been
+   * serialized or deserialized.
+   * <p>
+   * Values of contexts read with
+   * {@link JsonbExecutionContextSerializer#deserializeLazily(java.io.InputStream)}
+   * are not recorded. Values written from the cache of
+   * {@link JsonbExecutionContextSerializer.Builder#fragmentCache(int, int)}
+   * are recorded with a duration of {@code 0}. The default implementation
+   * does nothing.
+   *
+   * @param operation the operation
+   * @param type the class of the value
+   * @param durationNanos the duration including the key in nanoseconds
+   * @param size the approximate encoded size including the key in bytes,
+   *             {@code -1} if not known
+   */
+  default void valueRecorded(Operation operation, Class<?> type, long durationNanos, long size) {
+    // ignore by default
+  }
+
+  /**
+   * Called after an operation that took longer than the configured
+   * threshold, independent of sampling.
+   * <p>
+   * The default implementation does nothing.
+   *
+   * @param operation the operation
+   * @param durationNanos the duration of the operation in nanoseconds
+   * @param slowestKey the key of the value that took the longest,
+   *                   {@code null} if the context is empty or if values
+   *                   are not recorded
+   * @param slowestType the class of the value that took the longest,
+   *                    {@code null} if the context is empty or if values
+   *                    are not recorded
+   * @see JsonbExecutionContextSerializer.Builder#slowOperationThreshold(java.time.Duration)
+   */
+  default void slowOperation(Operation operation, long durationNanos, String slowestKey, Class<?> slowestType) {
+    // ignore by default
+  }
+
+  /**
+   * The recorded operations.
+   */
+  enum Operation {
+
+    /**
+     * Serializing a context.
+     */
+    SERIALIZE,
+
+    /**
+     * Deserializing a context.
+     */
+    DESERIALIZE;
+
+  }
+
+}
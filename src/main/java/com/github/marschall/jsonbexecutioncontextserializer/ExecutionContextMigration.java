@@ -0,0 +1,596 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.support.lob.DefaultLobHandler;
+import org.springframework.jdbc.support.lob.LobCreator;
+import org.springframework.jdbc.support.lob.LobHandler;
+import org.springframework.util.Assert;
+
+/**
+ * Migrates stored contexts written by Spring Batch's
+ * {@code Jackson2ExecutionContextStringSerializer} to the format of a
+ * {@link JsonbExecutionContextSerializer}.
+ * <p>
+ * The rows of a context table are read in batches ordered by their ID.
+ * The contexts of a batch are transcoded in parallel and written back
+ * with a batch update, every batch is committed in its own transaction.
+ * Rows that are not in the Jackson format are skipped, so a migration
+ * that failed or was stopped can be resumed by starting after the last ID
+ * reported to the {@link ProgressListener} or simply by running it again.
+ * <p>
+ * A row that can not be transcoded, for example because a class is
+ * missing, is left as it is and reported to the
+ * {@link ProgressListener#rowFailed(String, long, Exception)} and in
+ * {@link Progress#getFailedIds()}, the migration continues with the next
+ * row. Running the migration again retries only these rows.
+ * <p>
+ * A row is only updated if its short context still holds the value that
+ * was read, a context written by the application in the meantime is left
+ * as it is. The application may therefore keep running during the
+ * migration once it uses a {@link JsonbExecutionContextSerializer}, which
+ * reads both formats. Applications still writing the Jackson format have
+ * to be stopped, a change of a long context may not be visible in its
+ * short context.
+ * <p>
+ * Only plain JDBC is used, the short and the long context are written
+ * like {@code JdbcExecutionContextDao} does, the long context with a
+ * {@link LobHandler}.
+ */
+public final class ExecutionContextMigration {
+
+  private final DataSource dataSource;
+
+  private final JsonbExecutionContextSerializer serializer;
+
+  private final String tablePrefix;
+
+  private final int batchSize;
+
+  private final Executor executor;
+
+  private final int shortContextLength;
+
+  private final Charset charset;
+
+  private final LobHandler lobHandler;
+
+  private final ProgressListener listener;
+
+  private ExecutionContextMigration(Builder builder) {
+    this.dataSource = builder.dataSource;
+    this.serializer = builder.serializer;
+    this.tablePrefix = builder.tablePrefix;
+    this.batchSize = builder.batchSize;
+    this.executor = builder.executor;
+    this.shortContextLength = builder.shortContextLength;
+    this.charset = builder.charset;
+    this.lobHandler = builder.lobHandler;
+    this.listener = builder.listener;
+  }
+
+  /**
+   * Creates a new builder.
+   *
+   * @param dataSource the data source of the job repository, not {@code null}
+   * @param serializer the serializer of the job repository, not {@code null}
+   * @return the new builder
+   */
+  public static Builder builder(DataSource dataSource, JsonbExecutionContextSerializer serializer) {
+    return new Builder(dataSource, serializer);
+  }
+
+  /**
+   * Migrates the contexts of job executions.
+   *
+   * @param afterId the ID after which to start, {@code 0} for all contexts
+   * @return the progress after the last batch
+   * @throws SQLException if accessing the database failed, all batches
+   *         before the failed one are committed
+   */
+  public Progress migrateJobExecutionContexts(long afterId) throws SQLException {
+    return this.migrate("JOB_EXECUTION_CONTEXT", "JOB_EXECUTION_ID", afterId);
+  }
+
+  /**
+   * Migrates the contexts of step executions.
+   *
+   * @param afterId the ID after which to start, {@code 0} for all contexts
+   * @return the progress after the last batch
+   * @throws SQLException if accessing the database failed, all batches
+   *         before the failed one are committed
+   */
+  public Progress migrateStepExecutionContexts(long afterId) throws SQLException {
+    return this.migrate("STEP_EXECUTION_CONTEXT", "STEP_EXECUTION_ID", afterId);
+  }
+
+  private Progress migrate(String tableName, String idColumn, long afterId) throws SQLException {
+    String table = this.tablePrefix + tableName;
+    String select = "SELECT " + idColumn + ", SHORT_CONTEXT, SERIALIZED_CONTEXT FROM " + table
+        + " WHERE " + idColumn + " > ? ORDER BY " + idColumn;
+    // not updated if the application wrote the context after it was read
+    String update = "UPDATE " + table + " SET SHORT_CONTEXT = ?, SERIALIZED_CONTEXT = ? WHERE " + idColumn + " = ?"
+        + " AND SHORT_CONTEXT = ?";
+    long start = System.nanoTime();
+    Progress progress = new Progress(table, afterId, 0L, 0L, 0L, List.of(), Duration.ZERO);
+    List<Long> failedIds = new ArrayList<>();
+    try (Connection connection = this.dataSource.getConnection()) {
+      boolean autoCommit = connection.getAutoCommit();
+      connection.setAutoCommit(false);
+      try {
+        while (true) {
+          List<Row> rows = this.readBatch(connection, select, progress.getLastId());
+          if (rows.isEmpty()) {
+            return progress;
+          }
+          List<Row> jacksonRows = new ArrayList<>(rows.size());
+          for (Row row : rows) {
+            if (JacksonFormatReader.isJacksonFormat(row.context)) {
+              jacksonRows.add(row);
+            }
+          }
+          String[] contexts = new String[jacksonRows.size()];
+          Exception[] failures = new Exception[jacksonRows.size()];
+          int changed = 0;
+          if (!jacksonRows.isEmpty()) {
+            this.transcode(jacksonRows, contexts, failures);
+            changed = this.writeBatch(connection, update, jacksonRows, contexts);
+          }
+          connection.commit();
+          int failed = 0;
+          for (int i = 0; i < failures.length; i++) {
+            if (failures[i] != null) {
+              failedIds.add(jacksonRows.get(i).id);
+              failed += 1;
+            }
+          }
+          progress = new Progress(table, rows.get(rows.size() - 1).id,
+              progress.getRowsRead() + rows.size(), progress.getRowsMigrated() + jacksonRows.size() - failed - changed,
+              progress.getRowsChanged() + changed, List.copyOf(failedIds), Duration.ofNanos(System.nanoTime() - start));
+          if (this.listener != null) {
+            for (int i = 0; i < failures.length; i++) {
+              if (failures[i] != null) {
+                this.listener.rowFailed(table, jacksonRows.get(i).id, failures[i]);
+              }
+            }
+            this.listener.batchMigrated(progress);
+          }
+        }
+      } catch (SQLException | RuntimeException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(autoCommit);
+      }
+    }
+  }
+
+  private List<Row> readBatch(Connection connection, String select, long afterId) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(select)) {
+      statement.setMaxRows(this.batchSize);
+      statement.setFetchSize(this.batchSize);
+      statement.setLong(1, afterId);
+      List<Row> rows = new ArrayList<>(this.batchSize);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          String shortContext = resultSet.getString(2);
+          String longContext = resultSet.getString(3);
+          // same precedence as JdbcExecutionContextDao
+          rows.add(new Row(resultSet.getLong(1), shortContext, longContext != null ? longContext : shortContext));
+        }
+      }
+      return rows;
+    }
+  }
+
+  /**
+   * Transcodes the contexts in parallel, a failure only affects its own row.
+   *
+   * @param rows the rows in the Jackson format
+   * @param contexts the transcoded contexts, {@code null} for failed rows
+   * @param failures the failures, {@code null} for transcoded rows
+   */
+  private void transcode(List<Row> rows, String[] contexts, Exception[] failures) {
+    try {
+      BulkOperation.run(rows.size(), this.executor, (from, to) -> {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        for (int i = from; i < to; i++) {
+          buffer.reset();
+          try {
+            Map<String, Object> context = this.serializer.deserialize(new ByteArrayInputStream(rows.get(i).context.getBytes(this.charset)));
+            this.serializer.serialize(context, buffer);
+            contexts[i] = buffer.toString(this.charset);
+          } catch (IOException | RuntimeException e) {
+            failures[i] = e;
+          }
+        }
+      });
+    } catch (IOException e) {
+      // not thrown, failures are recorded per row
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Writes the transcoded contexts.
+   *
+   * @param contexts the transcoded contexts, rows without one are skipped
+   * @return the number of rows that were not updated because the
+   *         application changed them after they were read
+   */
+  private int writeBatch(Connection connection, String update, List<Row> rows, String[] contexts) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(update);
+         LobCreator lobCreator = this.lobHandler.getLobCreator()) {
+      int batched = 0;
+      for (int i = 0; i < rows.size(); i++) {
+        String context = contexts[i];
+        if (context == null) {
+          continue;
+        }
+        // same split as JdbcExecutionContextDao
+        if (context.length() > this.shortContextLength) {
+          statement.setString(1, context.substring(0, this.shortContextLength - 8) + " ...");
+          lobCreator.setClobAsString(statement, 2, context);
+        } else {
+          statement.setString(1, context);
+          statement.setNull(2, Types.CLOB);
+        }
+        Row row = rows.get(i);
+        statement.setLong(3, row.id);
+        statement.setString(4, row.shortContext);
+        statement.addBatch();
+        batched += 1;
+      }
+      if (batched == 0) {
+        return 0;
+      }
+      int changed = 0;
+      for (int updateCount : statement.executeBatch()) {
+        // Statement.SUCCESS_NO_INFO if the driver does not know
+        if (updateCount == 0) {
+          changed += 1;
+        }
+      }
+      return changed;
+    }
+  }
+
+  /**
+   * A row of a context table.
+   */
+  static final class Row {
+
+    final long id;
+
+    /**
+     * The value of the {@code SHORT_CONTEXT} column.
+     */
+    final String shortContext;
+
+    /**
+     * The complete context.
+     */
+    final String context;
+
+    Row(long id, String shortContext, String context) {
+      this.id = id;
+      this.shortContext = shortContext;
+      this.context = context;
+    }
+
+  }
+
+  /**
+   * The progress of a migration after a batch has been committed.
+   */
+  public static final class Progress {
+
+    private final String table;
+
+    private final long lastId;
+
+    private final long rowsRead;
+
+    private final long rowsMigrated;
+
+    private final long rowsChanged;
+
+    private final List<Long> failedIds;
+
+    private final Duration elapsed;
+
+    Progress(String table, long lastId, long rowsRead, long rowsMigrated, long rowsChanged, List<Long> failedIds,
+        Duration elapsed) {
+      this.table = table;
+      this.lastId = lastId;
+      this.rowsRead = rowsRead;
+      this.rowsMigrated = rowsMigrated;
+      this.rowsChanged = rowsChanged;
+      this.failedIds = failedIds;
+      this.elapsed = elapsed;
+    }
+
+    /**
+     * Returns the name of the table being migrated.
+     *
+     * @return the name of the table including the prefix
+     */
+    public String getTable() {
+      return this.table;
+    }
+
+    /**
+     * Returns the ID of the last row of the last batch, the migration can
+     * be resumed after this ID.
+     *
+     * @return the ID of the last row
+     */
+    public long getLastId() {
+      return this.lastId;
+    }
+
+    /**
+     * Returns the number of rows read.
+     *
+     * @return the number of rows read including rows not in the Jackson format
+     */
+    public long getRowsRead() {
+      return this.rowsRead;
+    }
+
+    /**
+     * Returns the number of rows migrated.
+     *
+     * @return the number of rows in the Jackson format that were rewritten
+     */
+    public long getRowsMigrated() {
+      return this.rowsMigrated;
+    }
+
+    /**
+     * Returns the number of rows that were not migrated because the
+     * application wrote them after they were read.
+     *
+     * @return the number of rows changed during the migration
+     */
+    public long getRowsChanged() {
+      return this.rowsChanged;
+    }
+
+    /**
+     * Returns the number of rows that were not migrated because they could
+     * not be transcoded.
+     *
+     * @return the number of failed rows
+     */
+    public long getRowsFailed() {
+      return this.failedIds.size();
+    }
+
+    /**
+     * Returns the IDs of the rows that were not migrated because they could
+     * not be transcoded. These rows are still in the Jackson format.
+     *
+     * @return the IDs of the failed rows in ascending order, unmodifiable
+     */
+    public List<Long> getFailedIds() {
+      return this.failedIds;
+    }
+
+    /**
+     * Returns the time elapsed since the start of the migration.
+     *
+     * @return the time elapsed
+     */
+    public Duration getElapsed() {
+      return this.elapsed;
+    }
+
+    /**
+     * Returns the throughput of the migration.
+     *
+     * @return the number of rows read per second
+     */
+    public double getRowsPerSecond() {
+      long nanos = this.elapsed.toNanos();
+      if (nanos == 0L) {
+        return 0.0d;
+      }
+      return this.rowsRead * 1_000_000_000.0d / nanos;
+    }
+
+    @Override
+    public String toString() {
+      return this.table + ": " + this.rowsMigrated + " of " + this.rowsRead + " rows migrated up to ID "
+          + this.lastId + ", " + this.rowsChanged + " changed concurrently, " + this.failedIds.size() + " failed"
+          + " (" + Math.round(this.getRowsPerSecond()) + " rows/s)";
+    }
+
+  }
+
+  /**
+   * Notified after every batch of a migration and about every row that
+   * could not be transcoded.
+   */
+  @FunctionalInterface
+  public interface ProgressListener {
+
+    /**
+     * Called after a batch has been committed.
+     *
+     * @param progress the progress so far
+     */
+    void batchMigrated(Progress progress);
+
+    /**
+     * Called for every row that could not be transcoded after its batch has
+     * been committed and before {@link #batchMigrated(Progress)}. The row is
+     * left as it is. The default implementation does nothing, the IDs are
+     * also available from {@link Progress#getFailedIds()}.
+     *
+     * @param table the name of the table including the prefix
+     * @param id the ID of the row
+     * @param cause why the context could not be transcoded
+     */
+    default void rowFailed(String table, long id, Exception cause) {
+      // only reported in the progress
+    }
+
+  }
+
+  /**
+   * Builder for {@link ExecutionContextMigration}.
+   */
+  public static final class Builder {
+
+    private final DataSource dataSource;
+
+    private final JsonbExecutionContextSerializer serializer;
+
+    private String tablePrefix;
+
+    private int batchSize;
+
+    private Executor executor;
+
+    private int shortContextLength;
+
+    private Charset charset;
+
+    private LobHandler lobHandler;
+
+    private ProgressListener listener;
+
+    Builder(DataSource dataSource, JsonbExecutionContextSerializer serializer) {
+      Assert.notNull(dataSource, "A data source is required");
+      Assert.notNull(serializer, "A serializer is required");
+      this.dataSource = dataSource;
+      this.serializer = serializer;
+      this.tablePrefix = "BATCH_";
+      this.batchSize = 1000;
+      this.executor = ForkJoinPool.commonPool();
+      this.shortContextLength = JsonbExecutionContextSerializer.SHORT_CONTEXT_LENGTH;
+      this.charset = StandardCharsets.UTF_8;
+      this.lobHandler = new DefaultLobHandler();
+    }
+
+    /**
+     * Sets the prefix of the table names, the default is {@code "BATCH_"}.
+     *
+     * @param tablePrefix the prefix of the table names, not {@code null}
+     * @return this builder
+     */
+    public Builder tablePrefix(String tablePrefix) {
+      Assert.notNull(tablePrefix, "A table prefix is required");
+      this.tablePrefix = tablePrefix;
+      return this;
+    }
+
+    /**
+     * Sets the number of rows read, transcoded and committed together,
+     * the default is {@code 1000}.
+     *
+     * @param batchSize the number of rows per batch, positive
+     * @return this builder
+     */
+    public Builder batchSize(int batchSize) {
+      Assert.isTrue(batchSize > 0, "batch size must be positive");
+      this.batchSize = batchSize;
+      return this;
+    }
+
+    /**
+     * Sets the executor transcoding the contexts, the default is the
+     * common fork-join pool.
+     *
+     * @param executor the executor, not {@code null}
+     * @return this builder
+     */
+    public Builder executor(Executor executor) {
+      Assert.notNull(executor, "An executor is required");
+      this.executor = executor;
+      return this;
+    }
+
+    /**
+     * Sets the length of the {@code SHORT_CONTEXT} column, has to match
+     * the job repository.
+     *
+     * @param shortContextLength the length of the column in characters
+     * @return this builder
+     */
+    public Builder shortContextLength(int shortContextLength) {
+      Assert.isTrue(shortContextLength > 8, "short context length must be larger than 8");
+      this.shortContextLength = shortContextLength;
+      return this;
+    }
+
+    /**
+     * Sets the charset of the contexts, has to match the job repository.
+     * The default is UTF-8.
+     *
+     * @param charset the charset, not {@code null}
+     * @return this builder
+     */
+    public Builder charset(Charset charset) {
+      Assert.notNull(charset, "A charset is required");
+      this.charset = charset;
+      return this;
+    }
+
+    /**
+     * Sets the handler writing the {@code SERIALIZED_CONTEXT} column, has to
+     * match the job repository. The default is a {@link DefaultLobHandler}.
+     *
+     * @param lobHandler the handler, not {@code null}
+     * @return this builder
+     */
+    public Builder lobHandler(LobHandler lobHandler) {
+      Assert.notNull(lobHandler, "A LOB handler is required");
+      this.lobHandler = lobHandler;
+      return this;
+    }
+
+    /**
+     * Sets a listener notified after every batch, for example to log the
+     * throughput or to record the ID to resume from.
+     *
+     * @param listener the listener, not {@code null}
+     * @return this builder
+     */
+    public Builder listener(ProgressListener listener) {
+      Assert.notNull(listener, "A listener is required");
+      this.listener = listener;
+      return this;
+    }
+
+    /**
+     * Creates the migration.
+     *
+     * @return the migration
+     */
+    public ExecutionContextMigration build() {
+      return new ExecutionContextMigration(this);
+    }
+
+  }
+
+}
@@ -0,0 +1,128 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+
+import org.springframework.util.Assert;
+
+import jakarta.json.spi.JsonProvider;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
+
+/**
+ * Converts serialized contexts between the JSON and the binary format.
+ * <p>
+ * The conversion works on the document structure, no classes of values
+ * have to be loaded. Input in any format, compressed or not, is accepted.
+ * The output is never compressed.
+ * <p>
+ * Useful to inspect binary contexts or to migrate stored contexts from one
+ * format to the other.
+ *
+ * @see JsonbExecutionContextSerializer.Builder#binaryFormat()
+ */
+public final class ExecutionContextTranscoder {
+
+  private ExecutionContextTranscoder() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Converts a serialized context to JSON.
+   *
+   * @param in the serialized context, not {@code null}, not closed
+   * @param out the stream to write the JSON to, not {@code null}, not closed
+   * @throws IOException in case of I/O errors
+   */
+  public static void toJson(InputStream in, OutputStream out) throws IOException {
+    Assert.notNull(in, "An InputStream is required");
+    Assert.notNull(out, "An OutputStream is required");
+    JsonProvider provider = JsonProvider.provider();
+    try (JsonParser parser = createParser(in, provider);
+         JsonGenerator generator = provider.createGenerator(new Compression.NonClosingOutputStream(out))) {
+      copy(parser, generator);
+    }
+  }
+
+  /**
+   * Converts a serialized context to the binary format.
+   *
+   * @param in the serialized context, not {@code null}, not closed
+   * @param out the stream to write the binary context to, not {@code null}, not closed
+   * @throws IOException in case of I/O errors
+   */
+  public static void toBinary(InputStream in, OutputStream out) throws IOException {
+    Assert.notNull(in, "An InputStream is required");
+    Assert.notNull(out, "An OutputStream is required");
+    ByteArrayOutputStream binary = new ByteArrayOutputStream();
+    try (JsonParser parser = createParser(in, JsonProvider.provider());
+         JsonGenerator generator = new BinaryJsonGenerator(binary)) {
+      copy(parser, generator);
+    }
+    BinaryFormat.write(binary, out);
+  }
+
+  private static JsonParser createParser(InputStream in, JsonProvider provider) throws IOException {
+    InputStream decoded = BinaryFormat.decode(Compression.readOnly().decode(in));
+    // reading everything keeps the input stream open when the parser is closed
+    byte[] data = decoded.readAllBytes();
+    if (BinaryJsonParser.isBinary(data, data.length)) {
+      return new BinaryJsonParser(data, provider);
+    }
+    return provider.createParser(new ByteArrayInputStream(data));
+  }
+
+  private static void copy(JsonParser parser, JsonGenerator generator) {
+    while (parser.hasNext()) {
+      Event event = parser.next();
+      switch (event) {
+        case START_OBJECT:
+          generator.writeStartObject();
+          break;
+        case START_ARRAY:
+          generator.writeStartArray();
+          break;
+        case END_OBJECT:
+        case END_ARRAY:
+          generator.writeEnd();
+          break;
+        case KEY_NAME:
+          generator.writeKey(parser.getString());
+          break;
+        case VALUE_STRING:
+          generator.write(parser.getString());
+          break;
+        case VALUE_NUMBER:
+          writeNumber(parser, generator);
+          break;
+        case VALUE_TRUE:
+          generator.write(true);
+          break;
+        case VALUE_FALSE:
+          generator.write(false);
+          break;
+        case VALUE_NULL:
+          generator.writeNull();
+          break;
+        default:
+          throw new IllegalStateException("unknown event: " + event);
+      }
+    }
+  }
+
+  private static void writeNumber(JsonParser parser, JsonGenerator generator) {
+    BigDecimal value = parser.getBigDecimal();
+    if (parser.isIntegralNumber()) {
+      // no ".0" or exponent in the output
+      generator.write(value.toBigInteger());
+    } else {
+      generator.write(value);
+    }
+  }
+
+}
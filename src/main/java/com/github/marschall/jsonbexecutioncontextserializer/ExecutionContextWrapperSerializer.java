@@ -5,14 +5,17 @@ import static java.util.stream.Collectors.toUnmodifiableMap;
 
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
+import org.springframework.batch.core.JobParameter;
+import org.springframework.batch.core.JobParameters;
+
 import jakarta.json.bind.JsonbException;
 import jakarta.json.bind.serializer.DeserializationContext;
 import jakarta.json.bind.serializer.JsonbDeserializer;
@@ -36,6 +39,30 @@ import jakarta.json.stream.JsonParser.Event;
  *
  * }
  * </pre></code>
+ *
+ * <h1>Compact format</h1>
+ * The compact format starts with a version marker, {@code String},
+ * {@code Boolean} and {@code Long} values are written without envelope,
+ * all other values are written as a two element array of type alias or
+ * class name and value.
+ * <pre><code>
+ * {
+ *   "@v": 2,
+ *   "FlatFileItemReader.read.count": 12345,
+ *   "name": "Bob",
+ *   "date": ["LocalDate", "2021-08-30"]
+ * }
+ * </code></pre>
+ * The reader accepts both formats.
+ *
+ * <h1>Numeric sequences</h1>
+ * Primitive arrays of {@code long}, {@code int} and {@code double} are
+ * always written and read directly. If enabled homogeneous lists of
+ * {@code Long}, {@code Integer} and {@code Double} are written with the
+ * element type, e.g. {@code "java.util.List<java.lang.Long>"} or
+ * {@code "List<Long>"}, and sequences of integral numbers with at least
+ * {@value NumericSequenceCodec#PACKED_MIN_LENGTH} elements are packed
+ * into a string. The reader accepts both independent of this setting.
  */
 final class ExecutionContextWrapperSerializer implements JsonbSerializer<ExecutionContextWrapper>, JsonbDeserializer<ExecutionContextWrapper> {
 
@@ -43,12 +70,24 @@ final class ExecutionContextWrapperSerializer implements JsonbSerializer<Executi
 
   private static final String CLASS_KEY_NAME = "@class";
 
+  /**
+   * The key of the version marker of the compact format, also used by
+   * {@link LazyContextReader}.
+   */
+  static final String VERSION_KEY_NAME = "@v";
+
+  static final int COMPACT_VERSION = 2;
+
+  private static final byte[] NO_TOKEN = new byte[0];
+
   private static final Map<String, Class<?>> JDK_CLASSES;
 
   private static final Map<String, Class<?>> SPRING_BATCH_CLASSES;
 
   static {
     List<Class<?>> jdkClasses = List.of(
+        String.class,
+        Character.class,
         Byte.class,
         Short.class,
         Integer.class,
@@ -74,7 +113,11 @@ final class ExecutionContextWrapperSerializer implements JsonbSerializer<Executi
         java.time.OffsetDateTime.class,
         java.time.ZonedDateTime.class,
         java.time.Duration.class,
-        java.time.Period.class);
+        java.time.Period.class,
+
+        long[].class,
+        int[].class,
+        double[].class);
 
     List<Class<?>> springBatchClasses = List.of(
         org.springframework.batch.core.JobParameter.class,
@@ -84,63 +127,252 @@ final class ExecutionContextWrapperSerializer implements JsonbSerializer<Executi
     SPRING_BATCH_CLASSES = toClassMap(springBatchClasses);
   }
 
+  private final ClassResolver classResolver;
+
+  private final TypeAliases typeAliases;
+
+  private final boolean compact;
+
+  private final GeneratedCodecs generatedCodecs;
+
+  /**
+   * Whether homogeneous lists of numbers are written with their element
+   * type and integral sequences are packed.
+   */
+  private final boolean numericSequences;
+
+  /**
+   * Deduplicates keys and string values read, {@code null} if disabled.
+   */
+  private final StringInterner interner;
+
+  /**
+   * The encoded start of the value envelope of a class, used with a
+   * {@link DirectJsonGenerator}. {@link #NO_TOKEN} if the type name needs
+   * escaping or is not ASCII.
+   */
+  private final ClassValue<byte[]> envelopeTokens;
+
+  ExecutionContextWrapperSerializer(ClassResolver classResolver, TypeAliases typeAliases, boolean compact,
+      GeneratedCodecs generatedCodecs, boolean numericSequences, StringInterner interner) {
+    this.classResolver = classResolver;
+    this.typeAliases = typeAliases;
+    this.compact = compact;
+    this.generatedCodecs = generatedCodecs;
+    this.numericSequences = numericSequences;
+    this.interner = interner;
+    this.envelopeTokens = new ClassValue<>() {
+
+      @Override
+      protected byte[] computeValue(Class<?> type) {
+        return ExecutionContextWrapperSerializer.this.encodeEnvelopeToken(type);
+      }
+
+    };
+  }
+
   private static Map<String, Class<?>> toClassMap(List<Class<?>> classes) {
     return classes.stream()
                   .collect(toUnmodifiableMap(Class::getName, identity()));
   }
 
+  ClassResolver getClassResolver() {
+    return this.classResolver;
+  }
+
+  TypeAliases getTypeAliases() {
+    return this.typeAliases;
+  }
+
+  boolean isCompact() {
+    return this.compact;
+  }
+
+  GeneratedCodecs getGeneratedCodecs() {
+    return this.generatedCodecs;
+  }
+
+  /**
+   * Whether a value is bound by a {@link ValueBinder} when it is written.
+   *
+   * @param value the value of an entry, not {@code null}
+   * @return whether the value is bound
+   */
+  boolean needsBinding(Object value) {
+    if (this.compact
+        && ((value instanceof String) || (value instanceof Boolean) || (value instanceof Long))) {
+      return false;
+    }
+    Class<?> valueClass = this.getValueClass(value);
+    if ((ScalarValueCodec.forClass(valueClass) != null)
+        || (valueClass == JobParameter.class) || (valueClass == JobParameters.class)) {
+      return false;
+    }
+    GeneratedCodec generatedCodec = this.generatedCodecs.get(valueClass);
+    return (generatedCodec == null) || !generatedCodec.isSelfContained();
+  }
+
   @Override
   public ExecutionContextWrapper deserialize(JsonParser parser, DeserializationContext ctx, Type rtType) {
-    Map<String, Object> map = new HashMap<>();
+    return new ExecutionContextWrapper(this.readEntries(parser, new ContextValueBinder(ctx)));
+  }
+
+  /**
+   * Reads the entries of a context after the start of the outer object up
+   * to and including its end.
+   *
+   * @param parser the parser positioned after the start of the context
+   * @param binder binds the values that are not read directly
+   * @return the entries
+   */
+  Map<String, Object> readEntries(JsonParser parser, ValueBinder binder) {
+    // accumulate cheaply, the entries are copied into the final map anyway
+    Map<String, Object> map = new EntrySetMap<>();
+    OperationRecorder recorder = OperationRecorder.current();
+    boolean compactFormat = false;
+    boolean first = true;
     Event next;
 
     while ((next = parser.next()) != Event.END_OBJECT) {
       if (next == Event.KEY_NAME) {
         String key = parser.getString();
+        if (this.interner != null) {
+          key = this.interner.internKey(key);
+        }
+        Event valueEvent = parser.next();
 
-        // "key": {
-        if (parser.next() != Event.START_OBJECT) {
-          throw new JsonbException("START_OBJECT expected");
+        // "@v": 2
+        // values in the default format are always objects so this can not be an entry
+        if (first && (valueEvent == Event.VALUE_NUMBER) && key.equals(VERSION_KEY_NAME)) {
+          checkVersion(ScalarValueCodec.readLong(parser));
+          compactFormat = true;
+          first = false;
+          continue;
         }
+        first = false;
 
-        // "@class":
-        if (parser.next() != Event.KEY_NAME) {
-          throw new JsonbException("KEY_NAME expected");
+        if (recorder != null) {
+          recorder.beginValue(parser.getLocation().getStreamOffset());
         }
-        if (!parser.getString().equals(CLASS_KEY_NAME)) {
-          throw new JsonbException(CLASS_KEY_NAME + " expected");
+        Object value;
+        if (compactFormat) {
+          value = this.readCompactValue(parser, valueEvent, binder);
+        } else {
+          value = this.readValue(parser, valueEvent, binder);
         }
+        if (recorder != null) {
+          recorder.endValue(key, value.getClass(), parser.getLocation().getStreamOffset());
+        }
+        map.put(key, value);
+      }
+    }
+    return map;
+  }
+
+  /**
+   * Reads a value in the default format.
+   */
+  private Object readValue(JsonParser parser, Event valueEvent, ValueBinder binder) {
+    // "key": {
+    if (valueEvent != Event.START_OBJECT) {
+      throw new JsonbException("START_OBJECT expected");
+    }
+
+    // "@class":
+    if (parser.next() != Event.KEY_NAME) {
+      throw new JsonbException("KEY_NAME expected");
+    }
+    if (!parser.getString().equals(CLASS_KEY_NAME)) {
+      throw new JsonbException(CLASS_KEY_NAME + " expected");
+    }
+    if (parser.next() != Event.VALUE_STRING) {
+      throw new JsonbException("string expected");
+    }
+    Class<?> valueClass = this.loadClass(parser.getString());
+
+    // "value": {
+    if (parser.next() != Event.KEY_NAME) {
+      throw new JsonbException("KEY_NAME expected");
+    }
+    if (!parser.getString().equals(VALUE_KEY_NAME)) {
+      throw new JsonbException(VALUE_KEY_NAME + " expected");
+    }
+    Object value = this.readTypedValue(parser, valueClass, binder);
+
+    // close "key": }
+    if (parser.next() != Event.END_OBJECT) {
+      throw new JsonbException("END_OBJECT expected");
+    }
+    return value;
+  }
+
+  /**
+   * Reads a value in the compact format.
+   */
+  private Object readCompactValue(JsonParser parser, Event valueEvent, ValueBinder binder) {
+    switch (valueEvent) {
+      case VALUE_STRING:
+        return this.internValue(parser.getString());
+      case VALUE_TRUE:
+        return Boolean.TRUE;
+      case VALUE_FALSE:
+        return Boolean.FALSE;
+      case VALUE_NUMBER:
+        if (!parser.isIntegralNumber()) {
+          throw new JsonbException("integral number expected");
+        }
+        return ScalarValueCodec.readLong(parser);
+      case START_ARRAY:
+        // ["LocalDate", "2021-08-30"]
         if (parser.next() != Event.VALUE_STRING) {
           throw new JsonbException("string expected");
         }
-        String className = parser.getString();
-        Class<?> valueClass;
-        try {
-          valueClass = this.resolveClass(className);
-        } catch (ClassNotFoundException e) {
-          throw new JsonbException("could not load class: " + className, e);
-        }
-
-        // "value": {
-        if (parser.next() != Event.KEY_NAME) {
-          throw new JsonbException("KEY_NAME expected");
+        String typeName = parser.getString();
+        Class<?> valueClass = this.typeAliases.resolveAlias(typeName);
+        if (valueClass == null) {
+          valueClass = this.loadClass(typeName);
         }
-        if (!parser.getString().equals(VALUE_KEY_NAME)) {
-          throw new JsonbException(VALUE_KEY_NAME + " expected");
+        Object value = this.readTypedValue(parser, valueClass, binder);
+        if (parser.next() != Event.END_ARRAY) {
+          throw new JsonbException("END_ARRAY expected");
         }
-        parser.next();
-        Object value = ctx.deserialize(valueClass, parser);
+        return value;
+      default:
+        throw new JsonbException("unexpected value: " + valueEvent);
+    }
+  }
 
-        map.put(key, value);
+  private Object readTypedValue(JsonParser parser, Class<?> valueClass, ValueBinder binder) {
+    Event valueEvent = parser.next();
+    ScalarValueCodec codec = ScalarValueCodec.forClass(valueClass);
+    if (codec != null) {
+      // common JDK types are read directly from the parser events
+      Object value = codec.read(parser, valueEvent);
+      if (value instanceof String s) {
+        return this.internValue(s);
+      }
+      return value;
+    }
+    GeneratedCodec generatedCodec = this.generatedCodecs.get(valueClass);
+    if ((generatedCodec != null) && (valueEvent == Event.START_OBJECT)) {
+      return generatedCodec.read(parser, binder);
+    }
+    return binder.read(valueClass, parser);
+  }
 
-        // close "key": }
-        if (parser.next() != Event.END_OBJECT) {
-          throw new JsonbException("END_OBJECT expected");
-        }
+  private String internValue(String value) {
+    if (this.interner == null) {
+      return value;
+    }
+    return this.interner.internValue(value);
+  }
 
-      }
+  private Class<?> loadClass(String className) {
+    try {
+      return this.resolveClass(className);
+    } catch (ClassNotFoundException e) {
+      throw new JsonbException("could not load class: " + className, e);
     }
-    return new ExecutionContextWrapper(map);
   }
 
   private Class<?> resolveClass(String className) throws ClassNotFoundException {
@@ -152,45 +384,352 @@ final class ExecutionContextWrapperSerializer implements JsonbSerializer<Executi
     if (springBatchClass != null) {
       return springBatchClass;
     }
-    return Thread.currentThread().getContextClassLoader().loadClass(className);
+    // always read, independent of this.numericSequences
+    Class<?> listClass = PrimitiveLists.forTypeName(className);
+    if (listClass != null) {
+      return listClass;
+    }
+    return this.classResolver.resolveClass(className);
   }
 
   @Override
   public void serialize(ExecutionContextWrapper wrapper, JsonGenerator generator, SerializationContext ctx) {
-    Map<String, Object> executionContext = wrapper.getMap();
-    generator.writeStartObject();
+    // the generator is wrapped by JSON-B
+    DirectJsonGenerator directGenerator = DirectJsonGenerator.currentAtRoot();
+    this.writeContext(wrapper.getMap(), generator, directGenerator, new ContextValueBinder(ctx));
+  }
+
+  /**
+   * Writes a complete context.
+   *
+   * @param executionContext the entries to write
+   * @param generator the generator to write to
+   * @param directGenerator the underlying generator if the output is
+   *        written directly, {@code null} otherwise
+   * @param binder binds the values that are not written directly
+   */
+  void writeContext(Map<String, Object> executionContext,
+      JsonGenerator generator, DirectJsonGenerator directGenerator, ValueBinder binder) {
+    this.writeStart(generator);
+    OperationRecorder recorder = OperationRecorder.current();
     for (Entry<String, Object> entry : executionContext.entrySet()) {
-      generator.writeStartObject(entry.getKey());
+      this.writeRecordedEntry(entry.getKey(), entry.getValue(), generator, directGenerator, binder, recorder);
+    }
+    generator.writeEnd();
+  }
 
-      // execution context can't contain null values
+  /**
+   * Writes a complete context, entries found in the cache are copied from
+   * it and recorded without a duration. The other entries are written in
+   * the same pass and added to the cache.
+   *
+   * @param executionContext the entries to write
+   * @param generator the generator to write to
+   * @param fragmentCache holds the encoded entries
+   * @param binder binds the values that are not written directly
+   */
+  void writeContext(Map<String, Object> executionContext,
+      DirectJsonGenerator generator, FragmentCache fragmentCache, ValueBinder binder) {
+    this.writeStart(generator);
+    OperationRecorder recorder = OperationRecorder.current();
+    for (Entry<String, Object> entry : executionContext.entrySet()) {
+      String key = entry.getKey();
       Object value = entry.getValue();
-      generator.write(CLASS_KEY_NAME, getPublicClassName(value.getClass()));
-      ctx.serialize(VALUE_KEY_NAME, value, generator);
+      boolean cacheable = FragmentCache.isImmutable(value);
+      byte[] fragment = cacheable ? fragmentCache.get(key, value) : null;
+      long start = generator.position();
+      if (fragment != null) {
+        generator.writeEncodedEntry(fragment);
+        if (recorder != null) {
+          recorder.cachedValue(value.getClass(), generator.position() - start);
+        }
+        continue;
+      }
+      this.writeRecordedEntry(key, value, generator, generator, binder, recorder);
+      if (cacheable && fragmentCache.fits(generator.position() - start)) {
+        fragmentCache.put(key, value, generator.copyEntry(start));
+      }
+    }
+    generator.writeEnd();
+  }
 
-      generator.writeEnd();
+  /**
+   * Checks the value of the version marker of the compact format.
+   *
+   * @param version the value of the {@value #VERSION_KEY_NAME} key
+   * @throws JsonbException if the version is not supported
+   */
+  static void checkVersion(long version) {
+    if (version != COMPACT_VERSION) {
+      throw new JsonbException("unsupported format version: " + version);
+    }
+  }
+
+  private void writeStart(JsonGenerator generator) {
+    generator.writeStartObject();
+    if (this.compact) {
+      generator.write(VERSION_KEY_NAME, COMPACT_VERSION);
+    }
+  }
+
+  private void writeRecordedEntry(String key, Object value,
+      JsonGenerator generator, DirectJsonGenerator directGenerator, ValueBinder binder, OperationRecorder recorder) {
+    if (recorder != null) {
+      recorder.beginValue(directGenerator != null ? directGenerator.position() : -1L);
+    }
+    // execution context can't contain null values
+    if (this.compact) {
+      this.writeCompactEntry(key, value, generator, directGenerator, binder);
+    } else {
+      this.writeEntry(key, value, generator, directGenerator, binder);
+    }
+    if (recorder != null) {
+      recorder.endValue(key, value.getClass(), directGenerator != null ? directGenerator.position() : -1L);
+    }
+  }
+
+  private void writeEntry(String key, Object value, JsonGenerator generator, DirectJsonGenerator directGenerator, ValueBinder binder) {
+    Class<?> valueClass = this.getValueClass(value);
+    if (this.writeEnvelopeToken(key, valueClass, directGenerator)) {
+      // {"@class":"java.lang.Long","value": written as one token
+      this.writeEnvelopedValue(value, valueClass, generator, binder);
+      directGenerator.writeEnd();
+      return;
+    }
+    generator.writeStartObject(key);
+    generator.write(CLASS_KEY_NAME, this.getPublicClassName(valueClass));
+    ScalarValueCodec codec = ScalarValueCodec.forClass(valueClass);
+    GeneratedCodec generatedCodec = this.generatedCodecs.get(valueClass);
+    if (codec != null) {
+      generator.writeKey(VALUE_KEY_NAME);
+      this.writeScalar(codec, value, generator);
+    } else if (generatedCodec != null) {
+      generator.writeKey(VALUE_KEY_NAME);
+      generatedCodec.write(value, generator, binder);
+    } else {
+      binder.write(VALUE_KEY_NAME, value, generator);
     }
     generator.writeEnd();
   }
 
+  private void writeCompactEntry(String key, Object value, JsonGenerator generator, DirectJsonGenerator directGenerator, ValueBinder binder) {
+    // natural JSON types need no type information
+    if (value instanceof String s) {
+      generator.write(key, s);
+    } else if (value instanceof Boolean b) {
+      generator.write(key, b);
+    } else if (value instanceof Long l) {
+      generator.write(key, l);
+    } else {
+      Class<?> valueClass = this.getValueClass(value);
+      if (this.writeEnvelopeToken(key, valueClass, directGenerator)) {
+        // ["LocalDate" written as one token
+        this.writeEnvelopedValue(value, valueClass, generator, binder);
+        directGenerator.writeEnd();
+        return;
+      }
+      generator.writeStartArray(key);
+      generator.write(this.getTypeName(valueClass));
+      this.writeEnvelopedValue(value, valueClass, generator, binder);
+      generator.writeEnd();
+    }
+  }
+
   /**
-   * Use the interface name for non-public classes like the ones returned by {@link Arrays#asList(Object...)} or {@link List#of()}.
+   * Writes the value inside the envelope after the type name.
+   */
+  private void writeEnvelopedValue(Object value, Class<?> valueClass, JsonGenerator generator, ValueBinder binder) {
+    ScalarValueCodec codec = ScalarValueCodec.forClass(valueClass);
+    if (codec != null) {
+      this.writeScalar(codec, value, generator);
+      return;
+    }
+    GeneratedCodec generatedCodec = this.generatedCodecs.get(valueClass);
+    if (generatedCodec != null) {
+      generatedCodec.write(value, generator, binder);
+    } else {
+      binder.write(value, generator);
+    }
+  }
+
+  private void writeScalar(ScalarValueCodec codec, Object value, JsonGenerator generator) {
+    if (this.numericSequences && (codec instanceof NumericSequenceCodec sequenceCodec)) {
+      sequenceCodec.writePacked(value, generator);
+    } else {
+      codec.write(value, generator);
+    }
+  }
+
+  /**
+   * Determines the class used to look up the codec and type name of a value.
+   * <p>
+   * With numeric sequences homogeneous lists of numbers are treated as
+   * the corresponding list of {@link PrimitiveLists}.
+   */
+  private Class<?> getValueClass(Object value) {
+    if (this.numericSequences && (value instanceof List<?> list)) {
+      Class<?> listClass = PrimitiveLists.getListClass(list);
+      if (listClass != null) {
+        return listClass;
+      }
+    }
+    return value.getClass();
+  }
+
+  /**
+   * Writes the key and the pre-encoded start of the envelope if the
+   * output is written directly.
+   * <p>
+   * The start and end of the envelope have to be written to the
+   * {@link DirectJsonGenerator}, the wrapper of JSON-B would consider them
+   * unbalanced otherwise.
+   *
+   * @param directGenerator {@code null} if the output is not written directly
+   * @return whether the envelope was started
+   */
+  private boolean writeEnvelopeToken(String key, Class<?> valueClass, DirectJsonGenerator directGenerator) {
+    if (directGenerator == null) {
+      return false;
+    }
+    byte[] token = this.envelopeTokens.get(valueClass);
+    if (token == NO_TOKEN) {
+      return false;
+    }
+    directGenerator.writeKey(key);
+    directGenerator.writePreEncoded(token, !this.compact);
+    return true;
+  }
+
+  private byte[] encodeEnvelopeToken(Class<?> valueClass) {
+    String typeName = this.compact ? this.getTypeName(valueClass) : this.getPublicClassName(valueClass);
+    for (int i = 0; i < typeName.length(); i++) {
+      char c = typeName.charAt(i);
+      if ((c < 0x20) || (c >= 0x7F) || (c == '"') || (c == '\\')) {
+        return NO_TOKEN;
+      }
+    }
+    String token;
+    if (this.compact) {
+      // ["LocalDate"
+      token = "[\"" + typeName + "\"";
+    } else {
+      // {"@class":"java.time.LocalDate","value":
+      token = "{\"" + CLASS_KEY_NAME + "\":\"" + typeName + "\",\"" + VALUE_KEY_NAME + "\":";
+    }
+    return token.getBytes(StandardCharsets.US_ASCII);
+  }
+
+  private String getTypeName(Class<?> valueClass) {
+    Class<?> publicClass = this.getPublicClass(valueClass);
+    String alias = this.typeAliases.getAlias(publicClass);
+    if (alias != null) {
+      return alias;
+    }
+    return publicClass.getName();
+  }
+
+  private String getPublicClassName(Class<?> valueClass) {
+    Class<?> publicClass = this.getPublicClass(valueClass);
+    String listTypeName = PrimitiveLists.getTypeName(publicClass);
+    if (listTypeName != null) {
+      return listTypeName;
+    }
+    return publicClass.getName();
+  }
+
+  /**
+   * Use the interface for non-public classes like the ones returned by {@link Arrays#asList(Object...)} or {@link List#of()}.
+   * The lists of {@link PrimitiveLists} keep their own type names only with numeric sequences.
    *
    * @param valueClass
    * @return
    */
-  private static String getPublicClassName(Class<?> valueClass) {
+  private Class<?> getPublicClass(Class<?> valueClass) {
+    if (this.numericSequences && PrimitiveLists.isListClass(valueClass)) {
+      return valueClass;
+    }
     if (!Modifier.isPublic(valueClass.getModifiers()) && Collection.class.isAssignableFrom(valueClass)) {
       if (Map.class.isAssignableFrom(valueClass)) {
-        return Map.class.getName();
+        return Map.class;
       }
       if (List.class.isAssignableFrom(valueClass)) {
-        return List.class.getName();
+        return List.class;
       }
       if (Set.class.isAssignableFrom(valueClass)) {
-        return Set.class.getName();
+        return Set.class;
       }
     }
-    return valueClass.getName();
+    return valueClass;
+  }
+
+  /**
+   * Binds the values that are neither written nor read directly from the
+   * JSON-P events.
+   */
+  interface ValueBinder {
+
+    /**
+     * Writes a value.
+     *
+     * @param value the value to write, not {@code null}
+     * @param generator the generator to write to, a value is expected
+     */
+    void write(Object value, JsonGenerator generator);
+
+    /**
+     * Writes a value of an object.
+     *
+     * @param key the key of the value
+     * @param value the value to write, not {@code null}
+     * @param generator the generator to write to, a key is expected
+     */
+    void write(String key, Object value, JsonGenerator generator);
+
+    /**
+     * Reads a value.
+     *
+     * @param type the type of the value, a class or a parameterized type
+     * @param parser the parser positioned at the first event of the value
+     * @return the value read
+     */
+    Object read(Type type, JsonParser parser);
+
+  }
+
+  /**
+   * Binds values with the contexts JSON-B passes to a (de)serializer.
+   */
+  static final class ContextValueBinder implements ValueBinder {
+
+    private final SerializationContext serializationContext;
+
+    private final DeserializationContext deserializationContext;
+
+    ContextValueBinder(SerializationContext serializationContext) {
+      this.serializationContext = serializationContext;
+      this.deserializationContext = null;
+    }
+
+    ContextValueBinder(DeserializationContext deserializationContext) {
+      this.serializationContext = null;
+      this.deserializationContext = deserializationContext;
+    }
+
+    @Override
+    public void write(Object value, JsonGenerator generator) {
+      this.serializationContext.serialize(value, generator);
+    }
+
+    @Override
+    public void write(String key, Object value, JsonGenerator generator) {
+      this.serializationContext.serialize(key, value, generator);
+    }
+
+    @Override
+    public Object read(Type type, JsonParser parser) {
+      return this.deserializationContext.deserialize(type, parser);
+    }
+
   }
 
 }
@@ -0,0 +1,53 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.batch.item.ExecutionContext;
+
+/**
+ * Serializes {@link ExecutionContext}s for the DAOs that serialize contexts
+ * before calling the actual DAO.
+ */
+final class ExecutionContexts {
+
+  private ExecutionContexts() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Copies the entries of a context into a map, the same copy
+   * {@code JdbcExecutionContextDao} makes before serializing a context.
+   *
+   * @param executionContext the context to copy
+   * @return the entries of the context
+   */
+  static Map<String, Object> toMap(ExecutionContext executionContext) {
+    Map<String, Object> context = new HashMap<>();
+    for (Map.Entry<String, Object> entry : executionContext.entrySet()) {
+      context.put(entry.getKey(), entry.getValue());
+    }
+    return context;
+  }
+
+  /**
+   * Serializes a context.
+   *
+   * @param serializer the serializer to use
+   * @param executionContext the context to serialize
+   * @return the serialized context
+   */
+  static byte[] serialize(JsonbExecutionContextSerializer serializer, ExecutionContext executionContext) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try {
+      serializer.serialize(toMap(executionContext), out);
+    } catch (IOException e) {
+      throw new UncheckedIOException("could not serialize context", e);
+    }
+    return out.toByteArray();
+  }
+
+}
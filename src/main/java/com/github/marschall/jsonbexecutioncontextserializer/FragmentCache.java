@@ -0,0 +1,242 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.batch.core.JobParameter;
+import org.springframework.batch.core.JobParameters;
+
+/**
+ * Caches the encoded bytes of execution context entries.
+ * <p>
+ * Between two chunk commits usually only a few counters of an execution
+ * context change. The entries that did not change can be written from the
+ * cache instead of being encoded again.
+ * <p>
+ * Only values of immutable types are cached, a cached fragment is used if
+ * the current value is equal to the value it was encoded from. Up to
+ * {@value #MAX_VALUES_PER_KEY} fragments are cached per key so that the
+ * partitions of a partitioned step, which share the keys but not the
+ * values, do not replace each others fragments. A key whose value changes
+ * on every chunk only replaces its own oldest fragment instead of evicting
+ * the fragments of other keys. The cache is bounded both in the number of
+ * keys and the size of a single fragment. When the cache is full an
+ * arbitrary key is evicted.
+ */
+final class FragmentCache {
+
+  static final int MAX_VALUES_PER_KEY = 16;
+
+  /**
+   * Immutable types where equality implies the same encoded form.
+   * {@link java.net.URL} is missing on purpose, its equals method may
+   * resolve host names.
+   */
+  private static final Set<Class<?>> IMMUTABLE_TYPES = Set.of(
+      String.class,
+      Character.class,
+      Byte.class,
+      Short.class,
+      Integer.class,
+      Long.class,
+      Float.class,
+      Double.class,
+      Boolean.class,
+      BigDecimal.class,
+      BigInteger.class,
+
+      java.util.Locale.class,
+      java.net.URI.class,
+      UUID.class,
+
+      java.time.LocalDate.class,
+      java.time.LocalTime.class,
+      java.time.LocalDateTime.class,
+      java.time.OffsetDateTime.class,
+      java.time.ZonedDateTime.class,
+      java.time.Instant.class,
+      java.time.Duration.class,
+      java.time.Period.class);
+
+  private final int maxEntries;
+
+  private final int maxFragmentSize;
+
+  /**
+   * The fragments of a key, most recently added first. The arrays are not
+   * modified once published.
+   */
+  private final ConcurrentMap<String, Fragment[]> fragments;
+
+  FragmentCache(int maxEntries, int maxFragmentSize) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("max entries must be positive");
+    }
+    if (maxFragmentSize <= 0) {
+      throw new IllegalArgumentException("max fragment size must be positive");
+    }
+    this.maxEntries = maxEntries;
+    this.maxFragmentSize = maxFragmentSize;
+    this.fragments = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Looks up the encoded form of an entry.
+   *
+   * @param key the key of the entry
+   * @param value the current value of the entry
+   * @return the encoded entry, {@code null} if not cached or if the cached
+   *         fragments were encoded from different values
+   */
+  byte[] get(String key, Object value) {
+    Fragment[] keyFragments = this.fragments.get(key);
+    if (keyFragments == null) {
+      return null;
+    }
+    for (Fragment fragment : keyFragments) {
+      if (isSameValue(fragment.value, value)) {
+        return fragment.bytes;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Checks whether two values have the same encoded form.
+   */
+  private static boolean isSameValue(Object cached, Object value) {
+    if (cached == value) {
+      return true;
+    }
+    if (cached.getClass() != value.getClass()) {
+      return false;
+    }
+    if (value instanceof JobParameter<?> jobParameter) {
+      // JobParameter#equals ignores identifying
+      JobParameter<?> cachedParameter = (JobParameter<?>) cached;
+      return (cachedParameter.isIdentifying() == jobParameter.isIdentifying()) && cachedParameter.equals(jobParameter);
+    }
+    if (value instanceof JobParameters jobParameters) {
+      Map<String, JobParameter<?>> cachedParameters = ((JobParameters) cached).getParameters();
+      Map<String, JobParameter<?>> parameters = jobParameters.getParameters();
+      if (cachedParameters.size() != parameters.size()) {
+        return false;
+      }
+      for (Entry<String, JobParameter<?>> entry : parameters.entrySet()) {
+        JobParameter<?> cachedParameter = cachedParameters.get(entry.getKey());
+        if ((cachedParameter == null) || !isSameValue(cachedParameter, entry.getValue())) {
+          return false;
+        }
+      }
+      return true;
+    }
+    return cached.equals(value);
+  }
+
+  /**
+   * Whether an encoded entry is small enough to be cached, allows to avoid
+   * copying entries that would be rejected by {@link #put(String, Object, byte[])}.
+   *
+   * @param size the size of the encoded entry in bytes
+   * @return whether the entry would be cached
+   */
+  boolean fits(long size) {
+    return size <= this.maxFragmentSize;
+  }
+
+  /**
+   * Adds the encoded form of an entry if the value is eligible for caching.
+   * The bytes must not be modified afterwards.
+   *
+   * @param key the key of the entry
+   * @param value the value the bytes were encoded from
+   * @param bytes the encoded entry
+   */
+  void put(String key, Object value, byte[] bytes) {
+    if (!this.fits(bytes.length) || !isImmutable(value)) {
+      return;
+    }
+    if ((this.fragments.size() >= this.maxEntries) && !this.fragments.containsKey(key)) {
+      this.evict();
+    }
+    Fragment fragment = new Fragment(value, bytes);
+    this.fragments.compute(key, (k, keyFragments) -> add(keyFragments, fragment));
+  }
+
+  private static Fragment[] add(Fragment[] keyFragments, Fragment fragment) {
+    if (keyFragments == null) {
+      return new Fragment[] {fragment};
+    }
+    for (Fragment each : keyFragments) {
+      if (isSameValue(each.value, fragment.value)) {
+        // added concurrently
+        return keyFragments;
+      }
+    }
+    // the oldest fragment is dropped
+    Fragment[] added = new Fragment[Math.min(keyFragments.length + 1, MAX_VALUES_PER_KEY)];
+    added[0] = fragment;
+    System.arraycopy(keyFragments, 0, added, 1, added.length - 1);
+    return added;
+  }
+
+  private void evict() {
+    Iterator<String> iterator = this.fragments.keySet().iterator();
+    while ((this.fragments.size() >= this.maxEntries) && iterator.hasNext()) {
+      iterator.next();
+      iterator.remove();
+    }
+  }
+
+  /**
+   * Returns the number of cached fragments.
+   *
+   * @return the number of fragments of all keys
+   */
+  int size() {
+    int size = 0;
+    for (Fragment[] keyFragments : this.fragments.values()) {
+      size += keyFragments.length;
+    }
+    return size;
+  }
+
+  static boolean isImmutable(Object value) {
+    if (IMMUTABLE_TYPES.contains(value.getClass())) {
+      return true;
+    }
+    if (value instanceof JobParameter<?> jobParameter) {
+      return IMMUTABLE_TYPES.contains(jobParameter.getType()) && IMMUTABLE_TYPES.contains(jobParameter.getValue().getClass());
+    }
+    if (value instanceof JobParameters jobParameters) {
+      for (JobParameter<?> jobParameter : jobParameters.getParameters().values()) {
+        if (!isImmutable(jobParameter)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    return false;
+  }
+
+  static final class Fragment {
+
+    final Object value;
+
+    final byte[] bytes;
+
+    Fragment(Object value, byte[] bytes) {
+      this.value = value;
+      this.bytes = bytes;
+    }
+
+  }
+
+}
@@ -0,0 +1,555 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.github.marschall.jsonbexecutioncontextserializer.ExecutionContextWrapperSerializer.ValueBinder;
+
+import jakarta.json.bind.JsonbException;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
+
+/**
+ * Reads and writes a record or POJO with method handles created once
+ * instead of JSON-B's reflective property access.
+ * <p>
+ * The output is the same as the one of JSON-B with the default
+ * configuration: properties are written in lexicographical order, {@code null}
+ * properties are omitted and unknown properties are ignored when reading.
+ * Properties of types with a {@link ScalarValueCodec} or a generated codec
+ * are read and written directly, all others are bound by a
+ * {@link ValueBinder}.
+ * <p>
+ * Only public types and public members are supported. Types using JSON-B
+ * annotations are rejected as their customizations are not applied.
+ * <p>
+ * Method handles are used instead of spinning classes with
+ * {@code LambdaMetafactory} so that types from class loaders not visible
+ * to this library, for example in application servers, are supported.
+ */
+abstract class GeneratedCodec {
+
+  private static final String JSONB_ANNOTATION_PACKAGE = "jakarta.json.bind.annotation";
+
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+  private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+  final Class<?> type;
+
+  /**
+   * The properties that are written, in lexicographical order.
+   */
+  private final Property[] readableProperties;
+
+  /**
+   * The properties that are read by name.
+   */
+  private final Map<String, Property> writableProperties;
+
+  GeneratedCodec(Class<?> type, Property[] readableProperties, Map<String, Property> writableProperties) {
+    this.type = type;
+    this.readableProperties = readableProperties;
+    this.writableProperties = writableProperties;
+  }
+
+  /**
+   * Generates a codec for a type.
+   *
+   * @param type the record or POJO class
+   * @return the codec
+   * @throws IllegalArgumentException if the type is not supported
+   */
+  static GeneratedCodec generate(Class<?> type) {
+    if (!Modifier.isPublic(type.getModifiers())) {
+      throw new IllegalArgumentException("not public: " + type.getName());
+    }
+    if (type.isInterface() || type.isEnum() || type.isArray() || type.isPrimitive() || Modifier.isAbstract(type.getModifiers())) {
+      throw new IllegalArgumentException("not a record or POJO: " + type.getName());
+    }
+    if (hasJsonbAnnotation(type)) {
+      throw new IllegalArgumentException("JSON-B annotations are not supported: " + type.getName());
+    }
+    Lookup lookup = MethodHandles.publicLookup();
+    try {
+      if (type.isRecord()) {
+        return RecordCodec.generateRecord(type, lookup);
+      }
+      return PojoCodec.generatePojo(type, lookup);
+    } catch (IllegalAccessException e) {
+      throw new IllegalArgumentException("could not access: " + type.getName(), e);
+    }
+  }
+
+  /**
+   * Resolves the codecs of the properties after all codecs have been
+   * generated.
+   */
+  void link(GeneratedCodecs codecs) {
+    for (Property property : this.readableProperties) {
+      property.link(codecs);
+    }
+    for (Property property : this.writableProperties.values()) {
+      property.link(codecs);
+    }
+  }
+
+  /**
+   * Whether every property can be read and written without a
+   * {@link ValueBinder}.
+   */
+  boolean isSelfContained() {
+    for (Property property : this.readableProperties) {
+      if (!property.isSelfContained()) {
+        return false;
+      }
+    }
+    for (Property property : this.writableProperties.values()) {
+      if (!property.isSelfContained()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Writes a value.
+   *
+   * @param value the value to write, an instance of the type of this codec
+   * @param generator the generator to write to, a value is expected
+   * @param binder binds property values without a codec
+   */
+  void write(Object value, JsonGenerator generator, ValueBinder binder) {
+    generator.writeStartObject();
+    for (Property property : this.readableProperties) {
+      Object propertyValue = property.get(value);
+      if (propertyValue != null) {
+        property.write(propertyValue, generator, binder);
+      }
+    }
+    generator.writeEnd();
+  }
+
+  /**
+   * Reads a value.
+   *
+   * @param parser the parser positioned at the start of the object
+   * @param binder binds property values without a codec
+   * @return the value read
+   */
+  abstract Object read(JsonParser parser, ValueBinder binder);
+
+  /**
+   * Reads the properties of an object.
+   *
+   * @param parser the parser positioned at the start of the object
+   * @param binder binds property values without a codec
+   * @param target receives the property values
+   */
+  void readProperties(JsonParser parser, ValueBinder binder, PropertyTarget target) {
+    Event next;
+    while ((next = parser.next()) != Event.END_OBJECT) {
+      if (next != Event.KEY_NAME) {
+        throw new JsonbException("KEY_NAME expected");
+      }
+      Property property = this.writableProperties.get(parser.getString());
+      Event valueEvent = parser.next();
+      if (property == null) {
+        // like JSON-B unknown properties are ignored
+        skipValue(parser, valueEvent);
+      } else if (valueEvent != Event.VALUE_NULL) {
+        target.set(property, property.read(parser, valueEvent, binder));
+      }
+    }
+  }
+
+  private static void skipValue(JsonParser parser, Event valueEvent) {
+    if (valueEvent == Event.START_OBJECT) {
+      parser.skipObject();
+    } else if (valueEvent == Event.START_ARRAY) {
+      parser.skipArray();
+    }
+  }
+
+  private static boolean hasJsonbAnnotation(AnnotatedElement element) {
+    for (Annotation annotation : element.getAnnotations()) {
+      if (annotation.annotationType().getPackageName().equals(JSONB_ANNOTATION_PACKAGE)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void checkNoJsonbAnnotation(Class<?> type, AnnotatedElement element) {
+    if (hasJsonbAnnotation(element)) {
+      throw new IllegalArgumentException("JSON-B annotations are not supported: " + type.getName());
+    }
+  }
+
+  static RuntimeException invocationFailed(Class<?> type, Throwable t) {
+    if (t instanceof RuntimeException runtimeException) {
+      return runtimeException;
+    }
+    if (t instanceof Error error) {
+      throw error;
+    }
+    return new JsonbException("could not bind: " + type.getName(), t);
+  }
+
+  /**
+   * Receives the property values read.
+   */
+  @FunctionalInterface
+  interface PropertyTarget {
+
+    void set(Property property, Object value);
+
+  }
+
+  /**
+   * A property of a record or POJO.
+   */
+  static final class Property {
+
+    final String name;
+
+    /**
+     * The position of a record component, {@code -1} for a POJO.
+     */
+    final int index;
+
+    private final Class<?> rawType;
+
+    private final Type genericType;
+
+    /**
+     * {@code (Object)Object}, {@code null} if write only.
+     */
+    private final MethodHandle getter;
+
+    /**
+     * {@code (Object, Object)void}, {@code null} if read only or a record
+     * component.
+     */
+    private final MethodHandle setter;
+
+    private final ScalarValueCodec scalarCodec;
+
+    private GeneratedCodec generatedCodec;
+
+    Property(String name, int index, Class<?> rawType, Type genericType, MethodHandle getter, MethodHandle setter) {
+      this.name = name;
+      this.index = index;
+      this.rawType = rawType;
+      this.genericType = genericType;
+      this.getter = getter;
+      this.setter = setter;
+      this.scalarCodec = ScalarValueCodec.forClass(MethodType.methodType(rawType).wrap().returnType());
+    }
+
+    void link(GeneratedCodecs codecs) {
+      this.generatedCodec = codecs.get(this.rawType);
+    }
+
+    boolean isSelfContained() {
+      return (this.scalarCodec != null) || (this.generatedCodec != null);
+    }
+
+    boolean isPrimitive() {
+      return this.rawType.isPrimitive();
+    }
+
+    Object get(Object bean) {
+      try {
+        return (Object) this.getter.invokeExact(bean);
+      } catch (Throwable t) {
+        throw invocationFailed(bean.getClass(), t);
+      }
+    }
+
+    void set(Object bean, Object value) {
+      try {
+        this.setter.invokeExact(bean, value);
+      } catch (Throwable t) {
+        throw invocationFailed(bean.getClass(), t);
+      }
+    }
+
+    void write(Object value, JsonGenerator generator, ValueBinder binder) {
+      Class<?> valueClass = value.getClass();
+      // JSON-B writes the runtime type
+      if ((this.generatedCodec != null) && (valueClass == this.generatedCodec.type)) {
+        generator.writeKey(this.name);
+        this.generatedCodec.write(value, generator, binder);
+        return;
+      }
+      ScalarValueCodec codec = ScalarValueCodec.forClass(valueClass);
+      if (codec != null) {
+        generator.writeKey(this.name);
+        codec.write(value, generator);
+        return;
+      }
+      binder.write(this.name, value, generator);
+    }
+
+    Object read(JsonParser parser, Event valueEvent, ValueBinder binder) {
+      // JSON-B reads the declared type
+      if (this.scalarCodec != null) {
+        return this.scalarCodec.read(parser, valueEvent);
+      }
+      if (this.generatedCodec != null) {
+        if (valueEvent != Event.START_OBJECT) {
+          throw new JsonbException("START_OBJECT expected");
+        }
+        return this.generatedCodec.read(parser, binder);
+      }
+      return binder.read(this.genericType, parser);
+    }
+
+  }
+
+  /**
+   * Codec for a record, reads the components and calls the canonical
+   * constructor.
+   */
+  static final class RecordCodec extends GeneratedCodec {
+
+    /**
+     * {@code (Object[])Object}
+     */
+    private final MethodHandle constructor;
+
+    /**
+     * The values of missing components, {@code null} or the default value
+     * of a primitive type.
+     */
+    private final Object[] defaults;
+
+    private RecordCodec(Class<?> type, Property[] properties, MethodHandle constructor, Object[] defaults) {
+      super(type, sortByName(properties), byName(properties));
+      this.constructor = constructor;
+      this.defaults = defaults;
+    }
+
+    static RecordCodec generateRecord(Class<?> type, Lookup lookup) throws IllegalAccessException {
+      RecordComponent[] components = type.getRecordComponents();
+      Class<?>[] parameterTypes = new Class<?>[components.length];
+      Property[] properties = new Property[components.length];
+      Object[] defaults = new Object[components.length];
+      for (int i = 0; i < components.length; i++) {
+        RecordComponent component = components[i];
+        checkNoJsonbAnnotation(type, component);
+        parameterTypes[i] = component.getType();
+        MethodHandle accessor = lookup.unreflect(component.getAccessor()).asType(GETTER_TYPE);
+        properties[i] = new Property(component.getName(), i, component.getType(), component.getGenericType(), accessor, null);
+        if (component.getType().isPrimitive()) {
+          defaults[i] = Array.get(Array.newInstance(component.getType(), 1), 0);
+        }
+      }
+      Constructor<?> canonical;
+      try {
+        canonical = type.getConstructor(parameterTypes);
+      } catch (NoSuchMethodException e) {
+        throw new IllegalArgumentException("no public canonical constructor: " + type.getName(), e);
+      }
+      MethodHandle constructor = lookup.unreflectConstructor(canonical)
+                                       .asSpreader(Object[].class, components.length)
+                                       .asType(MethodType.methodType(Object.class, Object[].class));
+      return new RecordCodec(type, properties, constructor, defaults);
+    }
+
+    @Override
+    Object read(JsonParser parser, ValueBinder binder) {
+      Object[] arguments = this.defaults.clone();
+      this.readProperties(parser, binder, (property, value) -> arguments[property.index] = value);
+      try {
+        return (Object) this.constructor.invokeExact(arguments);
+      } catch (Throwable t) {
+        throw invocationFailed(this.type, t);
+      }
+    }
+
+  }
+
+  /**
+   * Codec for a POJO, calls the public no-argument constructor and
+   * then the setters.
+   */
+  static final class PojoCodec extends GeneratedCodec {
+
+    /**
+     * {@code ()Object}
+     */
+    private final MethodHandle constructor;
+
+    private PojoCodec(Class<?> type, Property[] readableProperties, Map<String, Property> writableProperties, MethodHandle constructor) {
+      super(type, readableProperties, writableProperties);
+      this.constructor = constructor;
+    }
+
+    static PojoCodec generatePojo(Class<?> type, Lookup lookup) throws IllegalAccessException {
+      Constructor<?> noArgs;
+      try {
+        noArgs = type.getConstructor();
+      } catch (NoSuchMethodException e) {
+        throw new IllegalArgumentException("no public no-argument constructor: " + type.getName(), e);
+      }
+      MethodHandle constructor = lookup.unreflectConstructor(noArgs).asType(MethodType.methodType(Object.class));
+
+      Map<String, Method> getters = new TreeMap<>();
+      Map<String, Method> setters = new HashMap<>();
+      for (Method method : type.getMethods()) {
+        if (Modifier.isStatic(method.getModifiers()) || method.isBridge() || method.isSynthetic()
+            || (method.getDeclaringClass() == Object.class)) {
+          continue;
+        }
+        String getterName = getterPropertyName(method);
+        if (getterName != null) {
+          checkNoJsonbAnnotation(type, method);
+          getters.put(getterName, method);
+        }
+        String setterName = setterPropertyName(method);
+        if (setterName != null) {
+          checkNoJsonbAnnotation(type, method);
+          setters.put(setterName, method);
+        }
+      }
+      Map<String, Field> fields = new HashMap<>();
+      for (Field field : type.getFields()) {
+        if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers())) {
+          checkNoJsonbAnnotation(type, field);
+          fields.put(field.getName(), field);
+        }
+      }
+      for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+        for (Field field : current.getDeclaredFields()) {
+          checkNoJsonbAnnotation(type, field);
+        }
+      }
+
+      Map<String, Property> readable = new TreeMap<>();
+      Map<String, Property> writable = new HashMap<>();
+      for (Map.Entry<String, Method> entry : getters.entrySet()) {
+        String name = entry.getKey();
+        Method getter = entry.getValue();
+        Method setter = setters.get(name);
+        MethodHandle setterHandle = null;
+        if (setter != null) {
+          if (!setter.getParameterTypes()[0].equals(getter.getReturnType())) {
+            throw new IllegalArgumentException("getter and setter types differ: " + type.getName() + "." + name);
+          }
+          setterHandle = lookup.unreflect(setter).asType(SETTER_TYPE);
+        }
+        Property property = new Property(name, -1, getter.getReturnType(), getter.getGenericReturnType(),
+            lookup.unreflect(getter).asType(GETTER_TYPE), setterHandle);
+        readable.put(name, property);
+        if (setterHandle != null) {
+          writable.put(name, property);
+        }
+      }
+      for (Map.Entry<String, Method> entry : setters.entrySet()) {
+        String name = entry.getKey();
+        if (!getters.containsKey(name) && !fields.containsKey(name)) {
+          // write only
+          Method setter = entry.getValue();
+          writable.put(name, new Property(name, -1, setter.getParameterTypes()[0], setter.getGenericParameterTypes()[0],
+              null, lookup.unreflect(setter).asType(SETTER_TYPE)));
+        }
+      }
+      for (Field field : fields.values()) {
+        String name = field.getName();
+        if (getters.containsKey(name) || setters.containsKey(name)) {
+          // accessors take precedence over public fields
+          throw new IllegalArgumentException("public field with accessors: " + type.getName() + "." + name);
+        }
+        MethodHandle setter = Modifier.isFinal(field.getModifiers()) ? null : lookup.unreflectSetter(field).asType(SETTER_TYPE);
+        Property property = new Property(name, -1, field.getType(), field.getGenericType(),
+            lookup.unreflectGetter(field).asType(GETTER_TYPE), setter);
+        readable.put(name, property);
+        if (setter != null) {
+          writable.put(name, property);
+        }
+      }
+      return new PojoCodec(type, readable.values().toArray(new Property[0]), writable, constructor);
+    }
+
+    private static String getterPropertyName(Method method) {
+      if ((method.getParameterCount() != 0) || (method.getReturnType() == void.class)) {
+        return null;
+      }
+      String methodName = method.getName();
+      if (methodName.startsWith("get") && (methodName.length() > 3)) {
+        return propertyName(method, 3);
+      }
+      if (methodName.startsWith("is") && (methodName.length() > 2) && (method.getReturnType() == boolean.class)) {
+        return propertyName(method, 2);
+      }
+      return null;
+    }
+
+    private static String setterPropertyName(Method method) {
+      if ((method.getParameterCount() != 1) || (method.getReturnType() != void.class)) {
+        return null;
+      }
+      String methodName = method.getName();
+      if (methodName.startsWith("set") && (methodName.length() > 3)) {
+        return propertyName(method, 3);
+      }
+      return null;
+    }
+
+    private static String propertyName(Method method, int prefixLength) {
+      String methodName = method.getName();
+      if ((methodName.length() > (prefixLength + 1)) && Character.isUpperCase(methodName.charAt(prefixLength + 1))) {
+        // JSON-B and java.beans differ for names like getURL
+        throw new IllegalArgumentException("ambiguous property name: " + method);
+      }
+      return Character.toLowerCase(methodName.charAt(prefixLength)) + methodName.substring(prefixLength + 1);
+    }
+
+    @Override
+    Object read(JsonParser parser, ValueBinder binder) {
+      Object bean;
+      try {
+        bean = (Object) this.constructor.invokeExact();
+      } catch (Throwable t) {
+        throw invocationFailed(this.type, t);
+      }
+      this.readProperties(parser, binder, (property, value) -> property.set(bean, value));
+      return bean;
+    }
+
+  }
+
+  static Property[] sortByName(Property[] properties) {
+    Property[] sorted = properties.clone();
+    Arrays.sort(sorted, Comparator.comparing(property -> property.name));
+    return sorted;
+  }
+
+  static Map<String, Property> byName(Property[] properties) {
+    Map<String, Property> byName = new HashMap<>();
+    for (Property property : properties) {
+      byName.put(property.name, property);
+    }
+    return byName;
+  }
+
+}
@@ -0,0 +1,58 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The generated codecs of a serializer.
+ * <p>
+ * Instances are immutable.
+ */
+final class GeneratedCodecs {
+
+  private static final GeneratedCodecs EMPTY = new GeneratedCodecs(Map.of());
+
+  private final Map<Class<?>, GeneratedCodec> codecs;
+
+  private GeneratedCodecs(Map<Class<?>, GeneratedCodec> codecs) {
+    this.codecs = codecs;
+  }
+
+  /**
+   * Generates the codecs for a set of types.
+   *
+   * @param types the record or POJO classes
+   * @return the codecs
+   * @throws IllegalArgumentException if a type is not supported
+   */
+  static GeneratedCodecs generate(Collection<Class<?>> types) {
+    if (types.isEmpty()) {
+      return EMPTY;
+    }
+    Map<Class<?>, GeneratedCodec> codecs = new HashMap<>();
+    for (Class<?> type : types) {
+      codecs.computeIfAbsent(type, GeneratedCodec::generate);
+    }
+    GeneratedCodecs generated = new GeneratedCodecs(Map.copyOf(codecs));
+    // properties may refer to any of the types
+    for (GeneratedCodec codec : codecs.values()) {
+      codec.link(generated);
+    }
+    return generated;
+  }
+
+  /**
+   * Looks up the codec of a type.
+   *
+   * @param type the exact class
+   * @return the codec, {@code null} if there is none
+   */
+  GeneratedCodec get(Class<?> type) {
+    if (this.codecs.isEmpty()) {
+      return null;
+    }
+    return this.codecs.get(type);
+  }
+
+}
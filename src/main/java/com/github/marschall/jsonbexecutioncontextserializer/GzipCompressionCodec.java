@@ -0,0 +1,37 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses using the GZIP format.
+ */
+final class GzipCompressionCodec implements CompressionCodec {
+
+  static final char ID = 'g';
+
+  static final GzipCompressionCodec INSTANCE = new GzipCompressionCodec();
+
+  private GzipCompressionCodec() {
+    super();
+  }
+
+  @Override
+  public char getId() {
+    return ID;
+  }
+
+  @Override
+  public OutputStream compress(OutputStream out) throws IOException {
+    return new GZIPOutputStream(out);
+  }
+
+  @Override
+  public InputStream decompress(InputStream in) throws IOException {
+    return new GZIPInputStream(in);
+  }
+
+}
@@ -0,0 +1,59 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.github.marschall.jsonbexecutioncontextserializer.ExecutionContextMetrics.Operation;
+
+/**
+ * Decides which operations are recorded.
+ * <p>
+ * An operation is recorded if the JFR event is enabled, if it is sampled
+ * for the metrics callback or if a slow operation threshold is configured.
+ * Otherwise the only cost is checking the JFR event and drawing the sample.
+ * Sampling uses {@link ThreadLocalRandom} so there is no shared state
+ * between threads.
+ */
+final class Instrumentation {
+
+  /**
+   * {@code null} if no metrics are configured.
+   */
+  private final ExecutionContextMetrics metrics;
+
+  private final int sampleInterval;
+
+  /**
+   * {@code 0} if disabled.
+   */
+  private final long slowThresholdNanos;
+
+  Instrumentation(ExecutionContextMetrics metrics, int sampleInterval, long slowThresholdNanos) {
+    this.metrics = metrics;
+    this.sampleInterval = sampleInterval;
+    this.slowThresholdNanos = slowThresholdNanos;
+  }
+
+  /**
+   * Starts recording an operation.
+   *
+   * @param operation the operation
+   * @return the recorder, {@code null} if the operation is not recorded
+   */
+  OperationRecorder start(Operation operation) {
+    ExecutionContextEvent event = operation == Operation.SERIALIZE ? new SerializeEvent() : new DeserializeEvent();
+    boolean eventEnabled = event.isEnabled();
+    boolean sampled = (this.metrics != null) && this.sample();
+    if (!eventEnabled && !sampled && (this.slowThresholdNanos == 0L)) {
+      return null;
+    }
+    if (eventEnabled) {
+      event.begin();
+    }
+    return new OperationRecorder(operation, eventEnabled ? event : null, this.metrics, sampled, this.slowThresholdNanos);
+  }
+
+  private boolean sample() {
+    return (this.sampleInterval == 1) || (ThreadLocalRandom.current().nextInt(this.sampleInterval) == 0);
+  }
+
+}
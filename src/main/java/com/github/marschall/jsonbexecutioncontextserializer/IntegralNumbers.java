@@ -0,0 +1,113 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+
+import jakarta.json.stream.JsonParser;
+
+/**
+ * Decides whether {@link JsonParser#getLong()} returns the exact value of an
+ * integral number.
+ * <p>
+ * {@link JsonParser#getLong()} is specified as
+ * {@code getBigDecimal().longValue()} and silently wraps numbers outside of
+ * the range of {@code long}. Only tokens with 19 or more digits can be out of
+ * range. Parsson knows the number of digits of the current token and parses
+ * shorter tokens without creating a {@link java.math.BigDecimal}, the digit
+ * count is not part of the JSON-P API so it is looked up once per parser
+ * class. The parser Yasson hands to deserializers is unwrapped. With other
+ * parsers, or if the lookup fails, numbers are checked with
+ * {@link java.math.BigDecimal#longValueExact()}.
+ */
+final class IntegralNumbers {
+
+  /**
+   * Per parser class the method telling whether the current token has few
+   * enough digits to be parsed as a {@code long} exactly, {@code null} if
+   * there is none. A {@link ClassValue} does not keep the class loader of a
+   * parser reachable.
+   */
+  private static final ClassValue<MethodHandle> IS_DEFINITELY_LONG = new ClassValue<>() {
+
+    @Override
+    protected MethodHandle computeValue(Class<?> parserClass) {
+      return findHandle(parserClass, "org.eclipse.parsson.JsonParserImpl",
+          lookup -> lookup.findVirtual(parserClass, "isDefinitelyLong", methodType(boolean.class))
+                          .asType(methodType(boolean.class, JsonParser.class)));
+    }
+
+  };
+
+  /**
+   * Per parser class the getter of the parser a parser delegates to,
+   * {@code null} if there is none.
+   */
+  private static final ClassValue<MethodHandle> DELEGATE = new ClassValue<>() {
+
+    @Override
+    protected MethodHandle computeValue(Class<?> parserClass) {
+      return findHandle(parserClass, "org.eclipse.yasson.internal.deserializer.YassonParser",
+          lookup -> lookup.findGetter(parserClass, "delegate", JsonParser.class)
+                          .asType(methodType(JsonParser.class, JsonParser.class)));
+    }
+
+  };
+
+  private IntegralNumbers() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Checks whether {@link JsonParser#getLong()} returns the exact value of
+   * the current number.
+   *
+   * @param parser the parser positioned on an integral number
+   * @return {@code true} if the number fits into a {@code long} and
+   *         {@link JsonParser#getLong()} does not allocate,
+   *         {@code false} if the number may be out of range
+   */
+  static boolean isExactLong(JsonParser parser) {
+    if (parser instanceof BinaryJsonParser binaryParser) {
+      return binaryParser.isLong();
+    }
+    Class<? extends JsonParser> parserClass = parser.getClass();
+    try {
+      MethodHandle isDefinitelyLong = IS_DEFINITELY_LONG.get(parserClass);
+      if (isDefinitelyLong != null) {
+        return (boolean) isDefinitelyLong.invokeExact(parser);
+      }
+      MethodHandle delegate = DELEGATE.get(parserClass);
+      if (delegate != null) {
+        return isExactLong((JsonParser) delegate.invokeExact(parser));
+      }
+      return false;
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalStateException("could not check number", e);
+    }
+  }
+
+  private static MethodHandle findHandle(Class<?> parserClass, String className, HandleLookup handleLookup) {
+    if (!parserClass.getName().equals(className)) {
+      return null;
+    }
+    try {
+      return handleLookup.find(MethodHandles.privateLookupIn(parserClass, MethodHandles.lookup()));
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      // a different version or a module that is not open, fall back to the exact check
+      return null;
+    }
+  }
+
+  @FunctionalInterface
+  interface HandleLookup {
+
+    MethodHandle find(Lookup lookup) throws ReflectiveOperationException;
+
+  }
+
+}
@@ -0,0 +1,554 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.springframework.batch.core.JobParameter;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.ConversionService;
+
+import jakarta.json.JsonArray;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.json.JsonString;
+import jakarta.json.JsonValue;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbException;
+import jakarta.json.spi.JsonProvider;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
+
+/**
+ * Reads contexts written by Spring Batch's
+ * {@code Jackson2ExecutionContextStringSerializer} without Jackson.
+ * <p>
+ * Jackson writes the type of every value that is not a string, boolean,
+ * {@code int} or {@code double}. Maps and beans get a leading
+ * {@code "@class"} property, all other values are wrapped in an array
+ * holding the class name and the value:
+ * <pre><code>
+ * {"@class":"java.util.HashMap","count":["java.lang.Long",12],"resource":"customers.csv"}
+ * </code></pre>
+ * Scalars, arrays, collections, maps, enums, dates and job parameters are
+ * read directly. The properties of beans are bound with JSON-B after
+ * removing the type information, properties of types JSON-B reads from a
+ * different representation than Jackson, for example dates, are not
+ * supported.
+ */
+final class JacksonFormatReader {
+
+  /**
+   * How every context written by Jackson starts, the JSON format never
+   * writes a string as the value of an entry at this position.
+   */
+  private static final byte[] PREFIX = "{\"@class\":\"".getBytes(US_ASCII);
+
+  private static final String CLASS_KEY_NAME = "@class";
+
+  private static final BigDecimal MIN_LONG = BigDecimal.valueOf(Long.MIN_VALUE);
+
+  private static final BigDecimal MAX_LONG = BigDecimal.valueOf(Long.MAX_VALUE);
+
+  private final ClassResolver classResolver;
+
+  private final ConversionService conversionService;
+
+  private final Jsonb jsonb;
+
+  private final JsonProvider provider;
+
+  JacksonFormatReader(ClassResolver classResolver, ConversionService conversionService, Jsonb jsonb, JsonProvider provider) {
+    this.classResolver = classResolver;
+    this.conversionService = conversionService;
+    this.jsonb = jsonb;
+    this.provider = provider;
+  }
+
+  /**
+   * Checks whether a stream starts with a context written by Jackson
+   * without consuming it.
+   *
+   * @param in the stream to check, must support mark
+   * @return whether the stream starts like a context written by Jackson
+   * @throws IOException in case of I/O errors
+   */
+  static boolean isJacksonFormat(InputStream in) throws IOException {
+    in.mark(PREFIX.length);
+    byte[] start = in.readNBytes(PREFIX.length);
+    in.reset();
+    return isJacksonFormat(start, start.length);
+  }
+
+  /**
+   * Checks whether a serialized context was written by Jackson.
+   *
+   * @param data the serialized context
+   * @param length the number of valid bytes in {@code data}
+   * @return whether the data starts like a context written by Jackson
+   */
+  static boolean isJacksonFormat(byte[] data, int length) {
+    return (length >= PREFIX.length) && Arrays.equals(data, 0, PREFIX.length, PREFIX, 0, PREFIX.length);
+  }
+
+  /**
+   * Checks whether a string is a context written by Jackson.
+   *
+   * @param serialized the serialized context
+   * @return whether the string starts like a context written by Jackson
+   */
+  static boolean isJacksonFormat(String serialized) {
+    return serialized.startsWith("{\"@class\":\"");
+  }
+
+  /**
+   * Reads a context.
+   *
+   * @param in the context written by Jackson, not closed
+   * @return the entries of the context
+   * @throws IOException in case of I/O errors
+   * @throws JsonbException if the context is not valid
+   */
+  Map<String, Object> read(InputStream in) throws IOException {
+    // reading everything keeps the input stream open when the parser is closed
+    try (JsonParser parser = this.provider.createParser(new ByteArrayInputStream(in.readAllBytes()))) {
+      Event event = parser.next();
+      if (event != Event.START_OBJECT) {
+        throw unexpectedEvent(event);
+      }
+      Object context = this.readObject(parser);
+      if (!(context instanceof Map)) {
+        throw new JsonbException("context expected but was: " + context.getClass().getName());
+      }
+      @SuppressWarnings("unchecked")
+      Map<String, Object> entries = (Map<String, Object>) context;
+      return entries;
+    }
+  }
+
+  private Object readValue(JsonParser parser, Event event) {
+    return switch (event) {
+      case VALUE_STRING -> parser.getString();
+      case VALUE_NUMBER -> readNaturalNumber(parser);
+      case VALUE_TRUE -> Boolean.TRUE;
+      case VALUE_FALSE -> Boolean.FALSE;
+      case VALUE_NULL -> null;
+      case START_OBJECT -> this.readObject(parser);
+      case START_ARRAY -> this.readTypedValue(parser);
+      default -> throw unexpectedEvent(event);
+    };
+  }
+
+  /**
+   * Reads a number without type information like Jackson does.
+   */
+  private static Object readNaturalNumber(JsonParser parser) {
+    if (!parser.isIntegralNumber()) {
+      return ScalarValueCodec.parseNumber(parser.getString(), Double::valueOf);
+    }
+    long l;
+    if (IntegralNumbers.isExactLong(parser)) {
+      l = parser.getLong();
+    } else {
+      BigDecimal value = parser.getBigDecimal();
+      if ((value.compareTo(MIN_LONG) < 0) || (value.compareTo(MAX_LONG) > 0)) {
+        return value.toBigInteger();
+      }
+      l = value.longValue();
+    }
+    if ((l >= Integer.MIN_VALUE) && (l <= Integer.MAX_VALUE)) {
+      return (int) l;
+    }
+    return l;
+  }
+
+  /**
+   * Reads a value wrapped in an array with its class name.
+   */
+  private Object readTypedValue(JsonParser parser) {
+    Event event = parser.next();
+    if (event != Event.VALUE_STRING) {
+      throw new JsonbException("class name expected");
+    }
+    Class<?> type = this.resolveClass(parser.getString());
+    Object value = this.readTypedValue(type, parser, parser.next());
+    event = parser.next();
+    if (event != Event.END_ARRAY) {
+      throw unexpectedEvent(event);
+    }
+    return value;
+  }
+
+  private Object readTypedValue(Class<?> type, JsonParser parser, Event event) {
+    if (event == Event.VALUE_NULL) {
+      return null;
+    }
+    ScalarValueCodec codec = ScalarValueCodec.forClass(type);
+    if (codec != null) {
+      return codec.read(parser, event);
+    }
+    if (type.isArray()) {
+      return this.readArray(type.getComponentType(), parser, event);
+    }
+    if (Collection.class.isAssignableFrom(type)) {
+      if (event != Event.START_ARRAY) {
+        throw unexpectedEvent(event);
+      }
+      return this.readCollection(type, parser);
+    }
+    if (type.isEnum()) {
+      return readEnum(type, parser, event);
+    }
+    if (java.util.Date.class.isAssignableFrom(type)) {
+      return readDate(type, parser, event);
+    }
+    Object value = switch (event) {
+      case VALUE_STRING, VALUE_NUMBER, VALUE_TRUE, VALUE_FALSE -> this.readValue(parser, event);
+      default -> throw unexpectedEvent(event);
+    };
+    try {
+      return this.conversionService.convert(value, type);
+    } catch (ConversionException e) {
+      throw new JsonbException("could not convert: " + value + " to: " + type.getName(), e);
+    }
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"}) // generic code
+  private static Object readEnum(Class<?> type, JsonParser parser, Event event) {
+    if (event != Event.VALUE_STRING) {
+      throw unexpectedEvent(event);
+    }
+    try {
+      return Enum.valueOf((Class<? extends Enum>) type, parser.getString());
+    } catch (IllegalArgumentException e) {
+      throw new JsonbException("unknown constant: " + parser.getString() + " of: " + type.getName(), e);
+    }
+  }
+
+  /**
+   * Reads a date written as milliseconds since the epoch.
+   */
+  private static Object readDate(Class<?> type, JsonParser parser, Event event) {
+    if ((event != Event.VALUE_NUMBER) || !parser.isIntegralNumber()) {
+      throw unexpectedEvent(event);
+    }
+    long millis = ScalarValueCodec.readLong(parser);
+    if (type == java.util.Date.class) {
+      return new java.util.Date(millis);
+    }
+    if (type == java.sql.Date.class) {
+      return new java.sql.Date(millis);
+    }
+    if (type == java.sql.Timestamp.class) {
+      return new java.sql.Timestamp(millis);
+    }
+    if (type == java.sql.Time.class) {
+      return new java.sql.Time(millis);
+    }
+    throw new JsonbException("unsupported date class: " + type.getName());
+  }
+
+  private Object readArray(Class<?> componentType, JsonParser parser, Event event) {
+    if (event == Event.VALUE_STRING) {
+      // Jackson writes these as strings
+      if (componentType == byte.class) {
+        try {
+          return Base64.getDecoder().decode(parser.getString());
+        } catch (IllegalArgumentException e) {
+          throw new JsonbException("invalid Base64", e);
+        }
+      }
+      if (componentType == char.class) {
+        return parser.getString().toCharArray();
+      }
+    }
+    if (event != Event.START_ARRAY) {
+      throw unexpectedEvent(event);
+    }
+    Class<?> elementType = componentType.isPrimitive() ? wrapperClass(componentType) : null;
+    List<Object> elements = new ArrayList<>();
+    while ((event = parser.next()) != Event.END_ARRAY) {
+      if (elementType != null) {
+        elements.add(this.readTypedValue(elementType, parser, event));
+      } else {
+        elements.add(this.readValue(parser, event));
+      }
+    }
+    Object array = Array.newInstance(componentType, elements.size());
+    for (int i = 0; i < elements.size(); i++) {
+      try {
+        Array.set(array, i, elements.get(i));
+      } catch (IllegalArgumentException e) {
+        throw new JsonbException("invalid element of: " + componentType.getName() + "[]", e);
+      }
+    }
+    return array;
+  }
+
+  private static Class<?> wrapperClass(Class<?> primitiveClass) {
+    return Array.get(Array.newInstance(primitiveClass, 1), 0).getClass();
+  }
+
+  private Collection<Object> readCollection(Class<?> type, JsonParser parser) {
+    Collection<Object> collection = createCollection(type);
+    Event event;
+    while ((event = parser.next()) != Event.END_ARRAY) {
+      collection.add(this.readValue(parser, event));
+    }
+    return collection;
+  }
+
+  @SuppressWarnings("unchecked") // checked by #isAssignableFrom
+  private static Collection<Object> createCollection(Class<?> type) {
+    Object instance = newInstance(type);
+    if (instance != null) {
+      return (Collection<Object>) instance;
+    }
+    // unmodifiable or immutable collections
+    if (SortedSet.class.isAssignableFrom(type)) {
+      return new TreeSet<>();
+    }
+    if (Set.class.isAssignableFrom(type)) {
+      return new LinkedHashSet<>();
+    }
+    return new ArrayList<>();
+  }
+
+  @SuppressWarnings("unchecked") // checked by #isAssignableFrom
+  private static Map<String, Object> createMap(Class<?> type) {
+    if (type == HashMap.class) {
+      return new HashMap<>();
+    }
+    Object instance = newInstance(type);
+    if (instance != null) {
+      return (Map<String, Object>) instance;
+    }
+    if (SortedMap.class.isAssignableFrom(type)) {
+      return new TreeMap<>();
+    }
+    return new LinkedHashMap<>();
+  }
+
+  /**
+   * Creates an instance of a public class with a public default
+   * constructor.
+   *
+   * @return the instance, {@code null} if not possible
+   */
+  private static Object newInstance(Class<?> type) {
+    try {
+      return type.getConstructor().newInstance();
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Reads an object with a leading class name.
+   */
+  private Object readObject(JsonParser parser) {
+    Event event = parser.next();
+    if (event == Event.END_OBJECT) {
+      return new LinkedHashMap<>();
+    }
+    if ((event != Event.KEY_NAME) || !parser.getString().equals(CLASS_KEY_NAME)) {
+      throw new JsonbException(CLASS_KEY_NAME + " expected");
+    }
+    event = parser.next();
+    if (event != Event.VALUE_STRING) {
+      throw unexpectedEvent(event);
+    }
+    Class<?> type = this.resolveClass(parser.getString());
+    if (Map.class.isAssignableFrom(type)) {
+      return this.readEntries(createMap(type), parser);
+    }
+    if (type == JobParameters.class) {
+      return this.readJobParameters(parser);
+    }
+    if (type == JobParameter.class) {
+      return this.readJobParameter(parser);
+    }
+    return this.readBean(type, parser);
+  }
+
+  private Map<String, Object> readEntries(Map<String, Object> map, JsonParser parser) {
+    Event event;
+    while ((event = parser.next()) != Event.END_OBJECT) {
+      if (event != Event.KEY_NAME) {
+        throw unexpectedEvent(event);
+      }
+      String key = parser.getString();
+      map.put(key, this.readValue(parser, parser.next()));
+    }
+    return map;
+  }
+
+  private JobParameters readJobParameters(JsonParser parser) {
+    Map<String, JobParameter<?>> parameters = new HashMap<>();
+    Event event;
+    while ((event = parser.next()) != Event.END_OBJECT) {
+      if (event != Event.KEY_NAME) {
+        throw unexpectedEvent(event);
+      }
+      String key = parser.getString();
+      event = parser.next();
+      if (key.equals("parameters") && (event == Event.START_OBJECT)) {
+        if (!(this.readObject(parser) instanceof Map<?, ?> entries)) {
+          throw new JsonbException("map of job parameters expected");
+        }
+        for (Map.Entry<?, ?> entry : entries.entrySet()) {
+          if (!(entry.getValue() instanceof JobParameter<?> parameter)) {
+            throw new JsonbException("job parameter expected for: " + entry.getKey());
+          }
+          parameters.put((String) entry.getKey(), parameter);
+        }
+      } else {
+        // derived properties
+        skipValue(parser, event);
+      }
+    }
+    return new JobParameters(parameters);
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"}) // generic code
+  private JobParameter<?> readJobParameter(JsonParser parser) {
+    Object value = null;
+    Class<?> type = null;
+    boolean identifying = true; // default if missing
+    Event event;
+    while ((event = parser.next()) != Event.END_OBJECT) {
+      if (event != Event.KEY_NAME) {
+        throw unexpectedEvent(event);
+      }
+      String key = parser.getString();
+      event = parser.next();
+      switch (key) {
+        case "value" -> value = this.readValue(parser, event);
+        case "type" -> {
+          if (event != Event.VALUE_STRING) {
+            throw unexpectedEvent(event);
+          }
+          type = this.resolveClass(parser.getString());
+        }
+        case "identifying" -> identifying = switch (event) {
+          case VALUE_TRUE -> true;
+          case VALUE_FALSE -> false;
+          default -> throw new JsonbException("expected boolean");
+        };
+        default -> skipValue(parser, event);
+      }
+    }
+    if ((type == null) || (value == null)) {
+      throw new JsonbException("type and value expected");
+    }
+    if (!type.isInstance(value)) {
+      try {
+        value = this.conversionService.convert(value, type);
+      } catch (ConversionException e) {
+        throw new JsonbException("could not convert: " + value + " to: " + type.getName(), e);
+      }
+    }
+    return new JobParameter(value, type, identifying);
+  }
+
+  private Object readBean(Class<?> type, JsonParser parser) {
+    JsonObjectBuilder properties = this.provider.createObjectBuilder();
+    Event event;
+    while ((event = parser.next()) != Event.END_OBJECT) {
+      if (event != Event.KEY_NAME) {
+        throw unexpectedEvent(event);
+      }
+      String key = parser.getString();
+      parser.next();
+      properties.add(key, this.removeTypes(parser.getValue()));
+    }
+    return this.jsonb.fromJson(properties.build().toString(), type);
+  }
+
+  /**
+   * Removes the type information from the value of a bean property.
+   */
+  private JsonValue removeTypes(JsonValue value) {
+    return switch (value.getValueType()) {
+      case OBJECT -> {
+        JsonObjectBuilder builder = this.provider.createObjectBuilder();
+        for (Map.Entry<String, JsonValue> entry : ((JsonObject) value).entrySet()) {
+          if (!entry.getKey().equals(CLASS_KEY_NAME)) {
+            builder.add(entry.getKey(), this.removeTypes(entry.getValue()));
+          }
+        }
+        yield builder.build();
+      }
+      case ARRAY -> {
+        JsonArray array = (JsonArray) value;
+        if (this.isTypedValue(array)) {
+          yield this.removeTypes(array.get(1));
+        }
+        JsonArrayBuilder builder = this.provider.createArrayBuilder();
+        for (JsonValue element : array) {
+          builder.add(this.removeTypes(element));
+        }
+        yield builder.build();
+      }
+      default -> value;
+    };
+  }
+
+  /**
+   * Properties of final types have no type information, an array of
+   * strings can not be told apart from a typed value by the structure
+   * alone.
+   */
+  private boolean isTypedValue(JsonArray array) {
+    if ((array.size() != 2) || !(array.get(0) instanceof JsonString className)) {
+      return false;
+    }
+    try {
+      this.classResolver.resolveClass(className.getString());
+      return true;
+    } catch (ClassNotFoundException e) {
+      return false;
+    }
+  }
+
+  private static void skipValue(JsonParser parser, Event event) {
+    if (event == Event.START_OBJECT) {
+      parser.skipObject();
+    } else if (event == Event.START_ARRAY) {
+      parser.skipArray();
+    }
+  }
+
+  private Class<?> resolveClass(String className) {
+    try {
+      return this.classResolver.resolveClass(className);
+    } catch (ClassNotFoundException e) {
+      throw new JsonbException("could not load class: " + className, e);
+    }
+  }
+
+  private static JsonbException unexpectedEvent(Event event) {
+    return new JsonbException("Unexpected value: " + event);
+  }
+
+}
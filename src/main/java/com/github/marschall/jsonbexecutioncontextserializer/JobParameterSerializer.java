@@ -1,12 +1,17 @@
 package com.github.marschall.jsonbexecutioncontextserializer;
 
 import java.lang.reflect.Type;
-import java.math.BigDecimal;
-import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.batch.core.JobParameter;
 import org.springframework.core.convert.support.ConfigurableConversionService;
 
+import com.github.marschall.jsonbexecutioncontextserializer.ParameterValueCodec.ConversionServiceCodec;
+import com.github.marschall.jsonbexecutioncontextserializer.ParameterValueCodec.DateCodec;
+
 import jakarta.json.bind.JsonbException;
 import jakarta.json.bind.serializer.DeserializationContext;
 import jakarta.json.bind.serializer.JsonbDeserializer;
@@ -27,6 +32,15 @@ import jakarta.json.stream.JsonParser.Event;
  *   "identifying":true
  * }
  * </code></pre>
+ * <p>
+ * In the compact format type aliases are used and {@code "identifying"} is
+ * omitted if {@code true}.
+ * <pre><code>
+ * {
+ *   "type":"String",
+ *   "value":"paramValue"
+ * }
+ * </code></pre>
  */
 @SuppressWarnings("rawtypes") // generic code
 final class JobParameterSerializer implements JsonbSerializer<JobParameter>, JsonbDeserializer<JobParameter> {
@@ -37,14 +51,80 @@ final class JobParameterSerializer implements JsonbSerializer<JobParameter>, Jso
 
   private final ConfigurableConversionService conversionService;
 
-  JobParameterSerializer(ConfigurableConversionService conversionService) {
+  /**
+   * Dedicated codecs for common types by the name of the job parameter type.
+   * All of them are JDK types.
+   */
+  private final Map<String, ParameterValueCodec> builtInCodecs;
+
+  /**
+   * Conversion service based codecs for all other types. A {@link ClassValue}
+   * does not keep the class loader of a job parameter type reachable.
+   */
+  private final ClassValue<ParameterValueCodec> conversionServiceCodecs;
+
+  private final ClassResolver classResolver;
+
+  private final TypeAliases typeAliases;
+
+  private final boolean compact;
+
+  JobParameterSerializer(ConfigurableConversionService conversionService, ClassResolver classResolver,
+      TypeAliases typeAliases, boolean compact) {
     this.conversionService = conversionService;
+    this.classResolver = classResolver;
+    this.typeAliases = typeAliases;
+    this.compact = compact;
+    this.builtInCodecs = List.of(
+        ParameterValueCodec.STRING,
+        ParameterValueCodec.LONG,
+        ParameterValueCodec.INTEGER,
+        ParameterValueCodec.DOUBLE,
+        ParameterValueCodec.BOOLEAN,
+        ParameterValueCodec.LOCAL_DATE,
+        ParameterValueCodec.LOCAL_TIME,
+        ParameterValueCodec.LOCAL_DATE_TIME,
+        new DateCodec(conversionService))
+      .stream()
+      .collect(Collectors.toUnmodifiableMap(codec -> codec.getParameterType().getName(), Function.identity()));
+    this.conversionServiceCodecs = new ClassValue<>() {
+
+      @Override
+      protected ParameterValueCodec computeValue(Class<?> parameterType) {
+        return new ConversionServiceCodec(conversionService, parameterType);
+      }
+
+    };
+  }
+
+  private ParameterValueCodec getCodec(String className) {
+    ParameterValueCodec codec = this.builtInCodecs.get(className);
+    if (codec != null) {
+      return codec;
+    }
+    Class<?> parameterType = this.typeAliases.resolveAlias(className);
+    if (parameterType == null) {
+      try {
+        parameterType = this.classResolver.resolveClass(className);
+      } catch (ClassNotFoundException e) {
+        throw new JsonbException("could not load class: " + className, e);
+      }
+    }
+    return this.getCodec(parameterType);
+  }
+
+  private ParameterValueCodec getCodec(Class<?> parameterType) {
+    ParameterValueCodec codec = this.builtInCodecs.get(parameterType.getName());
+    if (codec != null && codec.getParameterType() == parameterType) {
+      return codec;
+    }
+    return this.conversionServiceCodecs.get(parameterType);
   }
 
   @SuppressWarnings("unchecked") // generic code
   @Override
   public JobParameter deserialize(JsonParser parser, DeserializationContext ctx, Type rtType) {
-    Class<?> parameterType = null;
+    ParameterValueCodec codec = null;
     Object value = null;
     boolean identifying = true; // default if missing
 
@@ -57,23 +137,13 @@ final class JobParameterSerializer implements JsonbSerializer<JobParameter>, Jso
 
         switch (key) {
           case TYPE_KEY_NAME -> { // "type": "java.lang.String"
-            String className = parser.getString();
-            try {
-              parameterType = Class.forName(className);
-            } catch (ClassNotFoundException e) {
-              throw new JsonbException("could not load class: " + className, e);
-            }
+            codec = this.getCodec(parser.getString());
           }
           case VALUE_KEY_NAME -> { // "value": "foo"
-
-            value = switch (valueEvent) {
-              case VALUE_STRING -> this.conversionService.convert(parser.getString(), parameterType);
-              case VALUE_NUMBER -> this.conversionService.convert(parser.getBigDecimal(), parameterType);
-              case VALUE_TRUE -> this.conversionService.convert(true, parameterType);
-              case VALUE_FALSE -> this.conversionService.convert(false, parameterType);
-              case VALUE_NULL -> this.conversionService.convert(null, parameterType);
-              default -> throw new JsonbException("Unexpected value: " + valueEvent);
-            };
+            if (codec == null) {
+              throw new JsonbException(TYPE_KEY_NAME + " expected before " + VALUE_KEY_NAME);
+            }
+            value = codec.read(parser, valueEvent);
           }
           case IDENTIFYING_KEY_NAME -> { // "identifying":true
             identifying = switch (valueEvent) {
@@ -89,7 +159,10 @@ final class JobParameterSerializer implements JsonbSerializer<JobParameter>, Jso
       }
     }
 
-    return new JobParameter(value, parameterType, identifying);
+    if (codec == null) {
+      throw new JsonbException(TYPE_KEY_NAME + " expected");
+    }
+    return new JobParameter(value, codec.getParameterType(), identifying);
   }
 
   @Override
@@ -97,38 +170,34 @@ final class JobParameterSerializer implements JsonbSerializer<JobParameter>, Jso
     generator.writeStartObject(); // {
 
     Class<?> parameterType = jobParameter.getType();
-    generator.write(TYPE_KEY_NAME, parameterType.getName()); // "type": "java.lang.String"
+    generator.write(TYPE_KEY_NAME, this.getTypeName(parameterType)); // "type": "java.lang.String"
 
     generator.writeKey(VALUE_KEY_NAME); // "value":
 
     // "foo"
     Object parameterValue = jobParameter.getValue();
-    if (parameterValue instanceof String s) {
-      generator.write(s);
-    } else if (parameterValue instanceof Integer i) {
-      generator.write(i);
-    } else if (parameterValue instanceof Long l) {
-      generator.write(l);
-    } else if (parameterValue instanceof Double d) {
-      generator.write(d);
-    } else if (parameterValue instanceof Boolean b) {
-      generator.write(b);
-    } else if (parameterValue instanceof BigInteger bi) {
-      generator.write(bi);
-    } else if (parameterValue instanceof BigDecimal db) {
-      generator.write(db);
-    } else if (parameterValue == null) {
+    if (parameterValue == null) {
       generator.writeNull();
     } else {
-      String stringValue = this.conversionService.convert(parameterValue, String.class);
-      generator.write(stringValue);
+      this.getCodec(parameterType).write(parameterValue, generator);
     }
 
     // "identifying": true
-    generator.write(IDENTIFYING_KEY_NAME, jobParameter.isIdentifying());
+    if (!this.compact || !jobParameter.isIdentifying()) {
+      generator.write(IDENTIFYING_KEY_NAME, jobParameter.isIdentifying());
+    }
 
     generator.writeEnd(); // }
   }
 
+  private String getTypeName(Class<?> parameterType) {
+    if (this.compact) {
+      String alias = this.typeAliases.getAlias(parameterType);
+      if (alias != null) {
+        return alias;
+      }
+    }
+    return parameterType.getName();
+  }
 
 }
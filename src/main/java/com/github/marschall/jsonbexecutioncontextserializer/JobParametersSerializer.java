@@ -0,0 +1,72 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.springframework.batch.core.JobParameter;
+import org.springframework.batch.core.JobParameters;
+
+import jakarta.json.bind.JsonbException;
+import jakarta.json.bind.serializer.DeserializationContext;
+import jakarta.json.bind.serializer.JsonbDeserializer;
+import jakarta.json.bind.serializer.JsonbSerializer;
+import jakarta.json.bind.serializer.SerializationContext;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
+
+/**
+ * Serializes {@link JobParameters} as an object of the parameters by name.
+ * <p>
+ * <h1>Format used</h1>
+ * <pre><code>
+ * {
+ *   "paramName": {
+ *     "type":"java.lang.String",
+ *     "value":"paramValue",
+ *     "identifying":true
+ *   }
+ * }
+ * </code></pre>
+ * <p>
+ * The parameters are written and read by {@link JobParameterSerializer}
+ * directly from the JSON-P events. The entries are accumulated in an
+ * {@link EntrySetMap} so the only map created is the one of
+ * {@link JobParameters#JobParameters(Map)}.
+ */
+final class JobParametersSerializer implements JsonbSerializer<JobParameters>, JsonbDeserializer<JobParameters> {
+
+  private final JobParameterSerializer jobParameterSerializer;
+
+  JobParametersSerializer(JobParameterSerializer jobParameterSerializer) {
+    this.jobParameterSerializer = jobParameterSerializer;
+  }
+
+  @Override
+  public JobParameters deserialize(JsonParser parser, DeserializationContext ctx, Type rtType) {
+    Map<String, JobParameter<?>> parameters = new EntrySetMap<>();
+    Event next;
+    while ((next = parser.next()) != Event.END_OBJECT) {
+      if (next == Event.KEY_NAME) {
+        String name = parser.getString();
+        if (parser.next() != Event.START_OBJECT) {
+          throw new JsonbException("START_OBJECT expected");
+        }
+        parameters.put(name, this.jobParameterSerializer.deserialize(parser, ctx, JobParameter.class));
+      }
+    }
+    return new JobParameters(parameters);
+  }
+
+  @Override
+  public void serialize(JobParameters jobParameters, JsonGenerator generator, SerializationContext ctx) {
+    generator.writeStartObject();
+    for (Entry<String, JobParameter<?>> entry : jobParameters.getParameters().entrySet()) {
+      generator.writeKey(entry.getKey());
+      this.jobParameterSerializer.serialize(entry.getValue(), generator, ctx);
+    }
+    generator.writeEnd();
+  }
+
+}
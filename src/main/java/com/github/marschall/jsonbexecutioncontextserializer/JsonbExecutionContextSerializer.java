@@ -1,23 +1,49 @@
 package com.github.marschall.jsonbexecutioncontextserializer;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.sql.Date;
 import java.sql.Time;
 import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
+import org.springframework.batch.core.JobParameter;
 import org.springframework.batch.core.repository.ExecutionContextSerializer;
+import org.springframework.batch.item.ExecutionContext;
 import org.springframework.core.convert.support.ConfigurableConversionService;
 import org.springframework.core.convert.support.DefaultConversionService;
 import org.springframework.util.Assert;
 
+import com.github.marschall.jsonbexecutioncontextserializer.ExecutionContextMetrics.Operation;
+
 import jakarta.json.bind.Jsonb;
 import jakarta.json.bind.JsonbBuilder;
 import jakarta.json.bind.JsonbConfig;
+import jakarta.json.bind.JsonbException;
 import jakarta.json.bind.adapter.JsonbAdapter;
+import jakarta.json.spi.JsonProvider;
+import jakarta.json.stream.JsonGeneratorFactory;
 
 
 /**
@@ -27,8 +53,56 @@ import jakarta.json.bind.adapter.JsonbAdapter;
  */
 public final class JsonbExecutionContextSerializer implements ExecutionContextSerializer {
 
+  /**
+   * The default maximum length of the {@code SHORT_CONTEXT} column,
+   * longer contexts are written by {@code JdbcExecutionContextDao} to the
+   * {@code SERIALIZED_CONTEXT} CLOB column.
+   *
+   * @see Builder#sizeBudget(int)
+   */
+  public static final int SHORT_CONTEXT_LENGTH = 2500;
+
+  private static final String WARM_UP_KEY = "warmUp";
+
   private final Jsonb jsonb;
 
+  /**
+   * Reads and writes the binary format, {@code null} if binary contexts can
+   * not be read. Only created once a binary context is written or read.
+   */
+  private final LazyJsonb binaryJsonb;
+
+  private final boolean binaryFormat;
+
+  /**
+   * The charset of JSON contexts.
+   */
+  private final Charset encoding;
+
+  /**
+   * {@code null} if contexts are read and written by {@link #jsonb}.
+   */
+  private final EnvelopeEngine envelopeEngine;
+
+  private final Compression compression;
+
+  /**
+   * {@code null} if disabled.
+   */
+  private final SizeBudget sizeBudget;
+
+  private final Instrumentation instrumentation;
+
+  /**
+   * Whether entries are written sorted by key.
+   */
+  private final boolean canonicalOutput;
+
+  /**
+   * Reads contexts written by {@code Jackson2ExecutionContextStringSerializer}.
+   */
+  private final JacksonFormatReader jacksonFormatReader;
+
   /**
    * Create a new {@link JsonbExecutionContextSerializer} using a default configuration.
    *
@@ -45,12 +119,27 @@ public final class JsonbExecutionContextSerializer implements ExecutionContextSe
    * @see JsonbBuilder#create()
    */
   public JsonbExecutionContextSerializer(ConfigurableConversionService conversionService) {
-    JsonbConfig config = new JsonbConfig()
-//        .withEncoding(ISO_8859_1.name()) // JdbcJobExecutionDao hard codes ISO-8859-1
-        .withDeserializers(new JobParameterSerializer(conversionService), new ExecutionContextWrapperSerializer())
-        .withSerializers(new JobParameterSerializer(conversionService), new ExecutionContextWrapperSerializer())
-        .withAdapters(new JobParametersAdapter(), new LocaleAdapter(), new SqlDateAdapter(), new SqlTimestampAdapter(), new SqlTimeAdapter());
-    this.jsonb = JsonbBuilder.create(config);
+    this(builder().conversionService(conversionService));
+  }
+
+  private JsonbExecutionContextSerializer(Builder builder) {
+    ExecutionContextWrapperSerializer wrapperSerializer = builder.createWrapperSerializer();
+    JobParameterSerializer jobParameterSerializer = builder.createJobParameterSerializer(wrapperSerializer);
+    JsonbConfig config = builder.createConfig(wrapperSerializer, jobParameterSerializer);
+    JsonProvider provider = builder.createJsonProvider();
+    this.jsonb = createJsonb(config, provider);
+    this.envelopeEngine = builder.createEnvelopeEngine(wrapperSerializer, jobParameterSerializer, this.jsonb, provider);
+    this.binaryJsonb = new LazyJsonb(() -> createBinaryJsonb(config, provider));
+    this.binaryFormat = builder.binaryFormat;
+    this.encoding = builder.encoding;
+    this.compression = builder.createCompression();
+    this.sizeBudget = builder.createSizeBudget(provider, this.compression);
+    this.instrumentation = builder.createInstrumentation();
+    this.canonicalOutput = builder.canonicalOutput;
+    this.jacksonFormatReader = builder.createJacksonFormatReader(this.jsonb, provider);
+    if (!builder.warmUpTypes.isEmpty()) {
+      this.warmUp(builder.warmUpTypes);
+    }
   }
 
   /**
@@ -63,6 +152,21 @@ public final class JsonbExecutionContextSerializer implements ExecutionContextSe
   public JsonbExecutionContextSerializer(JsonbConfig config) {
     Assert.notNull(config, "A JSON-B config is required");
     this.jsonb = JsonbBuilder.create(config);
+    // the binary instance is created later, changes to the config must not affect it
+    JsonbConfig binaryConfig = new JsonbConfig();
+    config.getAsMap().forEach(binaryConfig::setProperty);
+    this.binaryJsonb = new LazyJsonb(() -> createBinaryJsonb(binaryConfig, null));
+    this.binaryFormat = false;
+    this.encoding = config.getProperty(JsonbConfig.ENCODING)
+                          .map(encoding -> Charset.forName((String) encoding))
+                          .orElse(StandardCharsets.UTF_8);
+    this.envelopeEngine = null;
+    this.compression = Compression.readOnly();
+    this.sizeBudget = null;
+    this.instrumentation = new Instrumentation(null, 1, 0L);
+    this.canonicalOutput = false;
+    this.jacksonFormatReader = new JacksonFormatReader(new ClassResolver(), new DefaultConversionService(),
+        this.jsonb, JsonProvider.provider());
   }
 
   /**
@@ -73,6 +177,47 @@ public final class JsonbExecutionContextSerializer implements ExecutionContextSe
   public JsonbExecutionContextSerializer(Jsonb jsonb) {
     Assert.notNull(jsonb, "A JSON-B instance is required");
     this.jsonb = jsonb;
+    // the config of the instance is not known
+    this.binaryJsonb = null;
+    this.binaryFormat = false;
+    // JSON-B default
+    this.encoding = StandardCharsets.UTF_8;
+    this.envelopeEngine = null;
+    this.compression = Compression.readOnly();
+    this.sizeBudget = null;
+    this.instrumentation = new Instrumentation(null, 1, 0L);
+    this.canonicalOutput = false;
+    this.jacksonFormatReader = new JacksonFormatReader(new ClassResolver(), new DefaultConversionService(),
+        this.jsonb, JsonProvider.provider());
+  }
+
+  private static Jsonb createJsonb(JsonbConfig config, JsonProvider provider) {
+    if (provider == null) {
+      return JsonbBuilder.create(config);
+    }
+    return JsonbBuilder.newBuilder()
+                       .withConfig(config)
+                       .withProvider(provider)
+                       .build();
+  }
+
+  private static Jsonb createBinaryJsonb(JsonbConfig config, JsonProvider provider) {
+    JsonProvider textProvider = provider != null ? provider : JsonProvider.provider();
+    // same config, only the parsers and generators for streams differ
+    return JsonbBuilder.newBuilder()
+                       .withConfig(config)
+                       .withProvider(new BinaryJsonProvider(textProvider))
+                       .build();
+  }
+
+  /**
+   * Creates a new builder for a {@link JsonbExecutionContextSerializer} with
+   * custom settings.
+   *
+   * @return the new builder
+   */
+  public static Builder builder() {
+    return new Builder();
   }
 
   @Override
@@ -80,12 +225,483 @@ public final class JsonbExecutionContextSerializer implements ExecutionContextSe
     Assert.notNull(context, "A context is required");
     Assert.notNull(out, "An OutputStream is required");
 
-    this.jsonb.toJson(new ExecutionContextWrapper(context), out);
+    Map<String, Object> entries = this.canonicalOutput ? new TreeMap<>(context) : context;
+
+    OperationRecorder recorder = this.instrumentation.start(Operation.SERIALIZE);
+    if (recorder == null) {
+      this.serializeWithinBudget(entries, out, null);
+      return;
+    }
+    CountingOutputStream counter = new CountingOutputStream(out);
+    this.serializeWithinBudget(entries, counter, recorder);
+    recorder.finish(counter.getCount(), entries.size());
+  }
+
+  private void serializeWithinBudget(Map<String, Object> context, OutputStream out, OperationRecorder recorder) throws IOException {
+    if (this.sizeBudget != null) {
+      ByteArrayOutputStream configured = new ByteArrayOutputStream();
+      this.serializeConfigured(context, configured, recorder);
+      if (this.sizeBudget.fits(configured.size())) {
+        configured.writeTo(out);
+      } else {
+        // fallbacks are not recorded, the values would be recorded again
+        this.sizeBudget.writeOverBudget(context, configured, out);
+      }
+    } else {
+      this.serializeConfigured(context, out, recorder);
+    }
+  }
+
+  private void serializeConfigured(Map<String, Object> context, OutputStream out, OperationRecorder recorder) throws IOException {
+    if (recorder == null) {
+      this.serializeConfigured(context, out);
+      return;
+    }
+    recorder.activate();
+    try {
+      this.serializeConfigured(context, out);
+    } finally {
+      recorder.deactivate();
+    }
+  }
+
+  /**
+   * Serializes many contexts in parallel on the common fork-join pool.
+   *
+   * @param contexts the contexts to serialize, not {@code null}
+   * @return the serialized contexts in the same order
+   * @throws IOException in case of I/O errors
+   * @see #serializeAll(List, Executor)
+   */
+  public List<byte[]> serializeAll(List<? extends Map<String, Object>> contexts) throws IOException {
+    return this.serializeAll(contexts, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Serializes many contexts in parallel.
+   * <p>
+   * The contexts are split into one slice per available processor, every
+   * slice reuses a single buffer. The calling thread serializes the first
+   * slice itself. The result is the same as serializing every context
+   * with {@link #serialize(Map, OutputStream)}.
+   *
+   * @param contexts the contexts to serialize, not {@code null}
+   * @param executor runs the slices, for example a virtual thread executor,
+   *                 not {@code null}
+   * @return the serialized contexts in the same order
+   * @throws IOException in case of I/O errors
+   */
+  public List<byte[]> serializeAll(List<? extends Map<String, Object>> contexts, Executor executor) throws IOException {
+    Assert.notNull(contexts, "Contexts are required");
+    Assert.notNull(executor, "An executor is required");
+    byte[][] serialized = new byte[contexts.size()][];
+    BulkOperation.run(contexts.size(), executor, (from, to) -> {
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      for (int i = from; i < to; i++) {
+        buffer.reset();
+        this.serialize(contexts.get(i), buffer);
+        serialized[i] = buffer.toByteArray();
+      }
+    });
+    return Arrays.asList(serialized);
+  }
+
+  /**
+   * Returns the size of a context serialized with the configured encoding.
+   * <p>
+   * The size is in bytes which is an upper bound for the length of the
+   * {@link String} that {@code JdbcExecutionContextDao} stores, all
+   * encodings except for non-ASCII characters in JSON use one byte per
+   * character. Fallbacks of {@link Builder#sizeBudget(int)} are not
+   * considered. The context is serialized but not retained.
+   *
+   * @param context the context to estimate, not {@code null}
+   * @return the serialized size in bytes
+   */
+  public int estimateSerializedSize(Map<String, Object> context) {
+    Assert.notNull(context, "A context is required");
+    CountingOutputStream counter = new CountingOutputStream(null);
+    try {
+      this.serializeConfigured(context, counter);
+    } catch (IOException e) {
+      // the counting stream does not throw
+      throw new UncheckedIOException("could not serialize context", e);
+    }
+    return counter.getCount();
+  }
+
+  private void serializeConfigured(Map<String, Object> context, OutputStream out) throws IOException {
+    if (this.binaryFormat) {
+      this.serializeBinary(context, out);
+    } else if (this.compression.isEnabled()) {
+      // the size has to be known to decide whether to compress
+      ByteArrayOutputStream json = new ByteArrayOutputStream();
+      this.serializeJson(context, json);
+      this.compression.write(json, out);
+    } else {
+      this.serializeJson(context, out);
+    }
+  }
+
+  private void serializeBinary(Map<String, Object> context, OutputStream out) throws IOException {
+    // the size has to be known to decide whether to compress
+    ByteArrayOutputStream binary = new ByteArrayOutputStream();
+    this.binaryJsonb.get().toJson(new ExecutionContextWrapper(context), binary);
+    if (this.compression.shouldCompress(binary.size())) {
+      this.compression.compress(binary, out);
+    } else {
+      BinaryFormat.write(binary, out);
+    }
+  }
+
+  private void serializeJson(Map<String, Object> context, OutputStream out) throws IOException {
+    if ((this.envelopeEngine != null) && this.envelopeEngine.shouldWrite(context)) {
+      this.envelopeEngine.write(context, out);
+    } else {
+      toJson(this.jsonb, context, out);
+    }
+  }
+
+  /**
+   * Writes a context with JSON-B, {@link ExecutionContextWrapperSerializer}
+   * finds the {@link DirectJsonGenerator} created by the call, if any,
+   * through a thread-local that is only set during the call.
+   */
+  static void toJson(Jsonb jsonb, Map<String, Object> context, OutputStream out) {
+    Object previous = DirectJsonGenerator.beginCapture();
+    try {
+      jsonb.toJson(new ExecutionContextWrapper(context), out);
+    } finally {
+      DirectJsonGenerator.endCapture(previous);
+    }
+  }
+
+  /**
+   * Prepares the serializer for the given value types so that the first
+   * context containing them is not slower than the following ones.
+   * <p>
+   * JSON-B builds the model of a class by reflection when it first
+   * (de)serializes an instance. For every type a sample value is created,
+   * written and read again in the configured format outside of the
+   * instrumentation. This builds the class models and fills the class
+   * resolution caches. Intended to be called at application startup.
+   * <p>
+   * The sample of a class is bound from an empty JSON object, the sample of
+   * an enum is its first constant. The models of types only reachable
+   * through properties of a sample are not built as the properties of a
+   * sample are {@code null}, pass these types as well. Types read and
+   * written without JSON-B, like {@code Long} or {@code JobParameter},
+   * are skipped.
+   *
+   * @param types the types of the values stored in contexts, not {@code null}
+   * @throws IllegalArgumentException if no sample value can be created
+   *         for a type
+   * @throws UncheckedIOException if the round trip of a sample fails
+   * @see Builder#warmUp(Class...)
+   */
+  public void warmUp(Collection<Class<?>> types) {
+    Assert.notNull(types, "Types are required");
+    for (Class<?> type : types) {
+      Assert.notNull(type, "A type must not be null");
+      if ((ScalarValueCodec.forClass(type) != null) || (type == JobParameter.class)) {
+        continue;
+      }
+      this.warmUp(this.createSample(type));
+    }
+  }
+
+  private Object createSample(Class<?> type) {
+    if (type.isEnum()) {
+      Object[] constants = type.getEnumConstants();
+      if (constants.length == 0) {
+        throw new IllegalArgumentException("enum without constants: " + type.getName());
+      }
+      return constants[0];
+    }
+    String empty = (Collection.class.isAssignableFrom(type) || type.isArray()) ? "[]" : "{}";
+    try {
+      return this.jsonb.fromJson(empty, type);
+    } catch (JsonbException e) {
+      throw new IllegalArgumentException("could not create a sample of: " + type.getName(), e);
+    }
+  }
+
+  private void warmUp(Object sample) {
+    Map<String, Object> context = Collections.singletonMap(WARM_UP_KEY, sample);
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      this.serializeConfigured(context, out);
+      this.readEntries(new ByteArrayInputStream(out.toByteArray()));
+    } catch (IOException e) {
+      throw new UncheckedIOException("could not warm up " + sample.getClass().getName(), e);
+    }
   }
 
   @Override
   public Map<String, Object> deserialize(InputStream in) throws IOException {
-    return this.jsonb.fromJson(in, ExecutionContextWrapper.class).getMap();
+    // presized, never rehashes
+    return new HashMap<>(this.deserializeEntries(in));
+  }
+
+  /**
+   * Deserializes an execution context into a caller supplied map.
+   * <p>
+   * Avoids an intermediate map when the caller already has the map the
+   * entries should end up in.
+   *
+   * @param in the input stream to read from, not {@code null}
+   * @param target the map to add the entries to, not {@code null}
+   * @throws IOException in case of I/O errors
+   */
+  public void deserialize(InputStream in, Map<String, Object> target) throws IOException {
+    Assert.notNull(target, "A target map is required");
+    target.putAll(this.deserializeEntries(in));
+  }
+
+  /**
+   * Deserializes directly into an {@link ExecutionContext}.
+   * <p>
+   * Unlike {@code new ExecutionContext(serializer.deserialize(in))} this
+   * does not create an intermediate {@link HashMap}, the entries are
+   * copied only once into the correctly sized map of the execution context.
+   *
+   * @param in the input stream to read from, not {@code null}
+   * @return the deserialized execution context
+   * @throws IOException in case of I/O errors
+   */
+  public ExecutionContext deserializeExecutionContext(InputStream in) throws IOException {
+    return new ExecutionContext(this.deserializeEntries(in));
+  }
+
+  /**
+   * Deserializes many contexts in parallel on the common fork-join pool.
+   *
+   * @param serialized the serialized contexts, not {@code null}
+   * @return the deserialized contexts in the same order
+   * @throws IOException in case of I/O errors
+   * @see #deserializeAll(List, Executor)
+   */
+  public List<Map<String, Object>> deserializeAll(List<byte[]> serialized) throws IOException {
+    return this.deserializeAll(serialized, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Deserializes many contexts in parallel.
+   * <p>
+   * The contexts are split into one slice per available processor, the
+   * calling thread deserializes the first slice itself. The result is the
+   * same as deserializing every context with {@link #deserialize(InputStream)}.
+   *
+   * @param serialized the serialized contexts, not {@code null}
+   * @param executor runs the slices, for example a virtual thread executor,
+   *                 not {@code null}
+   * @return the deserialized contexts in the same order
+   * @throws IOException in case of I/O errors
+   */
+  public List<Map<String, Object>> deserializeAll(List<byte[]> serialized, Executor executor) throws IOException {
+    Assert.notNull(serialized, "Serialized contexts are required");
+    Assert.notNull(executor, "An executor is required");
+    // filled with set(int, Object) which is safe for disjoint slices
+    List<Map<String, Object>> contexts = new ArrayList<>(Collections.nCopies(serialized.size(), null));
+    BulkOperation.run(serialized.size(), executor, (from, to) -> {
+      for (int i = from; i < to; i++) {
+        contexts.set(i, this.deserialize(new ByteArrayInputStream(serialized.get(i))));
+      }
+    });
+    return contexts;
+  }
+
+  /**
+   * Deserializes an execution context into a map that binds values only
+   * when they are accessed.
+   * <p>
+   * Only the keys are read up front, every value is kept in its encoded
+   * form and bound on the first {@link Map#get(Object)}. This is
+   * considerably cheaper when only a few keys of a context with large
+   * values are read, for example a read count or a status flag. A value
+   * that can not be bound, for example because its class is missing,
+   * throws a {@link jakarta.json.bind.JsonbException} when it is accessed
+   * without affecting the other keys.
+   * <p>
+   * The returned map is unmodifiable. Iterating over the values, copying
+   * the map or passing it to
+   * {@link ExecutionContext#ExecutionContext(Map)} binds all values.
+   *
+   * @param in the input stream to read from, not {@code null}
+   * @return the lazily bound entries
+   * @throws IOException in case of I/O errors
+   * @throws jakarta.json.bind.JsonbException if the structure of the
+   *         context is not valid
+   */
+  public Map<String, Object> deserializeLazily(InputStream in) throws IOException {
+    Assert.notNull(in, "An InputStream is required");
+    OperationRecorder recorder = this.instrumentation.start(Operation.DESERIALIZE);
+    if (recorder == null) {
+      return this.readLazily(in);
+    }
+    CountingInputStream counter = new CountingInputStream(in);
+    // values are bound later and not recorded
+    Map<String, Object> entries = this.readLazily(counter);
+    recorder.finish(counter.getCount(), entries.size());
+    return entries;
+  }
+
+  private Map<String, Object> readLazily(InputStream in) throws IOException {
+    byte[] data = BinaryFormat.decode(this.compression.decode(in)).readAllBytes();
+    if (BinaryJsonParser.isBinary(data, data.length)) {
+      if (this.binaryJsonb == null) {
+        throw new IOException("binary contexts can not be read by a serializer created from a Jsonb instance");
+      }
+      return LazyContextReader.readBinary(data, this.binaryJsonb.get());
+    }
+    if (JacksonFormatReader.isJacksonFormat(data, data.length)) {
+      // only read for migration, not worth reading lazily
+      return Collections.unmodifiableMap(this.jacksonFormatReader.read(new ByteArrayInputStream(data)));
+    }
+    return LazyContextReader.readJson(new String(data, this.encoding), this.jsonb);
+  }
+
+  private Map<String, Object> deserializeEntries(InputStream in) throws IOException {
+    Assert.notNull(in, "An InputStream is required");
+    OperationRecorder recorder = this.instrumentation.start(Operation.DESERIALIZE);
+    if (recorder == null) {
+      return this.readEntries(in);
+    }
+    CountingInputStream counter = new CountingInputStream(in);
+    Map<String, Object> entries;
+    recorder.activate();
+    try {
+      entries = this.readEntries(counter);
+    } finally {
+      recorder.deactivate();
+    }
+    recorder.finish(counter.getCount(), entries.size());
+    return entries;
+  }
+
+  private Map<String, Object> readEntries(InputStream in) throws IOException {
+    InputStream decoded = BinaryFormat.decode(this.compression.decode(in));
+    if (BinaryFormat.isBinary(decoded)) {
+      if (this.binaryJsonb == null) {
+        throw new IOException("binary contexts can not be read by a serializer created from a Jsonb instance");
+      }
+      return this.binaryJsonb.get().fromJson(decoded, ExecutionContextWrapper.class).getMap();
+    }
+    if (JacksonFormatReader.isJacksonFormat(decoded)) {
+      return this.jacksonFormatReader.read(decoded);
+    }
+    if (this.envelopeEngine != null) {
+      return this.envelopeEngine.read(decoded);
+    }
+    return this.jsonb.fromJson(decoded, ExecutionContextWrapper.class).getMap();
+  }
+
+  /**
+   * Counts the bytes written.
+   */
+  static final class CountingOutputStream extends OutputStream {
+
+    /**
+     * {@code null} to discard the bytes.
+     */
+    private final OutputStream out;
+
+    private int count;
+
+    CountingOutputStream(OutputStream out) {
+      this.out = out;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      if (this.out != null) {
+        this.out.write(b);
+      }
+      this.count += 1;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      if (this.out != null) {
+        this.out.write(b, off, len);
+      }
+      this.count += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+      if (this.out != null) {
+        this.out.flush();
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (this.out != null) {
+        this.out.close();
+      }
+    }
+
+    int getCount() {
+      return this.count;
+    }
+
+  }
+
+  /**
+   * Counts the bytes read.
+   */
+  static final class CountingInputStream extends FilterInputStream {
+
+    private long count;
+
+    private long markedCount;
+
+    CountingInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b != -1) {
+        this.count += 1;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int read = super.read(b, off, len);
+      if (read > 0) {
+        this.count += read;
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = super.skip(n);
+      this.count += skipped;
+      return skipped;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+      super.mark(readlimit);
+      this.markedCount = this.count;
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+      super.reset();
+      this.count = this.markedCount;
+    }
+
+    long getCount() {
+      return this.count;
+    }
+
   }
 
   /**
@@ -207,4 +823,573 @@ public final class JsonbExecutionContextSerializer implements ExecutionContextSe
 
   }
 
+  /**
+   * Builds a {@link JsonbExecutionContextSerializer} with custom settings.
+   * <p>
+   * Settings that are not explicitly set use the same defaults as
+   * {@link JsonbExecutionContextSerializer#JsonbExecutionContextSerializer()}.
+   *
+   * @see JsonbExecutionContextSerializer#builder()
+   */
+  public static final class Builder {
+
+    private ConfigurableConversionService conversionService;
+
+    private boolean compactFormat;
+
+    private final Map<String, Class<?>> typeAliases;
+
+    private int fragmentCacheEntries;
+
+    private int maxFragmentSize;
+
+    private CompressionCodec compressionCodec;
+
+    private int compressionThreshold;
+
+    private boolean binaryFormat;
+
+    private int sizeBudget;
+
+    private SizeBudgetListener sizeBudgetListener;
+
+    private Charset encoding;
+
+    private boolean directWriter;
+
+    private boolean envelopeEngine;
+
+    private ExecutionContextMetrics metrics;
+
+    private int metricsSampleInterval;
+
+    private Duration slowOperationThreshold;
+
+    private final List<Class<?>> warmUpTypes;
+
+    private final Set<Class<?>> generatedCodecTypes;
+
+    private boolean numericSequences;
+
+    private boolean canonicalOutput;
+
+    private int internCapacity;
+
+    private int maxInternedLength;
+
+    Builder() {
+      this.conversionService = new DefaultConversionService();
+      this.compactFormat = false;
+      this.typeAliases = new HashMap<>();
+      this.fragmentCacheEntries = 0;
+      this.maxFragmentSize = 0;
+      this.compressionCodec = null;
+      this.compressionThreshold = 0;
+      this.binaryFormat = false;
+      this.sizeBudget = 0;
+      this.sizeBudgetListener = null;
+      this.encoding = StandardCharsets.UTF_8;
+      this.directWriter = true;
+      this.envelopeEngine = true;
+      this.metrics = null;
+      this.metricsSampleInterval = 1;
+      this.slowOperationThreshold = Duration.ZERO;
+      this.warmUpTypes = new ArrayList<>();
+      this.generatedCodecTypes = new LinkedHashSet<>();
+      this.numericSequences = false;
+      this.canonicalOutput = false;
+      this.internCapacity = 0;
+      this.maxInternedLength = 0;
+    }
+
+    /**
+     * Sets the conversion service used to convert job parameters.
+     *
+     * @param conversionService used to convert job parameters, not {@code null}
+     * @return this builder
+     */
+    public Builder conversionService(ConfigurableConversionService conversionService) {
+      Assert.notNull(conversionService, "A conversion service is required");
+      this.conversionService = conversionService;
+      return this;
+    }
+
+    /**
+     * Writes the compact format.
+     * <p>
+     * The compact format uses short type aliases instead of class names, omits
+     * the type information for {@link String}, {@link Boolean} and {@link Long}
+     * values and omits default values of job parameters. This considerably
+     * reduces the size of the serialized context.
+     * <p>
+     * Contexts in both the default and the compact format can always be read,
+     * independent of this setting. Older versions of this library can not
+     * read the compact format.
+     *
+     * @return this builder
+     */
+    public Builder compactFormat() {
+      this.compactFormat = true;
+      return this;
+    }
+
+    /**
+     * Registers a short alias for a type, the alias is used instead of the
+     * class name in the compact format.
+     * <p>
+     * Aliases for common JDK and Spring Batch types are registered by default.
+     * The same aliases have to be registered when reading.
+     *
+     * @param alias the alias, must not be empty and must not contain {@code '.'}
+     * @param type the type for which to use the alias, not {@code null}
+     * @return this builder
+     */
+    public Builder typeAlias(String alias, Class<?> type) {
+      Assert.notNull(alias, "An alias is required");
+      Assert.notNull(type, "A type is required");
+      TypeAliases.validateAlias(alias);
+      this.typeAliases.put(alias, type);
+      return this;
+    }
+
+    /**
+     * Enables caching of encoded entries.
+     * <p>
+     * Between two chunk commits usually only a few entries of an execution
+     * context change. With this cache entries with unchanged values are not
+     * encoded again, their cached bytes are written instead. Only values of
+     * immutable types like {@link String}, wrapper types, {@code java.time}
+     * types and {@link org.springframework.batch.core.JobParameters} are
+     * cached. Up to 16 values are cached per key, a counter that changes on
+     * every chunk only replaces its own oldest value.
+     * <p>
+     * Entries are cached while the context is written by the envelope
+     * engine, the cache is not used with {@link #noEnvelopeEngine()},
+     * {@link #noDirectWriter()}, the binary format or for contexts with
+     * several values bound by JSON-B.
+     * <p>
+     * The cache is shared by all threads using the serializer. The retained
+     * memory is bounded by {@code maxEntries * 16 * maxFragmentSize} bytes
+     * plus the cached values.
+     * <p>
+     * With {@link #metrics(ExecutionContextMetrics)} entries written from
+     * the cache are recorded with a duration of {@code 0} and their encoded
+     * size, they are never reported as the slowest key.
+     *
+     * @param maxEntries the maximum number of cached keys, must be positive
+     * @param maxFragmentSize the maximum encoded size of a cached entry in bytes, must be positive
+     * @return this builder
+     */
+    public Builder fragmentCache(int maxEntries, int maxFragmentSize) {
+      Assert.isTrue(maxEntries > 0, "Max entries must be positive");
+      Assert.isTrue(maxFragmentSize > 0, "Max fragment size must be positive");
+      this.fragmentCacheEntries = maxEntries;
+      this.maxFragmentSize = maxFragmentSize;
+      return this;
+    }
+
+    /**
+     * Deduplicates the keys and short string values of deserialized contexts.
+     * <p>
+     * When many contexts are loaded at once, for example by a
+     * {@code JobExplorer} or a monitoring application, every context would
+     * otherwise retain its own copies of the same keys and values. Equal
+     * strings are shared instead, this considerably reduces the retained
+     * memory of bulk reads at the cost of a hash lookup per string.
+     * <p>
+     * The table is shared by all threads using the serializer, a string
+     * replaces the one in its slot so the retained memory is bounded by
+     * {@code capacity} strings.
+     *
+     * @param capacity the number of strings retained, must be positive
+     * @param maxValueLength the maximum length of string values that are
+     *                       deduplicated, must not be negative, keys are
+     *                       always deduplicated
+     * @return this builder
+     */
+    public Builder internStrings(int capacity, int maxValueLength) {
+      Assert.isTrue(capacity > 0, "Capacity must be positive");
+      Assert.isTrue(capacity <= (1 << 24), "Capacity must not exceed 2^24");
+      Assert.isTrue(maxValueLength >= 0, "Max value length must not be negative");
+      this.internCapacity = capacity;
+      this.maxInternedLength = maxValueLength;
+      return this;
+    }
+
+    /**
+     * Compresses serialized contexts that are larger than a threshold.
+     * <p>
+     * Compressed contexts start with a header and are Base64 encoded so that
+     * they can be stored in the character columns used by
+     * {@code JdbcExecutionContextDao}. Compressed contexts are detected and
+     * read independent of this setting, uncompressed contexts are always
+     * readable.
+     *
+     * @param codec the codec used to compress, not {@code null}
+     * @param threshold the minimum size in bytes of the JSON of a context
+     *                  that is compressed, must not be negative
+     * @return this builder
+     * @see CompressionCodec#deflate()
+     */
+    public Builder compression(CompressionCodec codec, int threshold) {
+      Assert.notNull(codec, "A codec is required");
+      Assert.isTrue(threshold >= 0, "Threshold must not be negative");
+      this.compressionCodec = codec;
+      this.compressionThreshold = threshold;
+      return this;
+    }
+
+    /**
+     * Writes the binary format.
+     * <p>
+     * The binary format is a subset of CBOR (RFC 8949) with the same
+     * structure as the JSON format. It is smaller and faster to parse
+     * because numbers are stored in binary. Binary contexts are Base64
+     * encoded so that they can be stored in the character columns used by
+     * {@code JdbcExecutionContextDao}. Combined with {@link #compactFormat()}
+     * the structure of the compact format is used.
+     * <p>
+     * Contexts in the JSON and binary format can always be read, independent
+     * of this setting. The fragment cache is not used for the binary format.
+     * Older versions of this library can not read the binary format.
+     *
+     * @return this builder
+     * @see ExecutionContextTranscoder
+     */
+    public Builder binaryFormat() {
+      this.binaryFormat = true;
+      return this;
+    }
+
+    /**
+     * Keeps serialized contexts below a size if possible.
+     * <p>
+     * Contexts that are longer than the {@code SHORT_CONTEXT} column are
+     * stored by {@code JdbcExecutionContextDao} in a CLOB column which is
+     * considerably slower to update on many databases. A context that
+     * exceeds the budget in the configured encoding is written in the
+     * compact JSON format, the compact binary format or compressed with the
+     * codec configured with {@link #compression(CompressionCodec, int)},
+     * whichever is the first to be within the budget. If no encoding is
+     * within the budget the smallest one is written. JSON-B output never
+     * contains whitespace.
+     * <p>
+     * All of these encodings are read without any configuration. Older
+     * versions of this library can not read them.
+     *
+     * @param maxSize the size budget in bytes, must be positive
+     * @return this builder
+     * @see JsonbExecutionContextSerializer#SHORT_CONTEXT_LENGTH
+     * @see JsonbExecutionContextSerializer#estimateSerializedSize(Map)
+     */
+    public Builder sizeBudget(int maxSize) {
+      Assert.isTrue(maxSize > 0, "Max size must be positive");
+      this.sizeBudget = maxSize;
+      return this;
+    }
+
+    /**
+     * Keeps serialized contexts below a size if possible and notifies a
+     * listener about contexts that exceed it.
+     *
+     * @param maxSize the size budget in bytes, must be positive
+     * @param listener notified when a context exceeds the budget even in
+     *                 the most compact encoding, not {@code null}
+     * @return this builder
+     * @see #sizeBudget(int)
+     */
+    public Builder sizeBudget(int maxSize, SizeBudgetListener listener) {
+      Assert.notNull(listener, "A listener is required");
+      this.sizeBudgetListener = listener;
+      return this.sizeBudget(maxSize);
+    }
+
+    /**
+     * Sets the charset of serialized contexts.
+     * <p>
+     * Has to be the same charset that {@code JdbcExecutionContextDao} uses
+     * to convert the serialized context to a string, by default UTF-8. With
+     * ISO-8859-1 characters that can not be represented are escaped.
+     * Compressed and binary contexts only contain ASCII characters.
+     *
+     * @param encoding the charset, not {@code null}
+     * @return this builder
+     */
+    public Builder encoding(Charset encoding) {
+      Assert.notNull(encoding, "An encoding is required");
+      this.encoding = encoding;
+      return this;
+    }
+
+    /**
+     * Disables writing UTF-8 and ISO-8859-1 directly as bytes, the
+     * JSON-P provider will be used to write instead.
+     * <p>
+     * By default contexts in these charsets are written directly as bytes
+     * without any intermediate chars and with pre-encoded constant tokens.
+     * The output is the same.
+     *
+     * @return this builder
+     */
+    public Builder noDirectWriter() {
+      this.directWriter = false;
+      return this;
+    }
+
+    /**
+     * Reads and writes every context through JSON-B.
+     * <p>
+     * By default the envelope of a JSON context is read and written with
+     * JSON-P factories created once and only values that need object
+     * binding are passed to JSON-B. This avoids setting up JSON-B for every
+     * call which dominates the cost of small contexts. Contexts are only
+     * written this way if they are written directly, see
+     * {@link #noDirectWriter()}.
+     *
+     * @return this builder
+     */
+    public Builder noEnvelopeEngine() {
+      this.envelopeEngine = false;
+      return this;
+    }
+
+    /**
+     * Records every serialization and deserialization.
+     *
+     * @param metrics receives the recorded operations, not {@code null}
+     * @return this builder
+     * @see #metrics(ExecutionContextMetrics, int)
+     */
+    public Builder metrics(ExecutionContextMetrics metrics) {
+      return this.metrics(metrics, 1);
+    }
+
+    /**
+     * Records a sample of the serializations and deserializations.
+     * <p>
+     * On average one in {@code sampleInterval} operations is recorded,
+     * every value of a recorded operation is timed. Operations that are not
+     * sampled have no overhead beyond drawing the sample.
+     * <p>
+     * Independent of this setting the JFR events
+     * {@code com.github.marschall.jsonbexecutioncontextserializer.Serialize}
+     * and {@code com.github.marschall.jsonbexecutioncontextserializer.Deserialize}
+     * are recorded while they are enabled in a JFR recording.
+     *
+     * @param metrics receives the recorded operations, not {@code null}
+     * @param sampleInterval one in how many operations is recorded on
+     *                       average, must be positive
+     * @return this builder
+     */
+    public Builder metrics(ExecutionContextMetrics metrics, int sampleInterval) {
+      Assert.notNull(metrics, "Metrics are required");
+      Assert.isTrue(sampleInterval > 0, "Sample interval must be positive");
+      this.metrics = metrics;
+      this.metricsSampleInterval = sampleInterval;
+      return this;
+    }
+
+    /**
+     * Reports operations that take longer than a threshold to
+     * {@link ExecutionContextMetrics#slowOperation(Operation, long, String, Class)}
+     * independent of sampling.
+     * <p>
+     * Every value of every operation is timed to find the slowest key,
+     * this adds about two calls to {@link System#nanoTime()} per value.
+     * Requires {@link #metrics(ExecutionContextMetrics, int)}.
+     *
+     * @param threshold the minimum duration of reported operations, must be positive
+     * @return this builder
+     */
+    public Builder slowOperationThreshold(Duration threshold) {
+      Assert.notNull(threshold, "A threshold is required");
+      Assert.isTrue(!threshold.isNegative() && !threshold.isZero(), "Threshold must be positive");
+      this.slowOperationThreshold = threshold;
+      return this;
+    }
+
+    /**
+     * Reads and writes values of the given types with codecs generated
+     * once instead of JSON-B's reflective property access.
+     * <p>
+     * Supported are public records with a public canonical constructor and
+     * public classes with a public no-argument constructor whose properties
+     * are public getters, setters or fields. The output is the same as the
+     * one of JSON-B, properties of types that neither have a generated
+     * codec nor are common JDK types are bound by JSON-B. Types using
+     * JSON-B annotations are not supported.
+     *
+     * @param types the record or POJO classes
+     * @return this builder
+     * @throws IllegalArgumentException if a type is not supported, thrown
+     *         by {@link #build()}
+     */
+    public Builder generatedCodecs(Class<?>... types) {
+      Assert.noNullElements(types, "Types must not be null");
+      this.generatedCodecTypes.addAll(Arrays.asList(types));
+      return this;
+    }
+
+    /**
+     * Writes homogeneous lists of numbers with their element type and packs
+     * long sequences of integral numbers.
+     * <p>
+     * Primitive {@code long[]}, {@code int[]} and {@code double[]} arrays
+     * are always written and read without boxing. Lists are written by
+     * JSON-B by default and read back as lists of {@link java.math.BigDecimal}.
+     * With this setting lists consisting only of {@link Long}, only of
+     * {@link Integer} or only of {@link Double} elements are written with
+     * their element type and read back as lists of the same type that are
+     * backed by a primitive array. These lists are modifiable but do not
+     * support {@code null} elements. Arrays and lists of integral numbers
+     * with at least {@value NumericSequenceCodec#PACKED_MIN_LENGTH} elements
+     * are packed into a string of the delta encoded elements, sorted IDs
+     * take about two to four characters each.
+     * <p>
+     * Contexts written with this setting can always be read, independent
+     * of this setting. Older versions of this library can not read them.
+     *
+     * @return this builder
+     */
+    public Builder numericSequences() {
+      this.numericSequences = true;
+      return this;
+    }
+
+    /**
+     * Writes the entries of contexts sorted by key.
+     * <p>
+     * By default entries are written in the iteration order of the map
+     * passed to {@link JsonbExecutionContextSerializer#serialize(Map, OutputStream)},
+     * {@code JdbcExecutionContextDao} passes a new {@link HashMap} every
+     * time so two equal contexts are not guaranteed to be written the same.
+     * With this setting equal contexts are written as identical bytes,
+     * which allows {@link ChangeDetectingExecutionContextDao} to detect
+     * unchanged contexts. The properties of beans are always written in
+     * lexicographical order by JSON-B, maps and sets nested in values are
+     * written in their iteration order.
+     * <p>
+     * Sorting costs a copy of the entries, contexts are read the same.
+     *
+     * @return this builder
+     */
+    public Builder canonicalOutput() {
+      this.canonicalOutput = true;
+      return this;
+    }
+
+    /**
+     * Warms up the serializer for the given value types when it is built.
+     * <p>
+     * Building the serializer takes longer, the first context containing
+     * values of these types is as fast as the following ones.
+     *
+     * @param types the types of the values stored in contexts
+     * @return this builder
+     * @see JsonbExecutionContextSerializer#warmUp(Collection)
+     */
+    public Builder warmUp(Class<?>... types) {
+      Assert.noNullElements(types, "Types must not be null");
+      this.warmUpTypes.addAll(Arrays.asList(types));
+      return this;
+    }
+
+    /**
+     * Creates a new {@link JsonbExecutionContextSerializer} with the current settings.
+     *
+     * @return the new serializer
+     */
+    public JsonbExecutionContextSerializer build() {
+      return new JsonbExecutionContextSerializer(this);
+    }
+
+    ExecutionContextWrapperSerializer createWrapperSerializer() {
+      return this.createWrapperSerializer(this.compactFormat);
+    }
+
+    private ExecutionContextWrapperSerializer createWrapperSerializer(boolean compact) {
+      TypeAliases aliases = TypeAliases.withAdditionalAliases(this.typeAliases);
+      return new ExecutionContextWrapperSerializer(new ClassResolver(), aliases, compact,
+          GeneratedCodecs.generate(this.generatedCodecTypes), this.numericSequences, this.createInterner());
+    }
+
+    private StringInterner createInterner() {
+      if (this.internCapacity == 0) {
+        return null;
+      }
+      return new StringInterner(this.internCapacity, this.maxInternedLength);
+    }
+
+    JacksonFormatReader createJacksonFormatReader(Jsonb jsonb, JsonProvider provider) {
+      return new JacksonFormatReader(new ClassResolver(), this.conversionService,
+          jsonb, provider != null ? provider : JsonProvider.provider());
+    }
+
+    JobParameterSerializer createJobParameterSerializer(ExecutionContextWrapperSerializer wrapperSerializer) {
+      return new JobParameterSerializer(this.conversionService, wrapperSerializer.getClassResolver(),
+          wrapperSerializer.getTypeAliases(), wrapperSerializer.isCompact());
+    }
+
+    JsonbConfig createConfig(ExecutionContextWrapperSerializer wrapperSerializer, JobParameterSerializer jobParameterSerializer) {
+      JobParametersSerializer jobParametersSerializer = new JobParametersSerializer(jobParameterSerializer);
+      return new JsonbConfig()
+          .withEncoding(this.encoding.name())
+          .withDeserializers(jobParameterSerializer, jobParametersSerializer, wrapperSerializer)
+          .withSerializers(jobParameterSerializer, jobParametersSerializer, wrapperSerializer)
+          .withAdapters(new LocaleAdapter(), new SqlDateAdapter(), new SqlTimestampAdapter(), new SqlTimeAdapter());
+    }
+
+    Instrumentation createInstrumentation() {
+      Assert.state(this.slowOperationThreshold.isZero() || (this.metrics != null), "A slow operation threshold requires metrics");
+      return new Instrumentation(this.metrics, this.metricsSampleInterval, this.slowOperationThreshold.toNanos());
+    }
+
+    Compression createCompression() {
+      if (this.compressionCodec == null) {
+        return Compression.readOnly();
+      }
+      return Compression.compressing(this.compressionCodec, this.compressionThreshold);
+    }
+
+    SizeBudget createSizeBudget(JsonProvider provider, Compression compression) {
+      if (this.sizeBudget == 0) {
+        return null;
+      }
+      ExecutionContextWrapperSerializer compactSerializer = this.createWrapperSerializer(true);
+      JsonbConfig compactConfig = this.createConfig(compactSerializer, this.createJobParameterSerializer(compactSerializer));
+      return new SizeBudget(this.sizeBudget,
+          new LazyJsonb(() -> createJsonb(compactConfig, provider)), new LazyJsonb(() -> createBinaryJsonb(compactConfig, provider)),
+          compression.isEnabled() ? compression : null, this.sizeBudgetListener);
+    }
+
+    EnvelopeEngine createEnvelopeEngine(ExecutionContextWrapperSerializer wrapperSerializer,
+        JobParameterSerializer jobParameterSerializer, Jsonb jsonb, JsonProvider provider) {
+      if (!this.envelopeEngine) {
+        return null;
+      }
+      JsonProvider jsonProvider = provider != null ? provider : JsonProvider.provider();
+      // values bound by JSON-B can only be inserted into a direct generator
+      JsonGeneratorFactory generatorFactory = jsonProvider instanceof DirectJsonProvider ? jsonProvider.createGeneratorFactory(Map.of()) : null;
+      // the cache holds JSON fragments that can only be inserted into a direct generator
+      FragmentCache fragmentCache = generatorFactory != null ? this.createFragmentCache() : null;
+      return new EnvelopeEngine(wrapperSerializer, jobParameterSerializer, jsonb,
+          generatorFactory, jsonProvider.createParserFactory(Map.of()), this.encoding, fragmentCache);
+    }
+
+    FragmentCache createFragmentCache() {
+      if (this.fragmentCacheEntries == 0) {
+        return null;
+      }
+      return new FragmentCache(this.fragmentCacheEntries, this.maxFragmentSize);
+    }
+
+    JsonProvider createJsonProvider() {
+      if (!this.directWriter || !DirectJsonProvider.isSupported(this.encoding)) {
+        return null;
+      }
+      return new DirectJsonProvider(JsonProvider.provider());
+    }
+
+  }
+
 }
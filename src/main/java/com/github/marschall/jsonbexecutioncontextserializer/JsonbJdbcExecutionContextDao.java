@@ -0,0 +1,208 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+import org.springframework.batch.core.repository.dao.JdbcExecutionContextDao;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.support.lob.DefaultLobHandler;
+import org.springframework.jdbc.support.lob.LobHandler;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link JdbcExecutionContextDao} that can also write contexts that have
+ * already been serialized.
+ * <p>
+ * Contexts are stored exactly like {@link JdbcExecutionContextDao} stores
+ * them, the serialized contexts have to be written by the serializer set
+ * with {@link #setSerializer(org.springframework.batch.core.repository.ExecutionContextSerializer)}
+ * in the charset set with {@link #setCharset(Charset)}.
+ * <p>
+ * With a {@link JsonbExecutionContextSerializer} contexts are read with
+ * {@link JsonbExecutionContextSerializer#deserializeExecutionContext(java.io.InputStream)}
+ * which copies the entries only once into the map of the execution context.
+ */
+public final class JsonbJdbcExecutionContextDao extends JdbcExecutionContextDao implements SerializedExecutionContextDao {
+
+  // the statements of JdbcExecutionContextDao, they are private there
+
+  private static final String FIND_JOB_EXECUTION_CONTEXT = "SELECT SHORT_CONTEXT, SERIALIZED_CONTEXT "
+      + "FROM %PREFIX%JOB_EXECUTION_CONTEXT WHERE JOB_EXECUTION_ID = ?";
+
+  private static final String INSERT_JOB_EXECUTION_CONTEXT = "INSERT INTO %PREFIX%JOB_EXECUTION_CONTEXT "
+      + "(SHORT_CONTEXT, SERIALIZED_CONTEXT, JOB_EXECUTION_ID) VALUES(?, ?, ?)";
+
+  private static final String UPDATE_JOB_EXECUTION_CONTEXT = "UPDATE %PREFIX%JOB_EXECUTION_CONTEXT "
+      + "SET SHORT_CONTEXT = ?, SERIALIZED_CONTEXT = ? WHERE JOB_EXECUTION_ID = ?";
+
+  private static final String FIND_STEP_EXECUTION_CONTEXT = "SELECT SHORT_CONTEXT, SERIALIZED_CONTEXT "
+      + "FROM %PREFIX%STEP_EXECUTION_CONTEXT WHERE STEP_EXECUTION_ID = ?";
+
+  private static final String INSERT_STEP_EXECUTION_CONTEXT = "INSERT INTO %PREFIX%STEP_EXECUTION_CONTEXT "
+      + "(SHORT_CONTEXT, SERIALIZED_CONTEXT, STEP_EXECUTION_ID) VALUES(?, ?, ?)";
+
+  private static final String UPDATE_STEP_EXECUTION_CONTEXT = "UPDATE %PREFIX%STEP_EXECUTION_CONTEXT "
+      + "SET SHORT_CONTEXT = ?, SERIALIZED_CONTEXT = ? WHERE STEP_EXECUTION_ID = ?";
+
+  // the superclass does not expose its settings
+
+  private Charset charset;
+
+  private int shortContextLength;
+
+  private LobHandler lobHandler;
+
+  /**
+   * {@code null} if the serializer is not a {@link JsonbExecutionContextSerializer}.
+   */
+  private JsonbExecutionContextSerializer jsonbSerializer;
+
+  /**
+   * Creates a new {@link JsonbJdbcExecutionContextDao} with the same
+   * defaults as {@link JdbcExecutionContextDao}.
+   */
+  public JsonbJdbcExecutionContextDao() {
+    this.charset = StandardCharsets.UTF_8;
+    this.shortContextLength = JsonbExecutionContextSerializer.SHORT_CONTEXT_LENGTH;
+    this.lobHandler = new DefaultLobHandler();
+  }
+
+  @Override
+  public void setCharset(Charset charset) {
+    super.setCharset(charset);
+    this.charset = charset;
+  }
+
+  @Override
+  public void setShortContextLength(int shortContextLength) {
+    super.setShortContextLength(shortContextLength);
+    this.shortContextLength = shortContextLength;
+  }
+
+  @Override
+  public void setLobHandler(LobHandler lobHandler) {
+    super.setLobHandler(lobHandler);
+    this.lobHandler = lobHandler;
+  }
+
+  @Override
+  public void setSerializer(ExecutionContextSerializer serializer) {
+    super.setSerializer(serializer);
+    this.jsonbSerializer = (serializer instanceof JsonbExecutionContextSerializer jsonb) ? jsonb : null;
+  }
+
+  @Override
+  public ExecutionContext getExecutionContext(JobExecution jobExecution) {
+    if (this.jsonbSerializer == null) {
+      return super.getExecutionContext(jobExecution);
+    }
+    return this.find(getExecutionId(jobExecution.getId()), FIND_JOB_EXECUTION_CONTEXT);
+  }
+
+  @Override
+  public ExecutionContext getExecutionContext(StepExecution stepExecution) {
+    if (this.jsonbSerializer == null) {
+      return super.getExecutionContext(stepExecution);
+    }
+    return this.find(getExecutionId(stepExecution.getId()), FIND_STEP_EXECUTION_CONTEXT);
+  }
+
+  @Override
+  public void saveExecutionContext(JobExecution jobExecution, byte[] serializedContext) {
+    this.persist(getExecutionId(jobExecution.getId()), serializedContext, INSERT_JOB_EXECUTION_CONTEXT);
+  }
+
+  @Override
+  public void saveExecutionContext(StepExecution stepExecution, byte[] serializedContext) {
+    this.persist(getExecutionId(stepExecution.getId()), serializedContext, INSERT_STEP_EXECUTION_CONTEXT);
+  }
+
+  @Override
+  public void saveExecutionContexts(List<StepExecution> stepExecutions, List<byte[]> serializedContexts) {
+    Assert.notNull(stepExecutions, "Attempt to save an null collection of step executions");
+    Assert.isTrue(stepExecutions.size() == serializedContexts.size(), "A serialized context is required for every step execution");
+    long[] executionIds = new long[stepExecutions.size()];
+    for (int i = 0; i < executionIds.length; i++) {
+      executionIds[i] = getExecutionId(stepExecutions.get(i).getId());
+    }
+    this.getJdbcTemplate().batchUpdate(this.getQuery(INSERT_STEP_EXECUTION_CONTEXT), new BatchPreparedStatementSetter() {
+
+      @Override
+      public void setValues(PreparedStatement ps, int i) throws SQLException {
+        JsonbJdbcExecutionContextDao.this.setValues(ps, executionIds[i], serializedContexts.get(i));
+      }
+
+      @Override
+      public int getBatchSize() {
+        return executionIds.length;
+      }
+
+    });
+  }
+
+  @Override
+  public void updateExecutionContext(JobExecution jobExecution, byte[] serializedContext) {
+    this.persist(getExecutionId(jobExecution.getId()), serializedContext, UPDATE_JOB_EXECUTION_CONTEXT);
+  }
+
+  @Override
+  public void updateExecutionContext(StepExecution stepExecution, byte[] serializedContext) {
+    this.persist(getExecutionId(stepExecution.getId()), serializedContext, UPDATE_STEP_EXECUTION_CONTEXT);
+  }
+
+  private static long getExecutionId(Long executionId) {
+    Assert.notNull(executionId, "ExecutionId must not be null.");
+    return executionId;
+  }
+
+  private ExecutionContext find(long executionId, String sql) {
+    List<ExecutionContext> results = this.getJdbcTemplate().query(this.getQuery(sql), (rs, rowNum) -> this.mapRow(rs), executionId);
+    if (results.isEmpty()) {
+      return new ExecutionContext();
+    }
+    return results.get(0);
+  }
+
+  private ExecutionContext mapRow(ResultSet rs) throws SQLException {
+    // the same as the row mapper of JdbcExecutionContextDao
+    String serializedContext = rs.getString("SERIALIZED_CONTEXT");
+    if (serializedContext == null) {
+      serializedContext = rs.getString("SHORT_CONTEXT");
+    }
+    try {
+      return this.jsonbSerializer.deserializeExecutionContext(new ByteArrayInputStream(serializedContext.getBytes(this.charset)));
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Unable to deserialize the execution context", e);
+    }
+  }
+
+  private void persist(long executionId, byte[] serializedContext, String sql) {
+    this.getJdbcTemplate().update(this.getQuery(sql), ps -> this.setValues(ps, executionId, serializedContext));
+  }
+
+  private void setValues(PreparedStatement ps, long executionId, byte[] serializedContext) throws SQLException {
+    Assert.notNull(serializedContext, "A serialized context is required");
+    String context = new String(serializedContext, this.charset);
+    // the same split as JdbcExecutionContextDao
+    if (context.length() > this.shortContextLength) {
+      // overestimates the length of the ellipsis to be on the safe side with 2-byte chars
+      ps.setString(1, context.substring(0, this.shortContextLength - 8) + " ...");
+      this.lobHandler.getLobCreator().setClobAsString(ps, 2, context);
+    } else {
+      ps.setString(1, context);
+      ps.setNull(2, this.getClobTypeToUse());
+    }
+    ps.setLong(3, executionId);
+  }
+
+}
@@ -0,0 +1,424 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.github.marschall.jsonbexecutioncontextserializer.LazyExecutionContextMap.EntryDecoder;
+import com.github.marschall.jsonbexecutioncontextserializer.LazyExecutionContextMap.LazyValue;
+
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbException;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
+
+/**
+ * Splits a serialized context into the encoded slices of its entries for
+ * {@link LazyExecutionContextMap}.
+ * <p>
+ * Only the top level object is scanned, values are skipped without being
+ * parsed. To bind a value its slice is wrapped in a document with a single
+ * entry that is read by the same {@link Jsonb} instance and
+ * {@link ExecutionContextWrapperSerializer} as a complete context, this
+ * keeps the type handling identical to eager deserialization.
+ */
+final class LazyContextReader {
+
+  /**
+   * The start of a single entry document in the compact JSON format.
+   */
+  private static final String COMPACT_START = "{\"" + ExecutionContextWrapperSerializer.VERSION_KEY_NAME + "\":"
+      + ExecutionContextWrapperSerializer.COMPACT_VERSION + ",";
+
+  /**
+   * The version marker of the compact format as an entry in the binary format.
+   */
+  private static final byte[] BINARY_COMPACT_VERSION = encodeBinaryVersion();
+
+  private LazyContextReader() {
+    throw new AssertionError("not instantiable");
+  }
+
+  private static byte[] encodeBinaryVersion() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (JsonGenerator generator = new BinaryJsonGenerator(out)) {
+      generator.writeStartObject();
+      generator.write(ExecutionContextWrapperSerializer.VERSION_KEY_NAME, ExecutionContextWrapperSerializer.COMPACT_VERSION);
+      generator.writeEnd();
+    }
+    byte[] document = out.toByteArray();
+    // without the magic number, the start of the map and the break
+    return Arrays.copyOfRange(document, BinaryJsonGenerator.MAGIC.length + 1, document.length - 1);
+  }
+
+  /**
+   * Splits a context in the JSON format.
+   *
+   * @param json the serialized context
+   * @param jsonb the instance used to bind values
+   * @return the lazy map
+   * @throws JsonbException if the top level structure is not valid
+   */
+  static Map<String, Object> readJson(String json, Jsonb jsonb) {
+    JsonScanner scanner = new JsonScanner(json);
+    Map<String, LazyValue> values = new LinkedHashMap<>();
+    TextEntryDecoder decoder = new TextEntryDecoder(json, jsonb);
+
+    scanner.skipWhitespace();
+    scanner.expect('{');
+    scanner.skipWhitespace();
+    if (scanner.peek() == '}') {
+      scanner.position += 1;
+      scanner.checkEnd();
+      return new LazyExecutionContextMap(values);
+    }
+    boolean first = true;
+    while (true) {
+      int entryStart = scanner.position;
+      String key = scanner.readKey();
+      scanner.skipWhitespace();
+      scanner.expect(':');
+      scanner.skipWhitespace();
+      int valueStart = scanner.position;
+      scanner.skipValue();
+      int entryEnd = scanner.position;
+
+      // "@v": 2
+      // values in the default format are always objects so this can not be an entry
+      if (first && key.equals(ExecutionContextWrapperSerializer.VERSION_KEY_NAME) && isNumberStart(json.charAt(valueStart))) {
+        String version = json.substring(valueStart, entryEnd);
+        ExecutionContextWrapperSerializer.checkVersion(ScalarValueCodec.parseNumber(version, Long::valueOf));
+        decoder.compact = true;
+      } else {
+        values.put(key, new LazyValue(key, decoder, entryStart, entryEnd));
+      }
+      first = false;
+
+      scanner.skipWhitespace();
+      char next = scanner.next();
+      if (next == '}') {
+        break;
+      }
+      if (next != ',') {
+        throw scanner.unexpected(next);
+      }
+      scanner.skipWhitespace();
+    }
+    scanner.checkEnd();
+    return new LazyExecutionContextMap(values);
+  }
+
+  private static boolean isNumberStart(char c) {
+    return (c == '-') || ((c >= '0') && (c <= '9'));
+  }
+
+  /**
+   * Splits a context in the binary format.
+   *
+   * @param data the serialized context, including the magic number
+   * @param binaryJsonb the instance used to bind values
+   * @return the lazy map
+   * @throws JsonbException if the top level structure is not valid
+   */
+  static Map<String, Object> readBinary(byte[] data, Jsonb binaryJsonb) {
+    // values are skipped, never materialized so no provider is needed
+    JsonParser parser = new BinaryJsonParser(data, null);
+    Map<String, LazyValue> values = new LinkedHashMap<>();
+    BinaryEntryDecoder decoder = new BinaryEntryDecoder(data, binaryJsonb);
+
+    if (parser.next() != Event.START_OBJECT) {
+      throw new JsonbException("START_OBJECT expected");
+    }
+    boolean first = true;
+    while (true) {
+      int entryStart = (int) parser.getLocation().getStreamOffset();
+      Event next = parser.next();
+      if (next == Event.END_OBJECT) {
+        break;
+      }
+      String key = parser.getString();
+      Event valueEvent = parser.next();
+      if (valueEvent == Event.START_OBJECT) {
+        parser.skipObject();
+      } else if (valueEvent == Event.START_ARRAY) {
+        parser.skipArray();
+      }
+      int entryEnd = (int) parser.getLocation().getStreamOffset();
+
+      if (first && (valueEvent == Event.VALUE_NUMBER) && key.equals(ExecutionContextWrapperSerializer.VERSION_KEY_NAME)) {
+        ExecutionContextWrapperSerializer.checkVersion(ScalarValueCodec.readLong(parser));
+        decoder.compact = true;
+      } else {
+        values.put(key, new LazyValue(key, decoder, entryStart, entryEnd));
+      }
+      first = false;
+    }
+    return new LazyExecutionContextMap(values);
+  }
+
+  /**
+   * Binds a single entry of a context in the JSON format.
+   */
+  static final class TextEntryDecoder implements EntryDecoder {
+
+    private final String json;
+
+    private final Jsonb jsonb;
+
+    /**
+     * Only written while the context is split.
+     */
+    boolean compact;
+
+    TextEntryDecoder(String json, Jsonb jsonb) {
+      this.json = json;
+      this.jsonb = jsonb;
+    }
+
+    @Override
+    public Object decode(String key, int start, int end) {
+      StringBuilder document = new StringBuilder(end - start + COMPACT_START.length() + 1);
+      document.append(this.compact ? COMPACT_START : "{");
+      document.append(this.json, start, end);
+      document.append('}');
+      return this.jsonb.fromJson(document.toString(), ExecutionContextWrapper.class).getMap().get(key);
+    }
+
+  }
+
+  /**
+   * Binds a single entry of a context in the binary format.
+   */
+  static final class BinaryEntryDecoder implements EntryDecoder {
+
+    private final byte[] data;
+
+    private final Jsonb binaryJsonb;
+
+    /**
+     * Only written while the context is split.
+     */
+    boolean compact;
+
+    BinaryEntryDecoder(byte[] data, Jsonb binaryJsonb) {
+      this.data = data;
+      this.binaryJsonb = binaryJsonb;
+    }
+
+    @Override
+    public Object decode(String key, int start, int end) {
+      byte[] magic = BinaryJsonGenerator.MAGIC;
+      int versionLength = this.compact ? BINARY_COMPACT_VERSION.length : 0;
+      int entryLength = end - start;
+      byte[] document = new byte[magic.length + 1 + versionLength + entryLength + 1];
+      System.arraycopy(magic, 0, document, 0, magic.length);
+      int position = magic.length;
+      document[position++] = (byte) BinaryJsonGenerator.INDEFINITE_MAP;
+      System.arraycopy(BINARY_COMPACT_VERSION, 0, document, position, versionLength);
+      position += versionLength;
+      System.arraycopy(this.data, start, document, position, entryLength);
+      position += entryLength;
+      document[position] = (byte) BinaryJsonGenerator.BREAK;
+      return this.binaryJsonb.fromJson(new ByteArrayInputStream(document), ExecutionContextWrapper.class).getMap().get(key);
+    }
+
+  }
+
+  /**
+   * Scans the top level of a JSON document without parsing the values.
+   */
+  static final class JsonScanner {
+
+    private final String json;
+
+    int position;
+
+    JsonScanner(String json) {
+      this.json = json;
+      this.position = 0;
+    }
+
+    void skipWhitespace() {
+      while ((this.position < this.json.length()) && isWhitespace(this.json.charAt(this.position))) {
+        this.position += 1;
+      }
+    }
+
+    private static boolean isWhitespace(char c) {
+      return (c == ' ') || (c == '\t') || (c == '\n') || (c == '\r');
+    }
+
+    char peek() {
+      if (this.position >= this.json.length()) {
+        throw this.unexpectedEnd();
+      }
+      return this.json.charAt(this.position);
+    }
+
+    char next() {
+      char c = this.peek();
+      this.position += 1;
+      return c;
+    }
+
+    void expect(char expected) {
+      char c = this.next();
+      if (c != expected) {
+        throw this.unexpected(c);
+      }
+    }
+
+    void checkEnd() {
+      this.skipWhitespace();
+      if (this.position != this.json.length()) {
+        throw this.unexpected(this.json.charAt(this.position));
+      }
+    }
+
+    /**
+     * Reads a key and returns it without quotes and escapes.
+     */
+    String readKey() {
+      if (this.peek() != '"') {
+        throw this.unexpected(this.peek());
+      }
+      int start = this.position;
+      this.skipString();
+      int end = this.position;
+      String key = this.json.substring(start + 1, end - 1);
+      if (key.indexOf('\\') == -1) {
+        return key;
+      }
+      return unescape(key);
+    }
+
+    /**
+     * Skips a string including the quotes.
+     */
+    private void skipString() {
+      // opening quote
+      this.position += 1;
+      while (true) {
+        char c = this.next();
+        if (c == '"') {
+          return;
+        }
+        if (c == '\\') {
+          this.next();
+        }
+      }
+    }
+
+    void skipValue() {
+      char first = this.peek();
+      switch (first) {
+        case '"':
+          this.skipString();
+          return;
+        case '{':
+        case '[':
+          this.skipContainer();
+          return;
+        default:
+          // number, true, false or null
+          int start = this.position;
+          while ((this.position < this.json.length()) && !isValueEnd(this.json.charAt(this.position))) {
+            this.position += 1;
+          }
+          if (this.position == start) {
+            throw this.unexpected(first);
+          }
+      }
+    }
+
+    private static boolean isValueEnd(char c) {
+      return (c == ',') || (c == '}') || (c == ']') || isWhitespace(c);
+    }
+
+    private void skipContainer() {
+      int depth = 0;
+      do {
+        char c = this.peek();
+        switch (c) {
+          case '"':
+            this.skipString();
+            break;
+          case '{':
+          case '[':
+            depth += 1;
+            this.position += 1;
+            break;
+          case '}':
+          case ']':
+            depth -= 1;
+            this.position += 1;
+            break;
+          default:
+            this.position += 1;
+        }
+      } while (depth > 0);
+    }
+
+    private static String unescape(String s) {
+      StringBuilder buffer = new StringBuilder(s.length());
+      for (int i = 0; i < s.length(); i++) {
+        char c = s.charAt(i);
+        if (c != '\\') {
+          buffer.append(c);
+          continue;
+        }
+        i += 1;
+        char escaped = s.charAt(i);
+        switch (escaped) {
+          case 'b':
+            buffer.append('\b');
+            break;
+          case 'f':
+            buffer.append('\f');
+            break;
+          case 'n':
+            buffer.append('\n');
+            break;
+          case 'r':
+            buffer.append('\r');
+            break;
+          case 't':
+            buffer.append('\t');
+            break;
+          case 'u':
+            buffer.append(parseUnicodeEscape(s, i + 1));
+            i += 4;
+            break;
+          default:
+            // '"', '\\' and '/'
+            buffer.append(escaped);
+        }
+      }
+      return buffer.toString();
+    }
+
+    private static char parseUnicodeEscape(String s, int start) {
+      if ((start + 4) > s.length()) {
+        throw new JsonbException("invalid escape in key: " + s);
+      }
+      try {
+        return (char) Integer.parseInt(s, start, start + 4, 16);
+      } catch (NumberFormatException e) {
+        throw new JsonbException("invalid escape in key: " + s, e);
+      }
+    }
+
+    JsonbException unexpected(char c) {
+      return new JsonbException("unexpected character: '" + c + "' near offset: " + this.position);
+    }
+
+    private JsonbException unexpectedEnd() {
+      return new JsonbException("unexpected end of input");
+    }
+
+  }
+
+}
@@ -0,0 +1,208 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An unmodifiable execution context map that binds values only when they
+ * are accessed.
+ * <p>
+ * Every value is held as the encoded slice of the serialized context and
+ * bound with JSON-B on the first {@link #get(Object)}. Bound values are
+ * retained, a value that can not be bound throws on every access without
+ * affecting the other keys. {@link #size()}, {@link #containsKey(Object)}
+ * and {@link #keySet()} do not bind any values.
+ * <p>
+ * Safe for concurrent reads, a value accessed by several threads at the
+ * same time may be bound more than once.
+ */
+final class LazyExecutionContextMap extends AbstractMap<String, Object> {
+
+  private final Map<String, LazyValue> values;
+
+  private Set<Entry<String, Object>> entrySet;
+
+  LazyExecutionContextMap(Map<String, LazyValue> values) {
+    this.values = values;
+  }
+
+  @Override
+  public Object get(Object key) {
+    LazyValue value = this.values.get(key);
+    if (value == null) {
+      return null;
+    }
+    return value.get();
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return this.values.containsKey(key);
+  }
+
+  @Override
+  public int size() {
+    return this.values.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return this.values.isEmpty();
+  }
+
+  @Override
+  public Set<String> keySet() {
+    return Collections.unmodifiableSet(this.values.keySet());
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    Set<Entry<String, Object>> entries = this.entrySet;
+    if (entries == null) {
+      entries = new EntrySet();
+      this.entrySet = entries;
+    }
+    return entries;
+  }
+
+  /**
+   * Decodes the value of a single entry of a serialized context.
+   */
+  @FunctionalInterface
+  interface EntryDecoder {
+
+    /**
+     * Decodes the value of an entry.
+     *
+     * @param key the key of the entry
+     * @param start the start of the encoded entry, including the key
+     * @param end the end of the encoded entry, exclusive
+     * @return the bound value
+     * @throws jakarta.json.bind.JsonbException if the value can not be bound
+     */
+    Object decode(String key, int start, int end);
+
+  }
+
+  /**
+   * The encoded slice of a value, bound on first access.
+   */
+  static final class LazyValue {
+
+    private final String key;
+
+    private final EntryDecoder decoder;
+
+    private final int start;
+
+    private final int end;
+
+    /**
+     * Only valid once {@link #bound} is set.
+     */
+    private Object value;
+
+    private volatile boolean bound;
+
+    LazyValue(String key, EntryDecoder decoder, int start, int end) {
+      this.key = key;
+      this.decoder = decoder;
+      this.start = start;
+      this.end = end;
+    }
+
+    Object get() {
+      if (this.bound) {
+        return this.value;
+      }
+      Object decoded = this.decoder.decode(this.key, this.start, this.end);
+      this.value = decoded;
+      // publishes #value
+      this.bound = true;
+      return decoded;
+    }
+
+  }
+
+  final class EntrySet extends AbstractSet<Entry<String, Object>> {
+
+    @Override
+    public Iterator<Entry<String, Object>> iterator() {
+      Iterator<Entry<String, LazyValue>> iterator = LazyExecutionContextMap.this.values.entrySet().iterator();
+      return new Iterator<>() {
+
+        @Override
+        public boolean hasNext() {
+          return iterator.hasNext();
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+          return new LazyEntry(iterator.next());
+        }
+
+      };
+    }
+
+    @Override
+    public int size() {
+      return LazyExecutionContextMap.this.values.size();
+    }
+
+  }
+
+  /**
+   * Binds the value only when {@link #getValue()} is called.
+   */
+  static final class LazyEntry implements Entry<String, Object> {
+
+    private final Entry<String, LazyValue> entry;
+
+    LazyEntry(Entry<String, LazyValue> entry) {
+      this.entry = entry;
+    }
+
+    @Override
+    public String getKey() {
+      return this.entry.getKey();
+    }
+
+    @Override
+    public Object getValue() {
+      return this.entry.getValue().get();
+    }
+
+    @Override
+    public Object setValue(Object value) {
+      throw new UnsupportedOperationException("unmodifiable");
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Entry<?, ?> other)) {
+        return false;
+      }
+      return this.getKey().equals(other.getKey()) && Objects.equals(this.getValue(), other.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+      return this.getKey().hashCode() ^ Objects.hashCode(this.getValue());
+    }
+
+    @Override
+    public String toString() {
+      return this.getKey() + '=' + this.getValue();
+    }
+
+  }
+
+}
@@ -0,0 +1,43 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.util.function.Supplier;
+
+import jakarta.json.bind.Jsonb;
+
+/**
+ * A {@link Jsonb} instance that is created on first use.
+ * <p>
+ * Every {@link Jsonb} instance builds its own class models. Instances for
+ * encodings that are only written or read for some contexts are not
+ * created up front.
+ */
+final class LazyJsonb {
+
+  private final Supplier<Jsonb> factory;
+
+  private volatile Jsonb jsonb;
+
+  LazyJsonb(Supplier<Jsonb> factory) {
+    this.factory = factory;
+  }
+
+  /**
+   * Returns the {@link Jsonb} instance, creates it on the first call.
+   *
+   * @return the {@link Jsonb} instance, not {@code null}
+   */
+  Jsonb get() {
+    Jsonb result = this.jsonb;
+    if (result == null) {
+      synchronized (this) {
+        result = this.jsonb;
+        if (result == null) {
+          result = this.factory.get();
+          this.jsonb = result;
+        }
+      }
+    }
+    return result;
+  }
+
+}
@@ -0,0 +1,440 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.DoubleConsumer;
+import java.util.function.LongConsumer;
+
+import com.github.marschall.jsonbexecutioncontextserializer.PrimitiveLists.DoubleList;
+import com.github.marschall.jsonbexecutioncontextserializer.PrimitiveLists.IntList;
+import com.github.marschall.jsonbexecutioncontextserializer.PrimitiveLists.LongList;
+
+import jakarta.json.bind.JsonbException;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
+
+/**
+ * Reads and writes primitive arrays and lists of numbers directly without
+ * boxing the elements.
+ * <p>
+ * Arrays are written as JSON arrays like JSON-B does. Sequences of
+ * integral numbers can also be packed into a single string: the
+ * differences between consecutive elements are zig-zag encoded as
+ * variable length integers and the bytes are Base64 encoded. Sorted or
+ * dense IDs take one to three bytes per element instead of one byte per
+ * digit plus the separator. Both representations are always read.
+ * <p>
+ * Primitive arrays are read into arrays, lists into the lists of
+ * {@link PrimitiveLists}.
+ */
+abstract class NumericSequenceCodec extends ScalarValueCodec {
+
+  /**
+   * The minimum number of elements of a sequence to pack it, for shorter
+   * sequences the Base64 overhead outweighs the savings.
+   */
+  static final int PACKED_MIN_LENGTH = 16;
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  NumericSequenceCodec(Class<?> valueType) {
+    super(valueType);
+  }
+
+  /**
+   * Writes a value packed if supported and it has enough elements.
+   *
+   * @param value the value to write, not {@code null}
+   * @param generator the generator to write to, positioned where a value is expected
+   */
+  abstract void writePacked(Object value, JsonGenerator generator);
+
+  static ScalarValueCodec longArray() {
+    return new LongSequenceCodec(long[].class) {
+
+      @Override
+      int length(Object value) {
+        return ((long[]) value).length;
+      }
+
+      @Override
+      void forEach(Object value, LongConsumer action) {
+        for (long element : (long[]) value) {
+          action.accept(element);
+        }
+      }
+
+      @Override
+      Object create(long[] elements, int length) {
+        return elements.length == length ? elements : Arrays.copyOf(elements, length);
+      }
+
+    };
+  }
+
+  static ScalarValueCodec intArray() {
+    return new LongSequenceCodec(int[].class) {
+
+      @Override
+      int length(Object value) {
+        return ((int[]) value).length;
+      }
+
+      @Override
+      void forEach(Object value, LongConsumer action) {
+        for (int element : (int[]) value) {
+          action.accept(element);
+        }
+      }
+
+      @Override
+      Object create(long[] elements, int length) {
+        return toIntArray(elements, length);
+      }
+
+    };
+  }
+
+  static ScalarValueCodec longList() {
+    return new LongSequenceCodec(LongList.class) {
+
+      @Override
+      int length(Object value) {
+        return ((List<?>) value).size();
+      }
+
+      @Override
+      void forEach(Object value, LongConsumer action) {
+        if (value instanceof LongList list) {
+          for (int i = 0; i < list.size(); i++) {
+            action.accept(list.getLong(i));
+          }
+        } else {
+          // a homogeneous list not read by this codec
+          for (Object element : (List<?>) value) {
+            action.accept((Long) element);
+          }
+        }
+      }
+
+      @Override
+      Object create(long[] elements, int length) {
+        return new LongList(elements, length);
+      }
+
+    };
+  }
+
+  static ScalarValueCodec intList() {
+    return new LongSequenceCodec(IntList.class) {
+
+      @Override
+      int length(Object value) {
+        return ((List<?>) value).size();
+      }
+
+      @Override
+      void forEach(Object value, LongConsumer action) {
+        if (value instanceof IntList list) {
+          for (int i = 0; i < list.size(); i++) {
+            action.accept(list.getInt(i));
+          }
+        } else {
+          for (Object element : (List<?>) value) {
+            action.accept((Integer) element);
+          }
+        }
+      }
+
+      @Override
+      Object create(long[] elements, int length) {
+        int[] ints = toIntArray(elements, length);
+        return new IntList(ints, ints.length);
+      }
+
+    };
+  }
+
+  static ScalarValueCodec doubleArray() {
+    return new DoubleSequenceCodec(double[].class) {
+
+      @Override
+      void forEach(Object value, DoubleConsumer action) {
+        for (double element : (double[]) value) {
+          action.accept(element);
+        }
+      }
+
+      @Override
+      Object create(double[] elements, int length) {
+        return elements.length == length ? elements : Arrays.copyOf(elements, length);
+      }
+
+    };
+  }
+
+  static ScalarValueCodec doubleList() {
+    return new DoubleSequenceCodec(DoubleList.class) {
+
+      @Override
+      void forEach(Object value, DoubleConsumer action) {
+        if (value instanceof DoubleList list) {
+          for (int i = 0; i < list.size(); i++) {
+            action.accept(list.getDouble(i));
+          }
+        } else {
+          for (Object element : (List<?>) value) {
+            action.accept((Double) element);
+          }
+        }
+      }
+
+      @Override
+      Object create(double[] elements, int length) {
+        return new DoubleList(elements, length);
+      }
+
+    };
+  }
+
+  private static int[] toIntArray(long[] elements, int length) {
+    int[] ints = new int[length];
+    for (int i = 0; i < length; i++) {
+      long element = elements[i];
+      if ((element < Integer.MIN_VALUE) || (element > Integer.MAX_VALUE)) {
+        throw new JsonbException("value out of range: " + element);
+      }
+      ints[i] = (int) element;
+    }
+    return ints;
+  }
+
+  /**
+   * Unpacks a sequence of integral numbers.
+   *
+   * @param packed the packed sequence
+   * @return the elements, only the first {@link LongSequence#length} are used
+   * @throws JsonbException if the sequence is not valid
+   */
+  static LongSequence unpack(String packed) {
+    byte[] bytes;
+    try {
+      bytes = Base64.getDecoder().decode(packed);
+    } catch (IllegalArgumentException e) {
+      throw new JsonbException("invalid packed sequence", e);
+    }
+    LongSequence sequence = new LongSequence(Math.max(bytes.length / 2, INITIAL_CAPACITY));
+    long previous = 0L;
+    int i = 0;
+    while (i < bytes.length) {
+      long zigZag = 0L;
+      int shift = 0;
+      byte b;
+      do {
+        if ((i == bytes.length) || (shift > 63)) {
+          throw new JsonbException("invalid packed sequence");
+        }
+        b = bytes[i++];
+        zigZag |= (b & 0x7FL) << shift;
+        shift += 7;
+      } while (b < 0);
+      previous += (zigZag >>> 1) ^ -(zigZag & 1L);
+      sequence.add(previous);
+    }
+    return sequence;
+  }
+
+  /**
+   * A sequence of integral numbers accessed as {@code long}.
+   */
+  abstract static class LongSequenceCodec extends NumericSequenceCodec {
+
+    LongSequenceCodec(Class<?> valueType) {
+      super(valueType);
+    }
+
+    abstract int length(Object value);
+
+    abstract void forEach(Object value, LongConsumer action);
+
+    /**
+     * Creates a value from the elements read.
+     *
+     * @param elements the elements, may be larger than {@code length}
+     * @param length the number of elements
+     * @return the value
+     */
+    abstract Object create(long[] elements, int length);
+
+    @Override
+    Object read(JsonParser parser, Event event) {
+      return switch (event) {
+        case START_ARRAY -> this.readArray(parser);
+        case VALUE_STRING -> {
+          LongSequence sequence = unpack(parser.getString());
+          yield this.create(sequence.elements, sequence.length);
+        }
+        case VALUE_NULL -> null;
+        default -> throw unexpectedEvent(event);
+      };
+    }
+
+    private Object readArray(JsonParser parser) {
+      LongSequence sequence = new LongSequence(INITIAL_CAPACITY);
+      Event event;
+      while ((event = parser.next()) != Event.END_ARRAY) {
+        if (event != Event.VALUE_NUMBER) {
+          throw unexpectedEvent(event);
+        }
+        if (!parser.isIntegralNumber()) {
+          throw new JsonbException("integral number expected: " + parser.getString());
+        }
+        sequence.add(ScalarValueCodec.readLong(parser));
+      }
+      return this.create(sequence.elements, sequence.length);
+    }
+
+    @Override
+    void write(Object value, JsonGenerator generator) {
+      generator.writeStartArray();
+      this.forEach(value, generator::write);
+      generator.writeEnd();
+    }
+
+    @Override
+    void writePacked(Object value, JsonGenerator generator) {
+      int length = this.length(value);
+      if (length < PACKED_MIN_LENGTH) {
+        this.write(value, generator);
+      } else {
+        PackedEncoder encoder = new PackedEncoder(length);
+        this.forEach(value, encoder);
+        generator.write(encoder.encode());
+      }
+    }
+
+  }
+
+  /**
+   * A sequence of floating point numbers, written as JSON arrays only.
+   */
+  abstract static class DoubleSequenceCodec extends NumericSequenceCodec {
+
+    DoubleSequenceCodec(Class<?> valueType) {
+      super(valueType);
+    }
+
+    abstract void forEach(Object value, DoubleConsumer action);
+
+    /**
+     * Creates a value from the elements read.
+     *
+     * @param elements the elements, may be larger than {@code length}
+     * @param length the number of elements
+     * @return the value
+     */
+    abstract Object create(double[] elements, int length);
+
+    @Override
+    Object read(JsonParser parser, Event event) {
+      if (event == Event.VALUE_NULL) {
+        return null;
+      }
+      if (event != Event.START_ARRAY) {
+        throw unexpectedEvent(event);
+      }
+      double[] elements = new double[INITIAL_CAPACITY];
+      int length = 0;
+      Event next;
+      while ((next = parser.next()) != Event.END_ARRAY) {
+        if ((next != Event.VALUE_NUMBER) && (next != Event.VALUE_STRING)) {
+          throw unexpectedEvent(next);
+        }
+        if (length == elements.length) {
+          elements = Arrays.copyOf(elements, PrimitiveLists.newCapacity(length, length + 1));
+        }
+        // JSON-P has no #getDouble(), parsing the string avoids the BigDecimal
+        elements[length++] = parseNumber(parser.getString(), Double::valueOf);
+      }
+      return this.create(elements, length);
+    }
+
+    @Override
+    void write(Object value, JsonGenerator generator) {
+      generator.writeStartArray();
+      this.forEach(value, element -> writeDouble(element, generator));
+      generator.writeEnd();
+    }
+
+    @Override
+    void writePacked(Object value, JsonGenerator generator) {
+      this.write(value, generator);
+    }
+
+  }
+
+  /**
+   * A growable {@code long[]}.
+   */
+  static final class LongSequence {
+
+    long[] elements;
+
+    int length;
+
+    LongSequence(int capacity) {
+      this.elements = new long[capacity];
+    }
+
+    void add(long element) {
+      if (this.length == this.elements.length) {
+        this.elements = Arrays.copyOf(this.elements, PrimitiveLists.newCapacity(this.length, this.length + 1));
+      }
+      this.elements[this.length++] = element;
+    }
+
+  }
+
+  /**
+   * Delta, zig-zag and variable length encodes {@code long}s.
+   */
+  static final class PackedEncoder implements LongConsumer {
+
+    private byte[] buffer;
+
+    private int length;
+
+    private long previous;
+
+    PackedEncoder(int elements) {
+      // most deltas of IDs fit into two bytes
+      this.buffer = new byte[Math.max(elements * 2, INITIAL_CAPACITY)];
+    }
+
+    @Override
+    public void accept(long value) {
+      long delta = value - this.previous;
+      this.previous = value;
+      long zigZag = (delta << 1) ^ (delta >> 63);
+      if (this.length + 10 > this.buffer.length) {
+        this.buffer = Arrays.copyOf(this.buffer, this.buffer.length * 2);
+      }
+      while ((zigZag & ~0x7FL) != 0L) {
+        this.buffer[this.length++] = (byte) ((zigZag & 0x7FL) | 0x80L);
+        zigZag >>>= 7;
+      }
+      this.buffer[this.length++] = (byte) zigZag;
+    }
+
+    String encode() {
+      ByteBuffer encoded = Base64.getEncoder().encode(ByteBuffer.wrap(this.buffer, 0, this.length));
+      return new String(encoded.array(), encoded.arrayOffset(), encoded.remaining(), StandardCharsets.ISO_8859_1);
+    }
+
+  }
+
+}
@@ -0,0 +1,145 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import com.github.marschall.jsonbexecutioncontextserializer.ExecutionContextMetrics.Operation;
+
+/**
+ * Records a single serialization or deserialization.
+ * <p>
+ * While the recorder is active on a thread
+ * {@link ExecutionContextWrapperSerializer} records every value with
+ * {@link #beginValue(long)} and {@link #endValue(String, Class, long)},
+ * or {@link #cachedValue(Class, long)} if it was not serialized.
+ * JSON-B creates the wrapper serializer so the recorder can not be passed
+ * to it.
+ */
+final class OperationRecorder {
+
+  private static final ThreadLocal<OperationRecorder> CURRENT = new ThreadLocal<>();
+
+  private final Operation operation;
+
+  private final long start;
+
+  /**
+   * {@code null} if the event is not enabled.
+   */
+  private final ExecutionContextEvent event;
+
+  /**
+   * {@code null} if no metrics are configured.
+   */
+  private final ExecutionContextMetrics metrics;
+
+  private final boolean sampled;
+
+  private final long slowThresholdNanos;
+
+  private long valueStart;
+
+  private long valuePosition;
+
+  private String slowestKey;
+
+  private Class<?> slowestType;
+
+  private long slowestDuration;
+
+  OperationRecorder(Operation operation, ExecutionContextEvent event, ExecutionContextMetrics metrics, boolean sampled, long slowThresholdNanos) {
+    this.operation = operation;
+    this.event = event;
+    this.metrics = metrics;
+    this.sampled = sampled;
+    this.slowThresholdNanos = slowThresholdNanos;
+    this.slowestDuration = -1L;
+    this.start = System.nanoTime();
+  }
+
+  /**
+   * Returns the recorder active on the current thread.
+   *
+   * @return the active recorder, {@code null} if none
+   */
+  static OperationRecorder current() {
+    return CURRENT.get();
+  }
+
+  void activate() {
+    CURRENT.set(this);
+  }
+
+  void deactivate() {
+    CURRENT.remove();
+  }
+
+  /**
+   * Called before a value is (de)serialized.
+   *
+   * @param position the position in the stream, {@code -1} if not known
+   */
+  void beginValue(long position) {
+    this.valuePosition = position;
+    this.valueStart = System.nanoTime();
+  }
+
+  /**
+   * Called after a value has been (de)serialized.
+   *
+   * @param key the key of the value
+   * @param type the class of the value
+   * @param position the position in the stream, {@code -1} if not known
+   */
+  void endValue(String key, Class<?> type, long position) {
+    long duration = System.nanoTime() - this.valueStart;
+    if (duration > this.slowestDuration) {
+      this.slowestDuration = duration;
+      this.slowestKey = key;
+      this.slowestType = type;
+    }
+    if (this.sampled) {
+      long size = (position >= 0L) && (this.valuePosition >= 0L) ? position - this.valuePosition : -1L;
+      this.metrics.valueRecorded(this.operation, type, duration, size);
+    }
+  }
+
+  /**
+   * Called for a value that was copied from a {@link FragmentCache} instead
+   * of being serialized. It is recorded with a duration of {@code 0} and
+   * can not be the slowest value.
+   *
+   * @param type the class of the value
+   * @param size the size of the copied entry in bytes
+   */
+  void cachedValue(Class<?> type, long size) {
+    if (this.sampled) {
+      this.metrics.valueRecorded(this.operation, type, 0L, size);
+    }
+  }
+
+  /**
+   * Finishes the recording.
+   *
+   * @param size the size of the serialized context in bytes
+   * @param keyCount the number of keys
+   */
+  void finish(long size, int keyCount) {
+    long duration = System.nanoTime() - this.start;
+    if (this.event != null) {
+      this.event.end();
+      if (this.event.shouldCommit()) {
+        this.event.size = size;
+        this.event.keyCount = keyCount;
+        this.event.slowestKey = this.slowestKey;
+        this.event.slowestType = this.slowestType;
+        this.event.slowestDuration = Math.max(this.slowestDuration, 0L);
+        this.event.commit();
+      }
+    }
+    if (this.sampled) {
+      this.metrics.operationRecorded(this.operation, duration, size, keyCount);
+    }
+    if ((this.slowThresholdNanos > 0L) && (duration >= this.slowThresholdNanos)) {
+      this.metrics.slowOperation(this.operation, duration, this.slowestKey, this.slowestType);
+    }
+  }
+
+}
@@ -0,0 +1,316 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+
+import jakarta.json.bind.JsonbException;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
+
+/**
+ * Reads and writes the value of a job parameter of a specific type.
+ * <p>
+ * The implementations for the common job parameter types work directly on
+ * {@link JsonParser} events and avoid both intermediate {@link BigDecimal}
+ * allocations for integral numbers and converter lookups.
+ */
+abstract class ParameterValueCodec {
+
+  static final ParameterValueCodec STRING = new ParameterValueCodec(String.class) {
+
+    @Override
+    Object read(JsonParser parser, Event event) {
+      return switch (event) {
+        case VALUE_STRING, VALUE_NUMBER -> parser.getString();
+        case VALUE_NULL -> null;
+        default -> throw unexpectedEvent(event);
+      };
+    }
+
+    @Override
+    void write(Object value, JsonGenerator generator) {
+      generator.write((String) value);
+    }
+
+  };
+
+  static final ParameterValueCodec LONG = new ParameterValueCodec(Long.class) {
+
+    @Override
+    Object read(JsonParser parser, Event event) {
+      return switch (event) {
+        case VALUE_NUMBER -> ScalarValueCodec.readLong(parser);
+        case VALUE_STRING -> ScalarValueCodec.parseNumber(parser.getString(), Long::valueOf);
+        case VALUE_NULL -> null;
+        default -> throw unexpectedEvent(event);
+      };
+    }
+
+    @Override
+    void write(Object value, JsonGenerator generator) {
+      generator.write((Long) value);
+    }
+
+  };
+
+  static final ParameterValueCodec INTEGER = new ParameterValueCodec(Integer.class) {
+
+    @Override
+    Object read(JsonParser parser, Event event) {
+      return switch (event) {
+        case VALUE_NUMBER -> (int) ScalarValueCodec.readIntegral(parser, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        case VALUE_STRING -> ScalarValueCodec.parseNumber(parser.getString(), Integer::valueOf);
+        case VALUE_NULL -> null;
+        default -> throw unexpectedEvent(event);
+      };
+    }
+
+    @Override
+    void write(Object value, JsonGenerator generator) {
+      generator.write((Integer) value);
+    }
+
+  };
+
+  static final ParameterValueCodec DOUBLE = new ParameterValueCodec(Double.class) {
+
+    @Override
+    Object read(JsonParser parser, Event event) {
+      return switch (event) {
+        // JSON-P has no #getDouble(), parsing the string avoids the BigDecimal
+        case VALUE_NUMBER, VALUE_STRING -> ScalarValueCodec.parseNumber(parser.getString(), Double::valueOf);
+        case VALUE_NULL -> null;
+        default -> throw unexpectedEvent(event);
+      };
+    }
+
+    @Override
+    void write(Object value, JsonGenerator generator) {
+      generator.write((Double) value);
+    }
+
+  };
+
+  static final ParameterValueCodec BOOLEAN = new ParameterValueCodec(Boolean.class) {
+
+    @Override
+    Object read(JsonParser parser, Event event) {
+      return switch (event) {
+        case VALUE_TRUE -> Boolean.TRUE;
+        case VALUE_FALSE -> Boolean.FALSE;
+        case VALUE_STRING -> Boolean.valueOf(parser.getString());
+        case VALUE_NULL -> null;
+        default -> throw unexpectedEvent(event);
+      };
+    }
+
+    @Override
+    void write(Object value, JsonGenerator generator) {
+      generator.write((Boolean) value);
+    }
+
+  };
+
+  static final ParameterValueCodec LOCAL_DATE = new ParameterValueCodec(LocalDate.class) {
+
+    @Override
+    Object read(JsonParser parser, Event event) {
+      return switch (event) {
+        case VALUE_STRING -> LocalDate.parse(parser.getString());
+        case VALUE_NULL -> null;
+        default -> throw unexpectedEvent(event);
+      };
+    }
+
+    @Override
+    void write(Object value, JsonGenerator generator) {
+      generator.write(value.toString());
+    }
+
+  };
+
+  static final ParameterValueCodec LOCAL_TIME = new ParameterValueCodec(LocalTime.class) {
+
+    @Override
+    Object read(JsonParser parser, Event event) {
+      return switch (event) {
+        case VALUE_STRING -> LocalTime.parse(parser.getString());
+        case VALUE_NULL -> null;
+        default -> throw unexpectedEvent(event);
+      };
+    }
+
+    @Override
+    void write(Object value, JsonGenerator generator) {
+      generator.write(value.toString());
+    }
+
+  };
+
+  static final ParameterValueCodec LOCAL_DATE_TIME = new ParameterValueCodec(LocalDateTime.class) {
+
+    @Override
+    Object read(JsonParser parser, Event event) {
+      return switch (event) {
+        case VALUE_STRING -> LocalDateTime.parse(parser.getString());
+        case VALUE_NULL -> null;
+        default -> throw unexpectedEvent(event);
+      };
+    }
+
+    @Override
+    void write(Object value, JsonGenerator generator) {
+      generator.write(value.toString());
+    }
+
+  };
+
+  private final Class<?> parameterType;
+
+  ParameterValueCodec(Class<?> parameterType) {
+    this.parameterType = parameterType;
+  }
+
+  /**
+   * Returns the type of job parameter this codec handles.
+   *
+   * @return the job parameter type
+   */
+  Class<?> getParameterType() {
+    return this.parameterType;
+  }
+
+  /**
+   * Reads the value of a job parameter.
+   *
+   * @param parser the parser positioned on the value
+   * @param event the event of the value
+   * @return the parsed value, possibly {@code null}
+   */
+  abstract Object read(JsonParser parser, Event event);
+
+  /**
+   * Writes the value of a job parameter.
+   *
+   * @param value the value to write, not {@code null}
+   * @param generator the generator to write to
+   */
+  abstract void write(Object value, JsonGenerator generator);
+
+  static JsonbException unexpectedEvent(Event event) {
+    return new JsonbException("Unexpected value: " + event);
+  }
+
+  /**
+   * Writes a {@link Date} as an ISO-8601 instant. Values written as
+   * {@link Date#toString()} by earlier versions are converted using the
+   * conversion service.
+   * <p>
+   * Earlier versions can not read ISO-8601 instants, see the README.
+   */
+  static final class DateCodec extends ParameterValueCodec {
+
+    private final ConversionService conversionService;
+
+    DateCodec(ConversionService conversionService) {
+      super(Date.class);
+      this.conversionService = conversionService;
+    }
+
+    @Override
+    Object read(JsonParser parser, Event event) {
+      return switch (event) {
+        case VALUE_STRING -> this.parseDate(parser.getString());
+        case VALUE_NUMBER -> new Date(ScalarValueCodec.readLong(parser));
+        case VALUE_NULL -> null;
+        default -> throw unexpectedEvent(event);
+      };
+    }
+
+    private Date parseDate(String s) {
+      try {
+        return Date.from(Instant.parse(s));
+      } catch (DateTimeParseException e) {
+        return this.conversionService.convert(s, Date.class);
+      }
+    }
+
+    @Override
+    void write(Object value, JsonGenerator generator) {
+      // Date#toInstant() is not supported by java.sql.Date
+      generator.write(Instant.ofEpochMilli(((Date) value).getTime()).toString());
+    }
+
+  }
+
+  /**
+   * Fallback for types without a dedicated codec, uses a conversion service.
+   */
+  static final class ConversionServiceCodec extends ParameterValueCodec {
+
+    // type descriptors are computed once instead of on every conversion
+
+    private static final TypeDescriptor STRING_TYPE = TypeDescriptor.valueOf(String.class);
+
+    private static final TypeDescriptor BIG_DECIMAL_TYPE = TypeDescriptor.valueOf(BigDecimal.class);
+
+    private static final TypeDescriptor BOOLEAN_TYPE = TypeDescriptor.valueOf(Boolean.class);
+
+    private final ConversionService conversionService;
+
+    private final TypeDescriptor parameterTypeDescriptor;
+
+    ConversionServiceCodec(ConversionService conversionService, Class<?> parameterType) {
+      super(parameterType);
+      this.conversionService = conversionService;
+      this.parameterTypeDescriptor = TypeDescriptor.valueOf(parameterType);
+    }
+
+    @Override
+    Object read(JsonParser parser, Event event) {
+      return switch (event) {
+        case VALUE_STRING -> this.conversionService.convert(parser.getString(), STRING_TYPE, this.parameterTypeDescriptor);
+        case VALUE_NUMBER -> this.conversionService.convert(parser.getBigDecimal(), BIG_DECIMAL_TYPE, this.parameterTypeDescriptor);
+        case VALUE_TRUE -> this.conversionService.convert(Boolean.TRUE, BOOLEAN_TYPE, this.parameterTypeDescriptor);
+        case VALUE_FALSE -> this.conversionService.convert(Boolean.FALSE, BOOLEAN_TYPE, this.parameterTypeDescriptor);
+        case VALUE_NULL -> this.conversionService.convert(null, this.getParameterType());
+        default -> throw unexpectedEvent(event);
+      };
+    }
+
+    @Override
+    void write(Object value, JsonGenerator generator) {
+      if (value instanceof String s) {
+        generator.write(s);
+      } else if (value instanceof Integer i) {
+        generator.write(i);
+      } else if (value instanceof Long l) {
+        generator.write(l);
+      } else if (value instanceof Double d) {
+        generator.write(d);
+      } else if (value instanceof Boolean b) {
+        generator.write(b);
+      } else if (value instanceof BigInteger bi) {
+        generator.write(bi);
+      } else if (value instanceof BigDecimal db) {
+        generator.write(db);
+      } else {
+        TypeDescriptor valueType = value.getClass() == this.getParameterType() ? this.parameterTypeDescriptor : TypeDescriptor.forObject(value);
+        String stringValue = (String) this.conversionService.convert(value, valueType, STRING_TYPE);
+        generator.write(stringValue);
+      }
+    }
+
+  }
+
+}
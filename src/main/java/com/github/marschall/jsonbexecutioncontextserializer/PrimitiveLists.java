@@ -0,0 +1,300 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Lists of numbers backed by a primitive array.
+ * <p>
+ * Homogeneous lists of {@link Long}, {@link Integer} and {@link Double}
+ * are read into these lists instead of boxing every element. They are
+ * modifiable like the {@link java.util.ArrayList} JSON-B would create but
+ * do not support {@code null} elements. The classes also serve as the
+ * value types of such lists when looking up the type name and codec.
+ */
+final class PrimitiveLists {
+
+  /**
+   * The type name of {@link LongList} in the default format.
+   */
+  static final String LONG_LIST_TYPE_NAME = "java.util.List<java.lang.Long>";
+
+  /**
+   * The type name of {@link IntList} in the default format.
+   */
+  static final String INT_LIST_TYPE_NAME = "java.util.List<java.lang.Integer>";
+
+  /**
+   * The type name of {@link DoubleList} in the default format.
+   */
+  static final String DOUBLE_LIST_TYPE_NAME = "java.util.List<java.lang.Double>";
+
+  private static final int DEFAULT_CAPACITY = 10;
+
+  private PrimitiveLists() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Determines the primitive list class to use for a list.
+   *
+   * @param list the list to check
+   * @return the primitive list class, {@code null} if the list is empty,
+   *         contains {@code null} or not only elements of the same numeric
+   *         type
+   */
+  static Class<?> getListClass(List<?> list) {
+    if ((list instanceof LongList) || (list instanceof IntList) || (list instanceof DoubleList)) {
+      return list.getClass();
+    }
+    if (list.isEmpty()) {
+      return null;
+    }
+    Object first = list.get(0);
+    if (first == null) {
+      return null;
+    }
+    Class<?> elementClass = first.getClass();
+    Class<?> listClass;
+    if (elementClass == Long.class) {
+      listClass = LongList.class;
+    } else if (elementClass == Integer.class) {
+      listClass = IntList.class;
+    } else if (elementClass == Double.class) {
+      listClass = DoubleList.class;
+    } else {
+      return null;
+    }
+    for (Object element : list) {
+      if ((element == null) || (element.getClass() != elementClass)) {
+        return null;
+      }
+    }
+    return listClass;
+  }
+
+  /**
+   * Looks up the type name of a primitive list class.
+   *
+   * @param type the class to look up
+   * @return the type name, {@code null} if not a primitive list class
+   */
+  static String getTypeName(Class<?> type) {
+    if (type == LongList.class) {
+      return LONG_LIST_TYPE_NAME;
+    } else if (type == IntList.class) {
+      return INT_LIST_TYPE_NAME;
+    } else if (type == DoubleList.class) {
+      return DOUBLE_LIST_TYPE_NAME;
+    }
+    return null;
+  }
+
+  /**
+   * Looks up a primitive list class by type name.
+   *
+   * @param typeName the type name to look up
+   * @return the class, {@code null} if not the type name of a primitive list
+   */
+  static Class<?> forTypeName(String typeName) {
+    return switch (typeName) {
+      case LONG_LIST_TYPE_NAME -> LongList.class;
+      case INT_LIST_TYPE_NAME -> IntList.class;
+      case DOUBLE_LIST_TYPE_NAME -> DoubleList.class;
+      default -> null;
+    };
+  }
+
+  static boolean isListClass(Class<?> type) {
+    return (type == LongList.class) || (type == IntList.class) || (type == DoubleList.class);
+  }
+
+  static int newCapacity(int length, int minCapacity) {
+    int newCapacity = Math.max(length + (length >> 1), DEFAULT_CAPACITY);
+    return Math.max(newCapacity, minCapacity);
+  }
+
+  /**
+   * A list of {@link Long} backed by a {@code long[]}.
+   */
+  static final class LongList extends AbstractList<Long> implements RandomAccess {
+
+    private long[] elements;
+
+    private int size;
+
+    LongList(long[] elements, int size) {
+      this.elements = elements;
+      this.size = size;
+    }
+
+    long getLong(int index) {
+      Objects.checkIndex(index, this.size);
+      return this.elements[index];
+    }
+
+    @Override
+    public Long get(int index) {
+      return this.getLong(index);
+    }
+
+    @Override
+    public Long set(int index, Long element) {
+      long previous = this.getLong(index);
+      this.elements[index] = element;
+      return previous;
+    }
+
+    @Override
+    public void add(int index, Long element) {
+      Objects.checkIndex(index, this.size + 1);
+      long value = element;
+      if (this.size == this.elements.length) {
+        this.elements = Arrays.copyOf(this.elements, newCapacity(this.elements.length, this.size + 1));
+      }
+      System.arraycopy(this.elements, index, this.elements, index + 1, this.size - index);
+      this.elements[index] = value;
+      this.size += 1;
+      this.modCount += 1;
+    }
+
+    @Override
+    public Long remove(int index) {
+      long previous = this.getLong(index);
+      System.arraycopy(this.elements, index + 1, this.elements, index, this.size - index - 1);
+      this.size -= 1;
+      this.modCount += 1;
+      return previous;
+    }
+
+    @Override
+    public int size() {
+      return this.size;
+    }
+
+  }
+
+  /**
+   * A list of {@link Integer} backed by an {@code int[]}.
+   */
+  static final class IntList extends AbstractList<Integer> implements RandomAccess {
+
+    private int[] elements;
+
+    private int size;
+
+    IntList(int[] elements, int size) {
+      this.elements = elements;
+      this.size = size;
+    }
+
+    int getInt(int index) {
+      Objects.checkIndex(index, this.size);
+      return this.elements[index];
+    }
+
+    @Override
+    public Integer get(int index) {
+      return this.getInt(index);
+    }
+
+    @Override
+    public Integer set(int index, Integer element) {
+      int previous = this.getInt(index);
+      this.elements[index] = element;
+      return previous;
+    }
+
+    @Override
+    public void add(int index, Integer element) {
+      Objects.checkIndex(index, this.size + 1);
+      int value = element;
+      if (this.size == this.elements.length) {
+        this.elements = Arrays.copyOf(this.elements, newCapacity(this.elements.length, this.size + 1));
+      }
+      System.arraycopy(this.elements, index, this.elements, index + 1, this.size - index);
+      this.elements[index] = value;
+      this.size += 1;
+      this.modCount += 1;
+    }
+
+    @Override
+    public Integer remove(int index) {
+      int previous = this.getInt(index);
+      System.arraycopy(this.elements, index + 1, this.elements, index, this.size - index - 1);
+      this.size -= 1;
+      this.modCount += 1;
+      return previous;
+    }
+
+    @Override
+    public int size() {
+      return this.size;
+    }
+
+  }
+
+  /**
+   * A list of {@link Double} backed by a {@code double[]}.
+   */
+  static final class DoubleList extends AbstractList<Double> implements RandomAccess {
+
+    private double[] elements;
+
+    private int size;
+
+    DoubleList(double[] elements, int size) {
+      this.elements = elements;
+      this.size = size;
+    }
+
+    double getDouble(int index) {
+      Objects.checkIndex(index, this.size);
+      return this.elements[index];
+    }
+
+    @Override
+    public Double get(int index) {
+      return this.getDouble(index);
+    }
+
+    @Override
+    public Double set(int index, Double element) {
+      double previous = this.getDouble(index);
+      this.elements[index] = element;
+      return previous;
+    }
+
+    @Override
+    public void add(int index, Double element) {
+      Objects.checkIndex(index, this.size + 1);
+      double value = element;
+      if (this.size == this.elements.length) {
+        this.elements = Arrays.copyOf(this.elements, newCapacity(this.elements.length, this.size + 1));
+      }
+      System.arraycopy(this.elements, index, this.elements, index + 1, this.size - index);
+      this.elements[index] = value;
+      this.size += 1;
+      this.modCount += 1;
+    }
+
+    @Override
+    public Double remove(int index) {
+      double previous = this.getDouble(index);
+      System.arraycopy(this.elements, index + 1, this.elements, index, this.size - index - 1);
+      this.size -= 1;
+      this.modCount += 1;
+      return previous;
+    }
+
+    @Override
+    public int size() {
+      return this.size;
+    }
+
+  }
+
+}
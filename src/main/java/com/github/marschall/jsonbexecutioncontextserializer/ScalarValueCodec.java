@@ -0,0 +1,377 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import jakarta.json.bind.JsonbException;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
+
+/**
+ * Reads and writes values of common scalar types directly with a
+ * {@link JsonParser} and {@link JsonGenerator}.
+ * <p>
+ * The output is the same as the one of the built-in Yasson serializers but
+ * avoids the runtime type dispatch and serializer lookup of
+ * {@link jakarta.json.bind.serializer.SerializationContext} and
+ * {@link jakarta.json.bind.serializer.DeserializationContext}. This makes a
+ * difference for the typical execution context that consists mostly of
+ * counters and offsets. Integral numbers are read without creating an
+ * intermediate {@link BigDecimal} unless they have 19 or more digits.
+ * <p>
+ * Only final classes are supported so that a codec can be looked up by the
+ * exact class of a value. Primitive arrays and lists of numbers are handled
+ * by {@link NumericSequenceCodec}.
+ */
+abstract class ScalarValueCodec {
+
+  static final ScalarValueCodec STRING = new ScalarValueCodec(String.class) {
+
+    @Override
+    Object read(JsonParser parser, Event event) {
+      return switch (event) {
+        case VALUE_STRING, VALUE_NUMBER -> parser.getString();
+        case VALUE_NULL -> null;
+        default -> throw unexpectedEvent(event);
+      };
+    }
+
+    @Override
+    void write(Object value, JsonGenerator generator) {
+      generator.write((String) value);
+    }
+
+  };
+
+  static final ScalarValueCodec LONG = new ScalarValueCodec(Long.class) {
+
+    @Override
+    Object read(JsonParser parser, Event event) {
+      return switch (event) {
+        case VALUE_NUMBER -> parser.isIntegralNumber() ? readLong(parser) : parseNumber(parser.getString(), Long::valueOf);
+        case VALUE_STRING -> parseNumber(parser.getString(), Long::valueOf);
+        case VALUE_NULL -> null;
+        default -> throw unexpectedEvent(event);
+      };
+    }
+
+    @Override
+    void write(Object value, JsonGenerator generator) {
+      generator.write((Long) value);
+    }
+
+  };
+
+  static final ScalarValueCodec INTEGER = new ScalarValueCodec(Integer.class) {
+
+    @Override
+    Object read(JsonParser parser, Event event) {
+      return switch (event) {
+        case VALUE_NUMBER -> parser.isIntegralNumber() ? (Integer) (int) readIntegral(parser, Integer.MIN_VALUE, Integer.MAX_VALUE) : parseNumber(parser.getString(), Integer::valueOf);
+        case VALUE_STRING -> parseNumber(parser.getString(), Integer::valueOf);
+        case VALUE_NULL -> null;
+        default -> throw unexpectedEvent(event);
+      };
+    }
+
+    @Override
+    void write(Object value, JsonGenerator generator) {
+      generator.write((Integer) value);
+    }
+
+  };
+
+  static final ScalarValueCodec SHORT = new ScalarValueCodec(Short.class) {
+
+    @Override
+    Object read(JsonParser parser, Event event) {
+      return switch (event) {
+        case VALUE_NUMBER -> parser.isIntegralNumber() ? (Short) (short) readIntegral(parser, Short.MIN_VALUE, Short.MAX_VALUE) : parseNumber(parser.getString(), Short::valueOf);
+        case VALUE_STRING -> parseNumber(parser.getString(), Short::valueOf);
+        case VALUE_NULL -> null;
+        default -> throw unexpectedEvent(event);
+      };
+    }
+
+    @Override
+    void write(Object value, JsonGenerator generator) {
+      generator.write((Short) value);
+    }
+
+  };
+
+  static final ScalarValueCodec BYTE = new ScalarValueCodec(Byte.class) {
+
+    @Override
+    Object read(JsonParser parser, Event event) {
+      return switch (event) {
+        case VALUE_NUMBER -> parser.isIntegralNumber() ? (Byte) (byte) readIntegral(parser, Byte.MIN_VALUE, Byte.MAX_VALUE) : parseNumber(parser.getString(), Byte::valueOf);
+        case VALUE_STRING -> parseNumber(parser.getString(), Byte::valueOf);
+        case VALUE_NULL -> null;
+        default -> throw unexpectedEvent(event);
+      };
+    }
+
+    @Override
+    void write(Object value, JsonGenerator generator) {
+      generator.write((Byte) value);
+    }
+
+  };
+
+  static final ScalarValueCodec DOUBLE = new ScalarValueCodec(Double.class) {
+
+    @Override
+    Object read(JsonParser parser, Event event) {
+      return switch (event) {
+        // JSON-P has no #getDouble(), parsing the string avoids the BigDecimal
+        case VALUE_NUMBER, VALUE_STRING -> parseNumber(parser.getString(), Double::valueOf);
+        case VALUE_NULL -> null;
+        default -> throw unexpectedEvent(event);
+      };
+    }
+
+    @Override
+    void write(Object value, JsonGenerator generator) {
+      writeDouble((Double) value, generator);
+    }
+
+  };
+
+  static final ScalarValueCodec FLOAT = new ScalarValueCodec(Float.class) {
+
+    @Override
+    Object read(JsonParser parser, Event event) {
+      return switch (event) {
+        case VALUE_NUMBER, VALUE_STRING -> parseNumber(parser.getString(), Float::valueOf);
+        case VALUE_NULL -> null;
+        default -> throw unexpectedEvent(event);
+      };
+    }
+
+    @Override
+    void write(Object value, JsonGenerator generator) {
+      float f = (Float) value;
+      if (!Float.isFinite(f)) {
+        throw notFinite(value);
+      }
+      // same as Yasson, avoids the widening artifacts of writing a double
+      generator.write(new BigDecimal(value.toString()));
+    }
+
+  };
+
+  static final ScalarValueCodec BOOLEAN = new ScalarValueCodec(Boolean.class) {
+
+    @Override
+    Object read(JsonParser parser, Event event) {
+      return switch (event) {
+        case VALUE_TRUE -> Boolean.TRUE;
+        case VALUE_FALSE -> Boolean.FALSE;
+        case VALUE_STRING -> Boolean.valueOf(parser.getString());
+        case VALUE_NULL -> null;
+        default -> throw unexpectedEvent(event);
+      };
+    }
+
+    @Override
+    void write(Object value, JsonGenerator generator) {
+      generator.write((Boolean) value);
+    }
+
+  };
+
+  static final ScalarValueCodec CHARACTER = new ScalarValueCodec(Character.class) {
+
+    @Override
+    Object read(JsonParser parser, Event event) {
+      return switch (event) {
+        case VALUE_STRING -> readCharacter(parser.getString());
+        case VALUE_NULL -> null;
+        default -> throw unexpectedEvent(event);
+      };
+    }
+
+    @Override
+    void write(Object value, JsonGenerator generator) {
+      generator.write(value.toString());
+    }
+
+  };
+
+  static final ScalarValueCodec BIG_DECIMAL = new ScalarValueCodec(BigDecimal.class) {
+
+    @Override
+    Object read(JsonParser parser, Event event) {
+      return switch (event) {
+        case VALUE_NUMBER -> parser.getBigDecimal();
+        case VALUE_STRING -> parseNumber(parser.getString(), BigDecimal::new);
+        case VALUE_NULL -> null;
+        default -> throw unexpectedEvent(event);
+      };
+    }
+
+    @Override
+    void write(Object value, JsonGenerator generator) {
+      generator.write((BigDecimal) value);
+    }
+
+  };
+
+  static final ScalarValueCodec BIG_INTEGER = new ScalarValueCodec(BigInteger.class) {
+
+    @Override
+    Object read(JsonParser parser, Event event) {
+      return switch (event) {
+        case VALUE_NUMBER, VALUE_STRING -> parseNumber(parser.getString(), BigInteger::new);
+        case VALUE_NULL -> null;
+        default -> throw unexpectedEvent(event);
+      };
+    }
+
+    @Override
+    void write(Object value, JsonGenerator generator) {
+      generator.write((BigInteger) value);
+    }
+
+  };
+
+  static final ScalarValueCodec LONG_ARRAY = NumericSequenceCodec.longArray();
+
+  static final ScalarValueCodec INT_ARRAY = NumericSequenceCodec.intArray();
+
+  static final ScalarValueCodec DOUBLE_ARRAY = NumericSequenceCodec.doubleArray();
+
+  static final ScalarValueCodec LONG_LIST = NumericSequenceCodec.longList();
+
+  static final ScalarValueCodec INT_LIST = NumericSequenceCodec.intList();
+
+  static final ScalarValueCodec DOUBLE_LIST = NumericSequenceCodec.doubleList();
+
+  /**
+   * {@link BigDecimal} and {@link BigInteger} are not final, they are looked
+   * up by exact class so subclasses still go through JSON-B.
+   */
+  private static final Map<Class<?>, ScalarValueCodec> CODECS = List.of(
+      STRING, LONG, INTEGER, SHORT, BYTE, DOUBLE, FLOAT, BOOLEAN, CHARACTER, BIG_DECIMAL, BIG_INTEGER,
+      LONG_ARRAY, INT_ARRAY, DOUBLE_ARRAY, LONG_LIST, INT_LIST, DOUBLE_LIST)
+    .stream()
+    .collect(Collectors.toUnmodifiableMap(ScalarValueCodec::getValueType, Function.identity()));
+
+  private final Class<?> valueType;
+
+  ScalarValueCodec(Class<?> valueType) {
+    this.valueType = valueType;
+  }
+
+  /**
+   * Looks up the codec for the exact class of a value.
+   *
+   * @param valueClass the class of the value
+   * @return the codec, {@code null} if the value has to be handled by JSON-B
+   */
+  static ScalarValueCodec forClass(Class<?> valueClass) {
+    return CODECS.get(valueClass);
+  }
+
+  /**
+   * Returns the type of value this codec handles.
+   *
+   * @return the value type
+   */
+  Class<?> getValueType() {
+    return this.valueType;
+  }
+
+  /**
+   * Reads a value.
+   *
+   * @param parser the parser positioned on the value
+   * @param event the event of the value
+   * @return the parsed value, possibly {@code null}
+   */
+  abstract Object read(JsonParser parser, Event event);
+
+  /**
+   * Writes a value.
+   *
+   * @param value the value to write, not {@code null}
+   * @param generator the generator to write to, positioned where a value is expected
+   */
+  abstract void write(Object value, JsonGenerator generator);
+
+  /**
+   * Writes a {@code double}, JSON has no representation for NaN and infinity.
+   *
+   * @param value the value to write
+   * @param generator the generator to write to, positioned where a value is expected
+   * @throws JsonbException if the value is NaN or infinite
+   */
+  static void writeDouble(double value, JsonGenerator generator) {
+    if (!Double.isFinite(value)) {
+      throw notFinite(value);
+    }
+    generator.write(value);
+  }
+
+  private static JsonbException notFinite(Object value) {
+    return new JsonbException("value cannot be infinite or NaN: " + value);
+  }
+
+  static JsonbException unexpectedEvent(Event event) {
+    return new JsonbException("Unexpected value: " + event);
+  }
+
+  /**
+   * Reads a number that has to have an integral value in the range of
+   * {@code long}.
+   * <p>
+   * Numbers that {@link IntegralNumbers} knows to be short enough are read
+   * without creating an intermediate {@link BigDecimal}, all other numbers
+   * are checked with {@link BigDecimal#longValueExact()}. This accepts
+   * numbers like {@code 1.0} or {@code 1E3}.
+   *
+   * @param parser the parser positioned on a number
+   * @return the value of the number
+   * @throws JsonbException if the number is out of range or has a fractional part
+   */
+  static long readLong(JsonParser parser) {
+    if (IntegralNumbers.isExactLong(parser)) {
+      return parser.getLong();
+    }
+    try {
+      return parser.getBigDecimal().longValueExact();
+    } catch (ArithmeticException e) {
+      throw new JsonbException("value out of range or not integral: " + parser.getString(), e);
+    }
+  }
+
+  static long readIntegral(JsonParser parser, long minValue, long maxValue) {
+    long value = readLong(parser);
+    if ((value < minValue) || (value > maxValue)) {
+      throw new JsonbException("value out of range: " + parser.getString());
+    }
+    return value;
+  }
+
+  static <N> N parseNumber(String s, Function<String, N> parseFunction) {
+    try {
+      return parseFunction.apply(s);
+    } catch (NumberFormatException e) {
+      throw new JsonbException("could not parse number: " + s, e);
+    }
+  }
+
+  private static Character readCharacter(String s) {
+    if (s.length() != 1) {
+      throw new JsonbException("single character expected: " + s);
+    }
+    return s.charAt(0);
+  }
+
+}
@@ -0,0 +1,15 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded when an execution context is serialized.
+ */
+@Name(SerializeEvent.NAME)
+@Label("Execution Context Serialization")
+final class SerializeEvent extends ExecutionContextEvent {
+
+  static final String NAME = "com.github.marschall.jsonbexecutioncontextserializer.Serialize";
+
+}
@@ -0,0 +1,73 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.util.List;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.dao.ExecutionContextDao;
+
+/**
+ * An {@link ExecutionContextDao} that can also write contexts that have
+ * already been serialized.
+ * <p>
+ * DAOs like {@link BulkExecutionContextDao} and
+ * {@link ChangeDetectingExecutionContextDao} serialize contexts before
+ * calling the actual DAO and hand it the serialized contexts through these
+ * methods so they are not serialized again. The serialized contexts have to
+ * be written by the same serializer the DAO reads them with.
+ *
+ * @see JsonbJdbcExecutionContextDao
+ */
+public interface SerializedExecutionContextDao extends ExecutionContextDao {
+
+  /**
+   * Persists a serialized job execution context, the execution context of
+   * the job execution is ignored.
+   *
+   * @param jobExecution the job execution the context belongs to, not {@code null}
+   * @param serializedContext the serialized context, not {@code null}
+   * @see #saveExecutionContext(JobExecution)
+   */
+  void saveExecutionContext(JobExecution jobExecution, byte[] serializedContext);
+
+  /**
+   * Persists a serialized step execution context, the execution context of
+   * the step execution is ignored.
+   *
+   * @param stepExecution the step execution the context belongs to, not {@code null}
+   * @param serializedContext the serialized context, not {@code null}
+   * @see #saveExecutionContext(StepExecution)
+   */
+  void saveExecutionContext(StepExecution stepExecution, byte[] serializedContext);
+
+  /**
+   * Persists the serialized contexts of several step executions, the
+   * execution contexts of the step executions are ignored.
+   *
+   * @param stepExecutions the step executions the contexts belong to, not {@code null}
+   * @param serializedContexts the serialized contexts in the same order, not {@code null}
+   * @see #saveExecutionContexts(java.util.Collection)
+   */
+  void saveExecutionContexts(List<StepExecution> stepExecutions, List<byte[]> serializedContexts);
+
+  /**
+   * Updates a serialized job execution context, the execution context of
+   * the job execution is ignored.
+   *
+   * @param jobExecution the job execution the context belongs to, not {@code null}
+   * @param serializedContext the serialized context, not {@code null}
+   * @see #updateExecutionContext(JobExecution)
+   */
+  void updateExecutionContext(JobExecution jobExecution, byte[] serializedContext);
+
+  /**
+   * Updates a serialized step execution context, the execution context of
+   * the step execution is ignored.
+   *
+   * @param stepExecution the step execution the context belongs to, not {@code null}
+   * @param serializedContext the serialized context, not {@code null}
+   * @see #updateExecutionContext(StepExecution)
+   */
+  void updateExecutionContext(StepExecution stepExecution, byte[] serializedContext);
+
+}
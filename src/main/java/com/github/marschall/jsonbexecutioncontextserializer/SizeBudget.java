@@ -0,0 +1,94 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Keeps serialized contexts below a size budget by falling back to more
+ * compact encodings.
+ * <p>
+ * A context that exceeds the budget in the configured encoding is encoded
+ * again in the compact JSON format, then in the compact binary format and
+ * finally, if a codec is configured, compressed. The first encoding within
+ * the budget is used. If none is, the smallest one is used and the
+ * listener is notified.
+ * <p>
+ * All encodings are read without any configuration, the choice does not
+ * have to be recorded anywhere.
+ */
+final class SizeBudget {
+
+  private final int budget;
+
+  /**
+   * Only created once a context exceeds the budget.
+   */
+  private final LazyJsonb compactJsonb;
+
+  private final LazyJsonb compactBinaryJsonb;
+
+  /**
+   * {@code null} if compression is not allowed.
+   */
+  private final Compression compression;
+
+  /**
+   * {@code null} if no listener is registered.
+   */
+  private final SizeBudgetListener listener;
+
+  SizeBudget(int budget, LazyJsonb compactJsonb, LazyJsonb compactBinaryJsonb, Compression compression, SizeBudgetListener listener) {
+    this.budget = budget;
+    this.compactJsonb = compactJsonb;
+    this.compactBinaryJsonb = compactBinaryJsonb;
+    this.compression = compression;
+    this.listener = listener;
+  }
+
+  boolean fits(int size) {
+    return size <= this.budget;
+  }
+
+  /**
+   * Writes a context that exceeds the budget in the configured encoding.
+   *
+   * @param context the context
+   * @param configured the context in the configured encoding
+   * @param out the stream to write to, not closed
+   * @throws IOException in case of I/O errors
+   */
+  void writeOverBudget(Map<String, Object> context, ByteArrayOutputStream configured, OutputStream out) throws IOException {
+    ByteArrayOutputStream smallest = configured;
+
+    ByteArrayOutputStream compactJson = new ByteArrayOutputStream(configured.size());
+    JsonbExecutionContextSerializer.toJson(this.compactJsonb.get(), context, compactJson);
+    smallest = smaller(smallest, compactJson);
+
+    if (!this.fits(smallest.size())) {
+      ByteArrayOutputStream binary = new ByteArrayOutputStream(configured.size());
+      this.compactBinaryJsonb.get().toJson(new ExecutionContextWrapper(context), binary);
+      ByteArrayOutputStream compactBinary = new ByteArrayOutputStream(binary.size() * 4 / 3 + 8);
+      BinaryFormat.write(binary, compactBinary);
+      smallest = smaller(smallest, compactBinary);
+    }
+
+    if (!this.fits(smallest.size()) && (this.compression != null)) {
+      // JSON compresses better than binary
+      ByteArrayOutputStream compressed = new ByteArrayOutputStream(compactJson.size() / 2);
+      this.compression.compress(compactJson, compressed);
+      smallest = smaller(smallest, compressed);
+    }
+
+    smallest.writeTo(out);
+    if (!this.fits(smallest.size()) && (this.listener != null)) {
+      this.listener.budgetExceeded(context, smallest.size(), this.budget);
+    }
+  }
+
+  private static ByteArrayOutputStream smaller(ByteArrayOutputStream a, ByteArrayOutputStream b) {
+    return b.size() < a.size() ? b : a;
+  }
+
+}
@@ -0,0 +1,30 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.util.Map;
+
+/**
+ * Notified when a serialized context exceeds the size budget even in the
+ * most compact encoding.
+ * <p>
+ * Such contexts are stored by {@code JdbcExecutionContextDao} in the
+ * {@code SERIALIZED_CONTEXT} CLOB column. Listeners are called on the
+ * thread that saves the context, during a step this is usually the step
+ * thread so
+ * {@link org.springframework.batch.core.scope.context.StepSynchronizationManager#getContext()}
+ * can be used to identify the step.
+ *
+ * @see JsonbExecutionContextSerializer.Builder#sizeBudget(int, SizeBudgetListener)
+ */
+@FunctionalInterface
+public interface SizeBudgetListener {
+
+  /**
+   * Called when a serialized context exceeds the size budget.
+   *
+   * @param context the context that was serialized, must not be modified
+   * @param size the size of the serialized context in bytes
+   * @param budget the size budget in bytes
+   */
+  void budgetExceeded(Map<String, Object> context, int size, int budget);
+
+}
@@ -0,0 +1,75 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+/**
+ * Deduplicates the keys and short string values of deserialized contexts.
+ * <p>
+ * Contexts of the same step share their keys and often values like file
+ * names or statuses. When many contexts are loaded at once, for example by
+ * a {@code JobExplorer}, every context would otherwise retain its own copy
+ * of these strings. The string read from the parser is dropped right away
+ * if an equal one is already in the table.
+ * <p>
+ * The table is direct mapped: a string replaces the one in its slot, so
+ * the memory retained is bounded by the capacity without any bookkeeping.
+ * The table is shared by all threads without locking. Strings are
+ * immutable so a racy read sees either a complete string or {@code null},
+ * a lost update only costs a duplicate.
+ */
+final class StringInterner {
+
+  private final String[] table;
+
+  private final int mask;
+
+  private final int maxValueLength;
+
+  /**
+   * Creates a new interner.
+   *
+   * @param capacity the number of slots, rounded up to a power of two
+   * @param maxValueLength the maximum length of values to intern, keys are
+   *        always interned
+   */
+  StringInterner(int capacity, int maxValueLength) {
+    int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+    this.table = new String[size];
+    this.mask = size - 1;
+    this.maxValueLength = maxValueLength;
+  }
+
+  /**
+   * Interns the key of an entry.
+   *
+   * @param key the key as read from the parser
+   * @return an equal key, possibly the same instance
+   */
+  String internKey(String key) {
+    return this.intern(key);
+  }
+
+  /**
+   * Interns a string value if it is short enough.
+   *
+   * @param value the value as read from the parser
+   * @return an equal value, possibly the same instance
+   */
+  String internValue(String value) {
+    if (value.length() > this.maxValueLength) {
+      return value;
+    }
+    return this.intern(value);
+  }
+
+  private String intern(String s) {
+    int hash = s.hashCode();
+    // spread the high bits, the low bits of similar keys are often equal
+    int index = (hash ^ (hash >>> 16)) & this.mask;
+    String cached = this.table[index];
+    if (s.equals(cached)) {
+      return cached;
+    }
+    this.table[index] = s;
+    return s;
+  }
+
+}
@@ -0,0 +1,150 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Short names for types used by the compact format instead of fully
+ * qualified class names.
+ * <p>
+ * Instances are immutable.
+ */
+final class TypeAliases {
+
+  private static final Map<String, Class<?>> DEFAULT_ALIASES;
+
+  static {
+    List<Class<?>> simpleNameClasses = List.of(
+        String.class,
+        Byte.class,
+        Short.class,
+        Integer.class,
+        Long.class,
+        Float.class,
+        Double.class,
+        Boolean.class,
+        java.math.BigDecimal.class,
+        java.math.BigInteger.class,
+
+        java.util.Date.class,
+        java.util.Locale.class,
+        java.net.URL.class,
+        java.net.URI.class,
+
+        java.time.LocalDate.class,
+        java.time.LocalTime.class,
+        java.time.LocalDateTime.class,
+        java.time.OffsetDateTime.class,
+        java.time.ZonedDateTime.class,
+        java.time.Instant.class,
+        java.time.Duration.class,
+        java.time.Period.class,
+
+        java.util.List.class,
+        java.util.Map.class,
+        java.util.Set.class,
+        java.util.ArrayList.class,
+        java.util.HashMap.class,
+        java.util.LinkedHashMap.class,
+        java.util.HashSet.class,
+        java.util.LinkedHashSet.class,
+
+        org.springframework.batch.core.JobParameter.class,
+        org.springframework.batch.core.JobParameters.class);
+
+    Map<String, Class<?>> aliases = new HashMap<>();
+    for (Class<?> simpleNameClass : simpleNameClasses) {
+      aliases.put(simpleNameClass.getSimpleName(), simpleNameClass);
+    }
+    // simple names clash with java.util.Date
+    aliases.put("SqlDate", java.sql.Date.class);
+    aliases.put("SqlTime", java.sql.Time.class);
+    aliases.put("SqlTimestamp", java.sql.Timestamp.class);
+    // homogeneous lists of numbers, only written with numeric sequences enabled
+    aliases.put("List<Long>", PrimitiveLists.LongList.class);
+    aliases.put("List<Integer>", PrimitiveLists.IntList.class);
+    aliases.put("List<Double>", PrimitiveLists.DoubleList.class);
+    DEFAULT_ALIASES = Map.copyOf(aliases);
+  }
+
+  private static final TypeAliases DEFAULT = new TypeAliases(DEFAULT_ALIASES);
+
+  private final Map<String, Class<?>> classesByAlias;
+
+  private final Map<Class<?>, String> aliasesByClass;
+
+  private TypeAliases(Map<String, Class<?>> classesByAlias) {
+    this.classesByAlias = classesByAlias;
+    Map<Class<?>, String> aliasesByClass = new HashMap<>();
+    for (Entry<String, Class<?>> entry : classesByAlias.entrySet()) {
+      aliasesByClass.put(entry.getValue(), entry.getKey());
+    }
+    this.aliasesByClass = Map.copyOf(aliasesByClass);
+  }
+
+  /**
+   * Returns the default aliases.
+   *
+   * @return the default aliases
+   */
+  static TypeAliases defaults() {
+    return DEFAULT;
+  }
+
+  /**
+   * Creates aliases consisting of the default aliases and additional user aliases.
+   *
+   * @param additionalAliases user defined aliases by alias name
+   * @return the combined aliases
+   * @throws IllegalArgumentException if an alias is not valid or already used
+   */
+  static TypeAliases withAdditionalAliases(Map<String, Class<?>> additionalAliases) {
+    if (additionalAliases.isEmpty()) {
+      return DEFAULT;
+    }
+    Map<String, Class<?>> classesByAlias = new HashMap<>(DEFAULT_ALIASES);
+    for (Entry<String, Class<?>> entry : additionalAliases.entrySet()) {
+      String alias = entry.getKey();
+      Class<?> type = entry.getValue();
+      validateAlias(alias);
+      if (classesByAlias.containsKey(alias)) {
+        throw new IllegalArgumentException("alias: " + alias + " already used for: " + classesByAlias.get(alias).getName());
+      }
+      classesByAlias.put(alias, type);
+    }
+    return new TypeAliases(Map.copyOf(classesByAlias));
+  }
+
+  static void validateAlias(String alias) {
+    if (alias.isEmpty()) {
+      throw new IllegalArgumentException("alias must not be empty");
+    }
+    // aliases must never be confused with class names
+    if ((alias.indexOf('.') != -1) || (alias.indexOf('[') != -1)) {
+      throw new IllegalArgumentException("alias must not contain '.' or '[': " + alias);
+    }
+  }
+
+  /**
+   * Looks up the type for an alias.
+   *
+   * @param alias the alias to look up
+   * @return the type, {@code null} if the alias is not known
+   */
+  Class<?> resolveAlias(String alias) {
+    return this.classesByAlias.get(alias);
+  }
+
+  /**
+   * Looks up the alias of a type.
+   *
+   * @param type the type to look up
+   * @return the alias, {@code null} if the type has no alias
+   */
+  String getAlias(Class<?> type) {
+    return this.aliasesByClass.get(type);
+  }
+
+}
@@ -0,0 +1,185 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+
+import jakarta.json.bind.JsonbBuilder;
+
+class BinaryExecutionContextSerializerTests extends AbstractExecutionContextSerializerTests {
+
+  private ExecutionContextSerializer serializer;
+
+  @BeforeEach
+  void onSetUp() {
+    this.serializer = JsonbExecutionContextSerializer.builder()
+                                                     .binaryFormat()
+                                                     .build();
+  }
+
+  @Override
+  protected ExecutionContextSerializer getSerializer() {
+    return this.serializer;
+  }
+
+  @Test
+  void binaryContextReadableByDefaultSerializer() throws IOException {
+    Map<String, Object> context = largeContext();
+    ExecutionContextSerializer defaultSerializer = new JsonbExecutionContextSerializer();
+
+    String serialized = this.serializeToString(this.serializer, context);
+
+    assertTrue(serialized.startsWith("#bc:"), serialized);
+    assertEquals(context, this.deserializeFromString(defaultSerializer, serialized));
+    assertEquals(context, this.deserializeFromString(this.serializer, this.serializeToString(defaultSerializer, context)));
+  }
+
+  @Test
+  void smallerThanJson() throws IOException {
+    // Base64 eats most of the savings for strings, numbers are considerably smaller
+    List<Double> ratios = new ArrayList<>();
+    for (int i = 1; i <= 100; i++) {
+      ratios.add(i / 7.0d);
+    }
+    Map<String, Object> context = Map.of(
+        "FlatFileItemReader.read.count", 123456789L,
+        "ratios", ratios);
+    ExecutionContextSerializer compactBinary = JsonbExecutionContextSerializer.builder()
+                                                                              .compactFormat()
+                                                                              .binaryFormat()
+                                                                              .build();
+    ExecutionContextSerializer compactJson = JsonbExecutionContextSerializer.builder()
+                                                                            .compactFormat()
+                                                                            .build();
+
+    String binary = this.serializeToString(compactBinary, context);
+    String json = this.serializeToString(compactJson, context);
+
+    assertTrue(binary.length() < json.length(), binary);
+    // list elements are not typed, compare with what the JSON format reads
+    assertEquals(this.deserializeFromString(compactJson, json), this.deserializeFromString(compactBinary, binary));
+  }
+
+  @Test
+  void numbers() throws IOException {
+    Map<String, Object> context = new HashMap<>();
+    context.put("negative", -1L);
+    context.put("min", Long.MIN_VALUE);
+    context.put("max", Long.MAX_VALUE);
+    context.put("bigPositive", new BigInteger("123456789012345678901234567890"));
+    context.put("bigNegative", new BigInteger("-123456789012345678901234567890"));
+    context.put("decimal", new BigDecimal("-12.345"));
+    context.put("largeDecimal", new BigDecimal("12345678901234567890.12345678901234567890"));
+    context.put("exponent", new BigDecimal("1E+3"));
+    context.put("double", -0.1d);
+    context.put("float", 1.1f);
+    context.put("short", (short) -300);
+    context.put("byte", (byte) 7);
+
+    assertEquals(context, this.serializer.deserialize(this.serialize(this.serializer, context)));
+  }
+
+  @Test
+  void compressed() throws IOException {
+    ExecutionContextSerializer compressedSerializer = JsonbExecutionContextSerializer.builder()
+                                                                                     .binaryFormat()
+                                                                                     .compression(CompressionCodec.deflate(), 0)
+                                                                                     .build();
+    Map<String, Object> context = largeContext();
+
+    String serialized = this.serializeToString(compressedSerializer, context);
+
+    assertTrue(serialized.startsWith("#zd:"), serialized);
+    assertEquals(context, this.deserializeFromString(new JsonbExecutionContextSerializer(), serialized));
+  }
+
+  @Test
+  void transcode() throws IOException {
+    Map<String, Object> context = largeContext();
+    context.put("date", LocalDate.of(2023, 6, 17));
+    context.put("amount", new BigDecimal("1.50"));
+    context.put("big", new BigInteger("123456789012345678901234567890"));
+    ExecutionContextSerializer defaultSerializer = new JsonbExecutionContextSerializer();
+    ByteArrayOutputStream json = new ByteArrayOutputStream();
+    defaultSerializer.serialize(context, json);
+
+    ByteArrayOutputStream binary = new ByteArrayOutputStream();
+    ExecutionContextTranscoder.toBinary(new ByteArrayInputStream(json.toByteArray()), binary);
+    assertTrue(binary.toString(UTF_8).startsWith("#bc:"));
+    assertEquals(context, defaultSerializer.deserialize(new ByteArrayInputStream(binary.toByteArray())));
+
+    ByteArrayOutputStream transcodedJson = new ByteArrayOutputStream();
+    ExecutionContextTranscoder.toJson(new ByteArrayInputStream(binary.toByteArray()), transcodedJson);
+    assertEquals(context, defaultSerializer.deserialize(new ByteArrayInputStream(transcodedJson.toByteArray())));
+    assertEquals(JsonbBuilder.create().fromJson(json.toString(UTF_8), Object.class),
+        JsonbBuilder.create().fromJson(transcodedJson.toString(UTF_8), Object.class));
+  }
+
+  @Test
+  void transcodeCompressed() throws IOException {
+    ExecutionContextSerializer compressedSerializer = JsonbExecutionContextSerializer.builder()
+                                                                                     .binaryFormat()
+                                                                                     .compression(CompressionCodec.deflate(), 0)
+                                                                                     .build();
+    Map<String, Object> context = largeContext();
+
+    ByteArrayOutputStream json = new ByteArrayOutputStream();
+    ExecutionContextTranscoder.toJson(this.serialize(compressedSerializer, context), json);
+
+    assertTrue(json.toString(UTF_8).startsWith("{"));
+    assertEquals(context, this.deserializeFromString(this.serializer, json.toString(UTF_8)));
+  }
+
+  @Test
+  void notReadableWithJsonbInstance() throws IOException {
+    ExecutionContextSerializer jsonbSerializer = new JsonbExecutionContextSerializer(JsonbBuilder.create());
+    String serialized = this.serializeToString(this.serializer, Map.of("count", 1L));
+
+    assertThrows(IOException.class, () -> this.deserializeFromString(jsonbSerializer, serialized));
+  }
+
+  private static Map<String, Object> largeContext() {
+    List<String> processed = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      processed.add("customer-" + i);
+    }
+    Map<String, Object> context = new HashMap<>();
+    context.put("processed", processed);
+    context.put("FlatFileItemReader.read.count", 100L);
+    return context;
+  }
+
+  private ByteArrayInputStream serialize(ExecutionContextSerializer serializer, Map<String, Object> context) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    serializer.serialize(context, outputStream);
+    return new ByteArrayInputStream(outputStream.toByteArray());
+  }
+
+  private String serializeToString(ExecutionContextSerializer serializer, Map<String, Object> context) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    serializer.serialize(context, outputStream);
+    // same conversion as JdbcExecutionContextDao
+    return outputStream.toString(UTF_8);
+  }
+
+  private Map<String, Object> deserializeFromString(ExecutionContextSerializer serializer, String serialized) throws IOException {
+    return serializer.deserialize(new ByteArrayInputStream(serialized.getBytes(UTF_8)));
+  }
+
+}
@@ -0,0 +1,268 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+import org.springframework.batch.item.ExecutionContext;
+
+import jakarta.json.bind.JsonbException;
+
+class BulkExecutionContextSerializerTests extends AbstractExecutionContextSerializerTests {
+
+  private JsonbExecutionContextSerializer serializer;
+
+  @BeforeEach
+  void onSetUp() {
+    this.serializer = JsonbExecutionContextSerializer.builder()
+                                                     .compactFormat()
+                                                     .build();
+  }
+
+  @Override
+  protected ExecutionContextSerializer getSerializer() {
+    return this.serializer;
+  }
+
+  @Test
+  void roundTripPreservesOrder() throws IOException {
+    List<Map<String, Object>> contexts = sampleContexts(100);
+
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      List<byte[]> serialized = this.serializer.serializeAll(contexts, executor);
+      assertEquals(contexts.size(), serialized.size());
+      for (int i = 0; i < contexts.size(); i++) {
+        assertArrayEquals(this.serialize(contexts.get(i)), serialized.get(i));
+      }
+      assertEquals(contexts, this.serializer.deserializeAll(serialized, executor));
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(contexts, this.serializer.deserializeAll(this.serializer.serializeAll(contexts)));
+    assertEquals(List.of(), this.serializer.serializeAll(List.of()));
+  }
+
+  @Test
+  void failurePropagated() {
+    List<byte[]> serialized = new ArrayList<>();
+    for (int i = 0; i < 64; i++) {
+      serialized.add("{}".getBytes());
+    }
+    serialized.set(serialized.size() - 1, "{".getBytes());
+
+    assertThrows(JsonbException.class, () -> this.serializer.deserializeAll(serialized));
+  }
+
+  @Test
+  void daoSerializesOnce() {
+    AtomicInteger serializations = new AtomicInteger();
+    List<StepExecution> stepExecutions = new ArrayList<>();
+    JobExecution jobExecution = new JobExecution(1L);
+    for (int i = 0; i < 10; i++) {
+      StepExecution stepExecution = new StepExecution("step" + i, jobExecution, (long) i);
+      stepExecution.getExecutionContext().putInt("partition", i);
+      stepExecution.getExecutionContext().put("counted", new Counted(i, serializations));
+      stepExecutions.add(stepExecution);
+    }
+    SerializingDao delegate = new SerializingDao(this.serializer);
+
+    new BulkExecutionContextDao(delegate, this.serializer).saveExecutionContexts(stepExecutions);
+
+    assertEquals(stepExecutions.size(), serializations.get());
+    assertEquals(stepExecutions.size(), delegate.saved.size());
+    for (int i = 0; i < stepExecutions.size(); i++) {
+      Map<String, Object> saved = this.deserialize(delegate.saved.get(i));
+      assertEquals(i, saved.get("partition"));
+      assertEquals(new Counted(i, serializations), saved.get("counted"));
+    }
+
+    // the actual DAO serializes contexts that are not handed to it serialized
+    delegate.saveExecutionContext(stepExecutions.get(0));
+    assertEquals(stepExecutions.size() + 1, serializations.get());
+  }
+
+  private Map<String, Object> deserialize(byte[] serialized) {
+    try {
+      return this.serializer.deserialize(new ByteArrayInputStream(serialized));
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private byte[] serialize(Map<String, Object> context) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    this.serializer.serialize(context, outputStream);
+    return outputStream.toByteArray();
+  }
+
+  private static List<Map<String, Object>> sampleContexts(int count) {
+    List<Map<String, Object>> contexts = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      Map<String, Object> context = new LinkedHashMap<>();
+      context.put("FlatFileItemReader.read.count", (long) i);
+      context.put("FlatFileItemReader.resource", "customers-" + i + ".csv");
+      contexts.add(context);
+    }
+    return contexts;
+  }
+
+  /**
+   * Counts how often it is serialized.
+   */
+  public static final class Counted {
+
+    private int value;
+
+    private AtomicInteger serializations;
+
+    public Counted() {
+      this.serializations = new AtomicInteger();
+    }
+
+    Counted(int value, AtomicInteger serializations) {
+      this.value = value;
+      this.serializations = serializations;
+    }
+
+    public int getValue() {
+      this.serializations.incrementAndGet();
+      return this.value;
+    }
+
+    public void setValue(int value) {
+      this.value = value;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return (obj instanceof Counted other) && (this.value == other.value);
+    }
+
+    @Override
+    public int hashCode() {
+      return this.value;
+    }
+
+  }
+
+  /**
+   * Serializes contexts like {@code JdbcExecutionContextDao}.
+   */
+  static final class SerializingDao implements SerializedExecutionContextDao {
+
+    private final ExecutionContextSerializer serializer;
+
+    final List<byte[]> saved;
+
+    SerializingDao(ExecutionContextSerializer serializer) {
+      this.serializer = serializer;
+      this.saved = new ArrayList<>();
+    }
+
+    private void save(byte[] serializedContext) {
+      this.saved.add(serializedContext);
+    }
+
+    private void save(ExecutionContext executionContext) {
+      Map<String, Object> context = new HashMap<>();
+      for (Map.Entry<String, Object> entry : executionContext.entrySet()) {
+        context.put(entry.getKey(), entry.getValue());
+      }
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      try {
+        this.serializer.serialize(context, outputStream);
+      } catch (IOException e) {
+        throw new AssertionError(e);
+      }
+      this.saved.add(outputStream.toByteArray());
+    }
+
+    @Override
+    public ExecutionContext getExecutionContext(JobExecution jobExecution) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ExecutionContext getExecutionContext(StepExecution stepExecution) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void saveExecutionContext(JobExecution jobExecution) {
+      this.save(jobExecution.getExecutionContext());
+    }
+
+    @Override
+    public void saveExecutionContext(StepExecution stepExecution) {
+      this.save(stepExecution.getExecutionContext());
+    }
+
+    @Override
+    public void saveExecutionContexts(Collection<StepExecution> stepExecutions) {
+      for (StepExecution stepExecution : stepExecutions) {
+        this.save(stepExecution.getExecutionContext());
+      }
+    }
+
+    @Override
+    public void updateExecutionContext(JobExecution jobExecution) {
+      this.save(jobExecution.getExecutionContext());
+    }
+
+    @Override
+    public void updateExecutionContext(StepExecution stepExecution) {
+      this.save(stepExecution.getExecutionContext());
+    }
+
+    @Override
+    public void saveExecutionContext(JobExecution jobExecution, byte[] serializedContext) {
+      this.save(serializedContext);
+    }
+
+    @Override
+    public void saveExecutionContext(StepExecution stepExecution, byte[] serializedContext) {
+      this.save(serializedContext);
+    }
+
+    @Override
+    public void saveExecutionContexts(List<StepExecution> stepExecutions, List<byte[]> serializedContexts) {
+      assertEquals(stepExecutions.size(), serializedContexts.size());
+      for (byte[] serializedContext : serializedContexts) {
+        this.save(serializedContext);
+      }
+    }
+
+    @Override
+    public void updateExecutionContext(JobExecution jobExecution, byte[] serializedContext) {
+      this.save(serializedContext);
+    }
+
+    @Override
+    public void updateExecutionContext(StepExecution stepExecution, byte[] serializedContext) {
+      this.save(serializedContext);
+    }
+
+  }
+
+}
@@ -0,0 +1,170 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import com.github.marschall.jsonbexecutioncontextserializer.BulkExecutionContextSerializerTests.Counted;
+import com.github.marschall.jsonbexecutioncontextserializer.BulkExecutionContextSerializerTests.SerializingDao;
+
+class CanonicalExecutionContextSerializerTests extends AbstractExecutionContextSerializerTests {
+
+  private JsonbExecutionContextSerializer serializer;
+
+  @BeforeEach
+  void onSetUp() {
+    this.serializer = JsonbExecutionContextSerializer.builder()
+                                                     .canonicalOutput()
+                                                     .build();
+  }
+
+  @Override
+  protected ExecutionContextSerializer getSerializer() {
+    return this.serializer;
+  }
+
+  @Test
+  void sortedByKey() throws IOException {
+    Map<String, Object> context = new LinkedHashMap<>();
+    context.put("b", "second");
+    context.put("a", "first");
+
+    assertEquals("{\"a\":{\"@class\":\"java.lang.String\",\"value\":\"first\"},\"b\":{\"@class\":\"java.lang.String\",\"value\":\"second\"}}",
+        new String(this.serialize(this.serializer, context), UTF_8));
+    assertEquals("{\"b\":{\"@class\":\"java.lang.String\",\"value\":\"second\"},\"a\":{\"@class\":\"java.lang.String\",\"value\":\"first\"}}",
+        new String(this.serialize(new JsonbExecutionContextSerializer(), context), UTF_8));
+  }
+
+  @Test
+  void equalContextsIdentical() throws IOException {
+    for (boolean compact : new boolean[] {false, true}) {
+      JsonbExecutionContextSerializer.Builder builder = JsonbExecutionContextSerializer.builder().canonicalOutput();
+      if (compact) {
+        builder.compactFormat();
+      }
+      JsonbExecutionContextSerializer canonical = builder.build();
+      Map<String, Object> small = new HashMap<>();
+      Map<String, Object> grown = new HashMap<>();
+      for (int i = 0; i < 100; i++) {
+        grown.put("removed" + i, i);
+      }
+      for (int i = 0; i < 12; i++) {
+        small.put("key" + i, (long) i);
+        grown.put("key" + (11 - i), (long) (11 - i));
+      }
+      grown.keySet().removeIf(key -> key.startsWith("removed"));
+
+      assertEquals(small, grown);
+      assertArrayEquals(this.serialize(canonical, small), this.serialize(canonical, grown));
+    }
+  }
+
+  @Test
+  void unchangedUpdatesSkipped() {
+    AtomicInteger serializations = new AtomicInteger();
+    StepExecution stepExecution = new StepExecution("step", new JobExecution(1L), 2L);
+    stepExecution.getExecutionContext().put("counted", new Counted(1, serializations));
+    stepExecution.getExecutionContext().putLong("read.count", 0L);
+    SerializingDao delegate = new SerializingDao(this.serializer);
+    ChangeDetectingExecutionContextDao dao = new ChangeDetectingExecutionContextDao(delegate, this.serializer);
+
+    dao.saveExecutionContext(stepExecution);
+    dao.updateExecutionContext(stepExecution);
+    dao.updateExecutionContext(stepExecution);
+    assertEquals(1, delegate.saved.size());
+
+    stepExecution.getExecutionContext().putLong("read.count", 10L);
+    dao.updateExecutionContext(stepExecution);
+    dao.updateExecutionContext(stepExecution);
+    assertEquals(2, delegate.saved.size());
+    // one serialization per call, written contexts are not serialized again
+    assertEquals(5, serializations.get());
+
+    JobExecution jobExecution = new JobExecution(3L);
+    jobExecution.getExecutionContext().putString("status", "running");
+    dao.saveExecutionContext(jobExecution);
+    dao.updateExecutionContext(jobExecution);
+    assertEquals(3, delegate.saved.size());
+
+    // a new execution with the same context is written
+    dao.saveExecutionContexts(List.of(new StepExecution("step", new JobExecution(1L), 4L)));
+    assertEquals(4, delegate.saved.size());
+  }
+
+  @Test
+  void stackedDaosSerializeOnce() {
+    AtomicInteger serializations = new AtomicInteger();
+    List<StepExecution> stepExecutions = new ArrayList<>();
+    JobExecution jobExecution = new JobExecution(1L);
+    for (int i = 0; i < 4; i++) {
+      StepExecution stepExecution = new StepExecution("step" + i, jobExecution, (long) i);
+      stepExecution.getExecutionContext().put("counted", new Counted(i, serializations));
+      stepExecutions.add(stepExecution);
+    }
+
+    SerializingDao delegate = new SerializingDao(this.serializer);
+    new ChangeDetectingExecutionContextDao(new BulkExecutionContextDao(delegate, this.serializer), this.serializer)
+      .saveExecutionContexts(stepExecutions);
+    assertEquals(stepExecutions.size(), delegate.saved.size());
+    assertEquals(stepExecutions.size(), serializations.get());
+
+    delegate = new SerializingDao(this.serializer);
+    serializations.set(0);
+    new BulkExecutionContextDao(new ChangeDetectingExecutionContextDao(delegate, this.serializer), this.serializer)
+      .saveExecutionContexts(stepExecutions);
+    assertEquals(stepExecutions.size(), delegate.saved.size());
+    assertEquals(stepExecutions.size(), serializations.get());
+  }
+
+  @Test
+  void rolledBackUpdatesNotSkipped() {
+    StepExecution stepExecution = new StepExecution("step", new JobExecution(1L), 2L);
+    stepExecution.getExecutionContext().putLong("read.count", 0L);
+    SerializingDao delegate = new SerializingDao(this.serializer);
+    ChangeDetectingExecutionContextDao dao = new ChangeDetectingExecutionContextDao(delegate, this.serializer);
+    dao.saveExecutionContext(stepExecution);
+
+    stepExecution.getExecutionContext().putLong("read.count", 10L);
+    this.inTransaction(() -> dao.updateExecutionContext(stepExecution), TransactionSynchronization.STATUS_ROLLED_BACK);
+    assertEquals(2, delegate.saved.size());
+    this.inTransaction(() -> dao.updateExecutionContext(stepExecution), TransactionSynchronization.STATUS_COMMITTED);
+    assertEquals(3, delegate.saved.size());
+    this.inTransaction(() -> dao.updateExecutionContext(stepExecution), TransactionSynchronization.STATUS_COMMITTED);
+    assertEquals(3, delegate.saved.size());
+  }
+
+  private void inTransaction(Runnable action, int completionStatus) {
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      action.run();
+      TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(), completionStatus);
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  private byte[] serialize(ExecutionContextSerializer serializer, Map<String, Object> context) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    serializer.serialize(context, outputStream);
+    return outputStream.toByteArray();
+  }
+
+}
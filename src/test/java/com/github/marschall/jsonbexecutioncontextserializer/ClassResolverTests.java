@@ -0,0 +1,68 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ClassResolverTests {
+
+  private ClassResolver classResolver;
+
+  @BeforeEach
+  void setUp() {
+    this.classResolver = new ClassResolver();
+  }
+
+  @Test
+  void hit() throws ClassNotFoundException {
+    assertSame(ClassResolverTests.class, this.classResolver.resolveClass(ClassResolverTests.class.getName()));
+    assertSame(ClassResolverTests.class, this.classResolver.resolveClass(ClassResolverTests.class.getName()));
+  }
+
+  @Test
+  void miss() {
+    String className = "com.acme.DoesNotExist";
+    assertThrows(ClassNotFoundException.class, () -> this.classResolver.resolveClass(className));
+    assertThrows(ClassNotFoundException.class, () -> this.classResolver.resolveClass(className));
+  }
+
+  @Test
+  void arrayClass() throws ClassNotFoundException {
+    assertSame(long[].class, this.classResolver.resolveClass(long[].class.getName()));
+  }
+
+  @Test
+  void nullContextClassLoader() throws ClassNotFoundException {
+    Thread currentThread = Thread.currentThread();
+    ClassLoader contextClassLoader = currentThread.getContextClassLoader();
+    currentThread.setContextClassLoader(null);
+    try {
+      assertSame(ClassResolverTests.class, this.classResolver.resolveClass(ClassResolverTests.class.getName()));
+    } finally {
+      currentThread.setContextClassLoader(contextClassLoader);
+    }
+  }
+
+  @Test
+  void perClassLoader() throws Exception {
+    String className = ClassResolverTests.class.getName();
+    // resolve a miss with a class loader that can only see JDK classes
+    Thread currentThread = Thread.currentThread();
+    ClassLoader contextClassLoader = currentThread.getContextClassLoader();
+    try (URLClassLoader isolated = new URLClassLoader(new URL[0], ClassLoader.getPlatformClassLoader())) {
+      currentThread.setContextClassLoader(isolated);
+      assertThrows(ClassNotFoundException.class, () -> this.classResolver.resolveClass(className));
+    } finally {
+      currentThread.setContextClassLoader(contextClassLoader);
+    }
+
+    // the miss must not leak into the cache of a different class loader
+    assertSame(ClassResolverTests.class, this.classResolver.resolveClass(className));
+  }
+
+}
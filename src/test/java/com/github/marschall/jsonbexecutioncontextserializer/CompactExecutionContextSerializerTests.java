@@ -0,0 +1,122 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobParameter;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+
+import jakarta.json.bind.JsonbException;
+
+class CompactExecutionContextSerializerTests extends AbstractExecutionContextSerializerTests {
+
+  private ExecutionContextSerializer serializer;
+
+  @BeforeEach
+  void onSetUp() {
+    this.serializer = JsonbExecutionContextSerializer.builder()
+                                                     .compactFormat()
+                                                     .build();
+  }
+
+  @Override
+  protected ExecutionContextSerializer getSerializer() {
+    return this.serializer;
+  }
+
+  @Test
+  void compactOutput() throws IOException {
+    Map<String, Object> context = new LinkedHashMap<>();
+    context.put("count", 12345L);
+    context.put("name", "OBJECT TWO");
+    context.put("done", Boolean.TRUE);
+    context.put("amount", new BigDecimal("1.5"));
+    context.put("date", LocalDate.of(2023, 6, 17));
+    context.put("parameter", new JobParameter<>("value", String.class));
+
+    assertEquals("{\"@v\":2,"
+        + "\"count\":12345,"
+        + "\"name\":\"OBJECT TWO\","
+        + "\"done\":true,"
+        + "\"amount\":[\"BigDecimal\",1.5],"
+        + "\"date\":[\"LocalDate\",\"2023-06-17\"],"
+        + "\"parameter\":[\"JobParameter\",{\"type\":\"String\",\"value\":\"value\"}]}",
+        this.serializeToString(this.serializer, context));
+  }
+
+  @Test
+  void readDefaultFormat() throws IOException {
+    Map<String, Object> context = Map.of(
+        "count", 12345L,
+        "date", LocalDate.of(2023, 6, 17),
+        "list", List.of("foo", "bar"));
+
+    ExecutionContextSerializer defaultSerializer = new JsonbExecutionContextSerializer();
+
+    assertEquals(context, this.serializer.deserialize(this.serialize(defaultSerializer, context)));
+    assertEquals(context, defaultSerializer.deserialize(this.serialize(this.serializer, context)));
+  }
+
+  @Test
+  void userAlias() throws IOException {
+    ExecutionContextSerializer aliasSerializer = JsonbExecutionContextSerializer.builder()
+                                                                                .compactFormat()
+                                                                                .typeAlias("Complex", ComplexObject.class)
+                                                                                .build();
+    ComplexObject complexObject = new ComplexObject();
+    complexObject.setName("OBJECT");
+    Map<String, Object> context = Map.of("complex", complexObject);
+
+    assertEquals("{\"@v\":2,\"complex\":[\"Complex\",{\"name\":\"OBJECT\"}]}", this.serializeToString(aliasSerializer, context));
+    assertEquals(context, aliasSerializer.deserialize(this.serialize(aliasSerializer, context)));
+  }
+
+  @Test
+  void invalidAlias() {
+    JsonbExecutionContextSerializer.Builder builder = JsonbExecutionContextSerializer.builder();
+    assertThrows(IllegalArgumentException.class, () -> builder.typeAlias("java.util.Map", Map.class));
+    assertThrows(IllegalArgumentException.class, () -> builder.typeAlias("", Map.class));
+    assertThrows(IllegalArgumentException.class, () -> builder.typeAlias("String", HashMap.class).build());
+  }
+
+  @Test
+  void longOutOfRange() {
+    String json = "{\"@v\":2,\"count\":9223372036854775808}";
+    assertThrows(JsonbException.class, () -> this.serializer.deserialize(new ByteArrayInputStream(json.getBytes(UTF_8))));
+  }
+
+  @Test
+  void unsupportedVersion() {
+    // 2^32 + 2 wraps to 2 as int
+    for (String version : new String[] {"3", "4294967298"}) {
+      String json = "{\"@v\":" + version + ",\"count\":1}";
+      assertThrows(JsonbException.class, () -> this.serializer.deserialize(new ByteArrayInputStream(json.getBytes(UTF_8))), version);
+    }
+  }
+
+  private ByteArrayInputStream serialize(ExecutionContextSerializer serializer, Map<String, Object> context) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    serializer.serialize(context, outputStream);
+    return new ByteArrayInputStream(outputStream.toByteArray());
+  }
+
+  private String serializeToString(ExecutionContextSerializer serializer, Map<String, Object> context) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    serializer.serialize(context, outputStream);
+    return outputStream.toString(UTF_8);
+  }
+
+}
@@ -0,0 +1,145 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+
+class CompressionExecutionContextSerializerTests extends AbstractExecutionContextSerializerTests {
+
+  private ExecutionContextSerializer serializer;
+
+  @BeforeEach
+  void onSetUp() {
+    this.serializer = JsonbExecutionContextSerializer.builder()
+                                                     .compression(CompressionCodec.deflate(), 0)
+                                                     .build();
+  }
+
+  @Override
+  protected ExecutionContextSerializer getSerializer() {
+    return this.serializer;
+  }
+
+  @Test
+  void compressedContextReadableWithoutCompression() throws IOException {
+    Map<String, Object> context = largeContext();
+
+    String serialized = this.serializeToString(this.serializer, context);
+
+    assertTrue(serialized.startsWith("#zd:"), serialized);
+    assertTrue(serialized.length() < this.serializeToString(new JsonbExecutionContextSerializer(), context).length());
+    assertEquals(context, this.deserializeFromString(new JsonbExecutionContextSerializer(), serialized));
+  }
+
+  @Test
+  void belowThreshold() throws IOException {
+    ExecutionContextSerializer thresholdSerializer = JsonbExecutionContextSerializer.builder()
+                                                                                    .compression(CompressionCodec.deflate(), 1024)
+                                                                                    .build();
+    Map<String, Object> small = Map.of("count", 1L);
+    Map<String, Object> large = largeContext();
+
+    assertEquals(this.serializeToString(new JsonbExecutionContextSerializer(), small), this.serializeToString(thresholdSerializer, small));
+    assertTrue(this.serializeToString(thresholdSerializer, large).startsWith("#zd:"));
+    assertEquals(large, this.deserializeFromString(thresholdSerializer, this.serializeToString(thresholdSerializer, large)));
+  }
+
+  @Test
+  void gzip() throws IOException {
+    ExecutionContextSerializer gzipSerializer = JsonbExecutionContextSerializer.builder()
+                                                                               .compression(CompressionCodec.gzip(), 0)
+                                                                               .build();
+    Map<String, Object> context = largeContext();
+
+    String serialized = this.serializeToString(gzipSerializer, context);
+
+    assertTrue(serialized.startsWith("#zg:"), serialized);
+    assertEquals(context, this.deserializeFromString(this.serializer, serialized));
+  }
+
+  @Test
+  void customCodec() throws IOException {
+    CompressionCodec identity = new IdentityCodec('i');
+    ExecutionContextSerializer customSerializer = JsonbExecutionContextSerializer.builder()
+                                                                                 .compression(identity, 0)
+                                                                                 .build();
+    Map<String, Object> context = largeContext();
+
+    String serialized = this.serializeToString(customSerializer, context);
+
+    assertTrue(serialized.startsWith("#zi:"), serialized);
+    assertEquals(context, this.deserializeFromString(customSerializer, serialized));
+    // the default serializer does not know the codec
+    assertThrows(IOException.class, () -> this.deserializeFromString(this.serializer, serialized));
+  }
+
+  @Test
+  void invalidCodecId() {
+    JsonbExecutionContextSerializer.Builder builder = JsonbExecutionContextSerializer.builder();
+    assertThrows(IllegalArgumentException.class, () -> builder.compression(new IdentityCodec('d'), 0).build());
+    assertThrows(IllegalArgumentException.class, () -> builder.compression(new IdentityCodec('{'), 0).build());
+  }
+
+  private static Map<String, Object> largeContext() {
+    List<String> processed = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      processed.add("customer-" + i);
+    }
+    Map<String, Object> context = new HashMap<>();
+    context.put("processed", processed);
+    context.put("FlatFileItemReader.read.count", 1000L);
+    return context;
+  }
+
+  private String serializeToString(ExecutionContextSerializer serializer, Map<String, Object> context) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    serializer.serialize(context, outputStream);
+    // same conversion as JdbcExecutionContextDao
+    return outputStream.toString(UTF_8);
+  }
+
+  private Map<String, Object> deserializeFromString(ExecutionContextSerializer serializer, String serialized) throws IOException {
+    return serializer.deserialize(new ByteArrayInputStream(serialized.getBytes(UTF_8)));
+  }
+
+  static final class IdentityCodec implements CompressionCodec {
+
+    private final char id;
+
+    IdentityCodec(char id) {
+      this.id = id;
+    }
+
+    @Override
+    public char getId() {
+      return this.id;
+    }
+
+    @Override
+    public OutputStream compress(OutputStream out) {
+      return out;
+    }
+
+    @Override
+    public InputStream decompress(InputStream in) {
+      return in;
+    }
+
+  }
+
+}
@@ -0,0 +1,118 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.batch.core.JobParameter;
+
+import com.github.marschall.jsonbexecutioncontextserializer.AbstractExecutionContextSerializerTests.ComplexObject;
+
+/**
+ * Shares a serializer between the threads of a simulated partitioned step,
+ * every partition has the same keys with different values.
+ */
+class ConcurrentExecutionContextSerializerTests {
+
+  private static final int ROUND_TRIPS = 200;
+
+  static Stream<Arguments> threads() {
+    List<Arguments> arguments = new ArrayList<>();
+    for (boolean virtual : new boolean[] {false, true}) {
+      for (int threadCount = 1; threadCount <= 64; threadCount *= 2) {
+        arguments.add(Arguments.of(threadCount, virtual));
+      }
+    }
+    return arguments.stream();
+  }
+
+  @ParameterizedTest(name = "{0} threads, virtual: {1}")
+  @MethodSource("threads")
+  void sharedSerializer(int threadCount, boolean virtual) throws Exception {
+    JsonbExecutionContextSerializer serializer = JsonbExecutionContextSerializer.builder()
+                                                                               .fragmentCache(64, 1024)
+                                                                               .build();
+    ExecutorService executor = newExecutor(threadCount, virtual);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<?>> partitions = new ArrayList<>(threadCount);
+      for (int i = 0; i < threadCount; i++) {
+        int partition = i;
+        partitions.add(executor.submit(() -> {
+          start.await();
+          for (int j = 0; j < ROUND_TRIPS; j++) {
+            Map<String, Object> context = partitionContext(partition, j);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            serializer.serialize(context, out);
+            assertEquals(context, serializer.deserialize(new ByteArrayInputStream(out.toByteArray())));
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> partition : partitions) {
+        try {
+          partition.get();
+        } catch (ExecutionException e) {
+          throw (Exception) e.getCause();
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static Map<String, Object> partitionContext(int partition, int chunk) {
+    ComplexObject state = new ComplexObject();
+    state.setName("partition" + partition);
+    state.setNumber(BigDecimal.valueOf(chunk));
+
+    Map<String, Object> context = new HashMap<>();
+    context.put("partition.name", "partition" + partition);
+    context.put("reader.read.count", (long) chunk * 10L);
+    context.put("state", state);
+    context.put("input.file", new JobParameter<>("file:/data/in/partition-" + partition + ".csv", String.class));
+    // no dedicated codecs, use the conversion service
+    context.put("input.uri", new JobParameter<>(URI.create("file:/data/in/" + partition), URI.class));
+    context.put("run.id", new JobParameter<>(new UUID(partition, chunk), UUID.class, false));
+    return context;
+  }
+
+  /**
+   * Virtual threads are only available on Java 21 and later, the tests are
+   * compiled for Java 17.
+   */
+  private static ExecutorService newExecutor(int threadCount, boolean virtual) throws ReflectiveOperationException {
+    if (!virtual) {
+      return Executors.newFixedThreadPool(threadCount);
+    }
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (NoSuchMethodException e) {
+      assumeTrue(false, "virtual threads not supported");
+      throw e;
+    } catch (InvocationTargetException e) {
+      throw (ReflectiveOperationException) e.getCause();
+    }
+  }
+
+}
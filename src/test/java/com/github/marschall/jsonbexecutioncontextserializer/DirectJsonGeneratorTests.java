@@ -0,0 +1,169 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import jakarta.json.spi.JsonProvider;
+import jakarta.json.stream.JsonGenerationException;
+import jakarta.json.stream.JsonGenerator;
+
+class DirectJsonGeneratorTests {
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "",
+      "ASCII text",
+      "quote \" backslash \\ slash /",
+      "\b\f\n\r\t \u0000 \u001f \u007f",
+      "\u00e4\u00f6\u00fc \u00ff",
+      "\u20ac \u4e2d\u6587",
+      "\ud83d\ude00"})
+  void stringsUtf8(String s) {
+    assertSameOutput(UTF_8, generator -> generator.writeStartArray().write(s).writeEnd());
+    assertSameOutput(UTF_8, generator -> generator.writeStartObject().write(s, s).writeEnd());
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "ASCII text",
+      "quote \" backslash \\",
+      "\b\f\n\r\t \u0000 \u001f",
+      "\u00e4\u00f6\u00fc \u00ff"})
+  void stringsLatin1(String s) {
+    assertSameOutput(ISO_8859_1, generator -> generator.writeStartObject().write(s, s).writeEnd());
+  }
+
+  @Test
+  void latin1Escapes() {
+    assertEquals("[\"\\u20ac \\ud83d\\ude00\"]", generate(ISO_8859_1, generator -> generator.writeStartArray().write("\u20ac \ud83d\ude00").writeEnd()));
+  }
+
+  @Test
+  void unpairedSurrogate() {
+    assertSameOutput(UTF_8, generator -> generator.writeStartArray().write("a\ud83db").write("\ude00").writeEnd());
+  }
+
+  @Test
+  void numbers() {
+    assertSameOutput(UTF_8, generator -> generator.writeStartArray()
+        .write(0)
+        .write(-1)
+        .write(Integer.MIN_VALUE)
+        .write(Long.MIN_VALUE)
+        .write(Long.MAX_VALUE)
+        .write(999_999_999_999_999_999L)
+        .write(1_000_000_000_000_000_000L)
+        .write(1.0d)
+        .write(-0.5d)
+        .write(1.0e20d)
+        .write(1.0e-7d)
+        .write(new BigDecimal("1E+3"))
+        .write(new BigDecimal("-12.50"))
+        .write(new BigInteger("123456789012345678901234567890"))
+        .writeEnd());
+  }
+
+  @Test
+  void nested() {
+    assertSameOutput(UTF_8, generator -> generator.writeStartObject()
+        .write("t", true)
+        .write("f", false)
+        .writeNull("n")
+        .writeStartArray("a")
+          .writeStartObject().writeEnd()
+          .writeStartArray().writeEnd()
+          .writeStartArray().writeStartArray().writeStartArray().writeStartArray().writeStartArray()
+          .writeStartArray().writeStartArray().writeStartArray().writeStartArray().write(1)
+          .writeEnd().writeEnd().writeEnd().writeEnd().writeEnd().writeEnd().writeEnd().writeEnd().writeEnd()
+          .writeNull()
+        .writeEnd()
+        .writeStartObject("o")
+          .writeKey("k").write("v")
+        .writeEnd()
+        .write("v", JsonProvider.provider().createObjectBuilder().add("x", 1).add("y", JsonProvider.provider().createArrayBuilder().add("z").add(2.5d)).build())
+        .writeEnd());
+  }
+
+  @Test
+  void preEncoded() {
+    String json = generate(UTF_8, generator -> {
+      generator.writeStartObject().writeKey("k");
+      ((DirectJsonGenerator) generator).writePreEncoded("{\"@class\":\"java.lang.Long\",\"value\":".getBytes(UTF_8), true);
+      generator.write(1L).writeEnd();
+      generator.writeKey("l");
+      ((DirectJsonGenerator) generator).writePreEncoded("[\"Long\"".getBytes(UTF_8), false);
+      generator.write(2L).writeEnd();
+      generator.writeEnd();
+    });
+    assertEquals("{\"k\":{\"@class\":\"java.lang.Long\",\"value\":1},\"l\":[\"Long\",2]}", json);
+  }
+
+  @Test
+  void illegalMethods() {
+    assertThrows(JsonGenerationException.class, () -> new DirectJsonGenerator(new ByteArrayOutputStream(), false).writeEnd());
+    assertThrows(JsonGenerationException.class, () -> new DirectJsonGenerator(new ByteArrayOutputStream(), false).writeStartObject().write(1));
+    assertThrows(JsonGenerationException.class, () -> new DirectJsonGenerator(new ByteArrayOutputStream(), false).writeStartArray().writeKey("k"));
+    assertThrows(JsonGenerationException.class, () -> new DirectJsonGenerator(new ByteArrayOutputStream(), false).writeStartObject().writeKey("k").writeEnd());
+    assertThrows(JsonGenerationException.class, () -> new DirectJsonGenerator(new ByteArrayOutputStream(), false).write(1).write(2));
+    assertThrows(JsonGenerationException.class, () -> new DirectJsonGenerator(new ByteArrayOutputStream(), false).writeStartArray().close());
+    assertThrows(NumberFormatException.class, () -> new DirectJsonGenerator(new ByteArrayOutputStream(), false).writeStartArray().write(Double.NaN));
+  }
+
+  @Test
+  void currentOnlyWhileCapturing() {
+    // never closed
+    DirectJsonGenerator unclosed = new DirectJsonGenerator(new ByteArrayOutputStream(), false);
+    assertNull(DirectJsonGenerator.currentAtRoot());
+
+    Object previous = DirectJsonGenerator.beginCapture();
+    try {
+      assertNull(DirectJsonGenerator.currentAtRoot());
+      DirectJsonGenerator captured = new DirectJsonGenerator(new ByteArrayOutputStream(), false);
+      // only the first generator is the one of the call
+      new DirectJsonGenerator(new ByteArrayOutputStream(), false);
+      assertSame(captured, DirectJsonGenerator.currentAtRoot());
+      captured.writeStartObject();
+      assertNull(DirectJsonGenerator.currentAtRoot());
+    } finally {
+      DirectJsonGenerator.endCapture(previous);
+    }
+    assertNull(DirectJsonGenerator.currentAtRoot());
+    unclosed.writeStartArray().writeEnd();
+  }
+
+  private static void assertSameOutput(Charset charset, Consumer<JsonGenerator> writer) {
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    try (JsonGenerator generator = JsonProvider.provider().createGeneratorFactory(null).createGenerator(expected, charset)) {
+      writer.accept(generator);
+    }
+    ByteArrayOutputStream actual = new ByteArrayOutputStream();
+    try (JsonGenerator generator = new DirectJsonGenerator(actual, charset.equals(ISO_8859_1))) {
+      writer.accept(generator);
+    }
+    assertArrayEquals(expected.toByteArray(), actual.toByteArray(), () -> expected.toString(charset) + " != " + actual.toString(charset));
+  }
+
+  private static String generate(Charset charset, Consumer<JsonGenerator> writer) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (JsonGenerator generator = new DirectJsonGenerator(out, charset.equals(ISO_8859_1))) {
+      writer.accept(generator);
+    }
+    return out.toString(charset);
+  }
+
+}
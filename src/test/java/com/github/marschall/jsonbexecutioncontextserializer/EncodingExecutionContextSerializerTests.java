@@ -0,0 +1,78 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobParameter;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+
+class EncodingExecutionContextSerializerTests extends AbstractExecutionContextSerializerTests {
+
+  private ExecutionContextSerializer serializer;
+
+  @BeforeEach
+  void onSetUp() {
+    this.serializer = JsonbExecutionContextSerializer.builder()
+                                                     .encoding(ISO_8859_1)
+                                                     .build();
+  }
+
+  @Override
+  protected ExecutionContextSerializer getSerializer() {
+    return this.serializer;
+  }
+
+  @Test
+  void latin1RoundTrip() throws IOException {
+    Map<String, Object> context = Map.of(
+        "latin1", "\u00e4\u00f6\u00fc",
+        "other", "\u20ac \ud83d\ude00",
+        "key \u00e9", List.of("\u4e2d\u6587"));
+
+    // same conversion as JdbcExecutionContextDao configured with ISO-8859-1
+    String serialized = this.serializeToString(this.serializer, context, ISO_8859_1);
+
+    assertEquals(context, this.serializer.deserialize(new ByteArrayInputStream(serialized.getBytes(ISO_8859_1))));
+  }
+
+  @Test
+  void sameOutputAsProvider() throws IOException {
+    Map<String, Object> context = new LinkedHashMap<>();
+    context.put("count", 12345L);
+    context.put("name", "\"quoted\" \u00e4\u00f6\u00fc \u20ac");
+    context.put("amount", new BigDecimal("1.5"));
+    context.put("date", LocalDate.of(2023, 6, 17));
+    context.put("list", List.of(1, 2, 3));
+    context.put("parameter", new JobParameter<>("value", String.class));
+
+    for (boolean compact : new boolean[] {false, true}) {
+      JsonbExecutionContextSerializer.Builder direct = JsonbExecutionContextSerializer.builder();
+      JsonbExecutionContextSerializer.Builder provider = JsonbExecutionContextSerializer.builder().noDirectWriter();
+      if (compact) {
+        direct.compactFormat();
+        provider.compactFormat();
+      }
+      assertEquals(this.serializeToString(provider.build(), context, UTF_8), this.serializeToString(direct.build(), context, UTF_8));
+    }
+  }
+
+  private String serializeToString(ExecutionContextSerializer serializer, Map<String, Object> context, Charset charset) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    serializer.serialize(context, outputStream);
+    return outputStream.toString(charset);
+  }
+
+}
@@ -0,0 +1,339 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+import org.springframework.batch.core.repository.dao.Jackson2ExecutionContextStringSerializer;
+import org.springframework.jdbc.support.lob.DefaultLobHandler;
+import org.springframework.jdbc.support.lob.LobCreator;
+
+import com.github.marschall.jsonbexecutioncontextserializer.ExecutionContextMigration.Progress;
+import com.github.marschall.jsonbexecutioncontextserializer.ExecutionContextMigration.ProgressListener;
+
+import jakarta.json.bind.JsonbException;
+
+class ExecutionContextMigrationTests {
+
+  private static final int ROWS = 25;
+
+  private JdbcDataSource dataSource;
+
+  private JsonbExecutionContextSerializer serializer;
+
+  private ExecutorService executor;
+
+  @BeforeEach
+  void onSetUp() throws SQLException {
+    this.dataSource = new JdbcDataSource();
+    this.dataSource.setURL("jdbc:h2:mem:migration;DB_CLOSE_DELAY=-1");
+    this.serializer = JsonbExecutionContextSerializer.builder()
+                                                     .compactFormat()
+                                                     .build();
+    this.executor = Executors.newFixedThreadPool(2);
+    try (Connection connection = this.dataSource.getConnection();
+         Statement statement = connection.createStatement()) {
+      // the context tables of the Spring Batch schema for H2
+      for (String table : new String[] {"JOB", "STEP"}) {
+        statement.execute("CREATE TABLE BATCH_" + table + "_EXECUTION_CONTEXT ("
+            + table + "_EXECUTION_ID BIGINT NOT NULL PRIMARY KEY, "
+            + "SHORT_CONTEXT VARCHAR(2500) NOT NULL, "
+            + "SERIALIZED_CONTEXT LONGVARCHAR)");
+      }
+    }
+  }
+
+  @AfterEach
+  void tearDown() throws SQLException {
+    this.executor.shutdown();
+    try (Connection connection = this.dataSource.getConnection();
+         Statement statement = connection.createStatement()) {
+      statement.execute("DROP ALL OBJECTS");
+    }
+  }
+
+  @Test
+  void migrate() throws SQLException, IOException {
+    Map<Long, Map<String, Object>> contexts = this.insertJacksonContexts("STEP");
+    List<Progress> reported = new ArrayList<>();
+    ExecutionContextMigration migration = ExecutionContextMigration.builder(this.dataSource, this.serializer)
+                                                                   .batchSize(10)
+                                                                   .executor(this.executor)
+                                                                   .listener(reported::add)
+                                                                   .build();
+
+    Progress progress = migration.migrateStepExecutionContexts(0L);
+
+    assertEquals(ROWS, progress.getRowsRead());
+    assertEquals(ROWS - 1, progress.getRowsMigrated());
+    assertEquals(ROWS, progress.getLastId());
+    assertEquals(List.of(10L, 20L, 25L), reported.stream().map(Progress::getLastId).toList());
+    this.assertMigrated("STEP", contexts);
+
+    // already migrated rows are skipped
+    assertEquals(0L, migration.migrateStepExecutionContexts(0L).getRowsMigrated());
+    assertEquals(0L, migration.migrateJobExecutionContexts(0L).getRowsRead());
+  }
+
+  @Test
+  void resume() throws SQLException, IOException {
+    Map<Long, Map<String, Object>> contexts = this.insertJacksonContexts("JOB");
+    List<Progress> reported = new ArrayList<>();
+    ExecutionContextMigration migration = ExecutionContextMigration.builder(this.dataSource, this.serializer)
+                                                                   .batchSize(7)
+                                                                   .listener(progress -> {
+                                                                     reported.add(progress);
+                                                                     throw new IllegalStateException("stopped");
+                                                                   })
+                                                                   .build();
+
+    assertThrows(IllegalStateException.class, () -> migration.migrateJobExecutionContexts(0L));
+    // the first batch is committed before the listener is called
+    long lastId = reported.get(reported.size() - 1).getLastId();
+    assertEquals(7L, lastId);
+    assertFalse(this.isJacksonFormat("JOB", 7L));
+    assertTrue(this.isJacksonFormat("JOB", 8L));
+
+    Progress progress = ExecutionContextMigration.builder(this.dataSource, this.serializer)
+                                                 .batchSize(7)
+                                                 .build()
+                                                 .migrateJobExecutionContexts(lastId);
+    assertEquals(ROWS - 7, progress.getRowsRead());
+    this.assertMigrated("JOB", contexts);
+  }
+
+  @Test
+  void concurrentUpdate() throws SQLException, IOException {
+    Map<Long, Map<String, Object>> contexts = this.insertJacksonContexts("STEP");
+    Map<String, Object> written = Map.of("FlatFileItemReader.read.count", 3500L);
+    AtomicBoolean updated = new AtomicBoolean();
+    DataSource dataSource = (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[] {DataSource.class},
+        (dataSourceProxy, dataSourceMethod, dataSourceArgs) -> {
+          if (!dataSourceMethod.getName().equals("getConnection")) {
+            return dataSourceMethod.invoke(this.dataSource, dataSourceArgs);
+          }
+          Connection connection = (Connection) dataSourceMethod.invoke(this.dataSource, dataSourceArgs);
+          return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+            // the application writes a context after the batch was read
+            if (method.getName().equals("prepareStatement") && ((String) args[0]).startsWith("UPDATE")
+                && updated.compareAndSet(false, true)) {
+              this.updateRow("STEP", 3L, written);
+            }
+            try {
+              return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+              throw e.getCause();
+            }
+          });
+        });
+    ExecutionContextMigration migration = ExecutionContextMigration.builder(dataSource, this.serializer)
+                                                                   .batchSize(10)
+                                                                   .build();
+
+    Progress progress = migration.migrateStepExecutionContexts(0L);
+
+    assertEquals(ROWS, progress.getRowsRead());
+    assertEquals(ROWS - 2, progress.getRowsMigrated());
+    assertEquals(1L, progress.getRowsChanged());
+    contexts.put(3L, written);
+    this.assertMigrated("STEP", contexts);
+  }
+
+  @Test
+  void invalidContext() throws SQLException, IOException {
+    Map<Long, Map<String, Object>> contexts = this.insertJacksonContexts("JOB");
+    String invalid = "{\"@class\":\"java.util.HashMap\",\"count\":[\"com.example.Missing\",1]}";
+    this.insertRow("JOB", ROWS + 1L, invalid);
+    List<Long> failedIds = new ArrayList<>();
+    ExecutionContextMigration migration = ExecutionContextMigration.builder(this.dataSource, this.serializer)
+                                                                   .batchSize(10)
+                                                                   .listener(new ProgressListener() {
+
+                                                                     @Override
+                                                                     public void rowFailed(String table, long id, Exception cause) {
+                                                                       assertEquals("BATCH_JOB_EXECUTION_CONTEXT", table);
+                                                                       assertTrue(cause instanceof JsonbException, cause::toString);
+                                                                       failedIds.add(id);
+                                                                     }
+
+                                                                     @Override
+                                                                     public void batchMigrated(Progress progress) {
+                                                                       // only failures are checked
+                                                                     }
+
+                                                                   })
+                                                                   .build();
+
+    Progress progress = migration.migrateJobExecutionContexts(0L);
+
+    // the failed row does not stop the migration
+    assertEquals(ROWS + 1L, progress.getRowsRead());
+    assertEquals(ROWS - 1L, progress.getRowsMigrated());
+    assertEquals(1L, progress.getRowsFailed());
+    assertEquals(List.of(ROWS + 1L), progress.getFailedIds());
+    assertEquals(List.of(ROWS + 1L), failedIds);
+    assertTrue(this.isJacksonFormat("JOB", ROWS + 1L));
+
+    // only the failed row is retried
+    this.deleteRow("JOB", ROWS + 1L);
+    this.assertMigrated("JOB", contexts);
+    this.insertRow("JOB", ROWS + 1L, invalid);
+    assertEquals(List.of(ROWS + 1L), migration.migrateJobExecutionContexts(0L).getFailedIds());
+  }
+
+  @Test
+  void lobHandler() throws SQLException, IOException {
+    Map<Long, Map<String, Object>> contexts = this.insertJacksonContexts("STEP");
+    AtomicInteger lobCreators = new AtomicInteger();
+    DefaultLobHandler lobHandler = new DefaultLobHandler() {
+
+      @Override
+      public LobCreator getLobCreator() {
+        lobCreators.incrementAndGet();
+        return super.getLobCreator();
+      }
+
+    };
+    lobHandler.setStreamAsLob(true);
+    ExecutionContextMigration migration = ExecutionContextMigration.builder(this.dataSource, this.serializer)
+                                                                   .batchSize(10)
+                                                                   .lobHandler(lobHandler)
+                                                                   .build();
+
+    migration.migrateStepExecutionContexts(0L);
+
+    assertEquals(3, lobCreators.get());
+    this.assertMigrated("STEP", contexts);
+  }
+
+  private Map<Long, Map<String, Object>> insertJacksonContexts(String table) throws SQLException, IOException {
+    ExecutionContextSerializer jackson = new Jackson2ExecutionContextStringSerializer();
+    Map<Long, Map<String, Object>> contexts = new HashMap<>();
+    for (long id = 1L; id <= ROWS; id++) {
+      Map<String, Object> context = new HashMap<>();
+      context.put("FlatFileItemReader.read.count", id * 1000L);
+      context.put("FlatFileItemReader.resource", "customers-" + id + ".csv");
+      if (id == 5L) {
+        // stored in SERIALIZED_CONTEXT
+        context.put("large", "x".repeat(3000));
+      }
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      if (id == 13L) {
+        // already migrated
+        this.serializer.serialize(context, out);
+      } else {
+        jackson.serialize(context, out);
+      }
+      this.insertRow(table, id, out.toString(UTF_8));
+      contexts.put(id, context);
+    }
+    return contexts;
+  }
+
+  private void insertRow(String table, long id, String context) throws SQLException {
+    try (Connection connection = this.dataSource.getConnection();
+         PreparedStatement statement = connection.prepareStatement("INSERT INTO BATCH_" + table
+             + "_EXECUTION_CONTEXT (" + table + "_EXECUTION_ID, SHORT_CONTEXT, SERIALIZED_CONTEXT) VALUES (?, ?, ?)")) {
+      statement.setLong(1, id);
+      if (context.length() > 2500) {
+        statement.setString(2, context.substring(0, 2492) + " ...");
+        statement.setString(3, context);
+      } else {
+        statement.setString(2, context);
+        statement.setString(3, null);
+      }
+      statement.executeUpdate();
+    }
+  }
+
+  private void deleteRow(String table, long id) throws SQLException {
+    try (Connection connection = this.dataSource.getConnection();
+         PreparedStatement statement = connection.prepareStatement("DELETE FROM BATCH_" + table
+             + "_EXECUTION_CONTEXT WHERE " + table + "_EXECUTION_ID = ?")) {
+      statement.setLong(1, id);
+      assertEquals(1, statement.executeUpdate());
+    }
+  }
+
+  private void updateRow(String table, long id, Map<String, Object> context) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (Connection connection = this.dataSource.getConnection();
+         PreparedStatement statement = connection.prepareStatement("UPDATE BATCH_" + table
+             + "_EXECUTION_CONTEXT SET SHORT_CONTEXT = ? WHERE " + table + "_EXECUTION_ID = ?")) {
+      this.serializer.serialize(context, out);
+      statement.setString(1, out.toString(UTF_8));
+      statement.setLong(2, id);
+      assertEquals(1, statement.executeUpdate());
+    } catch (SQLException | IOException e) {
+      throw new IllegalStateException("could not update context", e);
+    }
+  }
+
+  private void assertMigrated(String table, Map<Long, Map<String, Object>> contexts) throws SQLException, IOException {
+    try (Connection connection = this.dataSource.getConnection();
+         Statement statement = connection.createStatement();
+         ResultSet resultSet = statement.executeQuery("SELECT " + table + "_EXECUTION_ID, SHORT_CONTEXT, SERIALIZED_CONTEXT FROM BATCH_"
+             + table + "_EXECUTION_CONTEXT")) {
+      int rows = 0;
+      while (resultSet.next()) {
+        long id = resultSet.getLong(1);
+        String shortContext = resultSet.getString(2);
+        String longContext = resultSet.getString(3);
+        if (id == 5L) {
+          assertNotNull(longContext);
+          assertTrue(shortContext.endsWith(" ..."));
+        } else {
+          assertNull(longContext);
+        }
+        String serialized = longContext != null ? longContext : shortContext;
+        assertFalse(JacksonFormatReader.isJacksonFormat(serialized), serialized);
+        assertEquals(contexts.get(id), this.serializer.deserialize(new ByteArrayInputStream(serialized.getBytes(UTF_8))));
+        rows += 1;
+      }
+      assertEquals(ROWS, rows);
+    }
+  }
+
+  private boolean isJacksonFormat(String table, long id) throws SQLException {
+    try (Connection connection = this.dataSource.getConnection();
+         PreparedStatement statement = connection.prepareStatement("SELECT SHORT_CONTEXT FROM BATCH_" + table
+             + "_EXECUTION_CONTEXT WHERE " + table + "_EXECUTION_ID = ?")) {
+      statement.setLong(1, id);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        assertTrue(resultSet.next());
+        return JacksonFormatReader.isJacksonFormat(resultSet.getString(1));
+      }
+    }
+  }
+
+}
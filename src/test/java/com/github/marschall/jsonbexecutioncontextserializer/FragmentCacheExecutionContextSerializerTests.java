@@ -0,0 +1,85 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobParameter;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+
+class FragmentCacheExecutionContextSerializerTests extends AbstractExecutionContextSerializerTests {
+
+  private ExecutionContextSerializer serializer;
+
+  @BeforeEach
+  void onSetUp() {
+    this.serializer = JsonbExecutionContextSerializer.builder()
+                                                     .fragmentCache(64, 1024)
+                                                     .build();
+  }
+
+  @Override
+  protected ExecutionContextSerializer getSerializer() {
+    return this.serializer;
+  }
+
+  @Test
+  void sameOutputAsWithoutCache() throws IOException {
+    this.assertSameOutput(new JsonbExecutionContextSerializer(), this.serializer);
+  }
+
+  @Test
+  void compactSameOutputAsWithoutCache() throws IOException {
+    ExecutionContextSerializer compact = JsonbExecutionContextSerializer.builder()
+                                                                        .compactFormat()
+                                                                        .build();
+    ExecutionContextSerializer compactCached = JsonbExecutionContextSerializer.builder()
+                                                                              .compactFormat()
+                                                                              .fragmentCache(64, 1024)
+                                                                              .build();
+    this.assertSameOutput(compact, compactCached);
+  }
+
+  private void assertSameOutput(ExecutionContextSerializer expected, ExecutionContextSerializer actual) throws IOException {
+    List<String> processed = new ArrayList<>();
+
+    Map<String, Object> context = new LinkedHashMap<>();
+    context.put("input.file", "/data/input.csv");
+    context.put("run.date", new JobParameter<>(LocalDate.of(2023, 6, 17), LocalDate.class));
+    context.put("processed", processed);
+
+    assertEquals(this.serializeToString(expected, Map.of()), this.serializeToString(actual, Map.of()));
+    for (long i = 0L; i < 5L; i++) {
+      context.put("FlatFileItemReader.read.count", i);
+      // mutable values must never be served from the cache
+      processed.add("id-" + i);
+      assertEquals(this.serializeToString(expected, context), this.serializeToString(actual, context));
+    }
+  }
+
+  @Test
+  void identifyingChange() throws IOException {
+    Map<String, Object> identifying = Map.of("parameter", new JobParameter<>("value", String.class, true));
+    Map<String, Object> nonIdentifying = Map.of("parameter", new JobParameter<>("value", String.class, false));
+
+    ExecutionContextSerializer expected = new JsonbExecutionContextSerializer();
+    assertEquals(this.serializeToString(expected, identifying), this.serializeToString(this.serializer, identifying));
+    assertEquals(this.serializeToString(expected, nonIdentifying), this.serializeToString(this.serializer, nonIdentifying));
+  }
+
+  private String serializeToString(ExecutionContextSerializer serializer, Map<String, Object> context) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    serializer.serialize(context, outputStream);
+    return outputStream.toString(UTF_8);
+  }
+
+}
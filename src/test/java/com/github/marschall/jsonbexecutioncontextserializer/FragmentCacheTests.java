@@ -0,0 +1,71 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobParameter;
+
+class FragmentCacheTests {
+
+  private static final byte[] FRAGMENT = new byte[] {'"', 'k', '"', ':', '1'};
+
+  @Test
+  void hit() {
+    FragmentCache cache = new FragmentCache(4, 16);
+    cache.put("key", 1L, FRAGMENT);
+
+    assertSame(FRAGMENT, cache.get("key", 1L));
+    assertNull(cache.get("key", 2L));
+    assertNull(cache.get("key", 1));
+    assertNull(cache.get("other", 1L));
+  }
+
+  @Test
+  void bounded() {
+    FragmentCache cache = new FragmentCache(4, 16);
+    for (int i = 0; i < 10; i++) {
+      cache.put("key" + i, "value", FRAGMENT);
+    }
+    assertEquals(4, cache.size());
+    assertNotNull(cache.get("key9", "value"));
+  }
+
+  @Test
+  void changingValueBoundedPerKey() {
+    FragmentCache cache = new FragmentCache(4, 16);
+    cache.put("resource", "customers.csv", FRAGMENT);
+    for (long count = 0L; count < 100L; count++) {
+      cache.put("read.count", count, FRAGMENT);
+    }
+
+    assertEquals(1 + FragmentCache.MAX_VALUES_PER_KEY, cache.size());
+    assertNotNull(cache.get("resource", "customers.csv"));
+    assertNotNull(cache.get("read.count", 99L));
+    assertNull(cache.get("read.count", 0L));
+  }
+
+  @Test
+  void maxFragmentSize() {
+    FragmentCache cache = new FragmentCache(4, FRAGMENT.length - 1);
+    cache.put("key", 1L, FRAGMENT);
+
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void mutableValuesNotCached() {
+    FragmentCache cache = new FragmentCache(4, 16);
+    cache.put("list", new ArrayList<>(), FRAGMENT);
+    cache.put("date", new Date(), FRAGMENT);
+    cache.put("parameter", new JobParameter<>(new Date(), Date.class), FRAGMENT);
+
+    assertEquals(0, cache.size());
+  }
+
+}
@@ -0,0 +1,236 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+
+import jakarta.json.bind.annotation.JsonbProperty;
+
+class GeneratedCodecExecutionContextSerializerTests extends AbstractExecutionContextSerializerTests {
+
+  private ExecutionContextSerializer serializer;
+
+  @BeforeEach
+  void onSetUp() {
+    this.serializer = JsonbExecutionContextSerializer.builder()
+                                                     .generatedCodecs(ComplexObject.class, Customer.class, Address.class, Order.class)
+                                                     .build();
+  }
+
+  @Override
+  protected ExecutionContextSerializer getSerializer() {
+    return this.serializer;
+  }
+
+  @Test
+  void sameOutputAsJsonb() throws IOException {
+    Map<String, Object> context = sampleContext();
+
+    for (boolean compact : new boolean[] {false, true}) {
+      JsonbExecutionContextSerializer.Builder generated = JsonbExecutionContextSerializer.builder()
+                                                                                        .generatedCodecs(ComplexObject.class, Customer.class, Address.class, Order.class);
+      JsonbExecutionContextSerializer.Builder jsonb = JsonbExecutionContextSerializer.builder();
+      if (compact) {
+        generated.compactFormat();
+        jsonb.compactFormat();
+      }
+      ExecutionContextSerializer generatedSerializer = generated.build();
+      ExecutionContextSerializer jsonbSerializer = jsonb.build();
+
+      String serialized = this.serializeToString(jsonbSerializer, context);
+      assertEquals(serialized, this.serializeToString(generatedSerializer, context));
+      assertEquals(context, generatedSerializer.deserialize(new ByteArrayInputStream(serialized.getBytes(UTF_8))));
+    }
+  }
+
+  @Test
+  void singleValue() throws IOException {
+    // written by the envelope engine
+    Map<String, Object> context = Map.of("address", new Address("Main Street 1", "8000", 3, false));
+
+    String serialized = this.serializeToString(this.serializer, context);
+
+    assertEquals(this.serializeToString(new JsonbExecutionContextSerializer(), context), serialized);
+    assertEquals(context, this.serializer.deserialize(new ByteArrayInputStream(serialized.getBytes(UTF_8))));
+  }
+
+  @Test
+  void missingAndUnknownProperties() throws IOException {
+    String json = "{\"address\":{\"@class\":\"" + Address.class.getName() + "\",\"value\":{\"city\":\"Bern\",\"street\":\"Main Street 1\"}},"
+        + "\"customer\":{\"@class\":\"" + Customer.class.getName() + "\",\"value\":{\"name\":\"Bob\",\"unknown\":{\"nested\":[1,2]},\"vip\":true}}}";
+
+    Map<String, Object> context = this.serializer.deserialize(new ByteArrayInputStream(json.getBytes(UTF_8)));
+
+    assertEquals(new Address("Main Street 1", null, 0, false), context.get("address"));
+    Customer customer = new Customer();
+    customer.setName("Bob");
+    customer.setVip(true);
+    assertEquals(customer, context.get("customer"));
+  }
+
+  @Test
+  void unsupportedTypes() {
+    for (Class<?> type : List.of(NotPublic.class, Annotated.class, NoDefaultConstructor.class, Runnable.class)) {
+      JsonbExecutionContextSerializer.Builder builder = JsonbExecutionContextSerializer.builder().generatedCodecs(type);
+      assertThrows(IllegalArgumentException.class, builder::build, type.getName());
+    }
+  }
+
+  private static Map<String, Object> sampleContext() {
+    ComplexObject inner = new ComplexObject();
+    inner.setName("inner");
+    inner.setNumber(new BigDecimal("1.5"));
+    ComplexObject outer = new ComplexObject();
+    outer.setName("outer");
+    outer.setObj(inner);
+    outer.setMap(Map.of("key", "value"));
+
+    Customer customer = new Customer();
+    customer.setName("Bob");
+    customer.setBirthDate(LocalDate.of(1980, 4, 1));
+    customer.setAddress(new Address("Main Street 1", "8000", 3, true));
+    customer.setTags(List.of("gold", "early"));
+    customer.orders = 12;
+
+    Map<String, Object> context = new LinkedHashMap<>();
+    context.put("complex", outer);
+    context.put("customer", customer);
+    context.put("order", new Order(42L, new BigDecimal("99.95"), customer.getAddress(), List.of("A-1", "B-2")));
+    context.put("count", 12L);
+    return context;
+  }
+
+  private String serializeToString(ExecutionContextSerializer serializer, Map<String, Object> context) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    serializer.serialize(context, outputStream);
+    return outputStream.toString(UTF_8);
+  }
+
+  public record Address(String street, String zip, int floor, boolean primary) {
+
+  }
+
+  public record Order(long id, BigDecimal total, Address shipTo, List<String> items) {
+
+  }
+
+  public static class Customer {
+
+    private String name;
+
+    private LocalDate birthDate;
+
+    private Address address;
+
+    private List<String> tags;
+
+    private boolean vip;
+
+    public int orders;
+
+    public String getName() {
+      return this.name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public LocalDate getBirthDate() {
+      return this.birthDate;
+    }
+
+    public void setBirthDate(LocalDate birthDate) {
+      this.birthDate = birthDate;
+    }
+
+    public Address getAddress() {
+      return this.address;
+    }
+
+    public void setAddress(Address address) {
+      this.address = address;
+    }
+
+    public List<String> getTags() {
+      return this.tags;
+    }
+
+    public void setTags(List<String> tags) {
+      this.tags = tags;
+    }
+
+    public boolean isVip() {
+      return this.vip;
+    }
+
+    public void setVip(boolean vip) {
+      this.vip = vip;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Customer)) {
+        return false;
+      }
+      Customer other = (Customer) obj;
+      return Objects.equals(this.name, other.name)
+          && Objects.equals(this.birthDate, other.birthDate)
+          && Objects.equals(this.address, other.address)
+          && Objects.equals(this.tags, other.tags)
+          && (this.vip == other.vip)
+          && (this.orders == other.orders);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(this.name, this.birthDate);
+    }
+
+  }
+
+  static class NotPublic {
+
+  }
+
+  public static class Annotated {
+
+    private String name;
+
+    @JsonbProperty("fullName")
+    public String getName() {
+      return this.name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+  }
+
+  public static class NoDefaultConstructor {
+
+    public NoDefaultConstructor(String name) {
+      super();
+    }
+
+  }
+
+}
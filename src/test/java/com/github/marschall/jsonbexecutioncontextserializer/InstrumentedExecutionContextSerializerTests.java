@@ -0,0 +1,203 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+
+import com.github.marschall.jsonbexecutioncontextserializer.ExecutionContextMetrics.Operation;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class InstrumentedExecutionContextSerializerTests extends AbstractExecutionContextSerializerTests {
+
+  private RecordingMetrics metrics;
+
+  private ExecutionContextSerializer serializer;
+
+  @BeforeEach
+  void onSetUp() {
+    this.metrics = new RecordingMetrics();
+    this.serializer = JsonbExecutionContextSerializer.builder()
+                                                     .metrics(this.metrics)
+                                                     .build();
+  }
+
+  @Override
+  protected ExecutionContextSerializer getSerializer() {
+    return this.serializer;
+  }
+
+  @Test
+  void metrics() throws IOException {
+    Map<String, Object> context = context();
+
+    byte[] serialized = serialize(this.serializer, context);
+    this.serializer.deserialize(new ByteArrayInputStream(serialized));
+
+    assertEquals(2, this.metrics.operations.size());
+    assertEquals(List.of(Operation.SERIALIZE, (long) serialized.length, 3), this.metrics.operations.get(0));
+    assertEquals(List.of(Operation.DESERIALIZE, (long) serialized.length, 3), this.metrics.operations.get(1));
+
+    assertEquals(List.of(
+        List.of(Operation.SERIALIZE, Long.class),
+        List.of(Operation.SERIALIZE, String.class),
+        List.of(Operation.SERIALIZE, LocalDate.class),
+        List.of(Operation.DESERIALIZE, Long.class),
+        List.of(Operation.DESERIALIZE, String.class),
+        List.of(Operation.DESERIALIZE, LocalDate.class)),
+        this.metrics.values);
+    for (long size : this.metrics.valueSizes) {
+      assertTrue(size > 0L, "value size");
+    }
+  }
+
+  @Test
+  void fragmentCacheHits() throws IOException {
+    ExecutionContextSerializer cached = JsonbExecutionContextSerializer.builder()
+                                                                       .metrics(this.metrics)
+                                                                       .fragmentCache(16, 256)
+                                                                       .build();
+    serialize(cached, context());
+    serialize(cached, context());
+
+    // the hits are recorded like the entries they were copied from
+    assertEquals(6, this.metrics.values.size());
+    assertEquals(this.metrics.values.subList(0, 3), this.metrics.values.subList(3, 6));
+    assertEquals(this.metrics.valueSizes.subList(0, 3), this.metrics.valueSizes.subList(3, 6));
+    assertEquals(List.of(0L, 0L, 0L), this.metrics.valueDurations.subList(3, 6));
+  }
+
+  @Test
+  void sampling() throws IOException {
+    ExecutionContextSerializer sampling = JsonbExecutionContextSerializer.builder()
+                                                                         .metrics(this.metrics, 10)
+                                                                         .build();
+    for (int i = 0; i < 1000; i++) {
+      serialize(sampling, context());
+    }
+    int sampled = this.metrics.operations.size();
+    assertTrue((sampled > 0) && (sampled < 1000), () -> "sampled: " + sampled);
+    assertEquals(sampled * 3, this.metrics.values.size());
+  }
+
+  @Test
+  void slowOperationThreshold() throws IOException {
+    ExecutionContextSerializer slow = JsonbExecutionContextSerializer.builder()
+                                                                     .metrics(this.metrics, Integer.MAX_VALUE)
+                                                                     .slowOperationThreshold(Duration.ofNanos(1L))
+                                                                     .build();
+    serialize(slow, context());
+
+    assertEquals(1, this.metrics.slowOperations.size());
+    List<Object> slowOperation = this.metrics.slowOperations.get(0);
+    assertEquals(Operation.SERIALIZE, slowOperation.get(0));
+    assertTrue(context().containsKey(slowOperation.get(1)));
+  }
+
+  @Test
+  void slowOperationThresholdRequiresMetrics() {
+    JsonbExecutionContextSerializer.Builder builder = JsonbExecutionContextSerializer.builder()
+                                                                                     .slowOperationThreshold(Duration.ofMillis(10L));
+    assertThrows(IllegalStateException.class, builder::build);
+  }
+
+  @Test
+  void jfrEvents(@TempDir Path directory) throws IOException {
+    JsonbExecutionContextSerializer uninstrumented = new JsonbExecutionContextSerializer();
+    Path recordingFile = directory.resolve("recording.jfr");
+    byte[] serialized;
+    try (Recording recording = new Recording()) {
+      recording.enable(SerializeEvent.NAME).withoutThreshold();
+      recording.enable(DeserializeEvent.NAME).withoutThreshold();
+      recording.start();
+      serialized = serialize(uninstrumented, context());
+      uninstrumented.deserialize(new ByteArrayInputStream(serialized));
+      recording.stop();
+      recording.dump(recordingFile);
+    }
+
+    List<RecordedEvent> events = new ArrayList<>();
+    for (RecordedEvent event : RecordingFile.readAllEvents(recordingFile)) {
+      String name = event.getEventType().getName();
+      if (name.equals(SerializeEvent.NAME) || name.equals(DeserializeEvent.NAME)) {
+        events.add(event);
+      }
+    }
+    Files.delete(recordingFile);
+
+    assertEquals(2, events.size());
+    for (RecordedEvent event : events) {
+      assertEquals(serialized.length, event.getLong("size"));
+      assertEquals(3, event.getInt("keyCount"));
+      assertNotNull(event.getString("slowestKey"));
+      assertNotNull(event.getClass("slowestType"));
+    }
+  }
+
+  private static Map<String, Object> context() {
+    Map<String, Object> context = new LinkedHashMap<>();
+    context.put("count", 12345L);
+    context.put("name", "OBJECT TWO");
+    context.put("date", LocalDate.of(2023, 6, 17));
+    return context;
+  }
+
+  private static byte[] serialize(ExecutionContextSerializer serializer, Map<String, Object> context) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    serializer.serialize(context, outputStream);
+    return outputStream.toByteArray();
+  }
+
+  static final class RecordingMetrics implements ExecutionContextMetrics {
+
+    final List<List<Object>> operations = new CopyOnWriteArrayList<>();
+
+    final List<List<Object>> values = new CopyOnWriteArrayList<>();
+
+    final List<Long> valueSizes = new CopyOnWriteArrayList<>();
+
+    final List<Long> valueDurations = new CopyOnWriteArrayList<>();
+
+    final List<List<Object>> slowOperations = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void operationRecorded(Operation operation, long durationNanos, long size, int keyCount) {
+      this.operations.add(List.of(operation, size, keyCount));
+    }
+
+    @Override
+    public void valueRecorded(Operation operation, Class<?> type, long durationNanos, long size) {
+      this.values.add(List.of(operation, type));
+      this.valueSizes.add(size);
+      this.valueDurations.add(durationNanos);
+    }
+
+    @Override
+    public void slowOperation(Operation operation, long durationNanos, String slowestKey, Class<?> slowestType) {
+      this.slowOperations.add(List.of(operation, slowestKey, slowestType));
+    }
+
+  }
+
+}
@@ -0,0 +1,105 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import jakarta.json.bind.JsonbException;
+import jakarta.json.spi.JsonProvider;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
+import jakarta.json.stream.JsonParserFactory;
+
+class IntegralNumbersTests {
+
+  private static final int NUMBERS = 10_000;
+
+  private static final JsonParserFactory PARSER_FACTORY = JsonProvider.provider().createParserFactory(Map.of());
+
+  @ParameterizedTest
+  @ValueSource(longs = {0L, -1L, 42L, 999_999_999_999_999_999L, -999_999_999_999_999_999L, Long.MAX_VALUE, Long.MIN_VALUE})
+  void inRange(long value) {
+    try (JsonParser parser = createParser("[" + value + "]")) {
+      assertEquals(Event.VALUE_NUMBER, parser.next());
+      assertEquals(value, ScalarValueCodec.readLong(parser));
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"9223372036854775808", "-9223372036854775809", "18446744073709551617"})
+  void outOfRange(String value) {
+    try (JsonParser parser = createParser("[" + value + "]")) {
+      assertEquals(Event.VALUE_NUMBER, parser.next());
+      assertFalse(IntegralNumbers.isExactLong(parser));
+      assertThrows(JsonbException.class, () -> ScalarValueCodec.readLong(parser));
+    }
+  }
+
+  @Test
+  void shortNumbersAreExact() {
+    try (JsonParser parser = createParser("[123456789012345678,1234567890123456789]")) {
+      assertEquals(Event.VALUE_NUMBER, parser.next());
+      assertTrue(IntegralNumbers.isExactLong(parser));
+      assertEquals(Event.VALUE_NUMBER, parser.next());
+      assertFalse(IntegralNumbers.isExactLong(parser));
+    }
+  }
+
+  @Test
+  void readLongDoesNotAllocate() {
+    assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+    com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    assumeTrue(threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled());
+
+    StringJoiner numbers = new StringJoiner(",", "[", "]");
+    for (int i = 0; i < NUMBERS; i++) {
+      numbers.add(Long.toString(1_000_000L + i));
+    }
+    byte[] json = numbers.toString().getBytes(UTF_8);
+    // loads and links everything involved
+    readAll(json);
+
+    long threadId = Thread.currentThread().getId();
+    long before = threadBean.getThreadAllocatedBytes(threadId);
+    long sum = readAll(json);
+    long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+    assertEquals((1_000_000L * NUMBERS) + ((NUMBERS * (NUMBERS - 1L)) / 2L), sum);
+    // a BigDecimal per number would be at least 32 bytes, the rest is the parser and its buffers
+    assertTrue(allocated < (NUMBERS * 4L), () -> allocated + " bytes allocated for " + NUMBERS + " numbers");
+  }
+
+  private static long readAll(byte[] json) {
+    long sum = 0L;
+    try (JsonParser parser = createParser(new ByteArrayInputStream(json))) {
+      while (parser.next() == Event.VALUE_NUMBER) {
+        sum += ScalarValueCodec.readLong(parser);
+      }
+    }
+    return sum;
+  }
+
+  private static JsonParser createParser(String json) {
+    return createParser(new ByteArrayInputStream(json.getBytes(UTF_8)));
+  }
+
+  private static JsonParser createParser(InputStream in) {
+    JsonParser parser = PARSER_FACTORY.createParser(in);
+    assertEquals(Event.START_ARRAY, parser.next());
+    return parser;
+  }
+
+}
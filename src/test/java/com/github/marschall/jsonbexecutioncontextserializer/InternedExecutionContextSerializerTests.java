@@ -0,0 +1,117 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+
+class InternedExecutionContextSerializerTests extends AbstractExecutionContextSerializerTests {
+
+  private static final String LONG_VALUE = "a value that is longer than the maximum length of interned values";
+
+  private ExecutionContextSerializer serializer;
+
+  @BeforeEach
+  void onSetUp() {
+    this.serializer = JsonbExecutionContextSerializer.builder()
+                                                     .internStrings(1024, 32)
+                                                     .build();
+  }
+
+  @Override
+  protected ExecutionContextSerializer getSerializer() {
+    return this.serializer;
+  }
+
+  @Test
+  void keysAndShortValuesShared() throws IOException {
+    for (boolean compact : new boolean[] {false, true}) {
+      JsonbExecutionContextSerializer.Builder builder = JsonbExecutionContextSerializer.builder().internStrings(1024, 32);
+      if (compact) {
+        builder.compactFormat();
+      }
+      ExecutionContextSerializer internedSerializer = builder.build();
+      byte[] serialized = this.serialize(internedSerializer, sampleContext());
+
+      Map<String, Object> first = internedSerializer.deserialize(new ByteArrayInputStream(serialized));
+      Map<String, Object> second = internedSerializer.deserialize(new ByteArrayInputStream(serialized));
+
+      assertEquals(sampleContext(), second);
+      assertSame(findKey(first, "FlatFileItemReader.read.count"), findKey(second, "FlatFileItemReader.read.count"));
+      assertSame(first.get("FlatFileItemReader.resource"), second.get("FlatFileItemReader.resource"));
+      assertNotSame(first.get("long"), second.get("long"));
+    }
+  }
+
+  @Test
+  void notInternedByDefault() throws IOException {
+    ExecutionContextSerializer defaultSerializer = new JsonbExecutionContextSerializer();
+    byte[] serialized = this.serialize(defaultSerializer, sampleContext());
+
+    Map<String, Object> first = defaultSerializer.deserialize(new ByteArrayInputStream(serialized));
+    Map<String, Object> second = defaultSerializer.deserialize(new ByteArrayInputStream(serialized));
+
+    assertNotSame(first.get("FlatFileItemReader.resource"), second.get("FlatFileItemReader.resource"));
+  }
+
+  @Test
+  void bounded() {
+    StringInterner interner = new StringInterner(2, 8);
+    List<String> strings = List.of("a", "b", "c", "d", "e");
+    for (String s : strings) {
+      interner.internKey(new String(s));
+    }
+    int retained = 0;
+    for (String s : strings) {
+      String copy = new String(s);
+      if (interner.internKey(copy) != copy) {
+        retained += 1;
+      }
+    }
+    assertTrue(retained <= 2, "retained: " + retained);
+  }
+
+  @Test
+  void invalidSettings() {
+    JsonbExecutionContextSerializer.Builder builder = JsonbExecutionContextSerializer.builder();
+    assertThrows(IllegalArgumentException.class, () -> builder.internStrings(0, 32));
+    assertThrows(IllegalArgumentException.class, () -> builder.internStrings(1024, -1));
+  }
+
+  private static String findKey(Map<String, Object> context, String key) {
+    for (Entry<String, Object> entry : context.entrySet()) {
+      if (entry.getKey().equals(key)) {
+        return entry.getKey();
+      }
+    }
+    throw new AssertionError("missing key: " + key);
+  }
+
+  private static Map<String, Object> sampleContext() {
+    Map<String, Object> context = new LinkedHashMap<>();
+    context.put("FlatFileItemReader.read.count", 1234L);
+    context.put("FlatFileItemReader.resource", "customers.csv");
+    context.put("long", LONG_VALUE);
+    return context;
+  }
+
+  private byte[] serialize(ExecutionContextSerializer serializer, Map<String, Object> context) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    serializer.serialize(context, outputStream);
+    return outputStream.toByteArray();
+  }
+
+}
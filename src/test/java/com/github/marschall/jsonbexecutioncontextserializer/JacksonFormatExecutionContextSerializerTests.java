@@ -0,0 +1,201 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+import org.springframework.batch.core.repository.dao.Jackson2ExecutionContextStringSerializer;
+
+import com.github.marschall.jsonbexecutioncontextserializer.AbstractExecutionContextSerializerTests.ComplexObject;
+
+import jakarta.json.bind.JsonbException;
+
+class JacksonFormatExecutionContextSerializerTests {
+
+  private final ExecutionContextSerializer jackson = new Jackson2ExecutionContextStringSerializer(
+      ComplexObject.class.getName(), Color.class.getName());
+
+  @Test
+  void scalars() throws IOException {
+    Map<String, Object> context = new HashMap<>();
+    context.put("string", "customers.csv");
+    context.put("int", 1);
+    context.put("long", 2L);
+    context.put("double", 1.5d);
+    context.put("float", 2.5f);
+    context.put("boolean", true);
+    context.put("short", (short) 3);
+    context.put("byte", (byte) 4);
+    context.put("char", 'c');
+    context.put("bigDecimal", new BigDecimal("1.50"));
+    context.put("bigInteger", new BigInteger("123456789012345678901234567890"));
+    context.put("date", new Date(1000L));
+    context.put("sqlDate", java.sql.Date.valueOf("2020-01-02"));
+    context.put("timestamp", new java.sql.Timestamp(2000L));
+    context.put("uuid", UUID.fromString("00000000-0000-0000-0000-000000000001"));
+    context.put("enum", Color.RED);
+    context.put("null", null);
+
+    Map<String, Object> read = this.assertReadAsWritten(context);
+    for (Map.Entry<String, Object> entry : context.entrySet()) {
+      Object value = entry.getValue();
+      if (value != null) {
+        assertEquals(value.getClass(), read.get(entry.getKey()).getClass(), entry.getKey());
+      }
+    }
+  }
+
+  @Test
+  void containers() throws IOException {
+    Map<String, Object> nested = new TreeMap<>();
+    nested.put("count", 1L);
+    nested.put("list", new ArrayList<>(List.of("a", 2L)));
+    Map<String, Object> context = new HashMap<>();
+    context.put("list", new ArrayList<>(List.of(1L, "a", 1.5d)));
+    context.put("set", new LinkedHashSet<>(List.of("s", "t")));
+    context.put("map", nested);
+    context.put("unmodifiable", List.of(1, 2));
+
+    Map<String, Object> read = this.assertReadAsWritten(context);
+    assertEquals(TreeMap.class, read.get("map").getClass());
+  }
+
+  @Test
+  void arrays() throws IOException {
+    Map<String, Object> context = new HashMap<>();
+    context.put("longs", new long[] {1L, Long.MAX_VALUE});
+    context.put("ints", new int[] {3, 4});
+    context.put("booleans", new boolean[] {true, false});
+    context.put("bytes", new byte[] {1, 2, 3});
+    context.put("strings", new String[] {"a", "b"});
+    context.put("objects", new Object[] {1L, "b"});
+
+    Map<String, Object> read = this.readJackson(context);
+    assertArrayEquals(new long[] {1L, Long.MAX_VALUE}, (long[]) read.get("longs"));
+    assertArrayEquals(new int[] {3, 4}, (int[]) read.get("ints"));
+    assertArrayEquals(new boolean[] {true, false}, (boolean[]) read.get("booleans"));
+    assertArrayEquals(new byte[] {1, 2, 3}, (byte[]) read.get("bytes"));
+    assertArrayEquals(new String[] {"a", "b"}, (String[]) read.get("strings"));
+    assertArrayEquals(new Object[] {1L, "b"}, (Object[]) read.get("objects"));
+  }
+
+  @Test
+  void jobParameters() throws IOException {
+    JobParameters jobParameters = new JobParametersBuilder()
+        .addString("input", "customers.csv")
+        .addLong("run.id", 3L, false)
+        .addDouble("ratio", 0.5d)
+        .toJobParameters();
+
+    this.assertReadAsWritten(Map.of("jobParameters", jobParameters));
+  }
+
+  @Test
+  void bean() throws IOException {
+    ComplexObject inner = new ComplexObject();
+    inner.setName("inner");
+    ComplexObject bean = new ComplexObject();
+    bean.setName("outer");
+    bean.setNumber(new BigDecimal("1.5"));
+    bean.setObj(inner);
+    bean.setMap(new HashMap<>(Map.of("key", "value")));
+
+    this.assertReadAsWritten(Map.of("bean", bean));
+  }
+
+  @Test
+  void allReadPaths() throws IOException {
+    Map<String, Object> context = Map.of("count", 2L, "resource", "customers.csv");
+    byte[] serialized = this.serializeJackson(context);
+
+    JsonbExecutionContextSerializer compact = JsonbExecutionContextSerializer.builder()
+                                                                            .compactFormat()
+                                                                            .noEnvelopeEngine()
+                                                                            .build();
+    for (JsonbExecutionContextSerializer serializer : List.of(new JsonbExecutionContextSerializer(), compact)) {
+      assertEquals(context, serializer.deserialize(new ByteArrayInputStream(serialized)));
+      assertEquals(context, serializer.deserializeLazily(new ByteArrayInputStream(serialized)));
+      assertEquals(context, serializer.deserializeAll(List.of(serialized)).get(0));
+    }
+  }
+
+  @Test
+  void detection() throws IOException {
+    JsonbExecutionContextSerializer serializer = new JsonbExecutionContextSerializer();
+    // a key that looks like the Jackson type property
+    Map<String, Object> context = Map.of("@class", "java.util.HashMap");
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    serializer.serialize(context, out);
+
+    assertFalse(JacksonFormatReader.isJacksonFormat(out.toString(UTF_8)));
+    assertEquals(context, serializer.deserialize(new ByteArrayInputStream(out.toByteArray())));
+    assertTrue(JacksonFormatReader.isJacksonFormat(new String(this.serializeJackson(context), UTF_8)));
+  }
+
+  @Test
+  void largeNumbers() throws IOException {
+    String json = "{\"@class\":\"java.util.HashMap\",\"int\":1,\"long\":3000000000,\"big\":18446744073709551617}";
+    JsonbExecutionContextSerializer serializer = new JsonbExecutionContextSerializer();
+
+    Map<String, Object> context = serializer.deserialize(new ByteArrayInputStream(json.getBytes(UTF_8)));
+
+    assertEquals(Map.of("int", 1, "long", 3000000000L, "big", new BigInteger("18446744073709551617")), context);
+  }
+
+  @Test
+  void invalid() {
+    JsonbExecutionContextSerializer serializer = new JsonbExecutionContextSerializer();
+    for (String json : new String[] {
+        "{\"@class\":\"java.util.HashMap\",\"count\":[\"java.lang.Long\"]}",
+        "{\"@class\":\"java.util.HashMap\",\"count\":[1,2]}",
+        "{\"@class\":\"java.util.HashMap\",\"count\":[\"com.example.Missing\",1]}",
+        "{\"@class\":\"java.util.HashMap\",\"date\":[\"java.util.Date\",18446744073709551617]}",
+        "{\"@class\":\"java.lang.String\"}"}) {
+      assertThrows(JsonbException.class, () -> serializer.deserialize(new ByteArrayInputStream(json.getBytes(UTF_8))), json);
+    }
+  }
+
+  private Map<String, Object> assertReadAsWritten(Map<String, Object> context) throws IOException {
+    Map<String, Object> read = this.readJackson(context);
+    assertEquals(context, read);
+    return read;
+  }
+
+  private Map<String, Object> readJackson(Map<String, Object> context) throws IOException {
+    JsonbExecutionContextSerializer serializer = new JsonbExecutionContextSerializer();
+    return serializer.deserialize(new ByteArrayInputStream(this.serializeJackson(context)));
+  }
+
+  private byte[] serializeJackson(Map<String, Object> context) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    // like JdbcExecutionContextDao, Jackson writes no type for final map classes
+    this.jackson.serialize(new HashMap<>(context), out);
+    return out.toByteArray();
+  }
+
+  public enum Color {
+    RED, GREEN
+  }
+
+}
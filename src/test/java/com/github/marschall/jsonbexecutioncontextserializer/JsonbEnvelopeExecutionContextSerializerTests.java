@@ -0,0 +1,176 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.StringReader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobParameter;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+
+import com.github.marschall.jsonbexecutioncontextserializer.EnvelopeEngine.JsonbValueBinder;
+
+import jakarta.json.Json;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import jakarta.json.bind.JsonbException;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
+
+class JsonbEnvelopeExecutionContextSerializerTests extends AbstractExecutionContextSerializerTests {
+
+  private ExecutionContextSerializer serializer;
+
+  @BeforeEach
+  void onSetUp() {
+    this.serializer = JsonbExecutionContextSerializer.builder()
+                                                     .noEnvelopeEngine()
+                                                     .build();
+  }
+
+  @Override
+  protected ExecutionContextSerializer getSerializer() {
+    return this.serializer;
+  }
+
+  @Test
+  void sameOutputAsEnvelopeEngine() throws IOException {
+    Map<String, Object> context = mixedContext();
+
+    for (boolean compact : new boolean[] {false, true}) {
+      for (Charset charset : new Charset[] {UTF_8, ISO_8859_1}) {
+        JsonbExecutionContextSerializer.Builder engine = JsonbExecutionContextSerializer.builder().encoding(charset);
+        JsonbExecutionContextSerializer.Builder jsonb = JsonbExecutionContextSerializer.builder().encoding(charset).noEnvelopeEngine();
+        if (compact) {
+          engine.compactFormat();
+          jsonb.compactFormat();
+        }
+        ExecutionContextSerializer engineSerializer = engine.build();
+        ExecutionContextSerializer jsonbSerializer = jsonb.build();
+
+        String serialized = this.serializeToString(jsonbSerializer, context, charset);
+        assertEquals(serialized, this.serializeToString(engineSerializer, context, charset));
+        assertEquals(context, engineSerializer.deserialize(new ByteArrayInputStream(serialized.getBytes(charset))));
+        assertEquals(context, jsonbSerializer.deserialize(new ByteArrayInputStream(serialized.getBytes(charset))));
+      }
+    }
+  }
+
+  @Test
+  void manyBoundValues() throws IOException {
+    ExecutionContextSerializer engineSerializer = new JsonbExecutionContextSerializer();
+    Map<String, Object> context = new LinkedHashMap<>();
+    for (int i = 0; i < 3; i++) {
+      ComplexObject object = new ComplexObject();
+      object.setName("object" + i);
+      context.put("object" + i, object);
+      context.put("count" + i, (long) i);
+    }
+    context.put("list", List.of("a", "b", "c"));
+    byte[] serialized = this.serializeToString(engineSerializer, context, UTF_8).getBytes(UTF_8);
+
+    // read again from the start by JSON-B, also from a stream without mark support
+    assertEquals(context, engineSerializer.deserialize(new ByteArrayInputStream(serialized)));
+    assertEquals(context, engineSerializer.deserialize(new SequenceInputStream(new ByteArrayInputStream(serialized), InputStream.nullInputStream())));
+    assertEquals(context, this.serializer.deserialize(new ByteArrayInputStream(serialized)));
+  }
+
+  @Test
+  void boundValueFromSlice() throws Exception {
+    // the offsets are in characters, not bytes
+    String json = "{\"name\":\"\u00e4\u20ac\",\"object\":{\"name\":\"Bob \u20ac\",\"map\":{\"key\":\"value\"}},"
+        + "\"array\":[1,2],\"count\":1}";
+    try (Jsonb jsonb = JsonbBuilder.create();
+         JsonParser parser = withoutTrees(Json.createParser(new StringReader(json)))) {
+      JsonbValueBinder binder = new JsonbValueBinder(jsonb, null);
+      assertEquals(Event.START_OBJECT, parser.next());
+      assertEquals(Event.KEY_NAME, parser.next());
+      assertEquals(Event.VALUE_STRING, parser.next());
+      assertEquals(Event.KEY_NAME, parser.next());
+      assertEquals(Event.START_OBJECT, parser.next());
+
+      ComplexObject object = (ComplexObject) binder.read(ComplexObject.class, parser, json);
+      assertEquals("Bob \u20ac", object.getName());
+      assertEquals(Map.of("key", "value"), object.getMap());
+
+      assertEquals(Event.KEY_NAME, parser.next());
+      assertEquals("array", parser.getString());
+      assertEquals(Event.START_ARRAY, parser.next());
+      assertArrayEquals(new int[] {1, 2}, (int[]) binder.read(int[].class, parser, json));
+
+      assertEquals(Event.KEY_NAME, parser.next());
+      assertEquals("count", parser.getString());
+    }
+  }
+
+  @Test
+  void invalidContext() {
+    ExecutionContextSerializer engineSerializer = new JsonbExecutionContextSerializer();
+    for (String json : new String[] {"[]", "{\"count\":", "{\"@v\":3}", "{\"count\":{\"@class\":\"java.lang.Long\"}}"}) {
+      assertThrows(JsonbException.class, () -> engineSerializer.deserialize(new ByteArrayInputStream(json.getBytes(UTF_8))), json);
+    }
+  }
+
+  /**
+   * Fails if a value is read as a tree.
+   */
+  private static JsonParser withoutTrees(JsonParser parser) {
+    return (JsonParser) Proxy.newProxyInstance(JsonParser.class.getClassLoader(), new Class<?>[] {JsonParser.class}, (proxy, method, args) -> {
+      if (method.getName().equals("getValue")) {
+        throw new AssertionError("value read as a tree");
+      }
+      try {
+        return method.invoke(parser, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    });
+  }
+
+  private static Map<String, Object> mixedContext() {
+    Map<String, Object> context = new LinkedHashMap<>();
+    context.put("count", 12345L);
+    context.put("name", "\"quoted\" \u00e4\u00f6\u00fc \u20ac");
+    context.put("amount", new BigDecimal("1.5"));
+    context.put("date", LocalDate.of(2023, 6, 17));
+    context.put("list", List.of("a", "b", "c"));
+    context.put("parameter", new JobParameter<>("value", String.class));
+    context.put("parameters", new JobParametersBuilder()
+                                .addString("file", "input.csv")
+                                .addLong("run.id", 3L, false)
+                                .addLocalDate("date", LocalDate.of(2023, 6, 17))
+                                .toJobParameters());
+    ComplexObject object = new ComplexObject();
+    object.setName("Bob");
+    object.setNumber(new BigDecimal("12.34"));
+    object.setMap(Map.of("key", "value"));
+    context.put("object", object);
+    return context;
+  }
+
+  private String serializeToString(ExecutionContextSerializer serializer, Map<String, Object> context, Charset charset) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    serializer.serialize(context, outputStream);
+    return outputStream.toString(charset);
+  }
+
+}
@@ -1,6 +1,8 @@
 package com.github.marschall.jsonbexecutioncontextserializer;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -15,6 +17,7 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.net.URI;
 import java.net.URL;
+import java.net.URLClassLoader;
 import java.sql.Timestamp;
 import java.time.Duration;
 import java.time.Instant;
@@ -33,6 +36,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -40,8 +44,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.batch.core.JobParameter;
 import org.springframework.batch.core.repository.ExecutionContextSerializer;
+import org.springframework.batch.item.ExecutionContext;
 
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
 import jakarta.json.bind.JsonbException;
 import jakarta.json.bind.annotation.JsonbTypeDeserializer;
 import jakarta.json.bind.annotation.JsonbTypeSerializer;
@@ -164,6 +172,11 @@ class JsonbExecutionContextSerializerTests extends AbstractExecutionContextSeria
 
   public static class UnmappedDomesticNumber extends UnmappedPhoneNumber{}
 
+  /**
+   * Job parameter type converted by the conversion service.
+   */
+  public record Sku(String value) {}
+
   static Stream<Arguments> nonPublicLists() {
     return Stream.of(
         arguments("Arrays.asList", Arrays.asList("foo", "bar")),
@@ -257,6 +270,228 @@ class JsonbExecutionContextSerializerTests extends AbstractExecutionContextSeria
     this.compareContexts(m1, m2);
   }
 
+  static Stream<Arguments> scalarValues() {
+    return Stream.of(
+        arguments("\u00C4\"\n"),
+        arguments((byte) -1),
+        arguments((short) 2),
+        arguments(3),
+        arguments(Long.MAX_VALUE),
+        arguments(0.1d),
+        arguments(1.0E-10d),
+        arguments(0.1f),
+        arguments(3.4028235E38f),
+        arguments(new BigDecimal("1.50")),
+        arguments(new BigInteger("123456789012345678901234567890")),
+        arguments(Boolean.FALSE),
+        arguments('c')
+    );
+  }
+
+  @ParameterizedTest
+  @MethodSource("scalarValues")
+  void scalarFastPathMatchesJsonb(Object value) throws Exception {
+    String expectedValue;
+    try (Jsonb jsonb = JsonbBuilder.create()) {
+      expectedValue = jsonb.toJson(value);
+    }
+    String expected = "{\"key\":{\"@class\":\"" + value.getClass().getName() + "\",\"value\":" + expectedValue + "}}";
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    this.serializer.serialize(Map.of("key", value), outputStream);
+
+    assertEquals(expected, outputStream.toString(UTF_8));
+    assertEquals(value, this.serializer.deserialize(new ByteArrayInputStream(outputStream.toByteArray())).get("key"));
+  }
+
+  @Test
+  void scalarValueFromString() throws IOException {
+    String json = "{\"short\":{\"@class\":\"java.lang.Short\",\"value\":\"12\"},"
+        + "\"long\":{\"@class\":\"java.lang.Long\",\"value\":\"-1\"},"
+        + "\"bigDecimal\":{\"@class\":\"java.math.BigDecimal\",\"value\":\"1.50\"}}";
+
+    Map<String, Object> context = this.serializer.deserialize(new ByteArrayInputStream(json.getBytes(UTF_8)));
+
+    assertEquals(Map.of("short", (short) 12, "long", -1L, "bigDecimal", new BigDecimal("1.50")), context);
+  }
+
+  @Test
+  void notFiniteDouble() {
+    ExecutionContextSerializer noEnvelopeEngine = JsonbExecutionContextSerializer.builder()
+                                                                                 .noEnvelopeEngine()
+                                                                                 .build();
+    for (Object value : new Object[] {Double.NaN, Double.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY, new double[] {1.0d, Double.NaN}}) {
+      for (ExecutionContextSerializer contextSerializer : List.of(this.serializer, noEnvelopeEngine)) {
+        assertThrows(JsonbException.class, () -> contextSerializer.serialize(Map.of("value", value), new ByteArrayOutputStream()), value::toString);
+      }
+    }
+  }
+
+  @Test
+  void scalarValueOutOfRange() {
+    for (String json : new String[] {
+        "{\"integer\":{\"@class\":\"java.lang.Integer\",\"value\":3000000000}}",
+        "{\"long\":{\"@class\":\"java.lang.Long\",\"value\":9223372036854775808}}",
+        // 2^64 + 1, wraps to 1
+        "{\"byte\":{\"@class\":\"java.lang.Byte\",\"value\":18446744073709551617}}"}) {
+      assertThrows(JsonbException.class, () -> this.serializer.deserialize(new ByteArrayInputStream(json.getBytes(UTF_8))), json);
+    }
+  }
+
+  @Test
+  void jobParameterTypes() throws IOException {
+    Map<String, Object> m1 = new HashMap<>();
+    m1.put("integer", new JobParameter<>(42, Integer.class));
+    m1.put("boolean", new JobParameter<>(true, Boolean.class, false));
+    m1.put("localTime", new JobParameter<>(LocalTime.of(20, 38, 21), LocalTime.class));
+    m1.put("localDateTime", new JobParameter<>(LocalDateTime.of(2021, 8, 30, 20, 38, 21), LocalDateTime.class));
+    m1.put("bigDecimal", new JobParameter<>(new BigDecimal("12345.67"), BigDecimal.class));
+
+    Map<String, Object> m2 = this.serializationRoundTrip(m1);
+
+    this.compareContexts(m1, m2);
+  }
+
+  @Test
+  void legacyDateJobParameter() throws IOException {
+    java.util.Date date = new java.util.Date(123456790000L);
+    String json = "{\"birthDate\":{\"@class\":\"org.springframework.batch.core.JobParameter\",\"value\":"
+        + "{\"type\":\"java.util.Date\",\"value\":\"" + date + "\",\"identifying\":true}}}";
+
+    Map<String, Object> context = this.serializer.deserialize(new ByteArrayInputStream(json.getBytes(UTF_8)));
+
+    assertEquals(new JobParameter<>(date, java.util.Date.class), context.get("birthDate"));
+  }
+
+  @Test
+  void jobParameterOutOfRange() {
+    for (String type : new String[] {"java.lang.Long", "java.lang.Integer", "java.util.Date"}) {
+      // 2^64 + 1, wraps to 1
+      String json = "{\"run.id\":{\"@class\":\"org.springframework.batch.core.JobParameter\",\"value\":"
+          + "{\"type\":\"" + type + "\",\"value\":18446744073709551617,\"identifying\":true}}}";
+
+      assertThrows(JsonbException.class, () -> this.serializer.deserialize(new ByteArrayInputStream(json.getBytes(UTF_8))), type);
+    }
+  }
+
+  @Test
+  void jobParameterInvalidNumber() {
+    for (String[] typeAndValue : new String[][] {
+        {"java.lang.Integer", "1.5"},
+        {"java.lang.Integer", "\"one\""},
+        {"java.lang.Long", "1.5"},
+        {"java.lang.Long", "\"one\""},
+        {"java.lang.Double", "\"one\""}}) {
+      String json = "{\"run.id\":{\"@class\":\"org.springframework.batch.core.JobParameter\",\"value\":"
+          + "{\"type\":\"" + typeAndValue[0] + "\",\"value\":" + typeAndValue[1] + ",\"identifying\":true}}}";
+
+      assertThrows(JsonbException.class, () -> this.serializer.deserialize(new ByteArrayInputStream(json.getBytes(UTF_8))), json);
+    }
+  }
+
+  @Test
+  void jobParameterIntegralValue() throws IOException {
+    String json = "{\"run.id\":{\"@class\":\"org.springframework.batch.core.JobParameter\",\"value\":"
+        + "{\"type\":\"java.lang.Integer\",\"value\":42.0,\"identifying\":true}}}";
+
+    Map<String, Object> context = this.serializer.deserialize(new ByteArrayInputStream(json.getBytes(UTF_8)));
+
+    assertEquals(new JobParameter<>(42, Integer.class), context.get("run.id"));
+  }
+
+  @Test
+  void jobParameterTypeFromContextClassLoader() throws IOException {
+    String json = "{\"sku\":{\"@class\":\"org.springframework.batch.core.JobParameter\",\"value\":"
+        + "{\"type\":\"" + Sku.class.getName() + "\",\"value\":\"A-42\",\"identifying\":true}}}";
+
+    Map<String, Object> context = this.serializer.deserialize(new ByteArrayInputStream(json.getBytes(UTF_8)));
+    assertEquals(new JobParameter<>(new Sku("A-42"), Sku.class), context.get("sku"));
+
+    // a class loader that can only see JDK classes, as after a redeploy
+    Thread currentThread = Thread.currentThread();
+    ClassLoader contextClassLoader = currentThread.getContextClassLoader();
+    try (URLClassLoader isolated = new URLClassLoader(new URL[0], ClassLoader.getPlatformClassLoader())) {
+      currentThread.setContextClassLoader(isolated);
+      assertThrows(JsonbException.class, () -> this.serializer.deserialize(new ByteArrayInputStream(json.getBytes(UTF_8))));
+    } finally {
+      currentThread.setContextClassLoader(contextClassLoader);
+    }
+  }
+
+  @Test
+  void unknownJobParameterType() {
+    String json = "{\"sku\":{\"@class\":\"org.springframework.batch.core.JobParameter\",\"value\":"
+        + "{\"type\":\"com.acme.DoesNotExist\",\"value\":\"A-42\",\"identifying\":true}}}";
+
+    assertThrows(JsonbException.class, () -> this.serializer.deserialize(new ByteArrayInputStream(json.getBytes(UTF_8))));
+  }
+
+  @Test
+  void deserializeIntoTarget() throws IOException {
+    Map<String, Object> m1 = new HashMap<>();
+    m1.put("FlatFileItemReader.read.count", 12345L);
+    m1.put("name", "OBJECT TWO");
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    this.serializer.serialize(m1, outputStream);
+
+    Map<String, Object> target = new TreeMap<>();
+    target.put("existing", Boolean.TRUE);
+    ((JsonbExecutionContextSerializer) this.serializer).deserialize(new ByteArrayInputStream(outputStream.toByteArray()), target);
+
+    assertEquals(3, target.size());
+    assertEquals(12345L, target.get("FlatFileItemReader.read.count"));
+    assertEquals("OBJECT TWO", target.get("name"));
+    assertEquals(Boolean.TRUE, target.get("existing"));
+  }
+
+  @Test
+  void deserializeExecutionContext() throws IOException {
+    Map<String, Object> m1 = new HashMap<>();
+    m1.put("FlatFileItemReader.read.count", 12345L);
+    m1.put("name", "OBJECT TWO");
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    this.serializer.serialize(m1, outputStream);
+
+    ExecutionContext executionContext = ((JsonbExecutionContextSerializer) this.serializer)
+        .deserializeExecutionContext(new ByteArrayInputStream(outputStream.toByteArray()));
+
+    assertEquals(2, executionContext.size());
+    assertEquals(12345L, executionContext.getLong("FlatFileItemReader.read.count"));
+    assertEquals("OBJECT TWO", executionContext.getString("name"));
+  }
+
+  @Test
+  void duplicateKeyLastWins() throws IOException {
+    String json = "{\"key\":{\"@class\":\"java.lang.Long\",\"value\":1},"
+        + "\"key\":{\"@class\":\"java.lang.Long\",\"value\":2}}";
+
+    Map<String, Object> context = this.serializer.deserialize(new ByteArrayInputStream(json.getBytes(UTF_8)));
+
+    assertEquals(Map.of("key", 2L), context);
+
+    JsonbExecutionContextSerializer jsonbSerializer = (JsonbExecutionContextSerializer) this.serializer;
+    assertEquals(2L, jsonbSerializer.deserializeExecutionContext(new ByteArrayInputStream(json.getBytes(UTF_8))).get("key"));
+    Map<String, Object> target = new HashMap<>();
+    jsonbSerializer.deserialize(new ByteArrayInputStream(json.getBytes(UTF_8)), target);
+    assertEquals(Map.of("key", 2L), target);
+    assertEquals(2L, jsonbSerializer.deserializeLazily(new ByteArrayInputStream(json.getBytes(UTF_8))).get("key"));
+  }
+
+  @Test
+  void entrySetMapLastWins() {
+    EntrySetMap<String, Object> entries = new EntrySetMap<>();
+    entries.put("key", 1L);
+    entries.put("other", 3L);
+    entries.put("key", 2L);
+
+    assertEquals(2L, entries.get("key"));
+    assertEquals(new HashMap<>(entries).get("key"), entries.get("key"));
+    assertTrue(entries.containsKey("other"));
+    assertFalse(entries.containsKey("missing"));
+  }
+
   public static class PhoneNumberSerializer implements JsonbSerializer<PhoneNumber>, JsonbDeserializer<PhoneNumber> {
 
     @Override
@@ -0,0 +1,117 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.dao.DefaultExecutionContextSerializer;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class JsonbJdbcExecutionContextDaoTests {
+
+  private JdbcTemplate jdbcTemplate;
+
+  private JsonbExecutionContextSerializer serializer;
+
+  private JsonbJdbcExecutionContextDao dao;
+
+  @BeforeEach
+  void onSetUp() throws Exception {
+    JdbcDataSource dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:dao;DB_CLOSE_DELAY=-1");
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    // the context tables of the Spring Batch schema for H2
+    for (String table : new String[] {"JOB", "STEP"}) {
+      this.jdbcTemplate.execute("CREATE TABLE BATCH_" + table + "_EXECUTION_CONTEXT ("
+          + table + "_EXECUTION_ID BIGINT NOT NULL PRIMARY KEY, "
+          + "SHORT_CONTEXT VARCHAR(2500) NOT NULL, "
+          + "SERIALIZED_CONTEXT LONGVARCHAR)");
+    }
+    this.serializer = JsonbExecutionContextSerializer.builder()
+                                                     .compactFormat()
+                                                     .build();
+    this.dao = new JsonbJdbcExecutionContextDao();
+    this.dao.setJdbcTemplate(this.jdbcTemplate);
+    this.dao.setSerializer(this.serializer);
+    this.dao.afterPropertiesSet();
+  }
+
+  @AfterEach
+  void tearDown() {
+    this.jdbcTemplate.execute("DROP ALL OBJECTS");
+  }
+
+  @Test
+  void jobExecutionContext() {
+    JobExecution jobExecution = new JobExecution(1L);
+    ExecutionContext context = new ExecutionContext();
+    context.putString("status", "running");
+
+    this.dao.saveExecutionContext(jobExecution, this.serialize(context));
+    assertEquals(context, this.dao.getExecutionContext(jobExecution));
+
+    context.putLong("read.count", 10L);
+    this.dao.updateExecutionContext(jobExecution, this.serialize(context));
+    assertEquals(context, this.dao.getExecutionContext(jobExecution));
+  }
+
+  @Test
+  void stepExecutionContexts() {
+    JobExecution jobExecution = new JobExecution(1L);
+    List<StepExecution> stepExecutions = new ArrayList<>();
+    List<byte[]> serializedContexts = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      StepExecution stepExecution = new StepExecution("step" + i, jobExecution, (long) i);
+      stepExecution.getExecutionContext().putInt("partition", i);
+      stepExecutions.add(stepExecution);
+      serializedContexts.add(this.serialize(stepExecution.getExecutionContext()));
+    }
+
+    this.dao.saveExecutionContexts(stepExecutions, serializedContexts);
+    for (StepExecution stepExecution : stepExecutions) {
+      assertEquals(stepExecution.getExecutionContext(), this.dao.getExecutionContext(stepExecution));
+    }
+
+    StepExecution stepExecution = stepExecutions.get(0);
+    stepExecution.getExecutionContext().putString("large", "x".repeat(3000));
+    this.dao.updateExecutionContext(stepExecution, this.serialize(stepExecution.getExecutionContext()));
+    assertEquals(stepExecution.getExecutionContext(), this.dao.getExecutionContext(stepExecution));
+    assertNotNull(this.getSerializedContext(stepExecution.getId()));
+
+    StepExecution added = new StepExecution("added", jobExecution, 3L);
+    this.dao.saveExecutionContext(added, this.serialize(added.getExecutionContext()));
+    assertEquals(new ExecutionContext(), this.dao.getExecutionContext(added));
+    assertNull(this.getSerializedContext(added.getId()));
+  }
+
+  @Test
+  void otherSerializer() {
+    // reading goes through JdbcExecutionContextDao
+    this.dao.setSerializer(new DefaultExecutionContextSerializer());
+    JobExecution jobExecution = new JobExecution(2L);
+    jobExecution.getExecutionContext().putString("status", "running");
+
+    this.dao.saveExecutionContext(jobExecution);
+    assertEquals(jobExecution.getExecutionContext(), this.dao.getExecutionContext(jobExecution));
+  }
+
+  private String getSerializedContext(long stepExecutionId) {
+    return this.jdbcTemplate.queryForObject("SELECT SERIALIZED_CONTEXT FROM BATCH_STEP_EXECUTION_CONTEXT WHERE STEP_EXECUTION_ID = ?",
+        String.class, stepExecutionId);
+  }
+
+  private byte[] serialize(ExecutionContext context) {
+    return ExecutionContexts.serialize(this.serializer, context);
+  }
+
+}
@@ -0,0 +1,151 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.batch.core.JobParameter;
+
+import jakarta.json.bind.JsonbException;
+
+class LazyExecutionContextSerializerTests {
+
+  static Stream<JsonbExecutionContextSerializer> serializers() {
+    return Stream.of(
+        new JsonbExecutionContextSerializer(),
+        JsonbExecutionContextSerializer.builder().compactFormat().build(),
+        JsonbExecutionContextSerializer.builder().binaryFormat().build(),
+        JsonbExecutionContextSerializer.builder().compactFormat().binaryFormat().build(),
+        JsonbExecutionContextSerializer.builder().compression(CompressionCodec.deflate(), 0).build());
+  }
+
+  @ParameterizedTest
+  @MethodSource("serializers")
+  void sameAsEager(JsonbExecutionContextSerializer serializer) throws IOException {
+    Map<String, Object> context = sampleContext();
+    byte[] serialized = serialize(serializer, context);
+
+    Map<String, Object> lazy = serializer.deserializeLazily(new ByteArrayInputStream(serialized));
+
+    assertEquals(context.size(), lazy.size());
+    assertEquals(context.keySet(), lazy.keySet());
+    for (String key : context.keySet()) {
+      assertEquals(context.get(key), lazy.get(key), key);
+    }
+    assertEquals(serializer.deserialize(new ByteArrayInputStream(serialized)), lazy);
+    assertNull(lazy.get("missing"));
+    assertFalse(lazy.containsKey("missing"));
+  }
+
+  @Test
+  void boundOnce() throws IOException {
+    JsonbExecutionContextSerializer serializer = new JsonbExecutionContextSerializer();
+    Map<String, Object> lazy = serializer.deserializeLazily(new ByteArrayInputStream(serialize(serializer, sampleContext())));
+
+    assertSame(lazy.get("list"), lazy.get("list"));
+  }
+
+  @Test
+  void failuresPerKey() throws IOException {
+    String json = "{"
+        + "\"missing\":{\"@class\":\"com.example.Missing\",\"value\":{\"name\":\"x\"}},"
+        + "\"count\":{\"@class\":\"java.lang.Long\",\"value\":1}"
+        + "}";
+    JsonbExecutionContextSerializer serializer = new JsonbExecutionContextSerializer();
+
+    Map<String, Object> lazy = serializer.deserializeLazily(new ByteArrayInputStream(json.getBytes(UTF_8)));
+
+    assertEquals(2, lazy.size());
+    assertTrue(lazy.containsKey("missing"));
+    assertEquals(1L, lazy.get("count"));
+    assertThrows(JsonbException.class, () -> lazy.get("missing"));
+    // still failing on the next access, other keys unaffected
+    assertThrows(JsonbException.class, () -> lazy.get("missing"));
+    assertEquals(1L, lazy.get("count"));
+  }
+
+  @Test
+  void escapedKeysAndWhitespace() throws IOException {
+    String json = " {\n"
+        + "  \"@v\" : 2 ,\n"
+        + "  \"a\\\"b\\u00e4\" : \"}]\\\"\" ,\n"
+        + "  \"nested\" : [ \"BigDecimal\" , 1.5 ]\n"
+        + "}\n";
+    JsonbExecutionContextSerializer serializer = new JsonbExecutionContextSerializer();
+
+    Map<String, Object> lazy = serializer.deserializeLazily(new ByteArrayInputStream(json.getBytes(UTF_8)));
+
+    assertEquals(Set.of("a\"bä", "nested"), lazy.keySet());
+    assertEquals("}]\"", lazy.get("a\"bä"));
+    assertEquals(new BigDecimal("1.5"), lazy.get("nested"));
+  }
+
+  @Test
+  void emptyContext() throws IOException {
+    JsonbExecutionContextSerializer serializer = new JsonbExecutionContextSerializer();
+
+    assertTrue(serializer.deserializeLazily(new ByteArrayInputStream(serialize(serializer, Map.of()))).isEmpty());
+  }
+
+  @Test
+  void unmodifiable() throws IOException {
+    JsonbExecutionContextSerializer serializer = new JsonbExecutionContextSerializer();
+    Map<String, Object> lazy = serializer.deserializeLazily(new ByteArrayInputStream(serialize(serializer, sampleContext())));
+
+    assertThrows(UnsupportedOperationException.class, () -> lazy.put("key", "value"));
+    assertThrows(UnsupportedOperationException.class, () -> lazy.remove("count"));
+    assertThrows(UnsupportedOperationException.class, () -> lazy.entrySet().iterator().next().setValue("value"));
+  }
+
+  @Test
+  void invalidStructure() {
+    JsonbExecutionContextSerializer serializer = new JsonbExecutionContextSerializer();
+
+    assertThrows(JsonbException.class, () -> serializer.deserializeLazily(new ByteArrayInputStream("{\"count\":".getBytes(UTF_8))));
+    assertThrows(JsonbException.class, () -> serializer.deserializeLazily(new ByteArrayInputStream("{\"@v\":3}".getBytes(UTF_8))));
+    assertThrows(JsonbException.class, () -> serializer.deserializeLazily(new ByteArrayInputStream("{\"@v\":4294967298}".getBytes(UTF_8))));
+    assertThrows(JsonbException.class, () -> serializer.deserializeLazily(new ByteArrayInputStream("[]".getBytes(UTF_8))));
+  }
+
+  private static Map<String, Object> sampleContext() {
+    List<String> list = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      list.add("item-" + i);
+    }
+    Map<String, Object> context = new HashMap<>();
+    context.put("count", 12345L);
+    context.put("name", "step \"one\"");
+    context.put("done", Boolean.TRUE);
+    context.put("amount", new BigDecimal("-1.25"));
+    context.put("date", LocalDate.of(2023, 6, 17));
+    context.put("list", list);
+    context.put("parameter", new JobParameter<>("value", String.class));
+    return context;
+  }
+
+  private static byte[] serialize(JsonbExecutionContextSerializer serializer, Map<String, Object> context) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    serializer.serialize(context, outputStream);
+    return outputStream.toByteArray();
+  }
+
+}
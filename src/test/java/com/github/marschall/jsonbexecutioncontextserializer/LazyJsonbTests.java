@@ -0,0 +1,30 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+
+class LazyJsonbTests {
+
+  @Test
+  void createdOnce() throws Exception {
+    AtomicInteger created = new AtomicInteger();
+    LazyJsonb lazy = new LazyJsonb(() -> {
+      created.incrementAndGet();
+      return JsonbBuilder.create();
+    });
+    assertEquals(0, created.get());
+
+    try (Jsonb jsonb = lazy.get()) {
+      assertSame(jsonb, lazy.get());
+      assertEquals(1, created.get());
+    }
+  }
+
+}
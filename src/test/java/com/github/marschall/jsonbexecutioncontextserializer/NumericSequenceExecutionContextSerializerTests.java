@@ -0,0 +1,193 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+
+import com.github.marschall.jsonbexecutioncontextserializer.PrimitiveLists.DoubleList;
+import com.github.marschall.jsonbexecutioncontextserializer.PrimitiveLists.IntList;
+import com.github.marschall.jsonbexecutioncontextserializer.PrimitiveLists.LongList;
+
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import jakarta.json.bind.JsonbException;
+
+class NumericSequenceExecutionContextSerializerTests extends AbstractExecutionContextSerializerTests {
+
+  private ExecutionContextSerializer serializer;
+
+  @BeforeEach
+  void onSetUp() {
+    this.serializer = JsonbExecutionContextSerializer.builder()
+                                                     .numericSequences()
+                                                     .build();
+  }
+
+  @Override
+  protected ExecutionContextSerializer getSerializer() {
+    return this.serializer;
+  }
+
+  @Test
+  void primitiveArraysSameOutputAsJsonb() throws Exception {
+    long[] longs = {1L, -2L, Long.MAX_VALUE, Long.MIN_VALUE};
+    int[] ints = {3, -4, Integer.MAX_VALUE};
+    double[] doubles = {1.5d, -0.25d, 1.0E20d};
+    ExecutionContextSerializer defaultSerializer = new JsonbExecutionContextSerializer();
+
+    try (Jsonb jsonb = JsonbBuilder.create()) {
+      for (Object array : new Object[] {longs, ints, doubles}) {
+        String expected = "{\"array\":{\"@class\":\"" + array.getClass().getName() + "\",\"value\":" + jsonb.toJson(array) + "}}";
+        assertEquals(expected, this.serializeToString(defaultSerializer, Map.of("array", array)));
+      }
+    }
+
+    Map<String, Object> context = new LinkedHashMap<>();
+    context.put("longs", longs);
+    context.put("ints", ints);
+    context.put("doubles", doubles);
+    for (ExecutionContextSerializer each : List.of(defaultSerializer, this.serializer)) {
+      Map<String, Object> deserialized = this.roundTrip(each, context);
+      assertArrayEquals(longs, (long[]) deserialized.get("longs"));
+      assertArrayEquals(ints, (int[]) deserialized.get("ints"));
+      assertArrayEquals(doubles, (double[]) deserialized.get("doubles"));
+    }
+  }
+
+  @Test
+  void homogeneousLists() throws IOException {
+    Map<String, Object> context = new LinkedHashMap<>();
+    context.put("longs", List.of(1L, 2L, 3L));
+    context.put("ints", new ArrayList<>(List.of(4, 5)));
+    context.put("doubles", List.of(1.5d, 2.5d));
+    context.put("ids", LongStream.range(100_000L, 101_000L).boxed().toList());
+
+    for (boolean compact : new boolean[] {false, true}) {
+      JsonbExecutionContextSerializer.Builder builder = JsonbExecutionContextSerializer.builder().numericSequences();
+      if (compact) {
+        builder.compactFormat();
+      }
+      Map<String, Object> deserialized = this.roundTrip(builder.build(), context);
+
+      assertEquals(context, deserialized);
+      assertEquals(LongList.class, deserialized.get("longs").getClass());
+      assertEquals(IntList.class, deserialized.get("ints").getClass());
+      assertEquals(DoubleList.class, deserialized.get("doubles").getClass());
+      assertEquals(LongList.class, deserialized.get("ids").getClass());
+    }
+  }
+
+  @Test
+  void notFiniteDoubles() {
+    for (Object value : new Object[] {new double[] {Double.NaN}, new ArrayList<>(List.of(1.0d, Double.POSITIVE_INFINITY))}) {
+      assertThrows(JsonbException.class, () -> this.serializer.serialize(Map.of("value", value), new ByteArrayOutputStream()), value::toString);
+    }
+  }
+
+  @Test
+  void typeNames() throws IOException {
+    Map<String, Object> context = Map.of("longs", List.of(1L, 2L));
+
+    assertEquals("{\"longs\":{\"@class\":\"java.util.List<java.lang.Long>\",\"value\":[1,2]}}",
+        this.serializeToString(this.serializer, context));
+    ExecutionContextSerializer compactSerializer = JsonbExecutionContextSerializer.builder()
+                                                                                  .numericSequences()
+                                                                                  .compactFormat()
+                                                                                  .build();
+    assertEquals("{\"@v\":2,\"longs\":[\"List<Long>\",[1,2]]}", this.serializeToString(compactSerializer, context));
+  }
+
+  @Test
+  void packed() throws IOException {
+    List<Long> ids = LongStream.range(0L, 1_000L).map(i -> 1_000_000L + (i * 3L)).boxed().toList();
+    long[] extremes = new long[NumericSequenceCodec.PACKED_MIN_LENGTH];
+    for (int i = 0; i < extremes.length; i++) {
+      extremes[i] = (i % 2) == 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+    }
+    Map<String, Object> context = new LinkedHashMap<>();
+    context.put("ids", ids);
+    context.put("extremes", extremes);
+
+    String packed = this.serializeToString(this.serializer, context);
+    String unpacked = this.serializeToString(new JsonbExecutionContextSerializer(), context);
+    assertFalse(packed.contains("1000003"), packed);
+    assertTrue(packed.length() < (unpacked.length() / 3), packed);
+
+    // packed sequences are read independent of the setting
+    for (ExecutionContextSerializer each : List.of(this.serializer, new JsonbExecutionContextSerializer())) {
+      Map<String, Object> deserialized = each.deserialize(new ByteArrayInputStream(packed.getBytes(UTF_8)));
+      assertEquals(ids, deserialized.get("ids"));
+      assertArrayEquals(extremes, (long[]) deserialized.get("extremes"));
+    }
+  }
+
+  @Test
+  void notHomogeneous() throws IOException {
+    ExecutionContextSerializer defaultSerializer = new JsonbExecutionContextSerializer();
+    for (List<?> list : List.of(List.of(1L, 2), List.of(1L, "2"), List.of(), List.of(new BigDecimal("1.5")))) {
+      Map<String, Object> context = Map.of("list", list);
+      assertEquals(this.serializeToString(defaultSerializer, context), this.serializeToString(this.serializer, context));
+    }
+  }
+
+  @Test
+  void primitiveListsModifiable() throws IOException {
+    Map<String, Object> deserialized = this.roundTrip(this.serializer, Map.of("ids", List.of(1L, 2L, 3L)));
+    @SuppressWarnings("unchecked")
+    List<Long> ids = (List<Long>) deserialized.get("ids");
+
+    ids.add(4L);
+    ids.add(0, 0L);
+    assertEquals(2L, ids.set(2, 20L));
+    assertEquals(3L, ids.remove(3));
+    assertEquals(List.of(0L, 1L, 20L, 4L), ids);
+    assertThrows(NullPointerException.class, () -> ids.add(null));
+    assertThrows(IndexOutOfBoundsException.class, () -> ids.get(4));
+
+    // without the setting they are written as any other list
+    assertEquals("{\"ids\":{\"@class\":\"java.util.List\",\"value\":[0,1,20,4]}}",
+        this.serializeToString(new JsonbExecutionContextSerializer(), Map.of("ids", ids)));
+  }
+
+  @Test
+  void invalidSequences() {
+    Set<String> intArrays = Set.of("[2147483648]", "[18446744073709551617]");
+    for (String value : new String[] {"\"%%\"", "\"gA==\"", "[1.5]", "[\"1\"]", "[2147483648]",
+        "[9223372036854775808]", "[18446744073709551617]"}) {
+      String type = intArrays.contains(value) ? "[I" : "[J";
+      String json = "{\"ids\":{\"@class\":\"" + type + "\",\"value\":" + value + "}}";
+      assertThrows(JsonbException.class, () -> this.serializer.deserialize(new ByteArrayInputStream(json.getBytes(UTF_8))), json);
+    }
+  }
+
+  private Map<String, Object> roundTrip(ExecutionContextSerializer serializer, Map<String, Object> context) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    serializer.serialize(context, outputStream);
+    return serializer.deserialize(new ByteArrayInputStream(outputStream.toByteArray()));
+  }
+
+  private String serializeToString(ExecutionContextSerializer serializer, Map<String, Object> context) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    serializer.serialize(context, outputStream);
+    return outputStream.toString(UTF_8);
+  }
+
+}
@@ -0,0 +1,138 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+
+class SizeBudgetExecutionContextSerializerTests extends AbstractExecutionContextSerializerTests {
+
+  private ExecutionContextSerializer serializer;
+
+  @BeforeEach
+  void onSetUp() {
+    // small enough that most contexts of the inherited tests use a fallback
+    this.serializer = JsonbExecutionContextSerializer.builder()
+                                                     .sizeBudget(100)
+                                                     .build();
+  }
+
+  @Override
+  protected ExecutionContextSerializer getSerializer() {
+    return this.serializer;
+  }
+
+  @Test
+  void withinBudget() throws IOException {
+    Map<String, Object> context = Map.of("count", 1L);
+
+    assertEquals(this.serializeToString(new JsonbExecutionContextSerializer(), context), this.serializeToString(this.serializer, context));
+  }
+
+  @Test
+  void compactFallback() throws IOException {
+    Map<String, Object> context = counters(20);
+    JsonbExecutionContextSerializer defaultSerializer = new JsonbExecutionContextSerializer();
+    int defaultSize = defaultSerializer.estimateSerializedSize(context);
+    ExecutionContextSerializer budgetSerializer = JsonbExecutionContextSerializer.builder()
+                                                                                 .sizeBudget(defaultSize - 1)
+                                                                                 .build();
+
+    String serialized = this.serializeToString(budgetSerializer, context);
+
+    assertTrue(serialized.startsWith("{\"@v\":2"), serialized);
+    assertTrue(serialized.length() < defaultSize);
+    assertEquals(context, this.deserializeFromString(defaultSerializer, serialized));
+  }
+
+  @Test
+  void compressionFallback() throws IOException {
+    Map<String, Object> context = largeContext();
+    List<Integer> overflows = new ArrayList<>();
+    ExecutionContextSerializer budgetSerializer = JsonbExecutionContextSerializer.builder()
+                                                                                 .compression(CompressionCodec.deflate(), Integer.MAX_VALUE)
+                                                                                 .sizeBudget(JsonbExecutionContextSerializer.SHORT_CONTEXT_LENGTH, (c, size, budget) -> overflows.add(size))
+                                                                                 .build();
+
+    String serialized = this.serializeToString(budgetSerializer, context);
+
+    assertTrue(serialized.startsWith("#zd:"), serialized);
+    assertTrue(serialized.length() <= JsonbExecutionContextSerializer.SHORT_CONTEXT_LENGTH, serialized);
+    assertEquals(List.of(), overflows);
+    assertEquals(context, this.deserializeFromString(new JsonbExecutionContextSerializer(), serialized));
+  }
+
+  @Test
+  void overflow() throws IOException {
+    Map<String, Object> context = largeContext();
+    List<Object> overflows = new ArrayList<>();
+    ExecutionContextSerializer budgetSerializer = JsonbExecutionContextSerializer.builder()
+                                                                                 .sizeBudget(100, (c, size, budget) -> {
+                                                                                   overflows.add(c);
+                                                                                   overflows.add(size);
+                                                                                   overflows.add(budget);
+                                                                                 })
+                                                                                 .build();
+
+    String serialized = this.serializeToString(budgetSerializer, context);
+
+    assertEquals(3, overflows.size());
+    assertSame(context, overflows.get(0));
+    assertEquals(serialized.length(), overflows.get(1));
+    assertEquals(100, overflows.get(2));
+    assertEquals(context, this.deserializeFromString(budgetSerializer, serialized));
+  }
+
+  @Test
+  void estimateSerializedSize() throws IOException {
+    Map<String, Object> context = new HashMap<>(counters(5));
+    context.put("date", LocalDate.of(2023, 6, 17));
+    JsonbExecutionContextSerializer defaultSerializer = new JsonbExecutionContextSerializer();
+
+    assertEquals(this.serializeToString(defaultSerializer, context).length(), defaultSerializer.estimateSerializedSize(context));
+  }
+
+  private static Map<String, Object> counters(int count) {
+    Map<String, Object> context = new HashMap<>();
+    for (int i = 0; i < count; i++) {
+      context.put("reader" + i + ".read.count", (long) i);
+    }
+    return context;
+  }
+
+  private static Map<String, Object> largeContext() {
+    List<String> processed = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      processed.add("customer-" + i);
+    }
+    Map<String, Object> context = new HashMap<>();
+    context.put("processed", processed);
+    context.put("FlatFileItemReader.read.count", 500L);
+    return context;
+  }
+
+  private String serializeToString(ExecutionContextSerializer serializer, Map<String, Object> context) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    serializer.serialize(context, outputStream);
+    // same conversion as JdbcExecutionContextDao
+    return outputStream.toString(UTF_8);
+  }
+
+  private Map<String, Object> deserializeFromString(ExecutionContextSerializer serializer, String serialized) throws IOException {
+    return serializer.deserialize(new ByteArrayInputStream(serialized.getBytes(UTF_8)));
+  }
+
+}
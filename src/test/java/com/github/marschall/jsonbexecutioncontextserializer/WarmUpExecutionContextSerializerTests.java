@@ -0,0 +1,153 @@
+package com.github.marschall.jsonbexecutioncontextserializer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+
+import jakarta.json.bind.annotation.JsonbVisibility;
+import jakarta.json.bind.config.PropertyVisibilityStrategy;
+
+class WarmUpExecutionContextSerializerTests extends AbstractExecutionContextSerializerTests {
+
+  private ExecutionContextSerializer serializer;
+
+  @BeforeEach
+  void onSetUp() {
+    this.serializer = JsonbExecutionContextSerializer.builder()
+                                                     .warmUp(ComplexObject.class, Map.class, List.class, Long.class)
+                                                     .build();
+  }
+
+  @Override
+  protected ExecutionContextSerializer getSerializer() {
+    return this.serializer;
+  }
+
+  @Test
+  void firstSerializationWithoutReflection() throws IOException {
+    for (boolean compact : new boolean[] {false, true}) {
+      JsonbExecutionContextSerializer.Builder builder = JsonbExecutionContextSerializer.builder();
+      if (compact) {
+        builder.compactFormat();
+      }
+      int introspectionsBefore = CountingVisibilityStrategy.INTROSPECTIONS.get();
+      JsonbExecutionContextSerializer warmSerializer = builder.warmUp(Account.class, Status.class).build();
+      int introspectionsAfterWarmUp = CountingVisibilityStrategy.INTROSPECTIONS.get();
+      // otherwise the assertion below would be meaningless
+      assertTrue(introspectionsAfterWarmUp > introspectionsBefore, "class model not built during warm up");
+
+      Account account = new Account();
+      account.setId(42L);
+      account.setOwner("Bob");
+      Map<String, Object> context = Map.of("account", account, "status", Status.ACTIVE);
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      warmSerializer.serialize(context, out);
+      Map<String, Object> deserialized = warmSerializer.deserialize(new ByteArrayInputStream(out.toByteArray()));
+
+      assertEquals(introspectionsAfterWarmUp, CountingVisibilityStrategy.INTROSPECTIONS.get(), "reflection after warm up");
+      assertEquals(context, deserialized);
+    }
+  }
+
+  @Test
+  void noSample() {
+    JsonbExecutionContextSerializer warmSerializer = new JsonbExecutionContextSerializer();
+    assertThrows(IllegalArgumentException.class, () -> warmSerializer.warmUp(List.of(NoConstructor.class)));
+    assertThrows(IllegalArgumentException.class, () -> warmSerializer.warmUp(List.of(Empty.class)));
+  }
+
+  @JsonbVisibility(CountingVisibilityStrategy.class)
+  public static class Account {
+
+    private Long id;
+
+    private String owner;
+
+    public Long getId() {
+      return this.id;
+    }
+
+    public void setId(Long id) {
+      this.id = id;
+    }
+
+    public String getOwner() {
+      return this.owner;
+    }
+
+    public void setOwner(String owner) {
+      this.owner = owner;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Account)) {
+        return false;
+      }
+      Account other = (Account) obj;
+      return Objects.equals(this.id, other.id) && Objects.equals(this.owner, other.owner);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(this.id);
+    }
+
+  }
+
+  public enum Status {
+    ACTIVE,
+    CLOSED
+  }
+
+  public enum Empty {
+  }
+
+  public static class NoConstructor {
+
+    public NoConstructor(String value) {
+      super();
+    }
+
+  }
+
+  /**
+   * Counts how often JSON-B inspects the properties of a class.
+   */
+  public static final class CountingVisibilityStrategy implements PropertyVisibilityStrategy {
+
+    static final AtomicInteger INTROSPECTIONS = new AtomicInteger();
+
+    @Override
+    public boolean isVisible(Field field) {
+      INTROSPECTIONS.incrementAndGet();
+      return Modifier.isPublic(field.getModifiers());
+    }
+
+    @Override
+    public boolean isVisible(Method method) {
+      INTROSPECTIONS.incrementAndGet();
+      return Modifier.isPublic(method.getModifiers());
+    }
+
+  }
+
+}